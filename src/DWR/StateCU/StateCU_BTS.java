@@ -23,11 +23,21 @@ NoticeEnd */
 
 package DWR.StateCU;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Properties;
 
 import RTi.TS.DayTS;
 import RTi.TS.MonthTS;
@@ -41,6 +51,8 @@ import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
 import RTi.Util.Time.TimeInterval;
 
+import DWR.StateMod.StateMod_BTS_Statistics;
+
 /**
 Provide an interface to a StateCU binary files.  Binary data are organized as
 follows:
@@ -105,6 +117,18 @@ private EndianRandomAccessFile 	__fp; // Pointer to random access file (StateCU
 private static Hashtable<String,StateCU_BTS> __fileHashtable = new Hashtable<String,StateCU_BTS>();
 						// A hashtable for the file pointers (instances of
 						// StateCU_BTS).  This is used to increase performance.
+
+/**
+Indicates whether the structure order index file (see readIndexFile()) should be used and written.
+The default is false so that reading a binary file does not write files next to model output.
+*/
+private static boolean __useIndexFile = false;
+
+/**
+Extension added to the binary file name for the structure order index file.
+*/
+private static final String INDEX_FILE_EXTENSION = ".idx";
+
 private int	__headerLengthBytes = 0;		// Length of the header in
 						// bytes, including lists of
 						// stations (everything before
@@ -369,6 +393,14 @@ public DateTime getDate2 ()
 {	return __date2;
 }
 
+/**
+Return the name of the structure order index file for the binary file.
+@return the full path to the index file.
+*/
+private String getIndexFilename ()
+{	return __full_tsfile + INDEX_FILE_EXTENSION;
+}
+
 /**
 Return the time series parameter list for the file, which is determined from the file
 header.  Only the public parameters are provided (not extra ones that may be used internally).
@@ -446,11 +478,20 @@ throws IOException
 
 	// Set the dates, determined by reading the first data record.
 
-	DateTime [] dates = readDates ();
-	__date1 = dates[0];
-	__date2 = dates[1];
-	
-	__tsStructureOrder = readStructureOrderForTimeSeriesData ( __numStructures );
+	// The period and structure order are read from the index file if it is current,
+	// because determining the structure order requires reading the start of every structure's data.
+
+	if ( !__useIndexFile || !readIndexFile() ) {
+		DateTime [] dates = readDates ();
+		__date1 = dates[0];
+		__date2 = dates[1];
+
+		__tsStructureOrder = readStructureOrderForTimeSeriesData ( __numStructures );
+
+		if ( __useIndexFile ) {
+			writeIndexFile ();
+		}
+	}
 	
 	// Print out some useful debug information
 	
@@ -792,6 +833,78 @@ throws IOException
 	//__headerDateString = null;
 }
 
+/**
+Read the structure order index file, which is written by writeIndexFile() to avoid determining the structure order
+(and data period) each time a binary file is opened.  The index is only used if the binary file size and
+modification time, and header metadata, match the values saved in the index, and the header must have been read.
+@return true if the index was current and the period and structure order were set from the index,
+false if the index is missing, out of date, or cannot be read.
+*/
+private boolean readIndexFile ()
+{	String routine = "StateCU_BTS.readIndexFile";
+	File indexFile = new File ( getIndexFilename() );
+	if ( !indexFile.exists() ) {
+		return false;
+	}
+	File file = new File ( __full_tsfile );
+	Properties props = new Properties();
+	InputStream in = null;
+	try {
+		in = new FileInputStream ( indexFile );
+		props.load ( in );
+		if ( (Long.parseLong(props.getProperty("FileSize")) != file.length()) ||
+			(Long.parseLong(props.getProperty("FileModified")) != file.lastModified()) ||
+			(Integer.parseInt(props.getProperty("HeaderLengthBytes")) != __headerLengthBytes) ||
+			(Integer.parseInt(props.getProperty("NumStructures")) != __numStructures) ||
+			(Integer.parseInt(props.getProperty("NumTimeSeriesVar")) != __numTimeSeriesVar) ||
+			(Integer.parseInt(props.getProperty("NumTimeSteps")) != __numTimeSteps) ) {
+			Message.printStatus ( 2, routine, "Index file \"" + indexFile + "\" is out of date - not using." );
+			return false;
+		}
+		if ( __numTimeSteps%12 != 0 ) {
+			// Same check as readDates(), which is called when the index is not used and throws an exception.
+			Message.printWarning ( 3, routine, "Number of time steps (" + __numTimeSteps +
+				") is not divisible by 12 - not using index file \"" + indexFile + "\"." );
+			return false;
+		}
+		String [] orderParts = props.getProperty("StructureOrder").split(",");
+		if ( orderParts.length != __numStructures ) {
+			return false;
+		}
+		int [] tsStructureOrder = new int[__numStructures];
+		for ( int iStructure = 0; iStructure < __numStructures; iStructure++ ) {
+			tsStructureOrder[iStructure] = Integer.parseInt(orderParts[iStructure].trim());
+			if ( (tsStructureOrder[iStructure] < 0) || (tsStructureOrder[iStructure] >= __numStructures) ) {
+				return false;
+			}
+		}
+		DateTime date1 = new DateTime(DateTime.PRECISION_MONTH);
+		date1.setMonth ( 1 );
+		date1.setYear ( Integer.parseInt(props.getProperty("StartYear")) );
+		DateTime date2 = new DateTime(date1);
+		date2.addMonth ( __numTimeSteps - 1 );
+		__date1 = date1;
+		__date2 = date2;
+		__tsStructureOrder = tsStructureOrder;
+		return true;
+	}
+	catch ( Exception e ) {
+		// Missing property, bad number, or read error - determine the order from the binary file.
+		Message.printWarning ( 3, routine, "Unable to use index file \"" + indexFile + "\" (" + e + ")." );
+		return false;
+	}
+	finally {
+		if ( in != null ) {
+			try {
+				in.close();
+			}
+			catch ( IOException e ) {
+				// Ignore.
+			}
+		}
+	}
+}
+
 /**
 Read a time series from a StateCU binary file.  The TSID string is specified
 in addition to the path to the file.  It is expected that a TSID in the file
@@ -1000,6 +1113,19 @@ for the file or if a write error occurs.
 public List<TS> readTimeSeriesList ( String tsidentPattern, DateTime reqDate1,
 					DateTime reqDate2, String reqUnits, boolean readData, String outputVersion )
 throws Exception
+{	return readTimeSeriesList ( tsidentPattern, reqDate1, reqDate2, reqUnits, readData, outputVersion, null );
+}
+
+/**
+Read a list of time series from the binary file.  See the public version of this method for a description of
+most parameters.
+@param locations if not null, the location of each matched time series is added to the list as
+{iStructure, iTimeSeriesVar}, where iStructure is the position in the header structure list,
+and data are NOT read here, even if readData is true (data space is allocated if readData is true).
+*/
+private List<TS> readTimeSeriesList ( String tsidentPattern, DateTime reqDate1,
+					DateTime reqDate2, String reqUnits, boolean readData, String outputVersion, List<int[]> locations )
+throws Exception
 {	String routine = "StateCUd_BTS.readTimeSeriesList";
 	if ( (outputVersion == null) || outputVersion.isEmpty() ) {
 		outputVersion = "Original"; // Default.
@@ -1050,9 +1176,15 @@ throws Exception
 	TS ts = null;
 	float param = -999;
 	long filepos;
+	long filepos0;
 	DateTime date;
 	// Absolute months to improve performance, since only monthly data is supported
 	int date1AbsoluteMonth = __date1.getAbsoluteMonth(), date2AbsoluteMonth = __date2.getAbsoluteMonth();
+	int dateAbsoluteMonth;
+	// Interval information for the requested period, determined when the first time series is read.
+	int nintervals = 0;
+	DateTime [] intervalDates = null;
+	int [] intervalMonthOffsets = null;
 	int dl = 1;
 	if ( Message.isDebugOn ) {
 		Message.printDebug ( dl, routine, "Reading time series for \"" +
@@ -1168,6 +1300,13 @@ throws Exception
 				}
 				ts.addToGenesis ( "Read from \"" + __tsfile + " for " + reqDate1 +	" to " + reqDate2 );
 				tslist.add ( ts );
+				if ( locations != null ) {
+					locations.add ( new int[] { iStructure, iparam } );
+					if ( readData && (ts.allocateDataSpace () != 0) ) {
+						throw new Exception ( "Unable to allocate data space." );
+					}
+					continue;
+				}
 				if ( readData ) {
 					if ( Message.isDebugOn ) {
 						Message.printDebug ( 2, routine, "Reading " + reqDate1 + " to " + reqDate2 );
@@ -1186,20 +1325,33 @@ throws Exception
 					else if ( __tsVarTypes[iparam].equals(TYPE_INT) ) {
                         paramTypeInt = true;
                     }
-					for ( date = new DateTime( reqDate1); date.lessThanOrEqualTo( reqDate2); date.addInterval(
-						__intervalBase, 1) ){
-						if((date.getMonth()==2) &&(date.getDay()==29) ){
-							// StateCU does not handle.
-						    // FIXME Check on StateCU
-							continue;
+					if ( intervalDates == null ) {
+						// Determine the intervals once for all time series so that the loop does not step dates.
+						nintervals = Math.max ( 0, reqDate2.getAbsoluteMonth() - reqDate1.getAbsoluteMonth() + 1 );
+						intervalDates = new DateTime[nintervals];
+						intervalMonthOffsets = new int[nintervals];
+						date = new DateTime ( reqDate1 );
+						for ( int interval = 0; interval < nintervals; interval++, date.addInterval(__intervalBase, 1) ) {
+							intervalDates[interval] = new DateTime ( date );
+							dateAbsoluteMonth = date.getAbsoluteMonth();
+							if ( (dateAbsoluteMonth < date1AbsoluteMonth) || (dateAbsoluteMonth > date2AbsoluteMonth) ) {
+								// Not in the file.
+								intervalMonthOffsets[interval] = -1;
+							}
+							else {
+								intervalMonthOffsets[interval] = dateAbsoluteMonth - date1AbsoluteMonth;
+							}
 						}
-						filepos = calculateFilePosition( date.getAbsoluteMonth(),
-						        date1AbsoluteMonth, date2AbsoluteMonth,
-						        __tsStructureOrder[iStructure], iparam );
-						if ( filepos < 0 ) {
+					}
+					// Position of the value for the first month in the file.
+					filepos0 = calculateFilePosition( date1AbsoluteMonth, date1AbsoluteMonth, date2AbsoluteMonth,
+						__tsStructureOrder[iStructure], iparam );
+					for ( int interval = 0; interval < nintervals; interval++ ) {
+						if ( intervalMonthOffsets[interval] < 0 ) {
 						    // Leave missing in the result.
 							continue;
 						}
+						filepos = filepos0 + (long)intervalMonthOffsets[interval]*__oneStructureOneTimestepAllVarsBytes;
 						// Move the file pointer to the read position
 						__fp.seek ( filepos );
 						try {
@@ -1213,21 +1365,21 @@ throws Exception
                             }
 						    if ( Message.isDebugOn){
 						        Message.printDebug ( dl, routine,
-                                    "Read value " + param + " for " + date + " iStructure=" + iStructure+
+                                    "Read value " + param + " for " + intervalDates[interval] + " iStructure=" + iStructure+
                                     " iparam="+ iparam + " filepos=" + filepos );
                             }
 						}
 						catch ( Exception e ) {
 							// Assume end of file so break out of read.
 							Message.printWarning ( 3, routine,
-							"Unexpected error reading for date " + date + " structure[" + iStructure +
+							"Unexpected error reading for date " + intervalDates[interval] + " structure[" + iStructure +
 							"] param[" + iparam + "] filepos(byte)=" + filepos +
 							" - stop reading data.  Expected file size =" + __estimatedFileLength );
 							break;
 						}
 						// Convert units if requested...
 						// FIXME SAM Need to enable units conversion
-						ts.setDataValue(date,param);
+						ts.setDataValue(intervalDates[interval],param);
 					}
     			}
 	            if ( !datatype_has_wildcard && match_found) {
@@ -1247,6 +1399,120 @@ throws Exception
 	return tslist;
 }
 
+/**
+Compute statistics for a list of time series in the binary file, without allocating time series data space.
+The data for each structure are stored together in the file, so the requested period for each matched structure
+is read with one read, in file order, and all matched parameters for the structure are processed from the
+bytes that were read.
+See readTimeSeriesList() for a description of the parameters.
+@return the statistics, with one row for each matched time series, in the same order as returned by
+readTimeSeriesList().
+@exception IOException if the data for a matched time series cannot be read (e.g., the file is truncated).
+@exception Exception if an error occurs reading the file.
+*/
+public StateMod_BTS_Statistics readTimeSeriesStatistics ( String tsidentPattern, DateTime reqDate1,
+	DateTime reqDate2, String outputVersion )
+throws Exception
+{	String routine = "StateCU_BTS.readTimeSeriesStatistics";
+	final List<int[]> locations = new ArrayList<>();
+	List<TS> tslist = readTimeSeriesList ( tsidentPattern, reqDate1, reqDate2, null, false, outputVersion,
+		locations );
+	int size = tslist.size();
+	String [] tsids = new String[size];
+	String [] locationIds = new String[size];
+	String [] dataTypes = new String[size];
+	String [] units = new String[size];
+	for ( int i = 0; i < size; i++ ) {
+		TS ts = tslist.get(i);
+		tsids[i] = ts.getIdentifierString();
+		locationIds[i] = ts.getLocation();
+		dataTypes[i] = ts.getDataType();
+		units[i] = ts.getDataUnits();
+	}
+	// Limit the period to the file period.
+	int date1AbsoluteMonth = __date1.getAbsoluteMonth();
+	int date2AbsoluteMonth = __date2.getAbsoluteMonth();
+	int month1 = date1AbsoluteMonth;
+	int month2 = date2AbsoluteMonth;
+	if ( (reqDate1 != null) && (reqDate1.getAbsoluteMonth() > month1) ) {
+		month1 = reqDate1.getAbsoluteMonth();
+	}
+	if ( (reqDate2 != null) && (reqDate2.getAbsoluteMonth() < month2) ) {
+		month2 = reqDate2.getAbsoluteMonth();
+	}
+	// Absolute month is year*12 + month.
+	StateMod_BTS_Statistics statistics = new StateMod_BTS_Statistics ( tsids, locationIds, dataTypes, units,
+		(month1 - 1)/12, (month2 - 1)/12 );
+	if ( (size == 0) || (month2 < month1) ) {
+		return statistics;
+	}
+	// Process the time series in the order of the structure data in the file.
+	Integer [] order = new Integer[size];
+	for ( int i = 0; i < size; i++ ) {
+		order[i] = Integer.valueOf(i);
+	}
+	final int [] tsStructureOrder = __tsStructureOrder;
+	Arrays.sort ( order, new Comparator<Integer>() {
+		public int compare ( Integer i1, Integer i2 ) {
+			int [] location1 = locations.get(i1.intValue());
+			int [] location2 = locations.get(i2.intValue());
+			int c = Integer.compare ( tsStructureOrder[location1[0]], tsStructureOrder[location2[0]] );
+			if ( c == 0 ) {
+				c = Integer.compare ( location1[1], location2[1] );
+			}
+			return c;
+		}
+	});
+	int nmonths = month2 - month1 + 1;
+	byte [] bytes = new byte[nmonths*__oneStructureOneTimestepAllVarsBytes];
+	ByteBuffer buffer = ByteBuffer.wrap ( bytes );
+	buffer.order ( ByteOrder.LITTLE_ENDIAN );
+	int [] location;
+	int iStructureInFile;
+	int iStructureInFilePrev = -1;
+	int iparam;
+	int row;
+	int offset;
+	float param;
+	long filepos = 0;
+	for ( int i = 0; i < size; i++ ) {
+		row = order[i].intValue();
+		location = locations.get(row);
+		iStructureInFile = __tsStructureOrder[location[0]];
+		iparam = location[1];
+		if ( iStructureInFile != iStructureInFilePrev ) {
+			// Read the requested period for the structure.
+			filepos = __headerLengthBytes + (long)iStructureInFile*__oneStructureAllTimestepsAllVarsBytes +
+				(long)(month1 - date1AbsoluteMonth)*__oneStructureOneTimestepAllVarsBytes;
+			try {
+				__fp.seek ( filepos );
+				__fp.readFully ( bytes );
+			}
+			catch ( Exception e ) {
+				// Do not return partial statistics, which would look like complete statistics to the caller.
+				Message.printWarning ( 3, routine,
+				"Unexpected error reading structure[" + location[0] + "] filepos(byte)=" + filepos +
+				" - stop reading data.  Expected file size =" + __estimatedFileLength );
+				throw new IOException ( "Error reading data for structure[" + location[0] + "] at filepos(byte)=" +
+					filepos + " from \"" + __full_tsfile + "\" - file is truncated or corrupt.", e );
+			}
+			iStructureInFilePrev = iStructureInFile;
+		}
+		boolean paramTypeInt = __tsVarTypes[iparam].equals(TYPE_INT);
+		offset = __tsVarStartBytes[iparam];
+		for ( int month = month1; month <= month2; month++, offset += __oneStructureOneTimestepAllVarsBytes ) {
+			if ( paramTypeInt ) {
+				param = (float)buffer.getInt(offset);
+			}
+			else {
+				param = buffer.getFloat(offset);
+			}
+			statistics.addValue ( row, (month - 1)/12, param );
+		}
+	}
+	return statistics;
+}
+
 /**
 Read the the time series to structure mapping array.
 This requires reading the first time series record from each structure to determine
@@ -1310,6 +1576,16 @@ throws IOException
     return tsStructureOrder;
 }
 
+/**
+Set whether the structure order index file is used and written when binary files are opened.
+The index file is off by default because it is written next to the binary file, which may be in a
+read-only or archived folder.  Turn it on to speed up opening large files that are opened repeatedly.
+@param useIndexFile if true, the index file is used if current and written if not (default is false).
+*/
+public static void setUseIndexFile ( boolean useIndexFile )
+{	__useIndexFile = useIndexFile;
+}
+
 /**
 Return the number of time series in the file, including only public time series.
 @return the number of public time series in the file.
@@ -1333,4 +1609,49 @@ private boolean shouldTimeSeriesBeIncluded ( int iTimeSeriesVar )
     }
 }
 
+/**
+Write the structure order index file, which saves the data period and the structure order
+keyed by the binary file size and modification time.  See readIndexFile().
+Errors are logged and otherwise ignored (for example, if the folder is not writable).
+*/
+private void writeIndexFile ()
+{	String routine = "StateCU_BTS.writeIndexFile";
+	File file = new File ( __full_tsfile );
+	String indexFilename = getIndexFilename();
+	Properties props = new Properties();
+	props.setProperty ( "FileSize", "" + file.length() );
+	props.setProperty ( "FileModified", "" + file.lastModified() );
+	props.setProperty ( "HeaderLengthBytes", "" + __headerLengthBytes );
+	props.setProperty ( "NumStructures", "" + __numStructures );
+	props.setProperty ( "NumTimeSeriesVar", "" + __numTimeSeriesVar );
+	props.setProperty ( "NumTimeSteps", "" + __numTimeSteps );
+	props.setProperty ( "StartYear", "" + __date1.getYear() );
+	StringBuilder b = new StringBuilder();
+	for ( int iStructure = 0; iStructure < __numStructures; iStructure++ ) {
+		if ( iStructure > 0 ) {
+			b.append ( "," );
+		}
+		b.append ( __tsStructureOrder[iStructure] );
+	}
+	props.setProperty ( "StructureOrder", b.toString() );
+	OutputStream out = null;
+	try {
+		out = new FileOutputStream ( indexFilename );
+		props.store ( out, "StateCU binary file structure order index for \"" + __full_tsfile + "\"" );
+	}
+	catch ( Exception e ) {
+		Message.printWarning ( 3, routine, "Unable to write index file \"" + indexFilename + "\" (" + e + ")." );
+	}
+	finally {
+		if ( out != null ) {
+			try {
+				out.close();
+			}
+			catch ( IOException e ) {
+				// Ignore.
+			}
+		}
+	}
+}
+
 } // End StateCU_BTS
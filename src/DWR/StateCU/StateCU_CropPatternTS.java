@@ -24,13 +24,13 @@ NoticeEnd */
 package DWR.StateCU;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.List;
 
+import DWR.StateMod.StateMod_Util;
 import RTi.TS.DateValueTS;
 import RTi.TS.TS;
 import RTi.TS.TSDataFlagMetadata;
@@ -536,7 +536,7 @@ private static boolean isPeriodInHeader( String filename ) throws IOException {
 	BufferedReader input = null;
 
 	// Read the StateCU file.  Only read the first non-comment line.
-	input = new BufferedReader ( new FileReader (fname));
+	input = StateMod_Util.getInputReader ( fname );
 	while ( (line = input.readLine()) != null ) {
 		// Check for comments.
 		if (line.startsWith("#") || line.trim().length()==0 ){
@@ -576,7 +576,7 @@ private static boolean isVersion_10( String filename ) throws IOException {
 
 	// Read the StateCU file.  Only read the first line.
 	// This is enough to know if it is version 10.
-	input = new BufferedReader ( new FileReader (fname));
+	input = StateMod_Util.getInputReader ( fname );
 	while ( (line = input.readLine()) != null ) {
 		// Check for comments.
 		if (line.startsWith("#") || line.trim().length()==0 ){
@@ -837,6 +837,11 @@ throws Exception {
 		// Therefore, grab a reasonable amount of the start and end of the file and then read lines
 		// (broken by line breaks) until the last data line is encountered.
 
+		if ( StateMod_Util.isCompressedFile(full_filename) ) {
+			// The period is determined from the end of the file, which requires random access.
+			throw new IOException ( "Compressed files without the period in the header are not supported (\"" +
+				full_filename + "\")." );
+		}
 		RandomAccessFile ra = new RandomAccessFile(full_filename, "r" );
 
 		// Get the start of the file.
@@ -922,7 +927,7 @@ throws Exception {
 	}
 
 	// The following throws an IOException if the file cannot be opened.
-	in = new BufferedReader ( new FileReader (full_filename));
+	in = StateMod_Util.getInputReader ( full_filename );
 	int ncrops = 0;
 	String [] crop_names = new String[50];	// Should never exceed.
 	double [] crop_fractions = new double[50];	// Should never exceed.
@@ -2019,9 +2024,12 @@ throws IOException {
 	List<String> ignoreCommentStr = new ArrayList<>(1);
 	ignoreCommentStr.add ( "#>" );
 	PrintWriter out = null;
-	String full_filename_prev = IOUtil.getPathUsingWorkingDir ( filename_prev );
+	String full_filename_prev = StateMod_Util.getPreviousFilenameForHeaders (
+		IOUtil.getPathUsingWorkingDir ( filename_prev ) );
 	String full_filename = IOUtil.getPathUsingWorkingDir ( filename );
-	out = IOUtil.processFileHeaders ( full_filename_prev, full_filename,
+	// If the output file is compressed, write a temporary file and then compress it.
+	String full_filename_write = StateMod_Util.getTemporaryOutputFilename ( full_filename );
+	out = IOUtil.processFileHeaders ( full_filename_prev, full_filename_write,
 		new_comments, commentStr, ignoreCommentStr, 0 );
 	if ( out == null ) {
 		throw new IOException ( "Error writing to \"" + full_filename + "\"" );
@@ -2030,6 +2038,9 @@ throws IOException {
 	out.flush();
 	out.close();
 	out = null;
+	if ( !full_filename_write.equals(full_filename) ) {
+		StateMod_Util.compressFile ( full_filename_write, full_filename );
+	}
 }
 
 /**
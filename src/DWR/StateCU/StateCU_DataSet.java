@@ -82,6 +82,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
 
+import DWR.StateMod.StateMod_ComponentMetrics;
+import DWR.StateMod.StateMod_DataSetMetrics;
 import DWR.StateMod.StateMod_DelayTable;
 import DWR.StateMod.StateMod_DiversionRight;
 import DWR.StateMod.StateMod_TS;
@@ -91,6 +93,7 @@ import RTi.Util.IO.DataSetComponent;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.Message.Message;
 import RTi.Util.String.StringUtil;
+import RTi.Util.Time.StopWatch;
 
 /**
 This StateCU_DataSet class manages data components in a StateCU data set,
@@ -474,6 +477,11 @@ private int __ddcsw = StateCU_Util.MISSING_INT;
 private int __idaily = StateCU_Util.MISSING_INT;
 private double __admin_num = StateCU_Util.MISSING_DOUBLE;
 
+/**
+Read metrics for the components in the data set.
+*/
+private StateMod_DataSetMetrics __metrics = new StateMod_DataSetMetrics ( "StateCU_DataSet" );
+
 /**
 Construct a blank data set.  It is expected that other information will be set
 during further processing.  Component groups are not initialized until a data set type is set.
@@ -653,6 +661,15 @@ public double getAdminNumForCUByPriority ()
 {	return __admin_num;
 }
 
+/**
+Return the read metrics for a component, creating the metrics if necessary.
+@param comp_type component type.
+@return the metrics for the component.
+*/
+public StateMod_ComponentMetrics getComponentMetrics ( int comp_type )
+{	return __metrics.getComponentMetrics ( comp_type, lookupComponentName(comp_type) );
+}
+
 /**
 Return a comment for the data set.
 @return a comment for the data set.
@@ -673,6 +690,15 @@ public String getDataSetName ()
 {	return lookupDataSetName ( getDataSetType() );
 }
 
+/**
+Return the read metrics for the components in the data set, which can be used to retrieve the
+metrics for all components or to register the metrics as JMX MBeans.
+@return the data set metrics.
+*/
+public StateMod_DataSetMetrics getMetrics ()
+{	return __metrics;
+}
+
 /**
 Return whether to create StateMod output.
 @return whether to create StateMod output.
@@ -1498,6 +1524,11 @@ throws Exception
 			if ( !f.isAbsolute() ) {
 				compfile =	dataset.getDataSetDirectory() + File.separator + compfile;
 			}
+			StateMod_ComponentMetrics metrics = dataset.getComponentMetrics ( comptype );
+			metrics.startRead();
+			StopWatch readTime = new StopWatch();
+			readTime.start();
+			int read_warning_length = read_warning.length();
 			// List these in the order that they are normally
 			// processed/listed in StateDMI and other software...
 			//
@@ -1669,6 +1700,11 @@ throws Exception
 				}
 				dataset.getComponentForComponentType ( gtype ).addComponent( comp );
 			}
+			readTime.stop();
+			if ( read_warning.length() > read_warning_length ) {
+				metrics.addReadError();
+			}
+			metrics.recordRead ( compfile, comp.getData(), readTime.getSeconds() );
 		}
 		catch ( Exception e ) {
 			Message.printWarning ( 1, routine, "Unexpected error for:\n\"" + iline + "\"" );
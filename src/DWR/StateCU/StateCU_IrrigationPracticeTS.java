@@ -24,13 +24,13 @@ NoticeEnd */
 package DWR.StateCU;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.List;
 
+import DWR.StateMod.StateMod_Util;
 import RTi.TS.DateValueTS;
 import RTi.TS.TS;
 import RTi.TS.TSIdent;
@@ -1498,7 +1498,7 @@ private static boolean isPeriodInHeader( String filename ) throws IOException
 	BufferedReader input = null;
 	
 	// Read the StateCU file.  Only read the first non-comment line 
-	input = new BufferedReader ( new FileReader (fname));
+	input = StateMod_Util.getInputReader ( fname );
 	while ( (line = input.readLine()) != null ) {
 		// check for comments
 		if (line.startsWith("#") || line.trim().length()==0 ){
@@ -1541,7 +1541,7 @@ private static boolean isVersion_10( String filename ) throws IOException
 	
 	// Read the StateCU file.  Only read the first line 
 	// This is enough to know if it is version 10
-	input = new BufferedReader ( new FileReader (fname));
+	input = StateMod_Util.getInputReader ( fname );
 	boolean period_in_header = isPeriodInHeader(fname);
 	while ( (line = input.readLine()) != null ) {
 		// check for comments
@@ -1726,6 +1726,11 @@ throws Exception
 		// grab a reasonable amount of the start and end of the file - then
 		// read lines (broken by line breaks) until the last data line is encountered...
 	
+		if ( StateMod_Util.isCompressedFile(full_filename) ) {
+			// The period is determined from the end of the file, which requires random access.
+			throw new IOException ( "Compressed files without the period in the header are not supported (\"" +
+				full_filename + "\")." );
+		}
 		RandomAccessFile ra = new RandomAccessFile(full_filename, "r" );
 
 		// Get the start of the file...
@@ -1807,7 +1812,7 @@ throws Exception
 	}
 
 	// The following throws an IOException if the file cannot be opened...
-	in = new BufferedReader ( new FileReader (full_filename));
+	in = StateMod_Util.getInputReader ( full_filename );
 	String culoc = "";
 	int pos = 0;
 	int linecount = 0;
@@ -3143,9 +3148,12 @@ throws IOException
 	List<String> ignoreCommentStr = new ArrayList<>(1);
 	ignoreCommentStr.add ( "#>" );
 	PrintWriter out = null;
-	String full_filename_prev = IOUtil.getPathUsingWorkingDir ( filename_prev );
+	String full_filename_prev = StateMod_Util.getPreviousFilenameForHeaders (
+		IOUtil.getPathUsingWorkingDir ( filename_prev ) );
 	String full_filename = IOUtil.getPathUsingWorkingDir ( filename );
-	out = IOUtil.processFileHeaders ( full_filename_prev, full_filename, 
+	// If the output file is compressed, write a temporary file and then compress it.
+	String full_filename_write = StateMod_Util.getTemporaryOutputFilename ( full_filename );
+	out = IOUtil.processFileHeaders ( full_filename_prev, full_filename_write, 
 			new_comments, commentStr, ignoreCommentStr, 0 );
 	if ( out == null ) {
 		throw new IOException ( "Error writing to \"" +
@@ -3154,6 +3162,9 @@ throws IOException
 	writeList ( data_List, out, start, end, props );
 	out.flush();
 	out.close();
+	if ( !full_filename_write.equals(full_filename) ) {
+		StateMod_Util.compressFile ( full_filename_write, full_filename );
+	}
 }
 
 /**
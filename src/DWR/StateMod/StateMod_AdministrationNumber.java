@@ -80,7 +80,7 @@ public final class StateMod_AdministrationNumber {
 
 public static final int FORMAT_VERBOSE = 1;	// Ways to format for toString()
 
-private static DateTime _admin_number_date_datum = null;
+private static volatile DateTime _admin_number_date_datum = null;
 private static int _admin_number_date_datum_days = 0;
 
 // Instance data...
@@ -287,17 +287,21 @@ private void initialize ()
 
 /**
 Initialize the datum for the adiminstration number (December 31, 1849).
-This datum is used for subsequent conversions.
+This datum is used for subsequent conversions.  The datum is assigned after the number of days so that
+threads reading rights at the same time never use an uninitialized number of days.
 */
-private void initializeDatum ()
-{
-	_admin_number_date_datum = new DateTime ( DateTime.DATE_ZERO |
+private static synchronized void initializeDatum ()
+{	if ( _admin_number_date_datum != null ) {
+		return;
+	}
+	DateTime datum = new DateTime ( DateTime.DATE_ZERO |
 		DateTime.PRECISION_DAY );
-	_admin_number_date_datum.setMonth ( 12 );
-	_admin_number_date_datum.setDay ( 31 );
-	_admin_number_date_datum.setYear ( 1849 );
+	datum.setMonth ( 12 );
+	datum.setDay ( 31 );
+	datum.setYear ( 1849 );
 	_admin_number_date_datum_days =
-	_admin_number_date_datum.getAbsoluteDay ();
+	datum.getAbsoluteDay ();
+	_admin_number_date_datum = datum;
 }
 
 /**
@@ -137,11 +137,26 @@ NoticeEnd */
 
 package DWR.StateMod;
 
+import java.io.EOFException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Enumeration;
-import java.util.Hashtable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
 
 import RTi.TS.DayTS;
 import RTi.TS.MonthTS;
@@ -221,7 +236,7 @@ Name of the binary file being operated on (may or may not be an absolute path).
 private String __tsfile;
 
 /**
-Full path to binary file being operated on.  This is used as the key in the __file_Hashtable.
+Full path to binary file being operated on.  This is used as the key in the __filePool.
 */
 private String __tsfileFull;
 
@@ -229,13 +244,64 @@ private String __tsfileFull;
 Pointer to random access file (StateMod binary files are assumed to be little endian since they are written
 by Lahey FORTRAN and gfortran code on a PC).
 If necessary, the year value can be examined to determine the file endian-ness.
+This is only used to read the header when the file is opened.
 */
 private EndianRandomAccessFile __fp;
 
 /**
-A hash table for the file pointers (instances of StateMod_BTS).  This is used to increase performance.
+Channel used to read data values.  Positional reads are used (FileChannel.read(ByteBuffer,long)) so that the
+channel has no shared file pointer and several threads can read from the same instance at the same time.
+The channel is also used to map the file when __useMemoryMapping is true.
 */
-private static Hashtable<String,StateMod_BTS> __file_Hashtable = new Hashtable<String,StateMod_BTS>();
+private FileChannel __channel = null;
+
+/**
+Indicates whether data values are read from memory-mapped segments of the file (true) rather than
+by seeking __fp for each value (false).  The header is always read using __fp.
+*/
+private boolean __useMemoryMapping = false;
+
+/**
+Memory-mapped segments of the file, in little endian order, used when __useMemoryMapping is true.
+Segment i starts at byte i*MAPPED_SEGMENT_BYTES and overlaps the next segment by MAPPED_SEGMENT_OVERLAP_BYTES
+so that a value that starts in a segment can always be read from that segment.
+*/
+private MappedByteBuffer [] __mappedSegments = null;
+
+/**
+Size of the file in bytes when it was mapped, used to detect reads past the end of the file.
+*/
+private long __mappedFileLength = 0;
+
+/**
+Size of each memory-mapped segment, bytes.  A single mapping is limited to Integer.MAX_VALUE bytes so
+large files are mapped in several segments.  This is a multiple of 4 so that float values align with the segments.
+*/
+private static final long MAPPED_SEGMENT_BYTES = 1L << 30;
+
+/**
+Number of bytes that each memory-mapped segment extends into the next segment.
+*/
+private static final long MAPPED_SEGMENT_OVERLAP_BYTES = 8;
+
+/**
+Pool of open files (instances of StateMod_BTS), keyed by the full path to the file.
+This is used to increase performance by not reading the header each time a time series is read.
+Instances in the pool are reference counted (see acquire() and release()) and can be shared by several threads.
+Reference counts and pool membership are changed only while synchronized on the pool.
+*/
+private static final ConcurrentHashMap<String,StateMod_BTS> __filePool = new ConcurrentHashMap<>();
+
+/**
+Number of users that have acquired this instance from the pool and have not released it.
+*/
+private int __referenceCount = 0;
+
+/**
+Indicates that close() was called while the instance was in use,
+in which case the file is closed when the last user releases it.
+*/
+private boolean __closePending = false;
 
 /**
 Direct access file record length, bytes.  140 is the B43 for 9.62, but this is reset below.
@@ -542,6 +608,26 @@ private String [] nodeTypes = {
 	"River"
 };
 
+/**
+Index of upper case station identifiers to the station lists in which they occur, created when the header is read.
+Each array in the list is {istatype, iid}, where istatype is consistent with nodeTypes and iid is the position
+in the corresponding list (e.g., __cdivid).  An identifier can occur in more than one list, for example a
+baseflow node that is also a diversion, and the arrays are in order of istatype and then iid.
+*/
+private HashMap<String,List<int[]>> __stationIndex = null;
+
+/**
+Index of upper case parameter names (__parameters) to the parameter positions (0+) for the file,
+created when the header is read.
+*/
+private HashMap<String,List<Integer>> __parameterIndex = null;
+
+/**
+Index of upper case original parameter names (__parametersOrig) to the parameter positions (0+) for the file,
+created when the header is read.
+*/
+private HashMap<String,List<Integer>> __parameterOrigIndex = null;
+
 /**
 Open a binary StateMod binary time series file.  It is assumed that the file
 exists and should be opened as read-only because typically only StateMod writes to the file.
@@ -554,7 +640,7 @@ can be called to read time series using time series identifiers.
 public StateMod_BTS ( String tsfile )
 throws IOException
 {	// Initialize the file using the version in the header if available.
-	initialize ( tsfile, "" );
+	initialize ( tsfile, "", false );
 }
 
 /**
@@ -570,7 +656,25 @@ This is used, for example, by some TSTool commands to read old file formats.
 */
 public StateMod_BTS ( String tsfile, String fileVersion )
 throws IOException
-{	initialize ( tsfile, fileVersion );
+{	initialize ( tsfile, fileVersion, false );
+}
+
+/**
+Open a binary StateMod binary time series file.  It is assumed that the file
+exists and should be opened as read-only because typically only StateMod writes to the file.
+The header information is immediately read and is available for access by other methods.
+After opening the file, the readTimeSeries*() methods
+can be called to read time series using time series identifiers.
+@param tsfile Name of binary file to write.
+@param fileVersion Version of StateMod that wrote the file, or null/blank to determine from the file header.
+@param useMemoryMapping if true, map the file into memory and read data values directly from the mapped buffers,
+which avoids a seek and read for each value and is much faster for large files.
+The time series that are read are the same as when false.
+@exception IOException if unable to open or map the file.
+*/
+public StateMod_BTS ( String tsfile, String fileVersion, boolean useMemoryMapping )
+throws IOException
+{	initialize ( tsfile, fileVersion, useMemoryMapping );
 }
 
 /**
@@ -658,40 +762,337 @@ private long calculateFilePosition ( DateTime date, int ista, int its, int ipara
 }
 
 /**
-Close the binary time series file.
+Acquire a shared instance for a file from the pool of open files, opening the file if it is not already open.
+Each call must be matched by a call to release() when the caller is done reading.
+The instance can be used by several threads at the same time.
+@param filename path to the file, adjusted with IOUtil.getPathUsingWorkingDir().
+@param useMemoryMapping whether a newly opened file should be memory-mapped (an already open file is used as is).
+@return the shared instance for the file.
+@exception IOException if the file cannot be opened.
+*/
+public static StateMod_BTS acquire ( String filename, boolean useMemoryMapping )
+throws IOException
+{	String routine = "StateMod_BTS.acquire";
+	String full_fname = IOUtil.getPathUsingWorkingDir ( filename );
+	synchronized ( __filePool ) {
+		StateMod_BTS bts = __filePool.get ( full_fname );
+		if ( bts != null ) {
+			// Have a matching file so it can be used.
+			Message.printStatus(2, routine, "Using existing binary file.");
+		}
+		else {
+			// Else open the file and add to the pool.
+			Message.printStatus(2, routine, "Opening new binary file.");
+			bts = new StateMod_BTS ( full_fname, "", useMemoryMapping );
+			__filePool.put ( full_fname, bts );
+		}
+		++bts.__referenceCount;
+		return bts;
+	}
+}
+
+/**
+Close the binary time series file.  If the instance is in the pool of open files it is removed from the pool,
+and if other users have acquired the instance and not released it, the file is closed when the last user releases it.
 @exception IOException if there is an error closing the file.
 */
 public void close()
 throws IOException
-{	__fp.close ();
-	// Remove from the Hashtable.
-	if ( __file_Hashtable.contains(this) ) {
-		__file_Hashtable.remove ( __tsfileFull );
+{	synchronized ( __filePool ) {
+		// Remove from the pool so that later requests open the file again.
+		__filePool.remove ( __tsfileFull, this );
+		if ( __referenceCount > 0 ) {
+			// Still in use so close when released.
+			__closePending = true;
+			return;
+		}
 	}
+	closeFile ();
 }
 
 /**
-Close all the binary time series files that may have been opened.
+Close all the binary time series files in the pool of open files.
+Files that are still in use by other users are closed when released by the last user.
 @exception IOException if there is an error closing any file (all closes are
 attempted and an Exception is thrown if any failed).
 */
 public static void closeAll()
 throws IOException
-{	// TODO SAM 2004-08-23
-	// Loop through the Hashtable and remove all entries.
-	// Remove from the Hashtable.
+{	IOException closeException = null;
+	synchronized ( __filePool ) {
+		for ( StateMod_BTS bts : new ArrayList<StateMod_BTS>(__filePool.values()) ) {
+			try {
+				bts.close();
+			}
+			catch ( IOException e ) {
+				if ( closeException == null ) {
+					closeException = e;
+				}
+			}
+		}
+	}
+	if ( closeException != null ) {
+		throw closeException;
+	}
+}
 
-	Enumeration<String> keysEnumeration = __file_Hashtable.keys();
+/**
+Close the file pointer and channel.
+@exception IOException if there is an error closing the file.
+*/
+private void closeFile ()
+throws IOException
+{	// The mapped segments are released when garbage collected.
+	__mappedSegments = null;
+	try {
+		__fp.close ();
+	}
+	finally {
+		if ( __channel != null ) {
+			__channel.close();
+		}
+	}
+}
 
-	StateMod_BTS bts = null;
-	String filename = null;
+/**
+Check whether another file has the same layout as this file, so that data values can be compared
+position by position.  The version, interval, file type, station lists, parameters, and record sizes must be the same.
+The periods can differ.
+@param other the other file.
+@return null if the files are compatible, or a description of the first incompatibility.
+*/
+private String checkCompatibility ( StateMod_BTS other )
+{	if ( (__version == null) ? (other.__version != null) : !__version.equals(other.__version) ) {
+		return "file versions are different (" + __version + ", " + other.__version + ")";
+	}
+	if ( __intervalBase != other.__intervalBase ) {
+		return "data intervals are different";
+	}
+	if ( __comp_type != other.__comp_type ) {
+		return "file types are different";
+	}
+	if ( (__numsta != other.__numsta) || (__numparm != other.__numparm) ||
+		(__recordLength != other.__recordLength) || (__intervalBytes != other.__intervalBytes) ||
+		(__headerLength != other.__headerLength) ) {
+		return "record layouts are different";
+	}
+	if ( !Arrays.equals(__parameters, other.__parameters) ) {
+		return "parameters are different";
+	}
+	if ( !Arrays.equals(__cstaid, other.__cstaid) || !Arrays.equals(__cdivid, other.__cdivid) ||
+		!Arrays.equals(__cifrid, other.__cifrid) || !Arrays.equals(__cresid, other.__cresid) ||
+		!Arrays.equals(__crunid, other.__crunid) || !Arrays.equals(__cdividw, other.__cdividw) ) {
+		return "station lists are different";
+	}
+	if ( !Arrays.equals(__nowner2, other.__nowner2) ) {
+		return "reservoir accounts are different";
+	}
+	return null;
+}
 
-	while (keysEnumeration.hasMoreElements()) {
-		filename = keysEnumeration.nextElement();	
-		bts = __file_Hashtable.get(filename);
-		bts.close();
-		__file_Hashtable.remove ( filename );
-	}	
+/**
+Compare time series in this file (the baseline) with the same time series in another file that has the same layout
+(for example a scenario run of the same data set), without creating time series data.
+The files are read side by side in interval order and the time series are divided among threads by parameter,
+each thread reading its own parameter range in one pass through both files.
+Only the period that is common to both files (and the requested period) is compared.
+See readTimeSeriesList() for a description of the time series parameters.
+@param other the other file, whose values are compared with this file's values.
+@param tsident_pattern time series identifier pattern to match.
+@param date1 first date to compare, or null to compare from the start of the common period.
+@param date2 last date to compare, or null to compare to the end of the common period.
+@param includeDataTypes an array of data types (matching StateMod parameters) to include or null to include all.
+@param excludeDataTypes an array of data types (matching StateMod parameters) to exclude or null to exclude none.
+@param numThreads the number of threads to use (1+), limited to the number of parameters.
+@return the differences, with one row for each matched time series, in the same order as returned by readTimeSeriesList().
+@exception Exception if the files do not have the same layout or an error occurs reading the files.
+*/
+public StateMod_BTS_Difference compareTimeSeries ( StateMod_BTS other, String tsident_pattern,
+	DateTime date1, DateTime date2, String [] includeDataTypes, String [] excludeDataTypes, int numThreads )
+throws Exception
+{	String routine = "StateMod_BTS.compareTimeSeries";
+	String incompatibility = checkCompatibility ( other );
+	if ( incompatibility != null ) {
+		throw new Exception ( "Files \"" + __tsfileFull + "\" and \"" + other.__tsfileFull +
+			"\" cannot be compared - " + incompatibility + "." );
+	}
+	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>();
+	List<TS> tslist = readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, null, false, null, locations );
+	int size = tslist.size();
+	String [] tsids = new String[size];
+	for ( int i = 0; i < size; i++ ) {
+		tsids[i] = tslist.get(i).getIdentifierString();
+	}
+	StateMod_BTS_Difference difference = new StateMod_BTS_Difference ( tsids );
+	if ( size == 0 ) {
+		return difference;
+	}
+	// Limit the period to that common to both files.
+	DateTime compareDate1 = tslist.get(0).getDate1();
+	DateTime compareDate2 = tslist.get(0).getDate2();
+	if ( other.__date1.greaterThan(compareDate1) ) {
+		compareDate1 = other.__date1;
+	}
+	if ( other.__date2.lessThan(compareDate2) ) {
+		compareDate2 = other.__date2;
+	}
+	// Divide the time series into parameter ranges, one for each thread.
+	if ( numThreads < 1 ) {
+		numThreads = 1;
+	}
+	if ( numThreads > __numparm ) {
+		numThreads = __numparm;
+	}
+	List<List<StateMod_BTS_TimeSeriesLocation>> threadLocations = new ArrayList<>(numThreads);
+	List<List<Integer>> threadRows = new ArrayList<>(numThreads);
+	for ( int ithread = 0; ithread < numThreads; ithread++ ) {
+		threadLocations.add ( new ArrayList<StateMod_BTS_TimeSeriesLocation>() );
+		threadRows.add ( new ArrayList<Integer>() );
+	}
+	for ( int i = 0; i < size; i++ ) {
+		StateMod_BTS_TimeSeriesLocation location = locations.get(i);
+		int ithread = (int)((long)location.getParameterIndex()*numThreads/__numparm);
+		threadLocations.get(ithread).add ( location );
+		threadRows.get(ithread).add ( Integer.valueOf(i) );
+	}
+	Message.printStatus ( 2, routine, "Comparing " + size + " time series in \"" + __tsfileFull + "\" and \"" +
+		other.__tsfileFull + "\" for " + compareDate1 + " to " + compareDate2 + " using " + numThreads + " thread(s)." );
+	ExecutorService executor = Executors.newFixedThreadPool ( numThreads );
+	try {
+		List<Future<Void>> futures = new ArrayList<>(numThreads);
+		for ( int ithread = 0; ithread < numThreads; ithread++ ) {
+			final List<StateMod_BTS_TimeSeriesLocation> rangeLocations = threadLocations.get(ithread);
+			final List<Integer> rangeRows = threadRows.get(ithread);
+			if ( rangeLocations.size() == 0 ) {
+				continue;
+			}
+			final StateMod_BTS other2 = other;
+			final DateTime rangeDate1 = new DateTime ( compareDate1 );
+			final DateTime rangeDate2 = new DateTime ( compareDate2 );
+			final StateMod_BTS_Difference difference2 = difference;
+			futures.add ( executor.submit ( new Callable<Void>() {
+				public Void call () throws IOException {
+					compareTimeSeriesDataSinglePass ( other2, rangeLocations, rangeRows,
+						rangeDate1, rangeDate2, difference2 );
+					return null;
+				}
+			}));
+		}
+		for ( Future<Void> future : futures ) {
+			try {
+				future.get();
+			}
+			catch ( ExecutionException e ) {
+				if ( e.getCause() instanceof Exception ) {
+					throw (Exception)e.getCause();
+				}
+				throw e;
+			}
+		}
+	}
+	finally {
+		executor.shutdown();
+	}
+	return difference;
+}
+
+/**
+Compare the data for a list of time series in this file and another file with the same layout,
+in one pass through both files.  This method is called by compareTimeSeries() and can be called by
+several threads at the same time for different time series.
+@param other the other file.
+@param locations the locations of the time series to compare, as determined by readTimeSeriesList().
+@param rows the row in the difference table for each location.
+@param date1 first date to compare.
+@param date2 last date to compare.
+@param difference the difference table to update.
+@exception IOException if an error occurs reading the files, including if all intervals could not be read
+from both files (e.g., a file is truncated).
+*/
+private void compareTimeSeriesDataSinglePass ( StateMod_BTS other, List<StateMod_BTS_TimeSeriesLocation> locations,
+	List<Integer> rows, DateTime date1, DateTime date2, StateMod_BTS_Difference difference )
+throws IOException
+{	final int nlocations = locations.size();
+	Integer [] order = sortLocationsByIntervalOffset ( locations );
+	long [] sortedOffsets = new long[nlocations];
+	boolean [] sortedConvertCfsToAcft = new boolean[nlocations];
+	int [] sortedRows = new int[nlocations];
+	for ( int i = 0; i < nlocations; i++ ) {
+		StateMod_BTS_TimeSeriesLocation location = locations.get(order[i].intValue());
+		sortedOffsets[i] = location.getIntervalOffset();
+		sortedConvertCfsToAcft[i] = location.getConvertCfsToAcft();
+		sortedRows[i] = rows.get(order[i].intValue()).intValue();
+	}
+	long minOffset = sortedOffsets[0];
+	long maxOffset = sortedOffsets[nlocations - 1];
+	ByteBuffer blockBuffer1 = createBlockBuffer ( minOffset, maxOffset );
+	ByteBuffer blockBuffer2 = other.createBlockBuffer ( minOffset, maxOffset );
+	float [] intervalValues1 = new float[nlocations];
+	float [] intervalValues2 = new float[nlocations];
+	// Determine the interval positions in both files once so that the loop does not step dates.
+	int nintervals = countIntervals ( date1, date2 );
+	DateTime [] dates = new DateTime[nintervals];
+	long [] intervalPositions1 = new long[nintervals];
+	long [] intervalPositions2 = new long[nintervals];
+	float [] acftFactors = new float[nintervals];
+	fillIntervalArrays ( date1, nintervals, dates, intervalPositions1, acftFactors );
+	other.fillIntervalArrays ( date1, nintervals, null, intervalPositions2, acftFactors );
+	float factor;
+	for ( int interval = 0; interval < nintervals; interval++ ) {
+		if ( (intervalPositions1[interval] < 0) || (intervalPositions2[interval] < 0) ) {
+			// February 29 - StateMod does not handle.
+			continue;
+		}
+		// Each interval must be read completely from both files, otherwise the differences would be incomplete.
+		try {
+			readIntervalValues ( intervalPositions1[interval], minOffset, sortedOffsets, blockBuffer1, intervalValues1 );
+		}
+		catch ( EOFException e ) {
+			throw new IOException ( "Only " + interval + " of " + nintervals + " intervals could be read from \"" +
+				__tsfileFull + "\" for " + date1 + " to " + date2 + " (" + e.getMessage() + ").", e );
+		}
+		try {
+			other.readIntervalValues ( intervalPositions2[interval], minOffset, sortedOffsets, blockBuffer2, intervalValues2 );
+		}
+		catch ( EOFException e ) {
+			throw new IOException ( "Only " + interval + " of " + nintervals + " intervals could be read from \"" +
+				other.__tsfileFull + "\" for " + date1 + " to " + date2 + " (" + e.getMessage() + ").", e );
+		}
+		factor = acftFactors[interval];
+		for ( int i = 0; i < nlocations; i++ ) {
+			if ( sortedConvertCfsToAcft[i] ) {
+				difference.addValues ( sortedRows[i], dates[interval], intervalValues1[i]*factor, intervalValues2[i]*factor );
+			}
+			else {
+				difference.addValues ( sortedRows[i], dates[interval], intervalValues1[i], intervalValues2[i] );
+			}
+		}
+	}
+}
+
+/**
+Compile a pattern that uses * wildcards (e.g., "09*") into a case-insensitive regular expression.
+All other characters are matched literally.  Compiling the pattern once is much faster than
+comparing each identifier with a pattern that must be interpreted for each comparison.
+@param wildcardPattern pattern to compile.
+@return a compiled case-insensitive pattern.
+*/
+static Pattern compileWildcardPattern ( String wildcardPattern )
+{	StringBuilder regex = new StringBuilder();
+	int start = 0;
+	int pos;
+	while ( (pos = wildcardPattern.indexOf('*', start)) >= 0 ) {
+		if ( pos > start ) {
+			regex.append ( Pattern.quote(wildcardPattern.substring(start, pos)) );
+		}
+		regex.append ( ".*" );
+		start = pos + 1;
+	}
+	if ( start < wildcardPattern.length() ) {
+		regex.append ( Pattern.quote(wildcardPattern.substring(start)) );
+	}
+	return Pattern.compile ( regex.toString(), Pattern.CASE_INSENSITIVE );
 }
 
 /**
@@ -733,6 +1134,110 @@ private String [] convertReservoirParametersToLatest ( String [] parametersOrig
 	return parameters;
 }
 
+/**
+Count the number of intervals in a period, including February 29 for daily data.
+@param date1 first date.
+@param date2 last date.
+@return the number of intervals from date1 to date2, inclusive.
+*/
+private int countIntervals ( DateTime date1, DateTime date2 )
+{	if ( __intervalBase == TimeInterval.MONTH ) {
+		return Math.max ( 0, date2.getAbsoluteMonth() - date1.getAbsoluteMonth() + 1 );
+	}
+	int nintervals = 0;
+	for ( DateTime date = new DateTime(date1); date.lessThanOrEqualTo(date2); date.addInterval(__intervalBase, 1) ) {
+		++nintervals;
+	}
+	return nintervals;
+}
+
+/**
+Create a buffer to read the span of bytes in an interval data block that contains requested values.
+@param minOffset the smallest offset of a requested value from the start of the interval block.
+@param maxOffset the largest offset of a requested value from the start of the interval block.
+@return a little endian buffer, or null if the file is memory-mapped (values are read from the mapped segments).
+*/
+private ByteBuffer createBlockBuffer ( long minOffset, long maxOffset )
+{	if ( __useMemoryMapping ) {
+		return null;
+	}
+	ByteBuffer blockBuffer = ByteBuffer.allocate((int)(maxOffset - minOffset + 4));
+	blockBuffer.order ( ByteOrder.LITTLE_ENDIAN );
+	return blockBuffer;
+}
+
+/**
+Create a new time series with allocated data space, using the header of a time series that was
+returned by readTimeSeriesList() without data.
+@param header time series that has header information.
+@return a new time series with the same header and allocated data space (data are not read).
+@exception IOException if data space cannot be allocated.
+*/
+TS createTimeSeries ( TS header )
+throws IOException
+{	TS ts = null;
+	if ( __intervalBase == TimeInterval.MONTH ) {
+		ts = new MonthTS();
+	}
+	else {
+		ts = new DayTS();
+	}
+	ts.copyHeader ( header );
+	ts.setProperty ( "NodeType", header.getProperty("NodeType") );
+	if ( ts.allocateDataSpace() != 0 ) {
+		throw new IOException ( "Unable to allocate data space for \"" + header.getIdentifierString() + "\"." );
+	}
+	return ts;
+}
+
+/**
+Create the station and parameter indices from the header information, to allow fast lookups of exact
+identifiers and parameters.  This is called at the end of readHeader().
+*/
+private void createHeaderIndex ()
+{	// Station lists, in the order of the station types in nodeTypes.
+	String [][] idLists = { __cdivid, __cifrid, __cresid, __crunid, __cdividw, __cstaid };
+	int [] idCounts = { __numdiv, __numifr, __numres, __numrun, __numdivw, __numsta };
+	__stationIndex = new HashMap<>();
+	String key;
+	List<int[]> stations;
+	for ( int istatype = 0; istatype < idLists.length; istatype++ ) {
+		for ( int iid = 0; iid < idCounts[istatype]; iid++ ) {
+			key = idLists[istatype][iid].toUpperCase();
+			stations = __stationIndex.get(key);
+			if ( stations == null ) {
+				stations = new ArrayList<>(1);
+				__stationIndex.put ( key, stations );
+			}
+			stations.add ( new int[] { istatype, iid } );
+		}
+	}
+	__parameterIndex = createParameterIndex ( __parametersUpper );
+	__parameterOrigIndex = createParameterIndex ( __parametersOrigUpper );
+}
+
+/**
+Create an index of parameter names to positions.
+@param parametersUpper upper case parameter names.
+@return the index of parameter name to positions (0+), only including the first __numparm parameters.
+*/
+private HashMap<String,List<Integer>> createParameterIndex ( String [] parametersUpper )
+{	HashMap<String,List<Integer>> index = new HashMap<>();
+	if ( parametersUpper == null ) {
+		return index;
+	}
+	List<Integer> positions;
+	for ( int iparam = 0; (iparam < __numparm) && (iparam < parametersUpper.length); iparam++ ) {
+		positions = index.get(parametersUpper[iparam]);
+		if ( positions == null ) {
+			positions = new ArrayList<>(1);
+			index.put ( parametersUpper[iparam], positions );
+		}
+		positions.add ( Integer.valueOf(iparam) );
+	}
+	return index;
+}
+
 // TODO SAM 2006-01-15 If it becomes important to read versions before 9.69,
 // add logic to check the file size and estimate from that the record length
 // that was used, and hence the file version.
@@ -753,13 +1258,43 @@ throws Exception
 	return version;
 }
 
+/**
+Fill arrays with information for each interval in a period, so that read loops can use an integer interval index
+rather than stepping dates and calculating positions for every value.  The dates are stepped once for the period,
+regardless of how many time series are read.
+@param date1 first date.
+@param nintervals number of intervals, from countIntervals().
+@param dates if not null, receives a copy of the date for each interval.
+@param intervalPositions receives the byte position of the start of each interval data block,
+or -1 for February 29, which StateMod does not handle, and dates before the start of the file.
+The position of a value is the interval position plus the location's interval offset.
+@param acftFactors receives the factor to convert CFS to ACFT for each interval (CFS_TO_ACFT times days in month).
+*/
+private void fillIntervalArrays ( DateTime date1, int nintervals, DateTime [] dates, long [] intervalPositions,
+	float [] acftFactors )
+{	DateTime date = new DateTime(date1);
+	for ( int interval = 0; interval < nintervals; interval++, date.addInterval(__intervalBase, 1) ) {
+		if ( dates != null ) {
+			dates[interval] = new DateTime(date);
+		}
+		if ( ((date.getMonth() == 2) && (date.getDay() == 29)) || date.lessThan(__date1) ) {
+			intervalPositions[interval] = -1;
+		}
+		else {
+			intervalPositions[interval] = calculateFilePosition ( date, 0, 0, 0 );
+		}
+		acftFactors[interval] = CFS_TO_ACFT*(float)__mthdayCalendar[date.getMonth() - 1];
+	}
+}
+
 /**
 Finalize before garbage collection.
 */
 protected void finalize ()
 throws Throwable
-{	__fp.close();
+{	closeFile();
 	__fp = null;
+	__channel = null;
 	__tsfile = null;
 	__tsfileFull = null;
 	super.finalize();
@@ -789,6 +1324,16 @@ public DateTime getDate2 ()
 {	return __date2;
 }
 
+/**
+Return the current length of the file, which increases while StateMod is writing the file.
+@return the current length of the file in bytes.
+@exception IOException if the length cannot be determined.
+*/
+long getFileLength ()
+throws IOException
+{	return __channel.size();
+}
+
 /**
 Return the parameter list for the file, which is determined from the file
 header for version 11.x+ and is unknown otherwise.
@@ -824,12 +1369,14 @@ Initialize the binary file.  The file is opened and the header is read.
 @param tsfile Name of binary file.
 @param fileVersion Version of StateMod that wrote the file.
 Used to be a double like "9.01" but can now be a three-part version like "10.01.01".
+@param useMemoryMapping if true, map the file into memory for reading data values.
 @exception IOException If the file cannot be opened or read.
 */
-private void initialize ( String tsfile, String fileVersion )
+private void initialize ( String tsfile, String fileVersion, boolean useMemoryMapping )
 throws IOException
 {	String routine = "StateMod_BTS.initialize";
 	__tsfile = tsfile;
+	__useMemoryMapping = useMemoryMapping;
 	__version = "";
 	if ( (fileVersion != null) && !fileVersion.equals("") ) {
 	    __version = fileVersion;
@@ -846,11 +1393,10 @@ throws IOException
 
 	__tsfileFull = IOUtil.getPathUsingWorkingDir ( tsfile );
 	__fp = new EndianRandomAccessFile ( __tsfileFull, "r" );
+	__channel = FileChannel.open ( Paths.get(__tsfileFull), StandardOpenOption.READ );
 
 	// Initialize important data.
 
-	__file_Hashtable.put(__tsfileFull, this);
-
 	__intervalBase = TimeInterval.MONTH; // Default.
 	String extension = IOUtil.getFileExtension ( __tsfile );
 
@@ -1047,6 +1593,10 @@ throws IOException
 		Message.printDebug ( 1, routine, "Estimated file size (bytes) = " + __estimatedFileLengthBytes );
 	}
 
+	if ( __useMemoryMapping ) {
+		mapFile ();
+	}
+
 	if ( IOUtil.testing() ) {
 		try {
 		    printRecords0 ();
@@ -1060,26 +1610,107 @@ throws IOException
 }
 
 /**
-Look up the file pointer to use when opening a new file.  If the file is already
-open and is in the internal __file_HashTable, use it.  Otherwise, open the file and add it to the Hashtable.
-The code to close the file must remove the file from the Hashtable.
-@param full_fname Full path to file to open.
+Indicate whether the data block for an interval has been completely written to the file.
+@param date date for the interval.
+@param fileLength the current length of the file in bytes.
+@return true if all data records for the interval are in the file.
 */
-private static StateMod_BTS lookupStateModBTS ( String full_fname )
-throws Exception
-{	String routine = "StateMod_BTS.lookupStateModBTS";
-	Object o = __file_Hashtable.get ( full_fname );
-	if ( o != null ) {
-		// Have a matching file pointer so assume that it can be used.
-		Message.printStatus(2, routine, "Using existing binary file.");
-		return (StateMod_BTS)o;
-	}
-	// Else create a new file.
-	Message.printStatus(2, routine, "Opening new binary file.");
-	StateMod_BTS bts = new StateMod_BTS ( full_fname );
-	// Add to the HashTable.
-	__file_Hashtable.put ( full_fname, bts );
-	return bts;
+boolean isIntervalComplete ( DateTime date, long fileLength )
+{	return (calculateFilePosition(date, 0, 0, 0) + __intervalBytes) <= fileLength;
+}
+
+/**
+Indicate whether the file is memory-mapped.
+@return true if the file is memory-mapped.
+*/
+public boolean isMemoryMapped ()
+{	return __useMemoryMapping;
+}
+
+/**
+Map the file into memory for reading data values.  The file is mapped in segments of
+MAPPED_SEGMENT_BYTES so that files larger than 2 GB can be mapped.
+@exception IOException if the file cannot be mapped.
+*/
+private void mapFile ()
+throws IOException
+{	String routine = "StateMod_BTS.mapFile";
+	__mappedFileLength = __channel.size();
+	int nsegments = (int)((__mappedFileLength + MAPPED_SEGMENT_BYTES - 1)/MAPPED_SEGMENT_BYTES);
+	__mappedSegments = new MappedByteBuffer[nsegments];
+	long start, length;
+	for ( int iseg = 0; iseg < nsegments; iseg++ ) {
+		start = iseg*MAPPED_SEGMENT_BYTES;
+		length = Math.min ( MAPPED_SEGMENT_BYTES + MAPPED_SEGMENT_OVERLAP_BYTES, __mappedFileLength - start );
+		__mappedSegments[iseg] = __channel.map ( FileChannel.MapMode.READ_ONLY, start, length );
+		__mappedSegments[iseg].order ( ByteOrder.LITTLE_ENDIAN );
+	}
+	if ( Message.isDebugOn ) {
+		Message.printDebug ( 1, routine, "Mapped " + __mappedFileLength + " bytes in " + nsegments + " segment(s)." );
+	}
+}
+
+/**
+Read bytes from the channel using a positional read, which does not use or change a shared file pointer.
+@param buffer buffer to fill, which is cleared and then filled to its limit.
+@param filepos byte position in the file for the first byte.
+@exception IOException if the end of the file is reached or a read error occurs.
+*/
+private void readBytes ( ByteBuffer buffer, long filepos )
+throws IOException
+{	buffer.clear();
+	while ( buffer.hasRemaining() ) {
+		if ( __channel.read(buffer, filepos + buffer.position()) < 0 ) {
+			throw new EOFException ( "Position " + (filepos + buffer.position()) + " is past the end of the file." );
+		}
+	}
+}
+
+/**
+Read a data value from the file.  If the file is memory-mapped the value is read from the mapped segments,
+otherwise the value is read with a positional read.  This method can be called by several threads at the same time.
+@param filepos byte position of the value, from calculateFilePosition().
+@param valueBuffer a 4-byte little endian buffer owned by the caller, used when the file is not memory-mapped.
+@return the value as stored in the file (no unit conversion).
+@exception IOException if the position is past the end of the file or a read error occurs.
+*/
+private float readDataValue ( long filepos, ByteBuffer valueBuffer )
+throws IOException
+{	if ( __useMemoryMapping ) {
+		if ( (filepos + 4) > __mappedFileLength ) {
+			throw new EOFException ( "Position " + filepos + " is past the end of the file (" + __mappedFileLength + " bytes)." );
+		}
+		return __mappedSegments[(int)(filepos/MAPPED_SEGMENT_BYTES)].getFloat((int)(filepos%MAPPED_SEGMENT_BYTES));
+	}
+	else {
+		readBytes ( valueBuffer, filepos );
+		return valueBuffer.getFloat(0);
+	}
+}
+
+/**
+Read the requested values from one interval data block.
+@param intervalPos byte position of the start of the interval block, from calculateFilePosition(date,0,0,0).
+@param minOffset the smallest offset of a requested value from the start of the interval block.
+@param sortedOffsets the offsets of requested values from the start of the interval block, sorted.
+@param blockBuffer buffer from createBlockBuffer(), owned by the caller.
+@param intervalValues array to receive the values (no unit conversion), in the order of sortedOffsets.
+@exception IOException if the position is past the end of the file or a read error occurs.
+*/
+private void readIntervalValues ( long intervalPos, long minOffset, long [] sortedOffsets, ByteBuffer blockBuffer,
+	float [] intervalValues )
+throws IOException
+{	if ( __useMemoryMapping ) {
+		for ( int i = 0; i < sortedOffsets.length; i++ ) {
+			intervalValues[i] = readDataValue ( intervalPos + sortedOffsets[i], null );
+		}
+	}
+	else {
+		readBytes ( blockBuffer, intervalPos + minOffset );
+		for ( int i = 0; i < sortedOffsets.length; i++ ) {
+			intervalValues[i] = blockBuffer.getFloat ( (int)(sortedOffsets[i] - minOffset) );
+		}
+	}
 }
 
 /**
@@ -1730,6 +2361,9 @@ throws IOException
 			}
 		}
 	}
+
+	// Index the station identifiers and parameters for fast lookups.
+	createHeaderIndex ();
 }
 
 /**
@@ -1882,6 +2516,11 @@ read (where the scenario is NOT the file name).
 <td>Specifies whether to close the file once the time series has been read from it (False or True).</td>
 <td>False.</td>
 </tr>
+<tr><td>UseMemoryMapping</td>
+<td>Specifies whether to memory-map the file when it is opened (False or True), which is faster for large files.
+Ignored if the file is already open.</td>
+<td>False.</td>
+</tr>
 </table>
 */
 public static TS readTimeSeries ( String tsident_string, String filename,
@@ -1891,12 +2530,17 @@ throws Exception
 	String full_fname = IOUtil.getPathUsingWorkingDir ( filename );
 
 	boolean closeFile = false;
+	boolean useMemoryMapping = false;
 	
 	if (props != null) {
 		String closeWhenTrue = props.getValue("CloseWhenDone");
 		if ( (closeWhenTrue != null) && closeWhenTrue.trim().equalsIgnoreCase("true")) {
 			closeFile = true;
 		}
+		String useMemoryMappingProp = props.getValue("UseMemoryMapping");
+		if ( (useMemoryMappingProp != null) && useMemoryMappingProp.trim().equalsIgnoreCase("true")) {
+			useMemoryMapping = true;
+		}
 	}
 	
 	if ( !IOUtil.fileReadable(full_fname) ) {
@@ -1905,7 +2549,7 @@ throws Exception
 	}
 	StateMod_BTS in = null;
 	try {
-	    in = lookupStateModBTS ( full_fname );
+	    in = acquire ( full_fname, useMemoryMapping );
 	}
 	catch ( Exception e ) {
 		Message.printWarning( 2,
@@ -1915,10 +2559,16 @@ throws Exception
 	// Call the fully-loaded method.
 	// Pass the file pointer and an empty time series, which
 	// will be used to locate the time series in the file.
-	List<TS> tslist = in.readTimeSeriesList ( tsident_string, date1, date2, units, read_data );
-
-	if (closeFile) {
-		in.close();
+	List<TS> tslist = null;
+	try {
+		tslist = in.readTimeSeriesList ( tsident_string, date1, date2, units, read_data );
+		if (closeFile) {
+			// The file is closed when released below, unless another thread is using it.
+			in.close();
+		}
+	}
+	finally {
+		in.release();
 	}
 
 	if ( (tslist == null) || (tslist.size() <= 0) ) {
@@ -1929,6 +2579,175 @@ throws Exception
 	return (TS)tslist.get(0);
 }
 
+/**
+Read a time series for a location that was previously determined from the file header, for example
+for a StateMod_BTS_TimeSeriesHandle.  A new time series is created using the header of the location's time series
+and the data are read.
+@param location location of the time series in the file, with a time series that has header information.
+@return a new time series with data.
+@exception IOException if the data cannot be read, including if all intervals could not be read (e.g., the
+file is truncated), so that a partial time series is not returned.
+*/
+TS readTimeSeries ( StateMod_BTS_TimeSeriesLocation location )
+throws IOException
+{	TS ts = createTimeSeries ( location.getTimeSeries() );
+	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>(1);
+	locations.add ( new StateMod_BTS_TimeSeriesLocation ( ts, location.getStationIndex(), location.getTimeSeriesIndex(),
+		location.getParameterIndex(), location.getConvertCfsToAcft(), location.getIntervalOffset()) );
+	readTimeSeriesData ( locations, ts.getDate1(), ts.getDate2() );
+	return ts;
+}
+
+/**
+Read the data for a list of time series in one pass through the file, setting the values in the time series
+for each location, which must have allocated data space.
+@param locations the locations of the time series to read, as determined by readTimeSeriesLocationList().
+@param date1 first date to read.
+@param date2 last date to read.
+@exception IOException if an error occurs reading the file, including if all intervals could not be read.
+*/
+void readTimeSeriesData ( List<StateMod_BTS_TimeSeriesLocation> locations, DateTime date1, DateTime date2 )
+throws IOException
+{	readTimeSeriesData ( locations, date1, date2, null, null );
+}
+
+/**
+Read the data for a list of time series in one pass through the file, requiring that all intervals are read.
+@param locations the locations of the time series to read.
+@param date1 first date to read.
+@param date2 last date to read.
+@param values if not null, values are saved in this array (see readTimeSeriesDataSinglePass()).
+@param statistics if not null (and values is null), values are added to the statistics.
+@exception IOException if an error occurs reading the file, including if all intervals could not be read.
+*/
+private void readTimeSeriesData ( List<StateMod_BTS_TimeSeriesLocation> locations, DateTime date1, DateTime date2,
+	float [][] values, StateMod_BTS_Statistics statistics )
+throws IOException
+{	if ( locations.isEmpty() ) {
+		return;
+	}
+	int nintervals = countIntervals ( date1, date2 );
+	int nread = readTimeSeriesDataSinglePass ( locations, date1, date2, values, statistics );
+	if ( nread < nintervals ) {
+		throw new IOException ( "Only " + nread + " of " + nintervals + " intervals could be read for " +
+			date1 + " to " + date2 + "." );
+	}
+}
+
+/**
+Read the data for a list of time series in one pass through the file.
+The file is traversed in record order (interval, then station, then parameter) and, for each interval,
+the bytes spanning all requested values are read at once, so the number of reads is the number of intervals
+rather than the number of values.
+@param locations the locations of the time series to read, as determined by readTimeSeriesList().
+@param date1 first date to read.
+@param date2 last date to read.
+@param values if not null, values are saved in this array, which must have the same size as the locations list
+and be sized for the number of intervals from date1 to date2, with values[ilocation][interval].
+@param statistics if not null (and values is null), values are added to the statistics, with one row for each location,
+rather than being saved.
+If values and statistics are null, values are set in the time series for each location,
+which must have allocated data space.
+@return the number of intervals that were processed, which is less than the number of intervals from date1
+to date2 if an interval could not be read (e.g., at the end of the file).
+@exception IOException if an error occurs reading the file.
+*/
+private int readTimeSeriesDataSinglePass ( List<StateMod_BTS_TimeSeriesLocation> locations,
+	DateTime date1, DateTime date2, float [][] values, StateMod_BTS_Statistics statistics )
+throws IOException
+{	String routine = "StateMod_BTS.readTimeSeriesDataSinglePass";
+	final int nlocations = locations.size();
+	if ( nlocations == 0 ) {
+		return 0;
+	}
+	// Sort the locations by position in the interval block so that values are processed in file order.
+	Integer [] order = sortLocationsByIntervalOffset ( locations );
+	StateMod_BTS_TimeSeriesLocation [] sortedLocations = new StateMod_BTS_TimeSeriesLocation[nlocations];
+	long [] sortedOffsets = new long[nlocations];
+	for ( int i = 0; i < nlocations; i++ ) {
+		sortedLocations[i] = locations.get(order[i].intValue());
+		sortedOffsets[i] = sortedLocations[i].getIntervalOffset();
+	}
+	// Span of bytes in each interval block that contains all of the requested values.
+	long minOffset = sortedOffsets[0];
+	long maxOffset = sortedOffsets[nlocations - 1];
+	ByteBuffer blockBuffer = createBlockBuffer ( minOffset, maxOffset );
+	float [] intervalValues = new float[nlocations];
+	// Determine the interval positions once so that the loop does not step dates.
+	int nintervals = countIntervals ( date1, date2 );
+	DateTime [] dates = null;
+	if ( values == null ) {
+		dates = new DateTime[nintervals];
+	}
+	long [] intervalPositions = new long[nintervals];
+	float [] acftFactors = new float[nintervals];
+	fillIntervalArrays ( date1, nintervals, dates, intervalPositions, acftFactors );
+	StateMod_BTS_TimeSeriesLocation location;
+	long intervalPos;
+	float param;
+	int interval = 0;
+	for ( ; interval < nintervals; interval++ ) {
+		// Position of the first record in the interval block.
+		intervalPos = intervalPositions[interval];
+		if ( intervalPos < 0 ) {
+			// February 29 - StateMod does not handle.
+			continue;
+		}
+		try {
+			readIntervalValues ( intervalPos, minOffset, sortedOffsets, blockBuffer, intervalValues );
+		}
+		catch ( Exception e ) {
+			// Assume end of file so break out of read.
+			Message.printWarning ( 3, routine,
+			"Unexpected error reading interval [" + interval + "] at byte " + (intervalPos + minOffset) +
+			" - stop reading data.  Expected file size =" + __estimatedFileLengthBytes );
+			if ( Message.isDebugOn ) {
+			    Message.printWarning(3, routine, e);
+			}
+			break;
+		}
+		for ( int i = 0; i < nlocations; i++ ) {
+			location = sortedLocations[i];
+			param = intervalValues[i];
+			// Convert to ACFT if necessary.
+			if ( location.getConvertCfsToAcft() ) {
+				param = param*acftFactors[interval];
+			}
+			if ( values != null ) {
+				values[order[i].intValue()][interval] = param;
+			}
+			else if ( statistics != null ) {
+				statistics.addValue ( order[i].intValue(), dates[interval].getYear(), param );
+			}
+			else {
+				location.getTimeSeries().setDataValue ( dates[interval], param );
+			}
+		}
+	}
+	return interval;
+}
+
+/**
+Read a list of handles for time series in the binary file, without reading data.
+Each handle provides the time series header and reads the data the first time it is requested,
+which avoids allocating data space for time series that are listed but never used.
+See readTimeSeriesList() for a description of the parameters.
+This instance must remain open while data may be requested from the handles.
+@return a list of time series handles, in the same order as returned by readTimeSeriesList().
+@exception Exception if an error occurs reading the file.
+*/
+public List<StateMod_BTS_TimeSeriesHandle> readTimeSeriesHandleList ( String tsident_pattern,
+	DateTime date1, DateTime date2, String [] includeDataTypes, String [] excludeDataTypes, String outputVersion )
+throws Exception
+{	List<StateMod_BTS_TimeSeriesLocation> locations = readTimeSeriesLocationList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, outputVersion );
+	List<StateMod_BTS_TimeSeriesHandle> handles = new ArrayList<>(locations.size());
+	for ( StateMod_BTS_TimeSeriesLocation location : locations ) {
+		handles.add ( new StateMod_BTS_TimeSeriesHandle ( this, location ) );
+	}
+	return handles;
+}
+
 /**
 Read a list of time series from the binary file.  A list of new time series is returned.
 @param tsident_pattern A regular expression for TSIdents to return.  For example
@@ -2008,6 +2827,22 @@ for the file or if a write error occurs.
 public List<TS> readTimeSeriesList ( String tsident_pattern, DateTime date1, DateTime date2,
 	String [] includeDataTypes, String [] excludeDataTypes, String req_units, boolean read_data, String outputVersion )
 throws Exception
+{	return readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, req_units, read_data, outputVersion, null );
+}
+
+/**
+Read a list of time series from the binary file.  See the public version of this method for a description of
+most parameters.
+@param locations if not null, the location of each matched time series in the data records is added to the list
+and data are NOT read here, even if read_data is true (data space is allocated if read_data is true).
+The caller is then expected to read the data for all time series in one pass, for example with
+readTimeSeriesDataSinglePass().
+*/
+private List<TS> readTimeSeriesList ( String tsident_pattern, DateTime date1, DateTime date2,
+	String [] includeDataTypes, String [] excludeDataTypes, String req_units, boolean read_data, String outputVersion,
+	List<StateMod_BTS_TimeSeriesLocation> locations )
+throws Exception
 {	String routine = "StateMod_BTS.readTimeSeriesList";
 	if ( (outputVersion == null) || outputVersion.isEmpty() ) {
 		outputVersion = "Original"; // Default.
@@ -2052,16 +2887,21 @@ throws Exception
 	tsident_regexp.setInterval ( "*" );
 	tsident_regexp.setScenario ( "*" );
 	String tsident_regexp_loc = tsident_regexp.getLocation();
-	String tsident_regexp_source = tsident_regexp.getSource();
 	String tsident_regexp_type = tsident_regexp.getType();
-	String tsident_regexp_interval = tsident_regexp.getInterval();
-	String tsident_regexp_scenario = tsident_regexp.getScenario();
 	boolean station_has_wildcard = false; // Use to speed up loops.
 	boolean datatype_has_wildcard = false;
 	TS ts = null;
 	float param;
 	long filepos;
-	DateTime date;
+	// Buffer for positional reads, owned by this call so that threads can read at the same time.
+	ByteBuffer valueBuffer = ByteBuffer.allocate(4);
+	valueBuffer.order ( ByteOrder.LITTLE_ENDIAN );
+	// Interval information for the requested period, determined when the first time series is read.
+	int nintervals = 0;
+	DateTime [] intervalDates = null;
+	long [] intervalPositions = null;
+	float [] acftFactors = null;
+	long intervalOffset;
 	int dl = 1;
 	if ( Message.isDebugOn ) {
 		Message.printDebug ( dl, routine, "Reading time series for \"" +
@@ -2166,12 +3006,6 @@ throws Exception
 	// Even if there are 1000 nodes and 30 data types, this will only take
 	// 30K of memory, which is relatively small.
 	boolean [][] sta_matched = new boolean[__numsta][__numparm];
-	int j;
-	for ( int i = 0; i < __numsta; i++ ) {
-		for ( j = 0; j < __numparm; j++ ) {
-			sta_matched[i][j] = false;
-		}
-	}
 	try {
 	if ( tsident_regexp_loc.indexOf("*") >= 0 ) {
 		station_has_wildcard = true;
@@ -2188,6 +3022,50 @@ throws Exception
 		tsident_regexp.setLocation(	StringUtil.getToken(tsident_regexp_loc,"-",0,0) );
 		tsident_regexp_loc = tsident_regexp.getLocation();
 	}
+	// Use the header indices to limit the stations and parameters that are checked:
+	// - exact station identifiers are looked up rather than searching every list
+	// - wildcard patterns are compiled once and each station and parameter is checked once
+	List<int[]> indexedStations = null; // Stations for an exact location as {istatype, iid}, null if wildcard.
+	Pattern locationPattern = null; // Pattern for a wildcard location, null if all locations match.
+	if ( station_has_wildcard ) {
+		if ( !tsident_regexp_loc.equals("*") ) {
+			locationPattern = compileWildcardPattern ( tsident_regexp_loc );
+		}
+	}
+	else {
+		indexedStations = __stationIndex.get(tsident_regexp_loc.toUpperCase());
+		if ( indexedStations == null ) {
+			// No stations match.
+			indexedStations = new ArrayList<>();
+		}
+	}
+	boolean [] parameterMatches = new boolean[__numparm]; // Whether each parameter matches the requested data type.
+	if ( defaultPattern || tsident_regexp_type.equals("*") ) {
+		Arrays.fill ( parameterMatches, true );
+	}
+	else if ( datatype_has_wildcard ) {
+		Pattern typePattern = compileWildcardPattern ( tsident_regexp_type );
+		for ( iparam = 0; iparam < __numparm; iparam++ ) {
+			parameterMatches[iparam] = typePattern.matcher(parameters[iparam]).matches();
+		}
+	}
+	else {
+		List<Integer> positions = null;
+		if ( outputVersion.equalsIgnoreCase("Original") ) {
+			positions = __parameterOrigIndex.get(tsident_regexp_type.toUpperCase());
+		}
+		else {
+			positions = __parameterIndex.get(tsident_regexp_type.toUpperCase());
+		}
+		if ( positions != null ) {
+			for ( Integer position : positions ) {
+				parameterMatches[position.intValue()] = true;
+			}
+		}
+	}
+	int [] iids = null; // Positions in the station list to check, or null to check all.
+	int niids = 0; // Number of positions in the station list to check.
+	int iid = 0; // Position in the station list.
 	boolean match_found = false;
 				// Indicates if a match for the specific station is made.
 				// TODO SAM 2006-01-04.  This seems to be a remnant of previous code.
@@ -2217,8 +3095,6 @@ throws Exception
 	// type of data the file contains and inappropriate types are skipped below.
 	// Diversions, instream flow, and stream stations are stored
 	// in the same binary file so multiple lists are checked for that file.
-	TSIdent current_tsident = new TSIdent ();
-				// Used for the time series below, to compare to the pattern.
 	TSIdent tsident = null;	// Used when creating new time series.
 					
 	for ( int istatype = 0; istatype < 6; istatype++ ) {
@@ -2273,30 +3149,45 @@ throws Exception
 			names = __stanam;
 			numids = __numsta;
 		}
+		// Determine the positions in the list to check.
+		if ( indexedStations == null ) {
+			// Check all the stations in the list.
+			iids = null;
+			niids = numids;
+		}
+		else {
+			// Only check the stations in the list that match the exact identifier.
+			niids = 0;
+			iids = new int[indexedStations.size()];
+			for ( int [] indexedStation : indexedStations ) {
+				if ( indexedStation[0] == istatype ) {
+					iids[niids++] = indexedStation[1];
+				}
+			}
+		}
 		// Loop through the ids in the list.
-		for ( int iid = 0; iid < numids; iid++ ) {
+		for ( int iidPos = 0; iidPos < niids; iidPos++ ) {
+			if ( iids == null ) {
+				iid = iidPos;
+			}
+			else {
+				iid = iids[iidPos];
+			}
 			if ( Message.isDebugOn ) {
 				Message.printDebug ( dl, routine, "Station[" + iid + "] = " + ids[iid] );
 			}
+			if ( (locationPattern != null) && !locationPattern.matcher(ids[iid]).matches() ) {
+				// Location does not match the requested pattern.
+				continue;
+			}
 			// Loop through the parameters.
 			for ( iparam = 0; iparam < __numparm; iparam++ ) {
 				// Check the station and parameter to see if they match - all other fields are allowed to be wildcarded.
 				if ( Message.isDebugOn ) {
 					Message.printDebug ( 2, routine, "Parameter = " + parameters[iparam] );
 				}
-				// Need to match against each station ID list.
-				// Set the information from the file into the working "tsident" to compare.
-				current_tsident.setLocation ( ids[iid] );
-				current_tsident.setType ( parameters[iparam] );
-				// Other TSID fields are left blank to match all.
-				if ( !defaultPattern && !current_tsident.matches(
-					tsident_regexp_loc,
-					tsident_regexp_source,
-					tsident_regexp_type,
-					tsident_regexp_interval,
-					tsident_regexp_scenario,
-					null,
-					null, false) ) {
+				// The location was checked above so only need to check the parameter.
+				if ( !parameterMatches[iparam] ) {
 					// This time series does not match one that is requested.
 					// Just need to match the location and parameter since that is all that is in the file.
 					//Message.printStatus ( 1, routine,"Requested \"" + tsident_pattern +
@@ -2481,6 +3372,12 @@ throws Exception
 					// Set properties.
 					setTimeSeriesProperties(ts, istatype);
 					tslist.add ( ts );
+					if ( locations != null ) {
+						// Data will be read by the caller for all time series in one pass:
+						// - the offset in the interval block is the same for every interval
+						locations.add ( new StateMod_BTS_TimeSeriesLocation ( ts, ista2, its, iparam, convert_cfs_to_acft,
+							calculateFilePosition(__date1, ista2, its, iparam) - __headerLength) );
+					}
 					if ( read_data ) {
 						if ( Message.isDebugOn ) {
 							Message.printDebug ( 2, routine, "Reading " + date1 + " to " + date2 );
@@ -2489,26 +3386,33 @@ throws Exception
 						if ( ts.allocateDataSpace () != 0 ) {
 							throw new Exception ( "Unable to allocate data space." );
 						}
+						if ( locations != null ) {
+							// Data are read by the caller.
+							continue;
+						}
 						// Read the data for the time series.
-						for ( date = new DateTime(date1); date.lessThanOrEqualTo(date2);
-							date.addInterval(__intervalBase, 1) ){
-							if ( (date.getMonth()==2)	&& (date.getDay()==29) ){
-								// StateMod does not handle.
+						if ( intervalPositions == null ) {
+							// Determine the intervals once for all time series.
+							nintervals = countIntervals ( date1, date2 );
+							intervalDates = new DateTime[nintervals];
+							intervalPositions = new long[nintervals];
+							acftFactors = new float[nintervals];
+							fillIntervalArrays ( date1, nintervals, intervalDates, intervalPositions, acftFactors );
+						}
+						intervalOffset = calculateFilePosition ( __date1, ista2, its, iparam ) - __headerLength;
+						for ( int interval = 0; interval < nintervals; interval++ ) {
+							if ( intervalPositions[interval] < 0 ) {
+								// February 29 - StateMod does not handle.
 								continue;
 							}
-							filepos = calculateFilePosition( date, ista2, its, iparam);
+							filepos = intervalPositions[interval] + intervalOffset;
 							if ( Message.isDebugOn){
-								Message.printDebug ( 2, routine, "Reading for "+ date +
+								Message.printDebug ( 2, routine, "Reading for "+ intervalDates[interval] +
 								" ista2="+ista2+ " iparam="+ iparam + " its=" + its +
 								" filepos=" + filepos );
 							}
-							if ( filepos < 0 ) {
-								continue;
-							}
-							__fp.seek ( filepos );
-							// Convert CFS to ACFT so output is monthly volume.
 							try {
-							    param = __fp.readLittleEndianFloat();
+							    param = readDataValue ( filepos, valueBuffer );
 							}
 							catch ( Exception e ) {
 								// Assume end of file so break out of read.
@@ -2520,14 +3424,14 @@ throws Exception
 								}
 								break;
 							}
-							// Convert to ACFT if necessary.
+							// Convert CFS to ACFT so output is monthly volume.
 							if ( convert_cfs_to_acft){
-								param = param*CFS_TO_ACFT*(float)__mthdayCalendar[date.getMonth() - 1];
+								param = param*acftFactors[interval];
 							}
 							if ( Message.isDebugOn){
 								Message.printDebug ( 2, routine, "Parameter value (AF) is " + param );
 							}
-							ts.setDataValue( date,param);
+							ts.setDataValue( intervalDates[interval], param );
 						}
 					}
 				}
@@ -2551,6 +3455,143 @@ throws Exception
 	return tslist;
 }
 
+/**
+Read the locations of time series in the binary file, without reading data.
+See readTimeSeriesList() for a description of the parameters.
+@return the locations, each with a time series that has header information only,
+in the same order as returned by readTimeSeriesList().
+@exception Exception if an error occurs reading the file.
+*/
+List<StateMod_BTS_TimeSeriesLocation> readTimeSeriesLocationList ( String tsident_pattern,
+	DateTime date1, DateTime date2, String [] includeDataTypes, String [] excludeDataTypes, String outputVersion )
+throws Exception
+{	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>();
+	readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, null, false, outputVersion, locations );
+	return locations;
+}
+
+/**
+Read a list of time series from the binary file, reading the data for all matched time series in one pass
+through the file.  This is much faster than readTimeSeriesList() when many time series are read,
+for example all stations for a parameter ("*.*.Shortage.*"), because the file is read sequentially
+one interval block at a time rather than once for each time series.
+The returned time series are the same as returned by readTimeSeriesList() with read_data=true.
+See readTimeSeriesList() for a description of the parameters.
+@return a list of time series, with data.
+@exception Exception if an error occurs reading the file, including if all intervals could not be read.
+*/
+public List<TS> readTimeSeriesListSinglePass ( String tsident_pattern, DateTime date1, DateTime date2,
+	String [] includeDataTypes, String [] excludeDataTypes, String req_units, String outputVersion )
+throws Exception
+{	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>();
+	List<TS> tslist = readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, req_units, true, outputVersion, locations );
+	if ( locations.size() > 0 ) {
+		TS ts = locations.get(0).getTimeSeries();
+		readTimeSeriesData ( locations, ts.getDate1(), ts.getDate2() );
+	}
+	return tslist;
+}
+
+/**
+Compute statistics for a list of time series in the binary file, reading the data for all matched time series in
+one pass through the file.  Time series data space is not allocated, so statistics can be computed for all
+stations in large files (e.g., months in shortage for "*.*.Shortage.*") with little memory.
+See readTimeSeriesList() for a description of the parameters.
+@return the statistics, with one row for each matched time series, in the same order as returned by
+readTimeSeriesList().  Values are in the data units of the time series.
+@exception IOException if all intervals cannot be read (e.g., the file is truncated).
+@exception Exception if an error occurs reading the file.
+*/
+public StateMod_BTS_Statistics readTimeSeriesStatistics ( String tsident_pattern, DateTime date1, DateTime date2,
+	String [] includeDataTypes, String [] excludeDataTypes, String outputVersion )
+throws Exception
+{	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>();
+	List<TS> tslist = readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, null, false, outputVersion, locations );
+	int size = tslist.size();
+	String [] tsids = new String[size];
+	String [] locationIds = new String[size];
+	String [] dataTypes = new String[size];
+	String [] units = new String[size];
+	for ( int i = 0; i < size; i++ ) {
+		TS ts = tslist.get(i);
+		tsids[i] = ts.getIdentifierString();
+		locationIds[i] = ts.getLocation();
+		dataTypes[i] = ts.getDataType();
+		units[i] = ts.getDataUnits();
+	}
+	DateTime tsdate1 = __date1;
+	DateTime tsdate2 = __date2;
+	if ( size > 0 ) {
+		tsdate1 = tslist.get(0).getDate1();
+		tsdate2 = tslist.get(0).getDate2();
+	}
+	StateMod_BTS_Statistics statistics = new StateMod_BTS_Statistics ( tsids, locationIds, dataTypes, units,
+		tsdate1.getYear(), tsdate2.getYear() );
+	readTimeSeriesData ( locations, tsdate1, tsdate2, null, statistics );
+	return statistics;
+}
+
+/**
+Read the values for a list of time series from the binary file into a float array,
+reading the data for all matched time series in one pass through the file.
+Time series objects are not allocated for the data, which is useful when processing many time series.
+See readTimeSeriesList() for a description of the parameters.
+@param tslist a non-null list that will be filled with the matched time series, without data,
+in the same order as the returned array, in order to identify the values.
+@return the values as values[its][interval], where "its" is the position in tslist and interval is the
+position from the first date (date1 or the start of the file), in the data units indicated by the time series.
+February 29 for daily data, which StateMod does not handle, is set to the time series missing value.
+@exception IOException if all intervals cannot be read (e.g., the file is truncated).
+@exception Exception if an error occurs reading the file.
+*/
+public float [][] readTimeSeriesValuesSinglePass ( String tsident_pattern, DateTime date1, DateTime date2,
+	String [] includeDataTypes, String [] excludeDataTypes, String outputVersion, List<TS> tslist )
+throws Exception
+{	List<StateMod_BTS_TimeSeriesLocation> locations = new ArrayList<>();
+	tslist.addAll ( readTimeSeriesList ( tsident_pattern, date1, date2,
+		includeDataTypes, excludeDataTypes, null, false, outputVersion, locations ) );
+	float [][] values = new float[locations.size()][];
+	if ( locations.size() == 0 ) {
+		return values;
+	}
+	TS ts = locations.get(0).getTimeSeries();
+	DateTime tsdate1 = ts.getDate1();
+	DateTime tsdate2 = ts.getDate2();
+	int nintervals = countIntervals ( tsdate1, tsdate2 );
+	for ( int i = 0; i < values.length; i++ ) {
+		values[i] = new float[nintervals];
+		Arrays.fill ( values[i], (float)locations.get(i).getTimeSeries().getMissing() );
+	}
+	readTimeSeriesData ( locations, tsdate1, tsdate2, values, null );
+	return values;
+}
+
+/**
+Release an instance that was acquired from the pool of open files with acquire().
+The file remains open in the pool for later use unless close() or closeAll() was called while it was in use,
+in which case it is closed when the last user releases it.
+@exception IOException if there is an error closing the file.
+*/
+public void release ()
+throws IOException
+{	boolean closeNow = false;
+	synchronized ( __filePool ) {
+		if ( __referenceCount > 0 ) {
+			--__referenceCount;
+		}
+		closeNow = __closePending && (__referenceCount == 0);
+		if ( closeNow ) {
+			__closePending = false;
+		}
+	}
+	if ( closeNow ) {
+		closeFile ();
+	}
+}
+
 /**
  * Set time series properties.
  * @param ts time series.
@@ -2560,6 +3601,27 @@ private void setTimeSeriesProperties ( TS ts, int istatype ) {
 	ts.setProperty("NodeType", this.nodeTypes[istatype] );
 }
 
+/**
+Determine the order of time series locations by position in the interval data block.
+@param locations the locations of time series.
+@return the positions in the locations list, sorted by position in the interval data block.
+*/
+private Integer [] sortLocationsByIntervalOffset ( List<StateMod_BTS_TimeSeriesLocation> locations )
+{	int nlocations = locations.size();
+	Integer [] order = new Integer[nlocations];
+	for ( int i = 0; i < nlocations; i++ ) {
+		order[i] = Integer.valueOf(i);
+	}
+	final List<StateMod_BTS_TimeSeriesLocation> locations2 = locations;
+	Arrays.sort ( order, new Comparator<Integer>() {
+		public int compare ( Integer i1, Integer i2 ) {
+			return Long.compare ( locations2.get(i1.intValue()).getIntervalOffset(),
+				locations2.get(i2.intValue()).getIntervalOffset() );
+		}
+	});
+	return order;
+}
+
 /**
 Return the number of time series in the file.
 @return the number of time series in the file.
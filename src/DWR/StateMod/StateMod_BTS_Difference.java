@@ -0,0 +1,188 @@
+// StateMod_BTS_Difference - differences between time series in two StateMod binary output files
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import RTi.Util.Time.DateTime;
+
+/**
+This class holds the differences between time series in two StateMod binary output files with the same layout,
+as computed by StateMod_BTS.compareTimeSeries().  Each row in the table is a location/parameter time series,
+in the same order as the time series would be returned by readTimeSeriesList().
+Differences are computed as (value2 - value1), where value1 is from the first (baseline) file,
+and are in the units of the time series.
+Rows are filled by separate threads, each of which updates a distinct set of rows.
+*/
+public class StateMod_BTS_Difference
+{
+
+/**
+Time series identifier strings for each row.
+*/
+private String [] __tsids = null;
+
+/**
+Number of values compared for each row.
+*/
+private int [] __count = null;
+
+/**
+Number of values that differ for each row.
+*/
+private int [] __countDifferent = null;
+
+/**
+Maximum absolute difference for each row.
+*/
+private double [] __maxAbsDifference = null;
+
+/**
+Maximum absolute percent difference for each row, relative to the first file,
+considering only values that are non-zero in the first file.
+*/
+private double [] __maxPercentDifference = null;
+
+/**
+First date with a difference for each row, or null if no difference.
+*/
+private DateTime [] __firstDifferenceDate = null;
+
+/**
+Constructor.
+@param tsids time series identifier strings for each row.
+*/
+public StateMod_BTS_Difference ( String [] tsids )
+{	int nrows = tsids.length;
+	__tsids = tsids;
+	__count = new int[nrows];
+	__countDifferent = new int[nrows];
+	__maxAbsDifference = new double[nrows];
+	__maxPercentDifference = new double[nrows];
+	__firstDifferenceDate = new DateTime[nrows];
+}
+
+/**
+Add a pair of values to the differences for a row.
+@param row row (time series) position (0+).
+@param date date for the values, which is copied if it is the first date with a difference.
+@param value1 value from the first file.
+@param value2 value from the second file.
+*/
+public void addValues ( int row, DateTime date, double value1, double value2 )
+{	++__count[row];
+	if ( value1 == value2 ) {
+		return;
+	}
+	++__countDifferent[row];
+	if ( __firstDifferenceDate[row] == null ) {
+		__firstDifferenceDate[row] = new DateTime ( date );
+	}
+	double diff = Math.abs ( value2 - value1 );
+	if ( diff > __maxAbsDifference[row] ) {
+		__maxAbsDifference[row] = diff;
+	}
+	if ( value1 != 0.0 ) {
+		double percent = 100.0*diff/Math.abs(value1);
+		if ( percent > __maxPercentDifference[row] ) {
+			__maxPercentDifference[row] = percent;
+		}
+	}
+}
+
+/**
+Return the number of values compared for a row.
+@param row row (time series) position (0+).
+@return the number of values compared.
+*/
+public int getCount ( int row )
+{	return __count[row];
+}
+
+/**
+Return the number of values that differ for a row.
+@param row row (time series) position (0+).
+@return the number of values that differ.
+*/
+public int getCountDifferent ( int row )
+{	return __countDifferent[row];
+}
+
+/**
+Return the first date with a difference for a row.
+@param row row (time series) position (0+).
+@return the first date with a difference, or null if the time series are the same.
+*/
+public DateTime getFirstDifferenceDate ( int row )
+{	return __firstDifferenceDate[row];
+}
+
+/**
+Return the maximum absolute difference for a row.
+@param row row (time series) position (0+).
+@return the maximum absolute difference.
+*/
+public double getMaxAbsDifference ( int row )
+{	return __maxAbsDifference[row];
+}
+
+/**
+Return the maximum absolute percent difference for a row, relative to the value in the first file.
+Values that are zero in the first file are not considered.
+@param row row (time series) position (0+).
+@return the maximum absolute percent difference.
+*/
+public double getMaxPercentDifference ( int row )
+{	return __maxPercentDifference[row];
+}
+
+/**
+Return the time series identifier string for a row.
+@param row row (time series) position (0+).
+@return the time series identifier string for a row.
+*/
+public String getTSID ( int row )
+{	return __tsids[row];
+}
+
+/**
+Indicate whether any time series differ.
+@return true if any values differ.
+*/
+public boolean hasDifferences ()
+{	for ( int i = 0; i < __countDifferent.length; i++ ) {
+		if ( __countDifferent[i] > 0 ) {
+			return true;
+		}
+	}
+	return false;
+}
+
+/**
+Return the number of rows (time series) in the table.
+@return the number of rows.
+*/
+public int size ()
+{	return __tsids.length;
+}
+
+}
@@ -0,0 +1,287 @@
+// StateMod_BTS_Statistics - summary statistics computed while streaming through a binary output file
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.Arrays;
+
+/**
+This class holds summary statistics for time series in a StateMod or StateCU binary output file,
+computed in one sequential pass through the file without creating time series data
+(see StateMod_BTS.readTimeSeriesStatistics() and StateCU_BTS.readTimeSeriesStatistics()).
+Each row in the table is a location/parameter time series, in the same order as the time series
+would be returned by readTimeSeriesList().  Statistics are accumulated in primitive arrays,
+in the units of the time series (e.g., ACFT for monthly StateMod diversion output).
+Annual totals are for calendar years.
+*/
+public class StateMod_BTS_Statistics
+{
+
+/**
+Time series identifier strings for each row.
+*/
+private String [] __tsids = null;
+
+/**
+Location identifiers for each row.
+*/
+private String [] __locationIds = null;
+
+/**
+Data types (parameters) for each row.
+*/
+private String [] __dataTypes = null;
+
+/**
+Data units for each row.
+*/
+private String [] __units = null;
+
+/**
+First calendar year for annual totals.
+*/
+private int __year1 = 0;
+
+/**
+Last calendar year for annual totals.
+*/
+private int __year2 = 0;
+
+/**
+Number of values processed for each row.
+*/
+private int [] __count = null;
+
+/**
+Number of values greater than zero for each row (e.g., months in shortage for a shortage parameter).
+*/
+private int [] __countGreaterThanZero = null;
+
+/**
+Total of values for each row.
+*/
+private double [] __total = null;
+
+/**
+Minimum value for each row.
+*/
+private double [] __min = null;
+
+/**
+Maximum value for each row.
+*/
+private double [] __max = null;
+
+/**
+Annual totals for each row, __annualTotal[row][year - __year1].
+*/
+private double [][] __annualTotal = null;
+
+/**
+Constructor.
+@param tsids time series identifier strings for each row.
+@param locationIds location identifiers for each row.
+@param dataTypes data types for each row.
+@param units data units for each row.
+@param year1 first calendar year of data to process.
+@param year2 last calendar year of data to process.
+*/
+public StateMod_BTS_Statistics ( String [] tsids, String [] locationIds, String [] dataTypes, String [] units,
+	int year1, int year2 )
+{	int nrows = tsids.length;
+	__tsids = tsids;
+	__locationIds = locationIds;
+	__dataTypes = dataTypes;
+	__units = units;
+	__year1 = year1;
+	__year2 = year2;
+	__count = new int[nrows];
+	__countGreaterThanZero = new int[nrows];
+	__total = new double[nrows];
+	__min = new double[nrows];
+	__max = new double[nrows];
+	Arrays.fill ( __min, Double.POSITIVE_INFINITY );
+	Arrays.fill ( __max, Double.NEGATIVE_INFINITY );
+	__annualTotal = new double[nrows][year2 - year1 + 1];
+}
+
+/**
+Add a value to the statistics for a row.
+@param row row (time series) position (0+).
+@param year calendar year of the value.
+@param value value to add.
+*/
+public void addValue ( int row, int year, double value )
+{	++__count[row];
+	if ( value > 0.0 ) {
+		++__countGreaterThanZero[row];
+	}
+	__total[row] += value;
+	if ( value < __min[row] ) {
+		__min[row] = value;
+	}
+	if ( value > __max[row] ) {
+		__max[row] = value;
+	}
+	__annualTotal[row][year - __year1] += value;
+}
+
+/**
+Return the annual total for a row.
+@param row row (time series) position (0+).
+@param year calendar year.
+@return the annual total, or zero if the year is outside the processed period.
+*/
+public double getAnnualTotal ( int row, int year )
+{	int iyear = year - __year1;
+	if ( (iyear < 0) || (iyear >= __annualTotal[row].length) ) {
+		return 0.0;
+	}
+	return __annualTotal[row][iyear];
+}
+
+/**
+Return the number of values processed for a row.
+@param row row (time series) position (0+).
+@return the number of values processed for a row.
+*/
+public int getCount ( int row )
+{	return __count[row];
+}
+
+/**
+Return the number of values greater than zero for a row, for example the number of months in shortage for a
+shortage parameter.
+@param row row (time series) position (0+).
+@return the number of values greater than zero.
+*/
+public int getCountGreaterThanZero ( int row )
+{	return __countGreaterThanZero[row];
+}
+
+/**
+Return the data type (parameter) for a row.
+@param row row (time series) position (0+).
+@return the data type for a row.
+*/
+public String getDataType ( int row )
+{	return __dataTypes[row];
+}
+
+/**
+Return the data units for a row.
+@param row row (time series) position (0+).
+@return the data units for a row.
+*/
+public String getDataUnits ( int row )
+{	return __units[row];
+}
+
+/**
+Return the location identifier for a row.
+@param row row (time series) position (0+).
+@return the location identifier for a row.
+*/
+public String getLocationId ( int row )
+{	return __locationIds[row];
+}
+
+/**
+Return the maximum value for a row.
+@param row row (time series) position (0+).
+@return the maximum value, or NaN if no values were processed.
+*/
+public double getMax ( int row )
+{	if ( __count[row] == 0 ) {
+		return Double.NaN;
+	}
+	return __max[row];
+}
+
+/**
+Return the mean value for a row.
+@param row row (time series) position (0+).
+@return the mean value, or NaN if no values were processed.
+*/
+public double getMean ( int row )
+{	if ( __count[row] == 0 ) {
+		return Double.NaN;
+	}
+	return __total[row]/__count[row];
+}
+
+/**
+Return the minimum value for a row.
+@param row row (time series) position (0+).
+@return the minimum value, or NaN if no values were processed.
+*/
+public double getMin ( int row )
+{	if ( __count[row] == 0 ) {
+		return Double.NaN;
+	}
+	return __min[row];
+}
+
+/**
+Return the total of values for a row.
+@param row row (time series) position (0+).
+@return the total of values.
+*/
+public double getTotal ( int row )
+{	return __total[row];
+}
+
+/**
+Return the time series identifier string for a row.
+@param row row (time series) position (0+).
+@return the time series identifier string for a row.
+*/
+public String getTSID ( int row )
+{	return __tsids[row];
+}
+
+/**
+Return the first calendar year for annual totals.
+@return the first calendar year for annual totals.
+*/
+public int getYear1 ()
+{	return __year1;
+}
+
+/**
+Return the last calendar year for annual totals.
+@return the last calendar year for annual totals.
+*/
+public int getYear2 ()
+{	return __year2;
+}
+
+/**
+Return the number of rows (time series) in the table.
+@return the number of rows.
+*/
+public int size ()
+{	return __tsids.length;
+}
+
+}
@@ -0,0 +1,247 @@
+// StateMod_BTS_Tail - follow a StateMod binary output file while it is being written
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import RTi.TS.TS;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+This class follows a StateMod binary output file while StateMod is writing it, similar to "tail -f".
+The file header is written first and indicates the full period of the run, so the number of complete
+interval data blocks can be determined from the current file length.
+Each call to poll() reads the intervals that have been completed since the previous call into the followed
+time series and notifies listeners.  Polling can also be done by a background thread with start() and stop().
+The StateMod_BTS instance must not be memory-mapped, because a mapping does not include data written after the
+file was opened, and must remain open while the file is followed.
+*/
+public class StateMod_BTS_Tail
+{
+
+/**
+Binary file being followed.
+*/
+private StateMod_BTS __bts = null;
+
+/**
+Locations of the time series being followed, with time series that have allocated data space.
+*/
+private List<StateMod_BTS_TimeSeriesLocation> __locations = null;
+
+/**
+Time series being followed, in the same order as __locations.
+*/
+private List<TS> __tslist = null;
+
+/**
+Listeners to notify when new data are read.
+*/
+private List<StateMod_BTS_TailListener> __listeners = new ArrayList<>();
+
+/**
+Next date to read.
+*/
+private DateTime __nextDate = null;
+
+/**
+Last date in the file, from the header.
+*/
+private DateTime __date2 = null;
+
+/**
+File length when last checked.
+*/
+private long __fileLength = -1;
+
+/**
+Thread that polls the file, or null if not started.
+*/
+private Thread __pollThread = null;
+
+/**
+Indicates whether the poll thread should stop.
+*/
+private volatile boolean __stopRequested = false;
+
+/**
+Constructor.  The time series to follow are determined from the file header.
+See StateMod_BTS.readTimeSeriesList() for a description of the parameters.
+@param bts binary file to follow, which must not be memory-mapped.
+@param tsident_pattern time series identifier pattern to match.
+@param includeDataTypes an array of data types (matching StateMod parameters) to include or null to include all.
+@param excludeDataTypes an array of data types (matching StateMod parameters) to exclude or null to exclude none.
+@param outputVersion "Original" (default) or "Latest", to transform identifiers to the latest version.
+@exception Exception if the file is memory-mapped or the time series cannot be determined.
+*/
+public StateMod_BTS_Tail ( StateMod_BTS bts, String tsident_pattern, String [] includeDataTypes,
+	String [] excludeDataTypes, String outputVersion )
+throws Exception
+{	if ( bts.isMemoryMapped() ) {
+		throw new IOException ( "A memory-mapped file cannot be followed." );
+	}
+	__bts = bts;
+	__locations = new ArrayList<>();
+	__tslist = new ArrayList<>();
+	for ( StateMod_BTS_TimeSeriesLocation location : bts.readTimeSeriesLocationList ( tsident_pattern, null, null,
+		includeDataTypes, excludeDataTypes, outputVersion ) ) {
+		TS ts = bts.createTimeSeries ( location.getTimeSeries() );
+		__tslist.add ( ts );
+		__locations.add ( new StateMod_BTS_TimeSeriesLocation ( ts, location.getStationIndex(),
+			location.getTimeSeriesIndex(), location.getParameterIndex(), location.getConvertCfsToAcft(),
+			location.getIntervalOffset()) );
+	}
+	__nextDate = new DateTime ( bts.getDate1() );
+	__date2 = new DateTime ( bts.getDate2() );
+}
+
+/**
+Add a listener to be notified when new data are read.
+@param listener listener to add.
+*/
+public synchronized void addListener ( StateMod_BTS_TailListener listener )
+{	if ( !__listeners.contains(listener) ) {
+		__listeners.add ( listener );
+	}
+}
+
+/**
+Return the time series being followed, which have data for the intervals read so far.
+@return the time series being followed.
+*/
+public List<TS> getTimeSeriesList ()
+{	return __tslist;
+}
+
+/**
+Indicate whether all intervals in the period of the file have been read.
+@return true if all intervals have been read.
+*/
+public synchronized boolean isComplete ()
+{	return __nextDate.greaterThan(__date2);
+}
+
+/**
+Check the file length and read intervals that have been completed since the last check.
+Listeners are notified if new intervals were read.  If the intervals cannot be read, the next date to read
+is not advanced, so that the same intervals are read again by the next call.
+@return the number of new intervals that were read.
+@exception IOException if an error occurs reading the file.
+*/
+public int poll ()
+throws IOException
+{	List<StateMod_BTS_TailListener> listeners;
+	DateTime date1;
+	DateTime date2;
+	int nintervals = 0;
+	synchronized ( this ) {
+		long fileLength = __bts.getFileLength();
+		if ( fileLength == __fileLength ) {
+			return 0;
+		}
+		int intervalBase = __bts.getDataIntervalBase();
+		DateTime date = new DateTime ( __nextDate );
+		while ( date.lessThanOrEqualTo(__date2) && __bts.isIntervalComplete(date, fileLength) ) {
+			date.addInterval ( intervalBase, 1 );
+			++nintervals;
+		}
+		if ( nintervals == 0 ) {
+			__fileLength = fileLength;
+			return 0;
+		}
+		date1 = __nextDate;
+		date2 = new DateTime ( date );
+		date2.addInterval ( intervalBase, -1 );
+		// Only advance after a successful read - if the read fails, the file length is not saved so the
+		// same intervals are read by the next call...
+		__bts.readTimeSeriesData ( __locations, date1, date2 );
+		__fileLength = fileLength;
+		__nextDate = date;
+		listeners = new ArrayList<>(__listeners);
+	}
+	for ( StateMod_BTS_TailListener listener : listeners ) {
+		listener.timeSeriesUpdated ( this, __tslist, date1, date2 );
+	}
+	return nintervals;
+}
+
+/**
+Remove a listener that was added with addListener().
+@param listener listener to remove.
+*/
+public synchronized void removeListener ( StateMod_BTS_TailListener listener )
+{	__listeners.remove ( listener );
+}
+
+/**
+Start a background thread that polls the file until all intervals have been read or stop() is called.
+@param pollMilliseconds the time between checks of the file length, milliseconds.
+*/
+public synchronized void start ( final long pollMilliseconds )
+{	if ( __pollThread != null ) {
+		return;
+	}
+	__stopRequested = false;
+	__pollThread = new Thread ( new Runnable() {
+		public void run () {
+			String routine = "StateMod_BTS_Tail.run";
+			while ( !__stopRequested && !isComplete() ) {
+				try {
+					poll();
+				}
+				catch ( IOException e ) {
+					Message.printWarning ( 3, routine, "Error reading new data (" + e + ")." );
+				}
+				try {
+					Thread.sleep ( pollMilliseconds );
+				}
+				catch ( InterruptedException e ) {
+					break;
+				}
+			}
+		}
+	}, "StateMod_BTS_Tail" );
+	__pollThread.setDaemon ( true );
+	__pollThread.start();
+}
+
+/**
+Stop the background thread that was started with start().
+*/
+public void stop ()
+{	Thread pollThread;
+	synchronized ( this ) {
+		__stopRequested = true;
+		pollThread = __pollThread;
+		__pollThread = null;
+	}
+	if ( pollThread != null ) {
+		pollThread.interrupt();
+	}
+}
+
+}
@@ -0,0 +1,45 @@
+// StateMod_BTS_TailListener - listener for new data read from a StateMod binary output file
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.List;
+
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+/**
+This interface is implemented by classes that want to be notified when StateMod_BTS_Tail
+reads new data from a StateMod binary output file that is being written.
+*/
+public interface StateMod_BTS_TailListener {
+    /**
+     * Called when new intervals have been read from the file.  The time series are the same objects for
+     * each call and have data for all intervals read so far.  This is called from the thread that polls the file.
+     * @param tail the StateMod_BTS_Tail that read the data.
+     * @param tslist the time series being followed.
+     * @param date1 first date that was read in this update.
+     * @param date2 last date that was read in this update.
+     */
+    void timeSeriesUpdated ( StateMod_BTS_Tail tail, List<TS> tslist, DateTime date1, DateTime date2 );
+}
@@ -0,0 +1,143 @@
+// StateMod_BTS_TimeSeriesHandle - handle for a time series in a StateMod binary output file, with data read on demand
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+/**
+This class is a handle for a time series in a StateMod binary output file, as returned by
+StateMod_BTS.readTimeSeriesHandleList().  The handle provides the time series header (identifier, description,
+period, units) without allocating data space, and the data are read from the file the first time they are requested.
+This allows many time series to be listed (for example in a selection list) while only reading data for the
+time series that are actually used.
+The time series with data is held with a soft reference so that it is dropped by the garbage collector under
+memory pressure when not otherwise referenced, and evict() can be called to drop the data explicitly.
+If dropped, the data are read again when next requested.
+The StateMod_BTS instance that created the handle must remain open while data may be requested.
+*/
+public class StateMod_BTS_TimeSeriesHandle
+{
+
+/**
+Binary file that contains the time series.
+*/
+private StateMod_BTS __bts = null;
+
+/**
+Location of the time series in the file, including the time series header (without data).
+*/
+private StateMod_BTS_TimeSeriesLocation __location = null;
+
+/**
+Time series with data, if it has been read and has not been dropped.
+*/
+private SoftReference<TS> __tsReference = null;
+
+/**
+Constructor.
+@param bts binary file that contains the time series.
+@param location location of the time series in the file, with a time series that has header information only.
+*/
+public StateMod_BTS_TimeSeriesHandle ( StateMod_BTS bts, StateMod_BTS_TimeSeriesLocation location )
+{	__bts = bts;
+	__location = location;
+}
+
+/**
+Drop the time series data, if read.  The data will be read again if requested.
+References to the time series that were previously returned by getTimeSeries() remain valid.
+*/
+public synchronized void evict ()
+{	if ( __tsReference != null ) {
+		__tsReference.clear();
+		__tsReference = null;
+	}
+}
+
+/**
+Return a data value for the time series, reading the time series data if necessary.
+@param date date/time for the data value.
+@return the data value.
+@exception IOException if the data cannot be read.
+*/
+public double getDataValue ( DateTime date )
+throws IOException
+{	return getTimeSeries().getDataValue ( date );
+}
+
+/**
+Return the time series identifier string.
+@return the time series identifier string.
+*/
+public String getIdentifierString ()
+{	return __location.getTimeSeries().getIdentifierString();
+}
+
+/**
+Return the location of the time series in the file.
+@return the location of the time series in the file.
+*/
+public StateMod_BTS_TimeSeriesLocation getLocation ()
+{	return __location;
+}
+
+/**
+Return the time series with data, reading the data from the file if it has not been read or was dropped.
+@return the time series with data.
+@exception IOException if the data cannot be read.
+*/
+public synchronized TS getTimeSeries ()
+throws IOException
+{	TS ts = null;
+	if ( __tsReference != null ) {
+		ts = __tsReference.get();
+	}
+	if ( ts == null ) {
+		ts = __bts.readTimeSeries ( __location );
+		__tsReference = new SoftReference<TS>(ts);
+	}
+	return ts;
+}
+
+/**
+Return the time series header, which has no data.  This does not read data from the file.
+@return the time series header.
+*/
+public TS getTimeSeriesHeader ()
+{	return __location.getTimeSeries();
+}
+
+/**
+Indicate whether the time series data have been read and have not been dropped.
+@return true if the time series data are in memory.
+*/
+public synchronized boolean isLoaded ()
+{	return (__tsReference != null) && (__tsReference.get() != null);
+}
+
+}
@@ -0,0 +1,136 @@
+// StateMod_BTS_TimeSeriesLocation - location of a time series within a StateMod binary output file
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import RTi.TS.TS;
+
+/**
+This class records where the values for one time series are located in a StateMod binary output file.
+Instances are created by StateMod_BTS when matching time series identifiers and are used to read the
+data for many time series in one pass through the file.
+The data for one interval (month or day) are stored as a block of records, and the position of a
+time series value in each block is the same for every interval.
+*/
+public class StateMod_BTS_TimeSeriesLocation
+{
+
+/**
+Time series that receives the data.
+*/
+private TS __ts = null;
+
+/**
+Station position in the data records (river node position for stream/diversion/ISF,
+reservoir or well position for reservoir and well files).
+*/
+private int __ista2 = 0;
+
+/**
+Time series for the station, 0 for the total and 1+ for reservoir accounts.
+*/
+private int __its = 0;
+
+/**
+Parameter position (0+).
+*/
+private int __iparam = 0;
+
+/**
+Indicates whether values should be converted from CFS to ACFT.
+*/
+private boolean __convertCfsToAcft = false;
+
+/**
+Byte offset of the value from the start of the interval's data block.
+*/
+private long __intervalOffset = 0;
+
+/**
+Constructor.
+@param ts time series that receives the data.
+@param ista2 station position in the data records.
+@param its time series for the station (0 for total, 1+ for reservoir account).
+@param iparam parameter position (0+).
+@param convertCfsToAcft whether values should be converted from CFS to ACFT.
+@param intervalOffset byte offset of the value from the start of the interval's data block.
+*/
+public StateMod_BTS_TimeSeriesLocation ( TS ts, int ista2, int its, int iparam, boolean convertCfsToAcft,
+	long intervalOffset )
+{	__ts = ts;
+	__ista2 = ista2;
+	__its = its;
+	__iparam = iparam;
+	__convertCfsToAcft = convertCfsToAcft;
+	__intervalOffset = intervalOffset;
+}
+
+/**
+Return whether values should be converted from CFS to ACFT.
+@return whether values should be converted from CFS to ACFT.
+*/
+public boolean getConvertCfsToAcft ()
+{	return __convertCfsToAcft;
+}
+
+/**
+Return the byte offset of the value from the start of the interval's data block.
+@return the byte offset of the value from the start of the interval's data block.
+*/
+public long getIntervalOffset ()
+{	return __intervalOffset;
+}
+
+/**
+Return the parameter position (0+).
+@return the parameter position (0+).
+*/
+public int getParameterIndex ()
+{	return __iparam;
+}
+
+/**
+Return the station position in the data records.
+@return the station position in the data records.
+*/
+public int getStationIndex ()
+{	return __ista2;
+}
+
+/**
+Return the time series position for the station (0 for total, 1+ for reservoir account).
+@return the time series position for the station.
+*/
+public int getTimeSeriesIndex ()
+{	return __its;
+}
+
+/**
+Return the time series that receives the data.
+@return the time series that receives the data.
+*/
+public TS getTimeSeries ()
+{	return __ts;
+}
+
+}
@@ -0,0 +1,329 @@
+// StateMod_ComponentMetrics - read/write metrics for a data set component
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.File;
+import java.util.List;
+
+/**
+This class records read and write metrics for a StateMod or StateCU data set component, such as the file
+size, number of records parsed, and parse time, so that data set performance can be tracked by
+applications rather than parsing the log file.  Instances are managed by StateMod_DataSetMetrics and
+are updated by the data set read and write methods.  The methods are synchronized because components
+can be read in parallel.
+*/
+public class StateMod_ComponentMetrics implements StateMod_ComponentMetricsMBean
+{
+
+/**
+Component type.
+*/
+private int __componentType;
+
+/**
+Component name.
+*/
+private String __componentName;
+
+/**
+File that was last read.
+*/
+private String __fileName = "";
+
+/**
+Size of the file that was last read, bytes.
+*/
+private long __fileSize = 0;
+
+/**
+Number of records parsed by the last read.
+*/
+private int __recordCount = 0;
+
+/**
+Parse time for the last read, seconds.
+*/
+private double __readTime = 0.0;
+
+/**
+Connect time for the last read, seconds.
+*/
+private double __connectTime = 0.0;
+
+/**
+Number of errors reading the component for the last read (the component could not be read).
+*/
+private int __readErrorCount = 0;
+
+/**
+Largest number of records in the component data for any read or write.
+*/
+private int __peakListSize = 0;
+
+/**
+Number of times the component has been read.
+*/
+private int __readCount = 0;
+
+/**
+File that was last written.
+*/
+private String __writeFileName = "";
+
+/**
+Number of records written by the last write.
+*/
+private int __writeRecordCount = 0;
+
+/**
+Time for the last write, seconds.
+*/
+private double __writeTime = 0.0;
+
+/**
+Number of times the component has been written.
+*/
+private int __writeCount = 0;
+
+/**
+Constructor.
+@param componentType component type.
+@param componentName component name.
+*/
+public StateMod_ComponentMetrics ( int componentType, String componentName )
+{	__componentType = componentType;
+	__componentName = componentName;
+}
+
+/**
+Add to the connect time for the last read, for example when rights and time series are connected to
+stations after the component is read.
+@param seconds connect time, seconds.
+*/
+public synchronized void addConnectTime ( double seconds )
+{	__connectTime += seconds;
+}
+
+/**
+Add an error reading the component for the last read, for example when the file could not be read.
+*/
+public synchronized void addReadError ()
+{	++__readErrorCount;
+}
+
+/**
+Return the component name.
+@return the component name.
+*/
+public String getComponentName ()
+{	return __componentName;
+}
+
+/**
+Return the component type.
+@return the component type.
+*/
+public int getComponentType ()
+{	return __componentType;
+}
+
+/**
+Return the connect time for the last read, seconds.
+@return the connect time for the last read, seconds.
+*/
+public synchronized double getConnectTime ()
+{	return __connectTime;
+}
+
+/**
+Return the file that was last read.
+@return the file that was last read.
+*/
+public synchronized String getFileName ()
+{	return __fileName;
+}
+
+/**
+Return the size of the file that was last read, bytes.
+@return the size of the file that was last read, bytes.
+*/
+public synchronized long getFileSize ()
+{	return __fileSize;
+}
+
+/**
+Return the largest number of records in the component data for any read or write.
+@return the largest number of records in the component data.
+*/
+public synchronized int getPeakListSize ()
+{	return __peakListSize;
+}
+
+/**
+Return the number of times the component has been read.
+@return the number of times the component has been read.
+*/
+public synchronized int getReadCount ()
+{	return __readCount;
+}
+
+/**
+Return the number of errors reading the component for the last read.
+@return the number of errors reading the component for the last read.
+*/
+public synchronized int getReadErrorCount ()
+{	return __readErrorCount;
+}
+
+/**
+Return the parse time for the last read, seconds.
+@return the parse time for the last read, seconds.
+*/
+public synchronized double getReadTime ()
+{	return __readTime;
+}
+
+/**
+Return the number of records parsed by the last read.
+@return the number of records parsed by the last read.
+*/
+public synchronized int getRecordCount ()
+{	return __recordCount;
+}
+
+/**
+Return the number of records in component data.
+@param data component data.
+@return the size of the list, 1 for other non-null data, or 0 for null data.
+*/
+private static int getRecordCount ( Object data )
+{	if ( data == null ) {
+		return 0;
+	}
+	else if ( data instanceof List ) {
+		return ((List<?>)data).size();
+	}
+	return 1;
+}
+
+/**
+Return the number of times the component has been written.
+@return the number of times the component has been written.
+*/
+public synchronized int getWriteCount ()
+{	return __writeCount;
+}
+
+/**
+Return the file that was last written.
+@return the file that was last written.
+*/
+public synchronized String getWriteFileName ()
+{	return __writeFileName;
+}
+
+/**
+Return the number of records written by the last write.
+@return the number of records written by the last write.
+*/
+public synchronized int getWriteRecordCount ()
+{	return __writeRecordCount;
+}
+
+/**
+Return the time for the last write, seconds.
+@return the time for the last write, seconds.
+*/
+public synchronized double getWriteTime ()
+{	return __writeTime;
+}
+
+/**
+Record a read of the component.  This should be called after startRead() when the read is complete.
+@param fileName full path to the file that was read.
+@param data component data that were read.
+@param seconds parse time, seconds.
+*/
+public synchronized void recordRead ( String fileName, Object data, double seconds )
+{	__fileName = (fileName == null) ? "" : fileName;
+	__fileSize = (fileName == null) ? 0 : new File(fileName).length();
+	__recordCount = getRecordCount ( data );
+	__peakListSize = Math.max ( __peakListSize, __recordCount );
+	__readTime = seconds;
+	++__readCount;
+}
+
+/**
+Record a write of the component.
+@param fileName full path to the file that was written.
+@param data component data that were written.
+@param seconds write time, seconds.
+*/
+public synchronized void recordWrite ( String fileName, Object data, double seconds )
+{	__writeFileName = (fileName == null) ? "" : fileName;
+	__writeRecordCount = getRecordCount ( data );
+	__peakListSize = Math.max ( __peakListSize, __writeRecordCount );
+	__writeTime = seconds;
+	++__writeCount;
+}
+
+/**
+Reset the metrics.
+*/
+public synchronized void reset ()
+{	__fileName = "";
+	__fileSize = 0;
+	__recordCount = 0;
+	__readTime = 0.0;
+	__connectTime = 0.0;
+	__readErrorCount = 0;
+	__peakListSize = 0;
+	__readCount = 0;
+	__writeFileName = "";
+	__writeRecordCount = 0;
+	__writeTime = 0.0;
+	__writeCount = 0;
+}
+
+/**
+Start a read of the component, which resets the connect time and read error count because they apply to
+the last read.
+*/
+public synchronized void startRead ()
+{	__connectTime = 0.0;
+	__readErrorCount = 0;
+}
+
+/**
+Return a string representation of the metrics, suitable for logging.
+@return a string representation of the metrics.
+*/
+public synchronized String toString ()
+{	return __componentName + ": file=\"" + __fileName + "\" size=" + __fileSize + " records=" +
+		__recordCount + " readTime=" + __readTime + " connectTime=" + __connectTime + " readErrors=" +
+		__readErrorCount + " peakListSize=" + __peakListSize + " writeTime=" + __writeTime +
+		" writeRecords=" + __writeRecordCount;
+}
+
+}
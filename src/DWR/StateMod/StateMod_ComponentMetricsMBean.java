@@ -0,0 +1,120 @@
+// StateMod_ComponentMetricsMBean - JMX management interface for data set component read/write metrics
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+/**
+JMX management interface for StateMod_ComponentMetrics, which exposes the read and write metrics for a
+data set component as MBean attributes.  See StateMod_DataSetMetrics.registerMBeans().
+*/
+public interface StateMod_ComponentMetricsMBean
+{
+	/**
+	Return the component name.
+	@return the component name.
+	*/
+	public String getComponentName();
+
+	/**
+	Return the component type.
+	@return the component type.
+	*/
+	public int getComponentType();
+
+	/**
+	Return the connect time for the last read, seconds.
+	@return the connect time for the last read, seconds.
+	*/
+	public double getConnectTime();
+
+	/**
+	Return the file that was last read.
+	@return the file that was last read.
+	*/
+	public String getFileName();
+
+	/**
+	Return the size of the file that was last read, bytes.
+	@return the size of the file that was last read, bytes.
+	*/
+	public long getFileSize();
+
+	/**
+	Return the largest number of records in the component data for any read or write.
+	@return the largest number of records in the component data.
+	*/
+	public int getPeakListSize();
+
+	/**
+	Return the number of times the component has been read.
+	@return the number of times the component has been read.
+	*/
+	public int getReadCount();
+
+	/**
+	Return the number of errors reading the component for the last read.
+	@return the number of errors reading the component for the last read.
+	*/
+	public int getReadErrorCount();
+
+	/**
+	Return the number of records parsed by the last read.
+	@return the number of records parsed by the last read.
+	*/
+	public int getRecordCount();
+
+	/**
+	Return the parse time for the last read, seconds.
+	@return the parse time for the last read, seconds.
+	*/
+	public double getReadTime();
+
+	/**
+	Return the number of times the component has been written.
+	@return the number of times the component has been written.
+	*/
+	public int getWriteCount();
+
+	/**
+	Return the file that was last written.
+	@return the file that was last written.
+	*/
+	public String getWriteFileName();
+
+	/**
+	Return the number of records written by the last write.
+	@return the number of records written by the last write.
+	*/
+	public int getWriteRecordCount();
+
+	/**
+	Return the time for the last write, seconds.
+	@return the time for the last write, seconds.
+	*/
+	public double getWriteTime();
+
+	/**
+	Reset the metrics.
+	*/
+	public void reset();
+}
@@ -85,6 +85,8 @@ NoticeEnd */
 
 package DWR.StateMod;
 
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 import RTi.Util.Message.Message;
 import RTi.Util.String.StringUtil;
 import RTi.Util.Time.DateTime;
@@ -105,11 +107,24 @@ public static long MISSING_LONG = -999;
 public static String MISSING_STRING = "";
 
 /**
-Reference to the _dataset into which all the StateMod_* data objects are 
-being placed.  It is used statically because this way every object that extends
-StateMod_Data will have a reference to the same dataset for using the setDirty() method.
+Reference to the data set that owns this object, used to call the data set setDirty() method when
+values change.  The data set is assigned when the object is created while reading a data set (see
+getThreadDataSet()), when the object is added to a component (see StateMod_DataSetComponent.setData()),
+or with setOwningDataSet() (e.g., by editors), so that several data sets can be read and edited in the
+same application.
 */
-protected static StateMod_DataSet _dataset = null;
+protected StateMod_DataSet _dataset = null;
+
+/**
+Data set that is being read in the current thread, assigned to objects created by the read.
+*/
+private static final ThreadLocal<StateMod_DataSet> __threadDataSet = new ThreadLocal<StateMod_DataSet>();
+
+/**
+Number of identifier changes for each data type (StateMod_DataSet component type), used to know when
+identifier indexes maintained by StateMod_DataSetComponent must be rebuilt.
+*/
+private static final AtomicIntegerArray __idChangeCounts = new AtomicIntegerArray ( 100 );
 
 /**
 Whether the data is dirty or not.
@@ -195,6 +210,7 @@ Constructor.
 */
 public StateMod_Data() {
 	super();
+	_dataset = getThreadDataSet();
 	initialize();
 }
 
@@ -213,7 +229,6 @@ public Object clone() {
 	}
 
 	// dataset is not cloned -- the same reference is used.
-	//StateMod_Data._dataset = _dataset;
 	data._isClone = true;
 
 	return data;
@@ -371,6 +386,14 @@ public String getName() {
 	return _name;
 }
 
+/**
+Return the data set that owns this object.
+@return the data set that owns this object, or null if not owned by a data set.
+*/
+public StateMod_DataSet getOwningDataSet() {
+	return _dataset;
+}
+
 /**
 Return the new_utm flag.
 */
@@ -378,6 +401,19 @@ public int getNewUTM() {
 	return _new_utm;
 }
 
+/**
+Return the number of identifier changes for a data type.  The count is used to know when an identifier index
+for a component must be rebuilt.
+@param type data type (StateMod_DataSet component type).
+@return the number of identifier changes for the data type.
+*/
+public static int getIDChangeCount ( int type )
+{	if ( (type < 0) || (type >= __idChangeCounts.length()) ) {
+		return 0;
+	}
+	return __idChangeCounts.get ( type );
+}
+
 /**
 Return the StateMod_DataType.
 */
@@ -392,6 +428,15 @@ public int getSwitch() {
 	return _switch;
 }
 
+/**
+Return the data set that is assigned to new objects in the current thread, which is the data set being
+read in the thread if a read is in progress, or the data set set with setDataSet().
+@return the data set assigned to new objects in the current thread, or null if not set.
+*/
+static StateMod_DataSet getThreadDataSet() {
+	return __threadDataSet.get();
+}
+
 /**
 Return the UTM x coordinate.
 */
@@ -406,6 +451,16 @@ public double getUTMy() {
 	return _utm_y;
 }
 
+/**
+Indicate that the identifier has changed, so that identifier indexes for the data type are rebuilt.
+This should be called by derived classes that set _id directly.
+*/
+protected void idChanged ()
+{	if ( (_smdata_type >= 0) && (_smdata_type < __idChangeCounts.length()) ) {
+		__idChangeCounts.incrementAndGet ( _smdata_type );
+	}
+}
+
 /**
 Initialize data members.
 */
@@ -424,6 +479,16 @@ private void initialize() {
 	_utm_y = -999;
 }
 
+/**
+Indicate whether a bulk edit is active in the current thread for the data set that owns this object
+(see StateMod_DataSet.beginBulkEdit()).  During a bulk edit, set methods only assign values.  They do not
+compare with the previous value or mark the object and data set dirty, which is settled when the bulk edit ends.
+@return true if a bulk edit is active for the owning data set in the current thread.
+*/
+protected boolean isBulkEdit() {
+	return (_dataset != null) && _dataset.isBulkEditActive();
+}
+
 /**
 Returns whether the data is dirty or not.
 @return whether the data is dirty or not.
@@ -432,6 +497,17 @@ public boolean isDirty() {
 	return _isDirty;
 }
 
+/**
+Indicate whether a bulk edit is active in the current thread for the data set being read in the thread
+(see setThreadDataSet()).  Readers use this to skip resetting the dirty flag of each object that is read,
+because set methods do not mark objects dirty during a bulk edit.
+@return true if a bulk edit is active for the data set being read in the current thread.
+*/
+static boolean isThreadBulkEdit() {
+	StateMod_DataSet dataset = __threadDataSet.get();
+	return (dataset != null) && dataset.isBulkEditActive();
+}
+
 /**
 Resets the map label booleans to both false.
 */
@@ -450,7 +526,10 @@ public void restoreOriginal() {
 	_utm_y = d._utm_y;
 	_new_utm = d._new_utm;
 	_switch = d._switch;
-	_id = d._id;
+	if ( (_id == null) || !_id.equals(d._id) ) {
+		_id = d._id;
+		idChanged();
+	}
 	_name = d._name;
 	_comment = d._comment;
 	_cgoto = d._cgoto;
@@ -468,6 +547,10 @@ public void setCgoto(String s) {
 	if (s == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_cgoto = s;
+		return;
+	}
 	if (!s.equals(_cgoto)) {
 		if ( !_isClone && !_isClone && _dataset != null ) {
 			_dataset.setDirty(_smdata_type, true);
@@ -484,6 +567,10 @@ public void setComment (String s) {
 	if (s == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_comment = s;
+		return;
+	}
 	if (!s.equals(_comment)) {
 		if ( !_isClone && !_isClone && _dataset != null ) {
 			_dataset.setDirty(_smdata_type, true);
@@ -493,10 +580,14 @@ public void setComment (String s) {
 }
 
 /**
-Sets the dataset that all StateMod_Data objects will share.
+Sets the dataset that is assigned to StateMod_Data objects that are created in the current thread,
+for example objects that are added by editors.  Each object keeps the data set that was assigned when
+it was created, so objects that are owned by other data sets are not changed.  Objects that are created
+while reading a data set are assigned the data set being read.
+@param dataset the data set to assign to new objects, or null to not assign a data set.
 */
 public static void setDataSet(StateMod_DataSet dataset) {
-	_dataset = dataset;
+	setThreadDataSet ( dataset );
 }
 
 /**
@@ -512,11 +603,17 @@ Set the ID.
 @param s the new ID.
 */
 public void setID(String s) {
+	if ( (s != null) && isBulkEdit() ) {
+		_id = s;
+		idChanged();
+		return;
+	}
 	if ((s != null)&&(!s.equals(_id))) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(_smdata_type, true);
 		}
 		_id = s;
+		idChanged();
 	}
 }
 
@@ -582,6 +679,10 @@ public void setName(String s) {
 	if (s == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_name = s;
+		return;
+	}
 	if (!s.equals(_name)) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(_smdata_type, true);
@@ -599,11 +700,23 @@ public void setNewUTM(int i) {
 		_new_utm = i;
 }
 
+/**
+Set the data set that owns this object, for example when an object is moved to another data set.
+@param dataset the data set that owns this object.
+*/
+public void setOwningDataSet(StateMod_DataSet dataset) {
+	_dataset = dataset;
+}
+
 /**
 Set the switch.
 @param i the new switch: 1 = on, 0 = off, or other values for some data types.
 */
 public void setSwitch(int i) {
+	if ( isBulkEdit() ) {
+		_switch = i;
+		return;
+	}
 	if (i != _switch) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(_smdata_type, true);
@@ -631,12 +744,31 @@ public void setSwitch(String str) {
 	setSwitch(StringUtil.atoi(str.trim()));
 }
 
+/**
+Set the data set that is being read in the current thread, which is assigned to objects created in the
+thread (see getThreadDataSet()).  This is called by StateMod_DataSet when reading components.
+@param dataset the data set being read, or null when the read is complete.
+*/
+static void setThreadDataSet(StateMod_DataSet dataset) {
+	if ( dataset == null ) {
+		__threadDataSet.remove();
+	}
+	else {
+		__threadDataSet.set ( dataset );
+	}
+}
+
 /**
 Set the UTM x and y coordinate.
 @param x new x UTM
 @param y new y UTM
 */
 public void setUTM(double x, double y) {
+	if ( isBulkEdit() ) {
+		_utm_x = x;
+		_utm_y = y;
+		return;
+	}
 	if (_utm_x != x || _utm_y != y) {
 		_utm_x = x;
 		_utm_y = y;
@@ -25,13 +25,17 @@ package DWR.StateMod;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.StringTokenizer;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.swing.JFrame;
 
@@ -115,12 +119,75 @@ public final int READY = 1;
 
 private List<ProcessListener> __processListeners = null;
 /**
+Tasks to read component data, for components that have not been read because setReadOnDemand(true) was
+called before reading the response file.  The key is the component type.  The map is also used to
+synchronize reading components on demand.
+*/
+private HashMap<Integer,Runnable> __componentReadTasks = new HashMap<Integer,Runnable>();
+/**
+Tasks to read component data, for all components handled by the last readStateModFile() call, used to
+reload components whose files have changed (see reloadChangedComponents()).  The key is the component type.
+*/
+private HashMap<Integer,Runnable> __componentReloadTasks = new HashMap<Integer,Runnable>();
+/**
+Tasks in __componentReloadTasks that depend on other components and must be run after the other tasks.
+*/
+private List<Runnable> __componentReloadTasksDependent = new Vector<Runnable>();
+/**
+Modification times of component data files when the components were read, used to detect changed files.
+The key is the component type.
+*/
+private HashMap<Integer,Long> __componentFileModifiedTimes = new HashMap<Integer,Long>();
+/**
+Sizes of component data files when the components were read, used to detect changed files.
+The key is the component type.
+*/
+private HashMap<Integer,Long> __componentFileSizes = new HashMap<Integer,Long>();
+/**
+Number of active bulk edit scopes for each thread (see beginBulkEdit()).  If greater than zero, set methods
+of data objects called from the thread only assign values, and setDirty() calls from the thread only record
+the components that are marked dirty.  The state is kept for each
+thread so that edits made by other threads (e.g., while components are read on demand) are not discarded.
+*/
+private final ThreadLocal<Integer> __bulkEditDepth = new ThreadLocal<Integer>();
+/**
+Components marked dirty by each thread while a bulk edit is active, indexed by component type, which are
+marked dirty when the thread's last bulk edit ends.
+*/
+private final ThreadLocal<boolean[]> __bulkEditDirtyTypes = new ThreadLocal<boolean[]>();
+/**
+Read and write metrics for the components in the data set.
+*/
+private StateMod_DataSetMetrics __metrics = new StateMod_DataSetMetrics ( "StateMod_DataSet" );
+/**
+Indicates whether component data are read when first requested rather than when the response file is read.
+*/
+private boolean __readOnDemand = false;
+/**
+Snapshot of time series read from a previous read of the data set (see setUseTimeSeriesSnapshot()), or null.
+*/
+private StateMod_TimeSeriesSnapshot __timeSeriesSnapshotIn = null;
+/**
+Snapshot of time series read by the current read of the data set, which is written if changed, or null.
+*/
+private StateMod_TimeSeriesSnapshot __timeSeriesSnapshotOut = null;
+/**
+Indicates whether a snapshot of the time series is used when reading the data set.  Only time series are
+cached in the snapshot - other components are always parsed from their files.
+*/
+private boolean __useTimeSeriesSnapshot = false;
+/**
 Indicates whether time series are read when reading the data set.  This was put in place when software
 performance was slow but generally now it is not an issue.  Leave in for some period but phase out if
 performance is not an issue.
 */
 private boolean __readTimeSeries = true;
 /**
+Number of threads used to read components in readStateModFile() (1 to read one component at a time).
+The default is 1 so that parallel reading must be requested with setReadThreadCount().
+*/
+private int __readThreadCount = 1;
+/**
 String indicating blank file name - allowed to be a duplicate.
 */
 public final String BLANK_FILE_NAME = "";
@@ -1298,6 +1365,9 @@ public StateMod_DataSet ( StateMod_DataSet dataset, boolean deep_copy )
 	setDataSetDirectory(dataset.getDataSetDirectory());
 	// Internal data...
 	__readTimeSeries = dataset.__readTimeSeries;
+	__readThreadCount = dataset.__readThreadCount;
+	__readOnDemand = dataset.__readOnDemand;
+	__useTimeSeriesSnapshot = dataset.__useTimeSeriesSnapshot;
 	// Control settings...
 	__heading1 = dataset.__heading1;
 	__heading2 = dataset.__heading2;
@@ -1392,6 +1462,26 @@ public boolean areTSRead()
 {	return __readTimeSeries;
 }
 
+/**
+Begin a bulk edit, used when reading components or making many edits.  While a bulk edit is active,
+the set methods of StateMod_Data objects owned by this data set only assign values.  They do not compare with
+the previous value or mark the object and component dirty, and readers do not reset the dirty flag of each
+object.  Other calls to setDirty() only record the components that are marked dirty.  The dirty state of
+the components is settled once when endBulkEdit() is called.
+Bulk edits apply only to the calling thread, can be nested, and each call must be matched by a call to
+endBulkEdit() in the same thread.
+*/
+public void beginBulkEdit ()
+{	Integer depth = __bulkEditDepth.get();
+	if ( depth == null ) {
+		__bulkEditDirtyTypes.set ( new boolean[100] );
+		__bulkEditDepth.set ( new Integer(1) );
+	}
+	else {
+		__bulkEditDepth.set ( new Integer(depth.intValue() + 1) );
+	}
+}
+
 /**
 Check a component's data, using other available components as appropriate.
 @param comp_type the component type.
@@ -2085,6 +2175,169 @@ public void checkComponentVisibility ()
 	}
 }
 
+/**
+Connect time series to stations for all station components.  Only components that have been read are used
+(components that will be read on demand are not read here - see readComponentOnDemand()).
+*/
+private void connectAllTS ()
+{	connectAllTS ( null );
+}
+
+/**
+Connect time series to stations for station components.  Only components that have been read are used
+(components that will be read on demand are not read here - see readComponentOnDemand()).
+@param compTypes component types that have been (re)read - only the stations and time series for these
+components are connected.  If null, connect all stations and time series.
+*/
+@SuppressWarnings("unchecked")
+private void connectAllTS ( List<Integer> compTypes )
+{	String routine = "StateMod_DataSet.connectAllTS";
+	StopWatch connectTime = new StopWatch();
+	
+	// Connect all the instream flow time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_INSTREAM_STATIONS, COMP_INSTREAM_DEMAND_TS_MONTHLY,
+		COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY, COMP_INSTREAM_DEMAND_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		Message.printStatus (1,routine,"Connect all instream flow time series");
+		StateMod_InstreamFlow.connectAllTS (
+			(List<StateMod_InstreamFlow>)getComponentDataIfRead( COMP_INSTREAM_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_INSTREAM_DEMAND_TS_MONTHLY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_INSTREAM_DEMAND_TS_DAILY ) );
+		connectTime.stop();
+		getComponentMetrics ( COMP_INSTREAM_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+
+	// Connect all the reservoir time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_RESERVOIR_STATIONS, COMP_RESERVOIR_CONTENT_TS_MONTHLY,
+		COMP_RESERVOIR_CONTENT_TS_DAILY, COMP_RESERVOIR_TARGET_TS_MONTHLY, COMP_RESERVOIR_TARGET_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		StateMod_Reservoir.connectAllTS (
+			(List<StateMod_Reservoir>)getComponentDataIfRead( COMP_RESERVOIR_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_RESERVOIR_CONTENT_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_RESERVOIR_CONTENT_TS_DAILY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_RESERVOIR_TARGET_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_RESERVOIR_TARGET_TS_DAILY ));
+		connectTime.stop();
+		getComponentMetrics ( COMP_RESERVOIR_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+
+	// Connect all the diversion time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_DIVERSION_STATIONS, COMP_DIVERSION_TS_MONTHLY,
+		COMP_DIVERSION_TS_DAILY, COMP_DEMAND_TS_MONTHLY, COMP_DEMAND_TS_OVERRIDE_MONTHLY,
+		COMP_DEMAND_TS_AVERAGE_MONTHLY, COMP_DEMAND_TS_DAILY, COMP_IRRIGATION_PRACTICE_TS_YEARLY,
+		COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		Message.printStatus ( 1, routine, "Connect all diversion time series");
+		StateMod_Diversion.connectAllTS(
+			(List<StateMod_Diversion>)getComponentDataIfRead( COMP_DIVERSION_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_DIVERSION_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_DIVERSION_TS_DAILY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_DEMAND_TS_MONTHLY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_DEMAND_TS_OVERRIDE_MONTHLY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_DEMAND_TS_AVERAGE_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_DEMAND_TS_DAILY ),
+			(List<StateCU_IrrigationPracticeTS>)getComponentDataIfRead( COMP_IRRIGATION_PRACTICE_TS_YEARLY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY ));
+		connectTime.stop();
+		getComponentMetrics ( COMP_DIVERSION_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+
+	// Connect all the well time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_WELL_STATIONS, COMP_WELL_PUMPING_TS_MONTHLY,
+		COMP_WELL_PUMPING_TS_DAILY, COMP_WELL_DEMAND_TS_MONTHLY, COMP_WELL_DEMAND_TS_DAILY,
+		COMP_IRRIGATION_PRACTICE_TS_YEARLY, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY,
+		COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		Message.printStatus ( 1, routine, "Connect all well time series");
+		StateMod_Well.connectAllTS(
+			(List<StateMod_Well>)getComponentDataIfRead( COMP_WELL_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_WELL_PUMPING_TS_MONTHLY ), 
+			(List<DayTS>)getComponentDataIfRead( COMP_WELL_PUMPING_TS_DAILY ), 
+			(List<MonthTS>)getComponentDataIfRead( COMP_WELL_DEMAND_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_WELL_DEMAND_TS_DAILY ),
+			(List<StateCU_IrrigationPracticeTS>)getComponentDataIfRead( COMP_IRRIGATION_PRACTICE_TS_YEARLY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY ));
+		connectTime.stop();
+		getComponentMetrics ( COMP_WELL_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+
+	// Process the old-style ris, rim, rid files for the new convention...
+
+	// TODO SAM 2009-06-30 Evaluate if the following is being handled ok free format
+	/*
+	if ( !__is_free_format ) {
+		StateMod_StreamEstimate.processStreamData ( 
+		(List)getComponentForComponentType( COMP_STREAMGAGE_STATIONS).getData(),
+		(List)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY).getData(),
+		(List)getComponentForComponentType( COMP_STREAMESTIMATE_STATIONS).getData(),
+		(List)getComponentForComponentType( COMP_STREAMESTIMATE_COEFFICIENTS).getData() );
+	}	// Else the StreamGage and StreamEstimate stations are already split into separate files.
+	*/
+
+	// Connect all the stream gage station time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_STREAMGAGE_STATIONS, COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY,
+		COMP_STREAMGAGE_HISTORICAL_TS_DAILY, COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY,
+		COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		Message.printStatus (1,routine,"Connect all river station time series");
+		StateMod_StreamGage.connectAllTS(
+			(List<StateMod_StreamGage>)getComponentDataIfRead( COMP_STREAMGAGE_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_STREAMGAGE_HISTORICAL_TS_DAILY ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY ));
+		connectTime.stop();
+		getComponentMetrics ( COMP_STREAMGAGE_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+
+	// Connect all the stream estimate station time series to the stations...
+
+	if ( connectAllTS_IsAffected ( compTypes, COMP_STREAMESTIMATE_STATIONS,
+		COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY, COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY ) ) {
+		connectTime.clear();
+		connectTime.start();
+		Message.printStatus (1,routine, "Connect all stream estimate station time series");
+		StateMod_StreamEstimate.connectAllTS(
+			(List<StateMod_StreamEstimate>)getComponentDataIfRead( COMP_STREAMESTIMATE_STATIONS ),
+			(List<MonthTS>)getComponentDataIfRead( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY ),
+			(List<DayTS>)getComponentDataIfRead( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY ));
+		connectTime.stop();
+		getComponentMetrics ( COMP_STREAMESTIMATE_STATIONS ).addConnectTime ( connectTime.getSeconds() );
+	}
+}
+
+/**
+This method is a helper routine to connectAllTS().  It determines whether any of the components
+used for a station type's connections have been (re)read.
+@param compTypes component types that have been (re)read, or null to indicate all components.
+@param connectTypes component types used for the connections.
+@return true if the connections should be made.
+*/
+private boolean connectAllTS_IsAffected ( List<Integer> compTypes, int ... connectTypes )
+{	if ( compTypes == null ) {
+		return true;
+	}
+	for ( int connectType : connectTypes ) {
+		if ( compTypes.contains(connectType) ) {
+			return true;
+		}
+	}
+	return false;
+}
+
 /**
 Create a Network from a StateMod river network data set component.
 */
@@ -2183,6 +2436,42 @@ private Network createNetworkFromStateModRiverNetwork()
 }
 */
 
+/**
+End a bulk edit that was started with beginBulkEdit() in the same thread.  When the thread's last
+active bulk edit ends, the dirty state of the components is settled once:  the components that were edited
+during the bulk edit (including those passed by nested bulk edits) and the components that were marked dirty
+with setDirty() are marked dirty.  Because set methods do not mark objects dirty during a bulk edit, the
+dirty flag of the individual data objects is not changed.
+@param componentTypes the component types (see COMP*) that were edited during the bulk edit, or null if
+no components were edited (e.g., after reading components, which are then clean).
+*/
+public void endBulkEdit ( int [] componentTypes )
+{	Integer depth = __bulkEditDepth.get();
+	if ( depth == null ) {
+		// No bulk edit is active in this thread
+		return;
+	}
+	boolean [] dirtyTypes = __bulkEditDirtyTypes.get();
+	if ( componentTypes != null ) {
+		for ( int i = 0; i < componentTypes.length; i++ ) {
+			if ( (componentTypes[i] >= 0) && (componentTypes[i] < dirtyTypes.length) ) {
+				dirtyTypes[componentTypes[i]] = true;
+			}
+		}
+	}
+	if ( depth.intValue() > 1 ) {
+		__bulkEditDepth.set ( new Integer(depth.intValue() - 1) );
+		return;
+	}
+	__bulkEditDepth.remove();
+	__bulkEditDirtyTypes.remove();
+	for ( int compType = 0; compType < dirtyTypes.length; compType++ ) {
+		if ( dirtyTypes[compType] ) {
+			setDirty ( compType, true );
+		}
+	}
+}
+
 /**
 Helper method to check to see whether a file is empty.  Traditionally, StateMod
 data files have been set to "xxxx.dum" or "dummy", which were non-existent or
@@ -2242,6 +2531,25 @@ public String getComponentDataFileNameFromTimeSeriesDataType ( String data_type,
 	return "";
 }
 
+/**
+Return the data for a component, or null if the component data will be read on demand and have not
+been read (see setReadOnDemand()).  This is used to connect data without causing components to be read.
+@param compType component type.
+@return the component data, or null if not read.
+*/
+private Object getComponentDataIfRead ( int compType )
+{	synchronized ( __componentReadTasks ) {
+		if ( __componentReadTasks.containsKey(compType) ) {
+			return null;
+		}
+	}
+	DataSetComponent comp = getComponentForComponentType ( compType );
+	if ( comp == null ) {
+		return null;
+	}
+	return comp.getData();
+}
+
 /**
 Return the default file extension for a component.
 @return the default file extension for a component.
@@ -2250,6 +2558,15 @@ public String getComponentFileExtension ( int component_type )
 {	return __component_file_extensions[component_type];
 }
 
+/**
+Return the read and write metrics for a component, creating the metrics if necessary.
+@param compType component type.
+@return the metrics for the component.
+*/
+public StateMod_ComponentMetrics getComponentMetrics ( int compType )
+{	return __metrics.getComponentMetrics ( compType, lookupComponentName(compType) );
+}
+
 /**
 Return the complete array of file extensions.
 @return the complete array of file extensions.
@@ -2766,6 +3083,15 @@ public int getIystr() {
 	return __iystr;
 }
 
+/**
+Return the read and write metrics for the components in the data set, which can be used to retrieve the
+metrics for all components or to register the metrics as JMX MBeans.
+@return the data set metrics.
+*/
+public StateMod_DataSetMetrics getMetrics ()
+{	return __metrics;
+}
+
 /**
 Return a list of String containing information about modified data in the data
 set.  This can be used during development to see how a GUI modifies data when it is set.
@@ -3037,6 +3363,22 @@ public double getPfacto() {
 	return __pfacto;
 }
 
+/**
+Return whether component data are read when first requested (see setReadOnDemand()).
+@return true if component data are read when first requested.
+*/
+public boolean getReadOnDemand() {
+	return __readOnDemand;
+}
+
+/**
+Return the number of threads used to read components in readStateModFile().
+@return the number of threads used to read components.
+*/
+public int getReadThreadCount() {
+	return __readThreadCount;
+}
+
 /**
 Return the divisor for streamflow data units.
 @return __rfacto
@@ -4237,6 +4579,14 @@ public PropList getUnhandledResponseFileProperties ()
 	return __unhandledResponseFileProperties;
 }
 
+/**
+Return whether a snapshot of time series is used when reading the data set (see setUseTimeSeriesSnapshot()).
+@return true if a time series snapshot is used.
+*/
+public boolean getUseTimeSeriesSnapshot() {
+	return __useTimeSeriesSnapshot;
+}
+
 /**
 Return a list of String containing information about unused data in the data set.  For example,
 these may be evaporation time series or delay tables that are not used.
@@ -4634,244 +4984,244 @@ private void initialize()
 
 	DataSetComponent comp, subcomp;
 	try {
-		comp = new DataSetComponent ( this, COMP_CONTROL_GROUP );
+		comp = new StateMod_DataSetComponent ( this, COMP_CONTROL_GROUP );
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent ( comp );
-		subcomp = new DataSetComponent(this, COMP_RESPONSE);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESPONSE);
 		subcomp.setData ( new PropList("") );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_CONTROL);
+		subcomp = new StateMod_DataSetComponent(this, COMP_CONTROL);
 		subcomp.setData ( this );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_OUTPUT_REQUEST);
+		subcomp = new StateMod_DataSetComponent(this, COMP_OUTPUT_REQUEST);
 		subcomp.setData ( new Vector<Object>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_REACH_DATA);
+		subcomp = new StateMod_DataSetComponent(this, COMP_REACH_DATA);
 		subcomp.setData ( new Vector<Object>() );
 		comp.addComponent( subcomp );
 		
-		comp = new DataSetComponent(this, COMP_CONSUMPTIVE_USE_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_CONSUMPTIVE_USE_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent ( comp );
-		subcomp = new DataSetComponent(this, COMP_STATECU_STRUCTURE);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STATECU_STRUCTURE);
 		subcomp.setData ( new Vector<StateCU_Location>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_IRRIGATION_PRACTICE_TS_YEARLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_IRRIGATION_PRACTICE_TS_YEARLY);
 		subcomp.setData ( new Vector<StateCU_IrrigationPracticeTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_STREAMGAGE_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent ( comp );
-		subcomp = new DataSetComponent(this, COMP_STREAMGAGE_STATIONS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_STATIONS);
 		subcomp.setData ( new Vector<StateMod_StreamGage>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_STREAMGAGE_HISTORICAL_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_HISTORICAL_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp =new DataSetComponent(this,COMP_DELAY_TABLE_MONTHLY_GROUP);
+		comp =new StateMod_DataSetComponent(this,COMP_DELAY_TABLE_MONTHLY_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_DELAY_TABLES_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DELAY_TABLES_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 
-		comp = new DataSetComponent(this, COMP_DELAY_TABLE_DAILY_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_DELAY_TABLE_DAILY_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DELAY_TABLES_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DELAY_TABLES_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_DIVERSION_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_DIVERSION_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_DIVERSION_STATIONS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DIVERSION_STATIONS);
 		subcomp.setData ( new Vector<StateMod_Diversion>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DIVERSION_RIGHTS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DIVERSION_RIGHTS);
 		subcomp.setData ( new Vector<StateMod_DiversionRight>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this,COMP_DIVERSION_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this,COMP_DIVERSION_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DIVERSION_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DIVERSION_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DEMAND_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DEMAND_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DEMAND_TS_OVERRIDE_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DEMAND_TS_OVERRIDE_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DEMAND_TS_AVERAGE_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DEMAND_TS_AVERAGE_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_DEMAND_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_DEMAND_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_PRECIPITATION_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_PRECIPITATION_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_PRECIPITATION_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_PRECIPITATION_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_PRECIPITATION_TS_YEARLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_PRECIPITATION_TS_YEARLY);
 		subcomp.setData ( new Vector<YearTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_EVAPORATION_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_EVAPORATION_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp =new DataSetComponent(this,COMP_EVAPORATION_TS_MONTHLY);
+		subcomp =new StateMod_DataSetComponent(this,COMP_EVAPORATION_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp =new DataSetComponent(this,COMP_EVAPORATION_TS_YEARLY);
+		subcomp =new StateMod_DataSetComponent(this,COMP_EVAPORATION_TS_YEARLY);
 		subcomp.setData ( new Vector<YearTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_RESERVOIR_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_STATIONS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_STATIONS);
 		subcomp.setData ( new Vector<StateMod_Reservoir>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this,COMP_RESERVOIR_RIGHTS);
+		subcomp = new StateMod_DataSetComponent(this,COMP_RESERVOIR_RIGHTS);
 		subcomp.setData ( new Vector<StateMod_ReservoirRight>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_CONTENT_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_CONTENT_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_CONTENT_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_CONTENT_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_TARGET_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_TARGET_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_TARGET_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_TARGET_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RESERVOIR_RETURN);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RESERVOIR_RETURN);
 		subcomp.setData ( new Vector<StateMod_ReturnFlow>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_INSTREAM_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_INSTREAM_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_INSTREAM_STATIONS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_INSTREAM_STATIONS);
 		subcomp.setData ( new Vector<StateMod_InstreamFlow>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_INSTREAM_RIGHTS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_INSTREAM_RIGHTS);
 		subcomp.setData ( new Vector<StateMod_InstreamFlowRight>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_INSTREAM_DEMAND_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_WELL_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_WELL_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_WELL_STATIONS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_WELL_STATIONS);
 		subcomp.setData ( new Vector<StateMod_Well>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_WELL_RIGHTS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_WELL_RIGHTS);
 		subcomp.setData ( new Vector<StateMod_WellRight>() );
 		comp.addComponent( subcomp );
-		subcomp=new DataSetComponent(this,COMP_WELL_PUMPING_TS_MONTHLY);
+		subcomp=new StateMod_DataSetComponent(this,COMP_WELL_PUMPING_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this,COMP_WELL_PUMPING_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this,COMP_WELL_PUMPING_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp =new DataSetComponent(this,COMP_WELL_DEMAND_TS_MONTHLY);
+		subcomp =new StateMod_DataSetComponent(this,COMP_WELL_DEMAND_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_WELL_DEMAND_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this, COMP_WELL_DEMAND_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_PLAN_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_PLAN_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_PLANS);
+		subcomp = new StateMod_DataSetComponent(this, COMP_PLANS);
 		subcomp.setData ( new Vector<StateMod_Plan>() );
 		comp.addComponent ( subcomp );
-		subcomp = new DataSetComponent(this, COMP_PLAN_WELL_AUGMENTATION);
+		subcomp = new StateMod_DataSetComponent(this, COMP_PLAN_WELL_AUGMENTATION);
 		subcomp.setData ( new Vector<StateMod_Plan>() );
 		comp.addComponent ( subcomp );
-		subcomp = new DataSetComponent(this, COMP_PLAN_RETURN);
+		subcomp = new StateMod_DataSetComponent(this, COMP_PLAN_RETURN);
 		subcomp.setData ( new Vector<StateMod_Plan>() );
 		comp.addComponent ( subcomp );
 
-		comp = new DataSetComponent(this, COMP_STREAMESTIMATE_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_STREAMESTIMATE_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent ( comp );
-		subcomp = new DataSetComponent( this,COMP_STREAMESTIMATE_STATIONS );
+		subcomp = new StateMod_DataSetComponent( this,COMP_STREAMESTIMATE_STATIONS );
 		subcomp.setData ( new Vector<StateMod_StreamEstimate>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent( this,COMP_STREAMESTIMATE_COEFFICIENTS);
+		subcomp = new StateMod_DataSetComponent( this,COMP_STREAMESTIMATE_COEFFICIENTS);
 		subcomp.setData ( new Vector<StateMod_StreamEstimate_Coefficients>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent( this, COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY);
+		subcomp = new StateMod_DataSetComponent( this, COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY);
 		subcomp.setData ( new Vector<MonthTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent( this, COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent( this, COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_RIVER_NETWORK_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_RIVER_NETWORK_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_RIVER_NETWORK);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RIVER_NETWORK);
 		subcomp.setData ( new Vector<StateMod_RiverNetworkNode>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_NETWORK);
+		subcomp = new StateMod_DataSetComponent(this, COMP_NETWORK);
 		subcomp.setData ( new StateMod_NodeNetwork() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this,COMP_OPERATION_GROUP);
+		comp = new StateMod_DataSetComponent(this,COMP_OPERATION_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this,COMP_OPERATION_RIGHTS);
+		subcomp = new StateMod_DataSetComponent(this,COMP_OPERATION_RIGHTS);
 		subcomp.setData ( new Vector<StateMod_OperationalRight>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this,COMP_DOWNSTREAM_CALL_TS_DAILY);
+		subcomp = new StateMod_DataSetComponent(this,COMP_DOWNSTREAM_CALL_TS_DAILY);
 		subcomp.setData ( new Vector<DayTS>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_SANJUAN_RIP);
+		subcomp = new StateMod_DataSetComponent(this, COMP_SANJUAN_RIP);
 		subcomp.setData ( new Vector<Object>() );
 		comp.addComponent( subcomp );
-		subcomp = new DataSetComponent(this, COMP_RIO_GRANDE_SPILL);
+		subcomp = new StateMod_DataSetComponent(this, COMP_RIO_GRANDE_SPILL);
 		subcomp.setData ( new Vector<Object>() );
 		comp.addComponent( subcomp );
 
-		comp = new DataSetComponent(this, COMP_GEOVIEW_GROUP);
+		comp = new StateMod_DataSetComponent(this, COMP_GEOVIEW_GROUP);
 		comp.setListSource ( DataSetComponent.LIST_SOURCE_PRIMARY_COMPONENT );
 		addComponent( comp );
-		subcomp = new DataSetComponent(this, COMP_GEOVIEW);
+		subcomp = new StateMod_DataSetComponent(this, COMP_GEOVIEW);
 		subcomp.setData ( new Vector<Object>() );
 		comp.addComponent( subcomp );
 		
@@ -4960,6 +5310,34 @@ public void initializeDataFileNames ()
 	}
 }
 
+/**
+Indicate whether a bulk edit is active in the calling thread (see beginBulkEdit()).
+@return true if a bulk edit is active in the calling thread.
+*/
+public boolean isBulkEditActive ()
+{	return __bulkEditDepth.get() != null;
+}
+
+/**
+Indicate whether the data file for a component has changed since the component was read, based on the
+modification time and size of the file.
+@param compType component type.
+@return true if the file has changed, false if not changed or the component was not read from a file.
+*/
+private boolean isComponentFileChanged ( int compType )
+{	Long modifiedTime = __componentFileModifiedTimes.get ( compType );
+	Long size = __componentFileSizes.get ( compType );
+	if ( (modifiedTime == null) || (size == null) ) {
+		return false;
+	}
+	DataSetComponent comp = getComponentForComponentType ( compType );
+	if ( comp == null ) {
+		return false;
+	}
+	File f = new File ( getDataFilePathAbsolute(comp) );
+	return (f.lastModified() != modifiedTime.longValue()) || (f.length() != size.longValue());
+}
+
 /**
 Indicate whether the component contains time series that are impacted by the
 decision of whether to read time series.
@@ -5006,7 +5384,7 @@ throws IOException
 	BufferedReader in = null;
 	boolean isFreeFormat = false;
 	try {
-	    in = new BufferedReader ( new InputStreamReader(IOUtil.getInputStream ( filename )) );
+	    in = StateMod_Util.getInputReader ( filename );
 		// Read lines and check for common strings that indicate a DateValue file.
 		String string = null;
 		while( (string = in.readLine()) != null ) {
@@ -5163,7 +5541,15 @@ If a component is dirty, it needs to be written to a file because data or the fi
 if the component should be marked clean (from data read, or edits saved).
 */
 public void setDirty(int componentType, boolean isDirty)
-{	DataSetComponent comp = getComponentForComponentType ( componentType );
+{	boolean [] bulkEditDirtyTypes = __bulkEditDirtyTypes.get();
+	if ( (bulkEditDirtyTypes != null) && (componentType >= 0) && (componentType < bulkEditDirtyTypes.length) ) {
+		// Only record the change - it is settled when the thread's bulk edit ends...
+		bulkEditDirtyTypes[componentType] = isDirty;
+		if ( isDirty ) {
+			return;
+		}
+	}
+	DataSetComponent comp = getComponentForComponentType ( componentType );
 	if ( comp != null ) {
 		comp.setDirty(isDirty);
 		//if ( Message.isDebugOn ) {
@@ -5192,7 +5578,7 @@ throws Exception
 	}
 
 	try {
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine())!= null) {
 			if (iline.startsWith("#") || iline.trim().length() ==0) {
 				continue;
@@ -5255,6 +5641,37 @@ throws Exception
 	}
 }
 
+/**
+Read the data for a component if the read was deferred by setReadOnDemand(true).  This is called by
+StateMod_DataSetComponent.getData() and does nothing if the component has already been read.
+Components that the data depend on are read as needed, and time series are then connected to stations
+only for the components that were read by the task.  The connection is done after releasing the lock on
+the pending read tasks so that other components can be read on demand at the same time.
+@param compType component type.
+*/
+public void readComponentOnDemand ( int compType )
+{	List<Integer> readTypes = new Vector<Integer>();
+	synchronized ( __componentReadTasks ) {
+		if ( __componentReadTasks.isEmpty() ) {
+			return;
+		}
+		Runnable task = __componentReadTasks.get ( compType );
+		if ( task == null ) {
+			return;
+		}
+		// Also remove other components that are read by the same task (e.g., shared natural flow files)...
+		for ( Integer type : __componentReadTasks.keySet() ) {
+			if ( __componentReadTasks.get(type) == task ) {
+				readTypes.add ( type );
+			}
+		}
+		__componentReadTasks.keySet().removeAll ( readTypes );
+		// Tasks handle their own errors and set the component error flag...
+		readStateModFile_RunTask ( task );
+	}
+	connectAllTS ( readTypes );
+}
+
 // TODO - StateCU has this return a DataSet object, not populate an existing one
 /**
 Read the StateMod response file and fill the current StateMod_DataSet object.
@@ -5275,25 +5692,51 @@ will not be read in any case.
 @exception IllegalArgumentException if the specified file does not appear to be a free-format response file.
 @exception IOException if there is an unhandled error reading files.
 */
-public void readStateModFile ( String filename, boolean readData, boolean readTimeSeries,
+public void readStateModFile ( String filename, final boolean readData, boolean readTimeSeries,
 	boolean useGUI, JFrame parent )
 throws IllegalArgumentException, IOException
-{	String routine = "StateMod_DataSet.readStateModFile";
+{	final String routine = "StateMod_DataSet.readStateModFile";
 	if ( !readData ) {
 		readTimeSeries = false;
 	}
 	__readTimeSeries = readTimeSeries;
+	synchronized ( __componentReadTasks ) {
+		// Remove tasks that may remain from a previous read...
+		__componentReadTasks.clear();
+	}
+	__timeSeriesSnapshotIn = null;
+	__timeSeriesSnapshotOut = null;
+	if ( readData && getUseTimeSeriesSnapshot() ) {
+		// Read the time series snapshot, which is used for time series files that have not changed...
+		String snapshotFilename = filename + StateMod_TimeSeriesSnapshot.SNAPSHOT_FILE_EXTENSION;
+		try {
+			__timeSeriesSnapshotIn = StateMod_TimeSeriesSnapshot.readSnapshot ( snapshotFilename );
+		}
+		catch ( Exception e ) {
+			Message.printWarning ( 3, routine, "Unable to read time series snapshot \"" + snapshotFilename +
+				"\" (" + e + ") - reading time series files." );
+			Message.printWarning ( 3, routine, e );
+		}
+		if ( !getReadOnDemand() ) {
+			// Snapshots are only written when all of the data set is read.
+			__timeSeriesSnapshotOut = new StateMod_TimeSeriesSnapshot ();
+		}
+	}
 
 	File f = new File(filename);
 	setDataSetDirectory(f.getParent());
 	setDataSetFileName(f.getName());
 	
 	// String printed at the end of warning messages
-	String warningEndString = "\".";
+	// (final because it is used in the component read tasks)
+	final String warningEndString;
 	if ( useGUI ) {
 		// This string is used if there are problems reading.
 		warningEndString = "\"\nInteractive edits for file will be disabled.";
 	}
+	else {
+		warningEndString = "\".";
+	}
 
 	// Check whether the response file is free format.  If it is free
 	// format then the file is read into a PropList below...
@@ -5309,12 +5752,6 @@ throws IllegalArgumentException, IOException
 
 	IOUtil.setProgramWorkingDir ( f.getParent() );
 
-	// The following sets the static reference to the current data set
-	// which is then accessible by every data object which extends
-	// StateMod_Data.  This is done in order that setting components
-	// dirty or not can be handled at a low level when values change.
-	StateMod_Data._dataset = this;
-
 	// Set basic information about the response file component - only save
 	// the file name - the data itself are stored in this data set object.
 
@@ -5338,7 +5775,7 @@ throws IllegalArgumentException, IOException
 	totalReadTime.start();
 
 	// Read the response file into a PropList...
-	PropList response_props = new PropList ( "Response" );
+	final PropList response_props = new PropList ( "Response" );
 	response_props.setPersistentName ( filename );
 	response_props.readPersistent();
 
@@ -5375,6 +5812,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -5384,8 +5822,26 @@ throws IllegalArgumentException, IOException
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
 	
+		// The remaining components are read with tasks so that independent files can be read at the same time
+		// (see setReadThreadCount()).  Components in the first list depend only on the control file.
+		// Components in the second list use data from the first list (e.g., rights are connected to stations)
+		// and are read after all of the first list has been read.
+		// If reading on demand (see setReadOnDemand()), the tasks are saved and run when the data are first requested.
+		// The body of each task keeps the indentation of the original sequential read code so that the
+		// code can be compared with earlier versions.
+
+		List<Runnable> readTasks = new Vector<Runnable>();
+		List<Runnable> readTasksDependent = new Vector<Runnable>();
+		HashMap<Integer,Runnable> componentReadTasks = new HashMap<Integer,Runnable>();
+		Runnable task = null;
+
 		// River network file (.rin)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "River_Network" );
 			// Always set the file name...
@@ -5407,15 +5863,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RIVER_NETWORK, task );
 	
 		// Reservoir stations file (.res)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Station" );
 			// Always set the file name...
@@ -5437,15 +5903,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_STATIONS, task );
 	
 		// Diversion stations file (.dds)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Station" );
 			// Always set the file name...
@@ -5467,15 +5943,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DIVERSION_STATIONS, task );
 	
 		// Stream gage stations file (.ris)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "StreamGage_Station" );
 			// Always set the file name...
@@ -5497,17 +5983,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMGAGE_STATIONS, task );
 	
 		// If not a free-format data set with separate stream estimate station,
 		// re-read the legacy stream station file because some stations will be stream estimate stations.
 		// If free format, get the file name...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ("StreamEstimate_Station");
 			if ( fn == null ) {
@@ -5543,15 +6039,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_STREAMESTIMATE_STATIONS, task );
 	
 		// Instream flow stations file (.ifs)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Instreamflow_Station" );
 			// Always set the file name...
@@ -5573,15 +6079,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_INSTREAM_STATIONS, task );
 	
 		// Well stations...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Station");
 			// Always set the file name...
@@ -5603,15 +6119,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_WELL_STATIONS, task );
 	
 		// Plans...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Plan_Data");
 			// Always set the file name...
@@ -5636,15 +6162,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_PLANS, task );
 		
 		// Plan well augmentation (.plw)...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Plan_Wells" );
 			// Always set the file name...
@@ -5666,15 +6202,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_PLAN_WELL_AUGMENTATION, task );
 		
 		// Plan return (.prf)...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Plan_Return" );
 			// Always set the file name...
@@ -5696,15 +6242,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_PLAN_RETURN, task );
 	
 		// Instream flow rights file (.ifr)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Instreamflow_Right" );
 			// Always set the file name...
@@ -5723,7 +6279,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting instream flow rights to stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_InstreamFlow> ifsList = (List<StateMod_InstreamFlow>)getComponentForComponentType ( COMP_INSTREAM_STATIONS ).getData();
+				StopWatch connectTime = new StopWatch();
+				connectTime.start();
 				StateMod_InstreamFlow.connectAllRights(ifsList, ifrList );
+				connectTime.stop();
+				getComponentMetrics ( COMP_INSTREAM_RIGHTS ).addConnectTime ( connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5731,15 +6291,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_INSTREAM_RIGHTS, task );
 	
 		// Reservoir rights file (.rer)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Right" );
 			// Always set the file name...
@@ -5758,7 +6328,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting reservoir rights with reservoir stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_Reservoir> resList = (List<StateMod_Reservoir>)getComponentForComponentType( COMP_RESERVOIR_STATIONS).getData();
+				StopWatch connectTime = new StopWatch();
+				connectTime.start();
 				StateMod_Reservoir.connectAllRights( resList, rerList );
+				connectTime.stop();
+				getComponentMetrics ( COMP_RESERVOIR_RIGHTS ).addConnectTime ( connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5766,15 +6340,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_RIGHTS, task );
 		
 		// Diversion rights file (.ddr)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Right" );
 			// Always set the file name...
@@ -5793,7 +6377,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting diversion rights to diversion stations" );
 				@SuppressWarnings("unchecked")
 				List<StateMod_Diversion> ddsList = (List<StateMod_Diversion>)getComponentForComponentType ( COMP_DIVERSION_STATIONS).getData();
+				StopWatch connectTime = new StopWatch();
+				connectTime.start();
 				StateMod_Diversion.connectAllRights( ddsList, ddrList );
+				connectTime.stop();
+				getComponentMetrics ( COMP_DIVERSION_RIGHTS ).addConnectTime ( connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5801,15 +6389,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_DIVERSION_RIGHTS, task );
 	
 		// Operational rights file (.opr)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Operational_Right" );
 			// Always set the file name...
@@ -5823,13 +6421,14 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				comp.setData( StateMod_OperationalRight.readStateModFile(fn, this) );
+				comp.setData( StateMod_OperationalRight.readStateModFile(fn, StateMod_DataSet.this) );
 			}
 		}
 		catch (Exception e) {
 			Message.printWarning(1, routine, "Error reading operational rights file:\n\"" + fn +
 				warningEndString + " (See log file for more on error:" + e + ")");
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 			Message.printWarning(3, routine, e);
 		}
 		finally {
@@ -5837,9 +6436,18 @@ throws IllegalArgumentException, IOException
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_OPERATION_RIGHTS, task );
 	
 		// Well rights file (.wer)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Right" );
 			// Always set the file name...
@@ -5858,7 +6466,11 @@ throws IllegalArgumentException, IOException
 				Message.printStatus ( 1, routine, "Connecting well rights to well stations.");
 				@SuppressWarnings("unchecked")
 				List<StateMod_Well> wesList = (List<StateMod_Well>)getComponentForComponentType( COMP_WELL_STATIONS).getData();
+				StopWatch connectTime = new StopWatch();
+				connectTime.start();
 				StateMod_Well.connectAllRights( wesList, werList );
+				connectTime.stop();
+				getComponentMetrics ( COMP_WELL_RIGHTS ).addConnectTime ( connectTime.getSeconds() );
 			}
 		}
 		catch (Exception e) {
@@ -5866,13 +6478,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasksDependent.add ( task );
+		componentReadTasks.put ( COMP_WELL_RIGHTS, task );
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Precipitation_Monthly");
 			// Always set the file name in the component...
@@ -5886,7 +6510,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -5904,15 +6528,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_PRECIPITATION_TS_MONTHLY, task );
 		
 		// Precipitation TS yearly file (.pra) - always read...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Precipitation_Annual");
 			// Always set the file name in the component...
@@ -5927,7 +6563,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -5945,15 +6581,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_PRECIPITATION_TS_YEARLY, task );
 	
 		// Evaporation time series file monthly (.eva) - always read...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Evaporation_Monthly" );
 			// Always set the file name...
@@ -5967,7 +6615,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -5985,15 +6633,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_EVAPORATION_TS_MONTHLY, task );
 		
 		// Evaporation time series file yearly (.eva) - always read...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Evaporation_Annual" );
 			Message.printStatus(2,routine,"StateMod GUI does not yet handle annual evaporation data." );
@@ -6009,7 +6669,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6027,16 +6687,28 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_EVAPORATION_TS_YEARLY, task );
 	
 		// Stream gage natural flow time series (.rim or .xbm) - always read...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
 		DataSetComponent comp2 = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Stream_Base_Monthly" );
 			// Always set the file name...
@@ -6050,7 +6722,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6072,6 +6744,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -6082,9 +6755,21 @@ throws IllegalArgumentException, IOException
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY, task );
+		componentReadTasks.put ( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY, task );
 	
 		// Diversion direct flow demand time series (monthly) file (.ddm)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue("Diversion_Demand_Monthly");
 			// Always set the file name in the component...
@@ -6098,7 +6783,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				readStateModFile_Announce1(comp);
 				fn = getDataFilePathAbsolute ( fn );
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6114,15 +6799,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DEMAND_TS_MONTHLY, task );
 		
 		// Direct flow demand time series override (monthly) file (.ddo)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_DemandOverride_Monthly" );
 			// Set the file name in the component...
@@ -6136,7 +6833,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				readStateModFile_Announce1(comp);
 				fn = getDataFilePathAbsolute ( fn );
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6152,15 +6849,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DEMAND_TS_OVERRIDE_MONTHLY, task );
 		
 		// Direct flow demand time series average (monthly) file (.dda)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Demand_AverageMonthly" );
 			// Set the file name in the component...
@@ -6174,7 +6883,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				readStateModFile_Announce1(comp);
 				fn = getDataFilePathAbsolute ( fn );
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6190,15 +6899,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DEMAND_TS_AVERAGE_MONTHLY, task );
 		
 		// Monthly instream flow demand...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Instreamflow_Demand_Monthly" );
 			// Set the file name in the component...
@@ -6212,7 +6933,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				readStateModFile_Announce1(comp);
 				fn = getDataFilePathAbsolute ( fn );
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6229,15 +6950,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_INSTREAM_DEMAND_TS_MONTHLY, task );
 	
 		// Instream demand time series (average monthly) file (.ifa)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Instreamflow_Demand_AverageMonthly" );
 			// Set the file name in the component...
@@ -6251,7 +6984,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6268,15 +7001,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY, task );
 	
 		// Well demand time series (monthly) file (.wem)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Demand_Monthly" );
 			// Set the file name in the component...
@@ -6290,7 +7035,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6306,15 +7051,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_WELL_DEMAND_TS_MONTHLY, task );
 	
 		// Delay file (monthly) file (.dly)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "DelayTable_Monthly" );
 			// Always set the file name...
@@ -6336,15 +7091,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DELAY_TABLES_MONTHLY, task );
 	
 		// Reservoir target time series (monthly) file (.tar)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Target_Monthly" );
 			// Set the file name in the component...
@@ -6358,7 +7125,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null,	null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6381,15 +7148,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_TARGET_TS_MONTHLY, task );
 		
 		// Reservoir return (.rrf)...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Return" );
 			// Always set the file name...
@@ -6411,15 +7188,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_RETURN, task );
 	
 		// TODO - San Juan Sediment Recovery
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "SanJuanRecovery" );
 			// Always set the file name...
@@ -6438,15 +7225,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			//readInputAnnounce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_SANJUAN_RIP, task );
 		
 		// TODO SAM 2011-01-16 Enable - Rio Grande Spill
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "RioGrande_Spill_Monthly" );
 			// Always set the file name...
@@ -6465,15 +7262,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			//readInputAnnounce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RIO_GRANDE_SPILL, task );
 	
 		// Irrigation practice time series (tsp/ipy)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "IrrigationPractice_Yearly" );
 			// Set the file name in the component...
@@ -6495,15 +7302,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_IRRIGATION_PRACTICE_TS_YEARLY, task );
 	
 		// Irrigation water requirement (iwr) - monthly...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "ConsumptiveWaterRequirement_Monthly" );
 			// Set the file name in the component...
@@ -6517,7 +7336,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6534,15 +7353,25 @@ throws IllegalArgumentException, IOException
 				"file:\n\"" + fn + warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY, task );
 	
 		// StateMod used to read PAR but the AWC is now in the StateCU STR file.
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "StateCU_Structure" );
 			// Always set the file name...
@@ -6567,12 +7396,17 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STATECU_STRUCTURE, task );
 
 		// Soil moisture (*.par) file no longer supported (print a warning)...
 		
@@ -6584,6 +7418,13 @@ throws IllegalArgumentException, IOException
 	
 		// Reservoir content time series (monthly) file (.eom)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Historic_Monthly" );
 			// Set the file name in the component...
@@ -6597,7 +7438,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6614,15 +7455,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_CONTENT_TS_MONTHLY, task );
 	
 		// Stream estimate coefficients file (.rib)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "StreamEstimate_Coefficients" );
 			// Always set the file name...
@@ -6644,15 +7495,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMESTIMATE_COEFFICIENTS, task );
 	
 		// Historical streamflow (monthly) file (.rih)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "StreamGage_Historic_Monthly" );
 			// Always set the file name...
@@ -6666,7 +7529,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6683,15 +7546,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY, task );
 	
 		// Diversion time series (historical monthly) file (.ddh)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Historic_Monthly" );
 			// Make sure the file name is set in the component...
@@ -6705,7 +7580,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				readStateModFile_Announce1(comp);
 				fn = getDataFilePathAbsolute ( fn );
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6721,15 +7596,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DIVERSION_TS_MONTHLY, task );
 	
 		// Well historical pumping time series (monthly) file (.weh)..
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Historic_Monthly" );
 			// Set the file name in the component...
@@ -6743,7 +7630,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6759,15 +7646,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_WELL_PUMPING_TS_MONTHLY, task );
 	
 		// GeoView project file...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "GeographicInformation");
 			// Always set the file name...
@@ -6789,6 +7686,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -6796,10 +7694,19 @@ throws IllegalArgumentException, IOException
 			//readInputAnnounce2(comp, readTime.getSeconds() );
 			// Read data and display when the GUI is shown - no read for data to be read if no GUI
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_GEOVIEW, task );
 	
 		// TODO - output control - this is usually read separately when
 		// running reports, etc.  Just read the line but do not read the file...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "OutputRequest" );
 			// Always set the file name...
@@ -6814,6 +7721,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -6821,9 +7729,18 @@ throws IllegalArgumentException, IOException
 			//readInputAnnounce2(comp, readTime.getSeconds() );
 			// Read data and display when the GUI is shown - no read for data to be read if no GUI
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_OUTPUT_REQUEST, task );
 		
 		// TODO SAM 2011-01-16 Eanble reach data file
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reach_Data" );
 			// Always set the file name...
@@ -6842,16 +7759,29 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			//readInputAnnounce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_REACH_DATA, task );
 	
 		// Stream natural flow flow time series (daily) file (.rid)...
 		// Always read if a daily data set.
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		DataSetComponent comp2 = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Stream_Base_Daily" );
 			// Always set the file name...
@@ -6865,7 +7795,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList( fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6887,6 +7817,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -6897,9 +7828,21 @@ throws IllegalArgumentException, IOException
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY, task );
+		componentReadTasks.put ( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY, task );
 		
 		// Direct diversion demand time series (daily) file (.ddd)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Demand_Daily" );
 			// Set the file name in the component...
@@ -6913,7 +7856,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6929,15 +7872,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DEMAND_TS_DAILY, task );
 	
 		// Instream flow demand time series (daily) file (.ifd)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Instreamflow_Demand_Daily" );
 			// Set the file name in the component...
@@ -6951,7 +7906,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -6967,15 +7922,27 @@ throws IllegalArgumentException, IOException
 				+ " file:\n\"" + fn + warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_INSTREAM_DEMAND_TS_DAILY, task );
 	
 		// Well demand time series (daily) file (.wed)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Demand_Daily" );
 			// Set the file name in the component...
@@ -6989,7 +7956,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7005,15 +7972,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_WELL_DEMAND_TS_DAILY, task );
 	
 		// Reservoir target time series (daily) file (.tad)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Target_Daily" );
 			// Set the file name in the component...
@@ -7027,7 +8006,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7050,15 +8029,25 @@ throws IllegalArgumentException, IOException
 				+ fn + warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_TARGET_TS_DAILY, task );
 	
 		// Delay table (daily)...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "DelayTable_Daily" );
 			// Always set the file name...
@@ -7080,15 +8069,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DELAY_TABLES_DAILY, task );
 	
 		// Irrigation water requirement (iwr) - daily...
 
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "ConsumptiveWaterRequirement_Daily" );
 			// Set the file name in the component...
@@ -7102,7 +8103,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7119,15 +8120,27 @@ throws IllegalArgumentException, IOException
 			"file:\n\"" + fn + warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY, task );
 	
 		// Streamflow historical time series (daily) file (.riy) - always read...
 	
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "StreamGage_Historic_Daily" );
 			// Always set the file name...
@@ -7141,7 +8154,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null,null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7159,15 +8172,27 @@ throws IllegalArgumentException, IOException
 				fn + warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_STREAMGAGE_HISTORICAL_TS_DAILY, task );
 	
 		// Diversion (daily) time series (.ddd)...
 
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Diversion_Historic_Daily" );
 			// Set the file name in the component...
@@ -7181,7 +8206,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7198,15 +8223,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DIVERSION_TS_DAILY, task );
 	
 		// Well pumping (daily) time series...
 
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Well_Historic_Daily" );
 			// Set the file name in the component...
@@ -7220,7 +8257,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7237,15 +8274,27 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_WELL_PUMPING_TS_DAILY, task );
 	
 		// Daily reservoir content "eoy"...
 
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		int size = 0;
+		int i = 0;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Reservoir_Historic_Daily" );
 			// Set the file name in the component...
@@ -7259,7 +8308,7 @@ throws IllegalArgumentException, IOException
 				readTime.start();
 				fn = getDataFilePathAbsolute ( fn );
 				readStateModFile_Announce1(comp);
-				List<TS> v = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+				List<TS> v = readStateModFile_ReadTimeSeriesList(fn);
 				if (v == null) {
 					v = new Vector<TS>();
 				}
@@ -7276,15 +8325,25 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds());
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_RESERVOIR_CONTENT_TS_DAILY, task );
 		
 		// Downstream call (.cal)...
 		
+		task = new Runnable() {
+			public void run () {
+		String fn = null;
+		DataSetComponent comp = null;
+		StopWatch readTime = new StopWatch();
 		try {
 			fn = response_props.getValue ( "Downstream_Call" );
 			// Always set the file name...
@@ -7306,13 +8365,61 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
 			readTime.stop();
 			readStateModFile_Announce2(comp, readTime.getSeconds() );
 		}
+			}
+		};
+		readTasks.add ( task );
+		componentReadTasks.put ( COMP_DOWNSTREAM_CALL_TS_DAILY, task );
 		
+		// Save the tasks so that components can be reloaded if their files change...
+		__componentReloadTasks.clear();
+		__componentReloadTasksDependent.clear();
+		__componentFileModifiedTimes.clear();
+		__componentFileSizes.clear();
+		if ( readData ) {
+			__componentReloadTasks.putAll ( componentReadTasks );
+			__componentReloadTasksDependent.addAll ( readTasksDependent );
+		}
+		if ( readData && getReadOnDemand() ) {
+			// Only set the file names - the tasks will be run when component data are requested...
+			readStateModFile_SetFileNames ( response_props, componentReadTasks );
+			synchronized ( __componentReadTasks ) {
+				__componentReadTasks.putAll ( componentReadTasks );
+			}
+		}
+		else {
+			// Read the components, waiting for the independent components to be read before reading the
+			// dependent components...
+
+			readStateModFile_RunTasks ( readTasks );
+			readStateModFile_RunTasks ( readTasksDependent );
+
+			// Save the time series snapshot if any time series files were parsed...
+			if ( (__timeSeriesSnapshotOut != null) && __timeSeriesSnapshotOut.isChanged() ) {
+				String snapshotFilename = filename + StateMod_TimeSeriesSnapshot.SNAPSHOT_FILE_EXTENSION;
+				try {
+					__timeSeriesSnapshotOut.writeSnapshot ( snapshotFilename );
+					Message.printStatus ( 2, routine, "Wrote time series snapshot \"" + snapshotFilename + "\"" );
+				}
+				catch ( Exception e ) {
+					Message.printWarning ( 3, routine, "Unable to write time series snapshot \"" +
+						snapshotFilename + "\" (" + e + ")." );
+					Message.printWarning ( 3, routine, e );
+				}
+			}
+			__timeSeriesSnapshotIn = null;
+			__timeSeriesSnapshotOut = null;
+		}
+		if ( readData ) {
+			saveComponentFileStates ( new Vector<Integer>(componentReadTasks.keySet()) );
+		}
+
 		// Keep track of files/properties that are not explicitly handled in this class
 		// These may be new files added to the model, old files being phased out, or simple properties.
 		PropList unhandledResponseFileProperties = getUnhandledResponseFileProperties();
@@ -7340,83 +8447,8 @@ throws IllegalArgumentException, IOException
 		Message.printStatus(2, routine, "\n" + toStringDefinitions() );
 	
 		// After reading, link objects using identifiers in the various files...
-		
-		// Connect all the instream flow time series to the stations...
-	
-		Message.printStatus (1,routine,"Connect all instream flow time series");
-		StateMod_InstreamFlow.connectAllTS (
-			(List<StateMod_InstreamFlow>)getComponentForComponentType( COMP_INSTREAM_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_MONTHLY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_INSTREAM_DEMAND_TS_DAILY).getData() );
-	
-		// Connect all the reservoir time series to the stations...
-	
-		StateMod_Reservoir.connectAllTS (
-			(List<StateMod_Reservoir>)getComponentForComponentType( COMP_RESERVOIR_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_RESERVOIR_CONTENT_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_RESERVOIR_CONTENT_TS_DAILY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_RESERVOIR_TARGET_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_RESERVOIR_TARGET_TS_DAILY).getData());
-	
-		// Connect all the diversion time series to the stations...
-	
-		Message.printStatus ( 1, routine, "Connect all diversion time series");
-		StateMod_Diversion.connectAllTS(
-			(List<StateMod_Diversion>)getComponentForComponentType( COMP_DIVERSION_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_DIVERSION_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_DIVERSION_TS_DAILY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_DEMAND_TS_MONTHLY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_DEMAND_TS_OVERRIDE_MONTHLY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_DEMAND_TS_AVERAGE_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_DEMAND_TS_DAILY).getData(),
-			(List<StateCU_IrrigationPracticeTS>)getComponentForComponentType( COMP_IRRIGATION_PRACTICE_TS_YEARLY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY).getData());
-	
-		// Connect all the well time series to the stations...
-	
-		Message.printStatus ( 1, routine, "Connect all well time series");
-		StateMod_Well.connectAllTS(
-			(List<StateMod_Well>)getComponentForComponentType( COMP_WELL_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_WELL_PUMPING_TS_MONTHLY).getData(), 
-			(List<DayTS>)getComponentForComponentType( COMP_WELL_PUMPING_TS_DAILY).getData(), 
-			(List<MonthTS>)getComponentForComponentType( COMP_WELL_DEMAND_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_WELL_DEMAND_TS_DAILY).getData(),
-			(List<StateCU_IrrigationPracticeTS>)getComponentForComponentType( COMP_IRRIGATION_PRACTICE_TS_YEARLY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY).getData());
-	
-		// Process the old-style ris, rim, rid files for the new convention...
-	
-		// TODO SAM 2009-06-30 Evaluate if the following is being handled ok free format
-		/*
-		if ( !__is_free_format ) {
-			StateMod_StreamEstimate.processStreamData ( 
-			(List)getComponentForComponentType( COMP_STREAMGAGE_STATIONS).getData(),
-			(List)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY).getData(),
-			(List)getComponentForComponentType( COMP_STREAMESTIMATE_STATIONS).getData(),
-			(List)getComponentForComponentType( COMP_STREAMESTIMATE_COEFFICIENTS).getData() );
-		}	// Else the StreamGage and StreamEstimate stations are already split into separate files.
-		*/
-	
-		// Connect all the stream gage station time series to the stations...
-	
-		Message.printStatus (1,routine,"Connect all river station time series");
-		StateMod_StreamGage.connectAllTS(
-			(List<StateMod_StreamGage>)getComponentForComponentType( COMP_STREAMGAGE_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_STREAMGAGE_HISTORICAL_TS_DAILY).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY).getData());
-	
-		// Connect all the stream estimate station time series to the stations...
-	
-		Message.printStatus (1,routine, "Connect all stream estimate station time series");
-		StateMod_StreamEstimate.connectAllTS(
-			(List<StateMod_StreamEstimate>)getComponentForComponentType( COMP_STREAMESTIMATE_STATIONS).getData(),
-			(List<MonthTS>)getComponentForComponentType( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY).getData(),
-			(List<DayTS>)getComponentForComponentType( COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY).getData());
+
+		connectAllTS ();
 	
 		totalReadTime.stop();
 		Message.printStatus(1, routine, "Total time to read StateMod files is "
@@ -7450,6 +8482,7 @@ throws IllegalArgumentException, IOException
 				warningEndString + " (See log file for more on error:" + e + ")");
 			Message.printWarning(3, routine, e);
 			comp.setErrorReadingInputFile ( true );
+			getComponentMetrics ( comp.getComponentType() ).addReadError();
 		}
 		finally {
 			comp.setDirty ( false );
@@ -7510,7 +8543,8 @@ files and therefore the same basic checks are done many times.
 */
 private void readStateModFile_Announce1 ( DataSetComponent comp )
 throws Exception
-{	String fn = getDataFilePathAbsolute ( comp );
+{	getComponentMetrics ( comp.getComponentType() ).startRead();
+	String fn = getDataFilePathAbsolute ( comp );
 	String description = comp.getComponentName();
 
 	if ( (fn == null) || (fn.length() == 0) ) {
@@ -7533,7 +8567,8 @@ throws Exception
 /**
 This method is a helper routine to readStateModFile().  It calls
 Message.printStatus() with the message that a file has been read successively.
-Then it prints a similar, but shorter, message to the status bar.
+Then it prints a similar, but shorter, message to the status bar.  The read is also recorded in the
+component metrics (see getMetrics()).
 @param comp Component being read.
 @param seconds Number of seconds to read.
 */
@@ -7547,6 +8582,305 @@ private void readStateModFile_Announce2 ( DataSetComponent comp, double seconds
 		+ StringUtil.formatString(seconds,"%.3f") + " seconds";
 	Message.printStatus(1, routine, msg );
 	sendProcessListenerMessage (StateMod_GUIUtil.STATUS_READ_COMPLETE,msg);
+	if ( (comp.getDataFileName() != null) && (comp.getDataFileName().length() > 0) ) {
+		getComponentMetrics ( comp.getComponentType() ).recordRead ( fn,
+			getComponentDataIfRead(comp.getComponentType()), seconds );
+	}
+}
+
+/**
+This method is a helper routine to readStateModFile().  It sets the file names for components that will
+be read on demand, consistent with the component read tasks.
+@param response_props properties from the response file.
+@param componentReadTasks component read tasks, with the component type as the key.
+*/
+private void readStateModFile_SetFileNames ( PropList response_props, HashMap<Integer,Runnable> componentReadTasks )
+{	for ( Integer compType : componentReadTasks.keySet() ) {
+		String fn = response_props.getValue ( getStateModFileProperty(compType) );
+		if ( (fn == null) && (compType == COMP_STREAMESTIMATE_STATIONS) ) {
+			// Same as the read - use the stream gage stations if there is not a separate stream estimate file.
+			fn = response_props.getValue ( getStateModFileProperty(COMP_STREAMGAGE_STATIONS) );
+		}
+		DataSetComponent comp = getComponentForComponentType ( compType );
+		if ( (comp != null) && (fn != null) ) {
+			comp.setDataFileName ( fn );
+		}
+	}
+}
+
+/**
+This method is a helper routine to readStateModFile().  It reads a StateMod time series file, using
+the time series snapshot if the file has not changed since the snapshot was saved (see setUseTimeSeriesSnapshot()).
+@param fn absolute path to the time series file.
+@return the list of time series read from the file.
+@exception Exception if there is an error reading the file.
+*/
+private List<TS> readStateModFile_ReadTimeSeriesList ( String fn )
+throws Exception
+{	StateMod_TimeSeriesSnapshot snapshotIn = __timeSeriesSnapshotIn;
+	StateMod_TimeSeriesSnapshot snapshotOut = __timeSeriesSnapshotOut;
+	List<TS> tslist = null;
+	if ( snapshotIn != null ) {
+		tslist = snapshotIn.getTimeSeriesList ( fn );
+	}
+	boolean fromSnapshot = (tslist != null);
+	if ( fromSnapshot ) {
+		Message.printStatus ( 2, "StateMod_DataSet.readStateModFile",
+			"Using time series snapshot for \"" + fn + "\"" );
+	}
+	else {
+		tslist = StateMod_TS.readTimeSeriesList(fn, null, null, null, true);
+	}
+	if ( (snapshotOut != null) && (tslist != null) ) {
+		snapshotOut.addTimeSeriesList ( fn, tslist, fromSnapshot );
+	}
+	return tslist;
+}
+
+/**
+This method is a helper routine to readStateModFile().  It runs a component read task in the current
+thread, assigning this data set to the data objects that are created by the task.  The task is run as
+a bulk edit (see beginBulkEdit()) so that values set by the reader do not mark objects and components dirty.
+@param task component read task.
+*/
+private void readStateModFile_RunTask ( Runnable task )
+{	StateMod_DataSet threadDataSet = StateMod_Data.getThreadDataSet();
+	StateMod_Data.setThreadDataSet ( this );
+	// Values set by the readers do not need to mark objects and components dirty because components are
+	// clean after they are read...
+	beginBulkEdit();
+	try {
+		task.run();
+	}
+	finally {
+		endBulkEdit ( null );
+		// Restore the previous data set (e.g., when reading on demand from another data set's read)...
+		StateMod_Data.setThreadDataSet ( threadDataSet );
+	}
+}
+
+/**
+This method is a helper routine to readStateModFile().  It runs the component read tasks using a
+thread pool with getReadThreadCount() threads, and returns when all of the tasks have completed.
+Each task handles its own read errors (setErrorReadingInputFile()), so only unexpected errors are
+passed to the calling code.  If the thread count is 1, the tasks are run in order in the current thread.
+@param tasks list of component read tasks.
+@exception Exception if a task has an unexpected error.
+*/
+private void readStateModFile_RunTasks ( List<Runnable> tasks )
+throws Exception
+{	int threadCount = Math.min ( getReadThreadCount(), tasks.size() );
+	if ( threadCount <= 1 ) {
+		for ( Runnable task : tasks ) {
+			readStateModFile_RunTask ( task );
+		}
+		return;
+	}
+	ExecutorService executor = Executors.newFixedThreadPool ( threadCount );
+	try {
+		List<Future<?>> futures = new Vector<Future<?>>();
+		for ( final Runnable task : tasks ) {
+			futures.add ( executor.submit ( new Runnable() {
+				public void run () {
+					readStateModFile_RunTask ( task );
+				}
+			}) );
+		}
+		// Wait for all of the tasks to complete before checking for errors so that the data set is complete.
+		Exception firstException = null;
+		for ( Future<?> future : futures ) {
+			try {
+				future.get();
+			}
+			catch ( ExecutionException e ) {
+				if ( firstException == null ) {
+					firstException = (e.getCause() instanceof Exception) ? (Exception)e.getCause() : e;
+				}
+			}
+		}
+		if ( firstException != null ) {
+			throw firstException;
+		}
+	}
+	finally {
+		executor.shutdown();
+	}
+}
+
+/**
+Reread the components whose data files have changed since the data set was read, for example when a file
+is edited outside of the software.  Components that have been edited (are dirty) are not reread, so that
+edits are not lost (see reloadChangedComponents(boolean,List)).
+@return the list of component types that were reread (empty if no files have changed).
+@exception Exception if there is an unexpected error rereading the components.
+*/
+public List<Integer> reloadChangedComponents ()
+throws Exception
+{	return reloadChangedComponents ( false, null );
+}
+
+/**
+Reread the components whose data files have changed since the data set was read, for example when a file
+is edited outside of the software.  A file is considered changed if its modification time or size differs
+from when it was read.  Components that have not been read (see setReadOnDemand()) are not reread because
+they will be read from the current file when requested.  After rereading, rights and time series are
+connected only for the stations affected by the changed components.  Changes to the response file itself
+are not detected - call readStateModFile() to handle those changes.  Components that have an error when
+reread (see DataSetComponent.getErrorReadingInputFile()) are still considered changed and are reread again by
+the next call.
+@param force if true, reread changed components even if they have been edited (are dirty), discarding
+the edits.  If false, changed components that are dirty are not reread, and neither are other components
+that are read from the same file(s) by the same read.
+@param skippedTypes if not null, the list is filled with the component types whose files have changed
+but were not reread because of edits.
+@return the list of component types that were reread (empty if no files have changed).
+@exception Exception if there is an unexpected error rereading the components.
+*/
+public List<Integer> reloadChangedComponents ( boolean force, List<Integer> skippedTypes )
+throws Exception
+{	String routine = "StateMod_DataSet.reloadChangedComponents";
+	List<Integer> changedTypes = new Vector<Integer>();
+	synchronized ( __componentReadTasks ) {
+		List<Runnable> tasks = new Vector<Runnable>();
+		List<Runnable> tasksDependent = new Vector<Runnable>();
+		List<Integer> compTypes = new Vector<Integer>(__componentReloadTasks.keySet());
+		Collections.sort ( compTypes );
+		// Tasks that would overwrite edited components, which are skipped unless forced...
+		List<Runnable> dirtyTasks = new Vector<Runnable>();
+		if ( !force ) {
+			for ( Integer compType : compTypes ) {
+				DataSetComponent comp = getComponentForComponentType ( compType );
+				if ( (comp != null) && comp.isDirty() ) {
+					dirtyTasks.add ( __componentReloadTasks.get(compType) );
+				}
+			}
+		}
+		for ( Integer compType : compTypes ) {
+			if ( __componentReadTasks.containsKey(compType) || !isComponentFileChanged(compType) ) {
+				continue;
+			}
+			Runnable task = __componentReloadTasks.get ( compType );
+			if ( dirtyTasks.contains(task) ) {
+				Message.printWarning ( 2, routine, "File for component \"" + lookupComponentName(compType) +
+					"\" has changed but the component has been edited (or is read with an edited component) - not rereading." );
+				if ( skippedTypes != null ) {
+					skippedTypes.add ( compType );
+				}
+				continue;
+			}
+			changedTypes.add ( compType );
+			// Tasks may be shared by components (e.g., natural flow files) so only add once...
+			if ( __componentReloadTasksDependent.contains(task) ) {
+				if ( !tasksDependent.contains(task) ) {
+					tasksDependent.add ( task );
+				}
+			}
+			else if ( !tasks.contains(task) ) {
+				tasks.add ( task );
+			}
+		}
+		if ( changedTypes.size() == 0 ) {
+			Message.printStatus ( 2, routine, "No component files have changed - not rereading." );
+			return changedTypes;
+		}
+		for ( Integer compType : changedTypes ) {
+			Message.printStatus ( 2, routine, "File for component \"" + lookupComponentName(compType) +
+				"\" has changed - rereading." );
+			// Clear the error from a previous read so that the error only indicates the reread...
+			DataSetComponent comp = getComponentForComponentType ( compType );
+			if ( comp != null ) {
+				comp.setErrorReadingInputFile ( false );
+			}
+		}
+		readStateModFile_RunTasks ( tasks );
+		readStateModFile_RunTasks ( tasksDependent );
+		// Only save the file state for components that were reread without errors so that the other
+		// components are tried again the next time...
+		List<Integer> rereadTypes = new Vector<Integer>();
+		for ( Integer compType : changedTypes ) {
+			DataSetComponent comp = getComponentForComponentType ( compType );
+			if ( (comp != null) && comp.getErrorReadingInputFile() ) {
+				Message.printWarning ( 2, routine, "Error rereading component \"" + lookupComponentName(compType) +
+					"\" - will reread the next time changed components are reloaded." );
+			}
+			else {
+				rereadTypes.add ( compType );
+			}
+		}
+		saveComponentFileStates ( rereadTypes );
+
+		// Connect only the data that are affected by the changed components...
+		reloadChangedComponents_ConnectRights ( changedTypes );
+		connectAllTS ( changedTypes );
+	}
+	return changedTypes;
+}
+
+/**
+This method is a helper routine to reloadChangedComponents().  It reconnects rights to stations if
+the stations or rights have been reread.  The rights are disconnected from the stations first because
+rereading rights connects the new rights without removing the old rights.
+@param changedTypes component types that have been reread.
+*/
+@SuppressWarnings("unchecked")
+private void reloadChangedComponents_ConnectRights ( List<Integer> changedTypes )
+{	if ( changedTypes.contains(COMP_INSTREAM_STATIONS) || changedTypes.contains(COMP_INSTREAM_RIGHTS) ) {
+		List<StateMod_InstreamFlow> ifsList = (List<StateMod_InstreamFlow>)getComponentDataIfRead( COMP_INSTREAM_STATIONS );
+		List<StateMod_InstreamFlowRight> ifrList = (List<StateMod_InstreamFlowRight>)getComponentDataIfRead( COMP_INSTREAM_RIGHTS );
+		if ( (ifsList != null) && (ifrList != null) ) {
+			for ( StateMod_InstreamFlow ifs : ifsList ) {
+				ifs.disconnectRights();
+			}
+			StateMod_InstreamFlow.connectAllRights ( ifsList, ifrList );
+		}
+	}
+	if ( changedTypes.contains(COMP_RESERVOIR_STATIONS) || changedTypes.contains(COMP_RESERVOIR_RIGHTS) ) {
+		List<StateMod_Reservoir> resList = (List<StateMod_Reservoir>)getComponentDataIfRead( COMP_RESERVOIR_STATIONS );
+		List<StateMod_ReservoirRight> rerList = (List<StateMod_ReservoirRight>)getComponentDataIfRead( COMP_RESERVOIR_RIGHTS );
+		if ( (resList != null) && (rerList != null) ) {
+			for ( StateMod_Reservoir res : resList ) {
+				res.disconnectRights();
+			}
+			StateMod_Reservoir.connectAllRights ( resList, rerList );
+		}
+	}
+	if ( changedTypes.contains(COMP_DIVERSION_STATIONS) || changedTypes.contains(COMP_DIVERSION_RIGHTS) ) {
+		List<StateMod_Diversion> ddsList = (List<StateMod_Diversion>)getComponentDataIfRead( COMP_DIVERSION_STATIONS );
+		List<StateMod_DiversionRight> ddrList = (List<StateMod_DiversionRight>)getComponentDataIfRead( COMP_DIVERSION_RIGHTS );
+		if ( (ddsList != null) && (ddrList != null) ) {
+			for ( StateMod_Diversion dds : ddsList ) {
+				dds.disconnectRights();
+			}
+			StateMod_Diversion.connectAllRights ( ddsList, ddrList );
+		}
+	}
+	if ( changedTypes.contains(COMP_WELL_STATIONS) || changedTypes.contains(COMP_WELL_RIGHTS) ) {
+		List<StateMod_Well> wesList = (List<StateMod_Well>)getComponentDataIfRead( COMP_WELL_STATIONS );
+		List<StateMod_WellRight> werList = (List<StateMod_WellRight>)getComponentDataIfRead( COMP_WELL_RIGHTS );
+		if ( (wesList != null) && (werList != null) ) {
+			for ( StateMod_Well wes : wesList ) {
+				wes.disconnectRights();
+			}
+			StateMod_Well.connectAllRights ( wesList, werList );
+		}
+	}
+}
+
+/**
+Save the modification time and size of the data files for components, used by reloadChangedComponents()
+to detect changed files.
+@param compTypes component types to save.
+*/
+private void saveComponentFileStates ( List<Integer> compTypes )
+{	for ( Integer compType : compTypes ) {
+		DataSetComponent comp = getComponentForComponentType ( compType );
+		if ( (comp == null) || (comp.getDataFileName() == null) || (comp.getDataFileName().length() == 0) ) {
+			continue;
+		}
+		File f = new File ( getDataFilePathAbsolute(comp) );
+		__componentFileModifiedTimes.put ( compType, Long.valueOf(f.lastModified()) );
+		__componentFileSizes.put ( compType, Long.valueOf(f.length()) );
+	}
 }
 
 /**
@@ -7585,6 +8919,187 @@ public String runComponentChecks( int type, String fname, String commands, Strin
 	return check_file;
 }
 
+/**
+Write a component's data to its StateMod file and mark the component clean.  The write time and number
+of records are recorded in the component metrics (see getComponentMetrics()).
+@param comp the component to write.
+@param oldFilename the name of the previous version of the file (for processing headers), or null if no
+previous file is available.
+@param newFilename the name of the file to write.
+@param comments comments to add to the top of the file, or null if no comments are available.
+@exception Exception if an error occurs writing the file or the component type is not supported.
+*/
+public void writeComponentFile ( DataSetComponent comp, String oldFilename, String newFilename, List<String> comments )
+throws Exception
+{	boolean daily = false;
+	int type = comp.getComponentType();
+	Object data = comp.getData();
+	StopWatch writeTime = new StopWatch();
+	writeTime.start();
+
+	switch (type) {
+	////////////////////////////////////////////////////////
+	// StateMod_* classes
+		case COMP_CONTROL:
+			writeStateModControlFile(this, oldFilename, newFilename, comments);
+			break;
+		case COMP_DELAY_TABLES_DAILY:
+			@SuppressWarnings("unchecked")
+			List<StateMod_DelayTable> delayTablesDaily = (List<StateMod_DelayTable>)data;
+			StateMod_DelayTable.writeStateModFile(oldFilename,
+				newFilename, delayTablesDaily, comments, this.getInterv(), -1);
+			break;
+		case COMP_DELAY_TABLES_MONTHLY:
+			@SuppressWarnings("unchecked")
+			List<StateMod_DelayTable> delayTablesMonthly = (List<StateMod_DelayTable>)data;
+			StateMod_DelayTable.writeStateModFile(oldFilename,
+				newFilename, delayTablesMonthly, comments, this.getInterv(), -1);
+			break;
+		case COMP_DIVERSION_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_Diversion> diversionStations = (List<StateMod_Diversion>)data;
+			StateMod_Diversion.writeStateModFile(oldFilename, newFilename, diversionStations, comments, daily );
+			break;
+		case COMP_DIVERSION_RIGHTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_DiversionRight> diversionRights = (List<StateMod_DiversionRight>)data;
+			StateMod_DiversionRight.writeStateModFile(oldFilename, newFilename, diversionRights, comments, daily);
+			break;
+		case COMP_INSTREAM_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_InstreamFlow> instreamFlow = (List<StateMod_InstreamFlow>)data;
+			StateMod_InstreamFlow.writeStateModFile(oldFilename, newFilename, instreamFlow, comments, daily);
+			break;
+		case COMP_INSTREAM_RIGHTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_InstreamFlowRight> instreamFlowRights = (List<StateMod_InstreamFlowRight>)data;
+			StateMod_InstreamFlowRight.writeStateModFile( oldFilename, newFilename, instreamFlowRights, comments );
+			break;
+		case COMP_OPERATION_RIGHTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_OperationalRight> operationalRights = (List<StateMod_OperationalRight>)data;
+			// 2 is the file version (introduced for StateMod version 12 change)
+			StateMod_OperationalRight.writeStateModFile( oldFilename, newFilename, 2, operationalRights, comments,
+				this );
+			break;
+		case COMP_PLANS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_Plan> planStations = (List<StateMod_Plan>)data;
+			StateMod_Plan.writeStateModFile(oldFilename, newFilename, planStations, comments);
+			break;
+		case COMP_RESERVOIR_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_Reservoir> reservoirStations = (List<StateMod_Reservoir>)data;
+			StateMod_Reservoir.writeStateModFile(oldFilename, newFilename, reservoirStations, comments, daily);
+			break;
+		case COMP_RESERVOIR_RIGHTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_ReservoirRight> reservoirRights = (List<StateMod_ReservoirRight>)data;
+			StateMod_ReservoirRight.writeStateModFile(oldFilename, newFilename, reservoirRights, comments);
+			break;
+		case COMP_RESPONSE:
+			writeStateModFile(this, oldFilename, newFilename, comments );
+			break;
+		case COMP_RIVER_NETWORK:
+			@SuppressWarnings("unchecked")
+			List<StateMod_RiverNetworkNode> riverNodes = (List<StateMod_RiverNetworkNode>)data;
+			StateMod_RiverNetworkNode.writeStateModFile(oldFilename, newFilename, riverNodes, comments, true);
+			break;
+		case COMP_STREAMESTIMATE_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_StreamEstimate> streamEstimateStations = (List<StateMod_StreamEstimate>)data;
+			StateMod_StreamEstimate.writeStateModFile(oldFilename, newFilename, streamEstimateStations, comments, daily);
+			break;
+		case COMP_STREAMESTIMATE_COEFFICIENTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_StreamEstimate_Coefficients> streamEstimateCoefficients = (List<StateMod_StreamEstimate_Coefficients>)data;
+			StateMod_StreamEstimate_Coefficients.writeStateModFile( oldFilename, newFilename, streamEstimateCoefficients, comments );
+			break;
+		case COMP_STREAMGAGE_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_StreamGage> streamGageStations = (List<StateMod_StreamGage>)data;
+			StateMod_StreamGage.writeStateModFile(oldFilename, newFilename, streamGageStations, comments, daily);
+			break;
+		case COMP_WELL_STATIONS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_Well> wellStations = (List<StateMod_Well>)data;
+			StateMod_Well.writeStateModFile(oldFilename, newFilename, wellStations, comments);
+			break;
+		case COMP_WELL_RIGHTS:
+			@SuppressWarnings("unchecked")
+			List<StateMod_WellRight> wellRights = (List<StateMod_WellRight>)data;
+			StateMod_WellRight.writeStateModFile(oldFilename, newFilename, wellRights, comments, (PropList)null);
+			break;
+
+	//////////////////////////////////////////////////////
+	// StateMod Time Series
+		case COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY:
+		case COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY:
+		case COMP_DEMAND_TS_DAILY:
+		case COMP_DEMAND_TS_AVERAGE_MONTHLY:
+		case COMP_DEMAND_TS_MONTHLY:
+		case COMP_DEMAND_TS_OVERRIDE_MONTHLY:
+		case COMP_DIVERSION_TS_DAILY:
+		case COMP_DIVERSION_TS_MONTHLY:
+		case COMP_EVAPORATION_TS_MONTHLY:
+		case COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY:
+		case COMP_INSTREAM_DEMAND_TS_DAILY:
+		case COMP_INSTREAM_DEMAND_TS_MONTHLY:
+		case COMP_PRECIPITATION_TS_MONTHLY:
+		case COMP_RESERVOIR_CONTENT_TS_DAILY:
+		case COMP_RESERVOIR_CONTENT_TS_MONTHLY:
+		case COMP_RESERVOIR_TARGET_TS_DAILY:
+		case COMP_RESERVOIR_TARGET_TS_MONTHLY:
+		case COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY:
+		case COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY:
+		case COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY:
+		case COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY:
+		case COMP_STREAMGAGE_HISTORICAL_TS_DAILY:
+		case COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY:
+		case COMP_WELL_DEMAND_TS_DAILY:
+		case COMP_WELL_DEMAND_TS_MONTHLY:
+		case COMP_WELL_PUMPING_TS_DAILY:
+		case COMP_WELL_PUMPING_TS_MONTHLY:
+			double missing = -999.0;
+			YearType yearType = null;
+			if (this.getCyrl() == YearType.CALENDAR) {
+				yearType = YearType.CALENDAR;
+			}
+			else if (this.getCyrl() == YearType.WATER) {
+				yearType = YearType.WATER;
+			}
+			else if (this.getCyrl() == YearType.NOV_TO_OCT) {
+				yearType = YearType.NOV_TO_OCT;
+			}
+			int precision = 2;
+
+			// Do the following to avoid warnings
+			List<TS> tslist = null;
+			if ( data != null ) {
+				@SuppressWarnings("unchecked")
+				List<TS> tslist0 = (List<TS>)data;
+				if ( tslist0.size() > 0) {
+					TS ts = tslist0.get(0);
+					missing = ts.getMissing();
+				}
+				tslist = tslist0;
+			}
+			
+			StateMod_TS.writeTimeSeriesList(oldFilename,
+				newFilename, comments, tslist, null, null, yearType, missing, precision);
+			break;
+
+		default:
+			throw new Exception ( "Writing component type " + type + " is not supported." );
+	}
+	comp.setDirty(false);
+	writeTime.stop();
+	if ( (type != COMP_CONTROL) && (type != COMP_RESPONSE) ) {
+		// The control and response file write methods record their own metrics...
+		getComponentMetrics ( type ).recordWrite ( newFilename, data, writeTime.getSeconds() );
+	}
+}
+
 /**
 Write a data set to an opened XML file.  This is experimental code.
 @param data a StateMod_DataSet to write.
@@ -7683,9 +9198,10 @@ public void addProcessListener(ProcessListener p) {
 
 /**
 Send a message to ProcessListener that have been registered with this object.
+Messages are serialized because components may be read in parallel (see setReadThreadCount()).
 This is usually a main application that is giving feedback to a user via the messages.
 */
-public void sendProcessListenerMessage ( int status, String message )
+public synchronized void sendProcessListenerMessage ( int status, String message )
 {	int size = 0;
 	if (__processListeners != null) {
 		size = __processListeners.size();
@@ -8543,6 +10059,31 @@ public void setPfacto(String pfacto) {
 	}
 }
 
+/**
+Set whether component data are read when first requested.  If true, readStateModFile() sets the file names
+for components but does not read the data.  The data for a component are read the first time that
+DataSetComponent.getData() is called for the component, which also reads components that the data depend on
+(e.g., stations for rights) and connects time series to stations that have been read.
+This is useful when only a few components are needed from a large data set.
+@param readOnDemand if true, read component data when first requested.
+*/
+public void setReadOnDemand(boolean readOnDemand) {
+	__readOnDemand = readOnDemand;
+}
+
+/**
+Set the number of threads used to read components in readStateModFile().
+Components that do not depend on each other (e.g., station, time series, and delay table files) are read at
+the same time.  The default is 1, which reads components one at a time in the calling thread.  If more than
+one thread is used, registered ProcessListener objects are called from the read threads (one at a time),
+so listeners that update a user interface must pass the messages to the user interface thread.
+@param readThreadCount the number of threads used to read components, 1 to read one component at a time
+(values less than 1 are treated as 1).
+*/
+public void setReadThreadCount(int readThreadCount) {
+	__readThreadCount = Math.max(1, readThreadCount);
+}
+
 /**
 Set the divisor for streamflow data units.
 @param rfacto factor
@@ -8597,6 +10138,19 @@ public void setSoild(String soild) {
 	}
 }
 
+/**
+Set whether a snapshot of time series is used when reading the data set.  The snapshot is a cache of
+time series only - stations, rights, and other components are always parsed from their files.
+If true, readStateModFile() uses the time series saved in the snapshot file (the response file name plus
+StateMod_TimeSeriesSnapshot.SNAPSHOT_FILE_EXTENSION) for time series files that have not changed
+(same path, size, and modification time), and parses the other files as usual.  If any time series
+files are parsed, the snapshot file is then rewritten.
+@param useTimeSeriesSnapshot if true, use a snapshot of time series when reading time series files.
+*/
+public void setUseTimeSeriesSnapshot(boolean useTimeSeriesSnapshot) {
+	__useTimeSeriesSnapshot = useTimeSeriesSnapshot;
+}
+
 /**
 Return a string representation of the data set definition information, useful for troubleshooting.
 */
@@ -8637,13 +10191,15 @@ throws Exception
 	List<String> ignoreCommentStr = new Vector<String>();
 	ignoreCommentStr.add("#>");
 	String routine = "writeControlFile";
+	StopWatch writeTime = new StopWatch();
+	writeTime.start();
 
 	Message.printStatus(1, routine,
 		"Writing new control to file \"" + outputFile + "\" using \"" + inputFile + "\" header...");
 
 	try {	
 		// Process the header from the old file...
-		out = IOUtil.processFileHeaders(inputFile, outputFile, newcomments, commentStr, ignoreCommentStr, 0);
+		out = StateMod_Util.processFileHeaders(inputFile, outputFile, newcomments, commentStr, ignoreCommentStr, 0);
 	
 		// Now write the new control data...
 		String month_del = "   ";
@@ -8823,6 +10379,9 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( outputFile );
+	writeTime.stop();
+	dataset.getComponentMetrics ( COMP_CONTROL ).recordWrite ( outputFile, null, writeTime.getSeconds() );
 }
 
 /**
@@ -8837,13 +10396,15 @@ public static void writeStateModFile ( StateMod_DataSet dataset,
 	String instrfile, String outstrfile, List<String> newComments )
 throws Exception
 {	String routine = "StateMod_DataSet.writeStateModFile";
+	StopWatch writeTime = new StopWatch();
+	writeTime.start();
 	List<String> commentStr = new Vector<String>();
 	commentStr.add("#");
 	List<String> ignoreCommentStr = new Vector<String>();
 	ignoreCommentStr.add("#>");
 	PrintWriter out = null;
 	try {	
-		out = IOUtil.processFileHeaders(instrfile, outstrfile, newComments, commentStr, ignoreCommentStr, 0);
+		out = StateMod_Util.processFileHeaders(instrfile, outstrfile, newComments, commentStr, ignoreCommentStr, 0);
 	
 		String cmnt = "#>";
 		DataSetComponent comp = null;
@@ -8925,6 +10486,9 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( outstrfile );
+	writeTime.stop();
+	dataset.getComponentMetrics ( COMP_RESPONSE ).recordWrite ( outstrfile, null, writeTime.getSeconds() );
 }
 
 }
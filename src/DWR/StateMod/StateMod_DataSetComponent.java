@@ -0,0 +1,172 @@
+// StateMod_DataSetComponent - data set component that can read its data on demand
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.util.HashMap;
+import java.util.List;
+
+import RTi.Util.IO.DataSetComponent;
+
+/**
+This class extends DataSetComponent so that the data for a StateMod data set component can be read the
+first time that the data are requested.  This is used when StateMod_DataSet.setReadOnDemand(true) has
+been called before reading a response file - the file names for components are set when the response file
+is read but the data for each component are read when getData() is first called.
+*/
+public class StateMod_DataSetComponent extends DataSetComponent
+{
+
+/**
+Data set that the component belongs to, used to read data on demand.
+*/
+private StateMod_DataSet __dataset = null;
+
+/**
+Index of upper-case identifier to the position of the first matching object in the component data list.
+The index is built when needed by indexOf() and is rebuilt if the list, its size, or identifiers change.
+*/
+private HashMap<String,Integer> __idIndex = null;
+
+/**
+Component data list that the identifier index was built for.
+*/
+private List<? extends StateMod_Data> __idIndexData = null;
+
+/**
+Size of the component data list when the identifier index was built.
+*/
+private int __idIndexSize = 0;
+
+/**
+Identifier change count (see StateMod_Data.getIDChangeCount()) when the identifier index was built.
+*/
+private int __idIndexChangeCount = 0;
+
+/**
+Construct the data set component.
+@param dataset data set that the component belongs to.
+@param type component type.
+@exception Exception if there is an error creating the component.
+*/
+public StateMod_DataSetComponent ( StateMod_DataSet dataset, int type )
+throws Exception
+{	super ( dataset, type );
+	__dataset = dataset;
+}
+
+/**
+Build the identifier index for the component data list.
+@param data component data list.
+@param changeCount the identifier change count for the component type.
+*/
+private void buildIDIndex ( List<? extends StateMod_Data> data, int changeCount )
+{	int size = data.size();
+	HashMap<String,Integer> idIndex = new HashMap<String,Integer>(size*2);
+	StateMod_Data d;
+	for ( int i = 0; i < size; i++ ) {
+		d = data.get(i);
+		if ( (d != null) && (d._id != null) ) {
+			String key = d._id.toUpperCase();
+			if ( !idIndex.containsKey(key) ) {
+				// Only the first match is used, consistent with searching the list.
+				idIndex.put ( key, new Integer(i) );
+			}
+		}
+	}
+	__idIndex = idIndex;
+	__idIndexData = data;
+	__idIndexSize = size;
+	__idIndexChangeCount = changeCount;
+}
+
+/**
+Return the component data, first reading the data if the read was deferred until the data are needed.
+@return the component data.
+*/
+public Object getData ()
+{	if ( __dataset != null ) {
+		__dataset.readComponentOnDemand ( getComponentType() );
+	}
+	return super.getData();
+}
+
+/**
+Find the position of a StateMod_Data object in the component data list, using a case-insensitive
+identifier index.  The index is rebuilt if objects have been added or removed, or if identifiers have
+been changed with StateMod_Data.setID().
+@param data the component data list, which must be the list returned by getData().
+@param id StateMod_Data identifier.
+@return the position of the first matching object, or -1 if not found.
+*/
+public synchronized int indexOf ( List<? extends StateMod_Data> data, String id )
+{	if ( (data == null) || (id == null) ) {
+		return -1;
+	}
+	int changeCount = StateMod_Data.getIDChangeCount ( getComponentType() );
+	if ( (__idIndex == null) || (__idIndexData != data) || (__idIndexSize != data.size()) ||
+		(__idIndexChangeCount != changeCount) ) {
+		buildIDIndex ( data, changeCount );
+	}
+	Integer pos = __idIndex.get ( id.toUpperCase() );
+	if ( pos == null ) {
+		return -1;
+	}
+	StateMod_Data d = data.get(pos.intValue());
+	if ( (d == null) || !id.equalsIgnoreCase(d._id) ) {
+		// The list was changed without changing its size (e.g., objects were replaced or sorted) so rebuild...
+		buildIDIndex ( data, changeCount );
+		pos = __idIndex.get ( id.toUpperCase() );
+		if ( pos == null ) {
+			return -1;
+		}
+	}
+	return pos.intValue();
+}
+
+/**
+Indicate whether the specified list is the data for this component.  The data are not read on demand.
+@param data list to check.
+@return true if the list is the component data.
+*/
+public boolean isComponentData ( Object data )
+{	return (data != null) && (super.getData() == data);
+}
+
+/**
+Set the component data.  StateMod_Data objects in the data list are assigned the data set that owns the
+component so that later edits mark this data set's component dirty.
+@param data the component data.
+*/
+public void setData ( Object data )
+{	super.setData ( data );
+	if ( (__dataset != null) && (data instanceof List) ) {
+		for ( Object o : (List<?>)data ) {
+			if ( o instanceof StateMod_Data ) {
+				((StateMod_Data)o).setOwningDataSet ( __dataset );
+			}
+		}
+	}
+}
+
+}
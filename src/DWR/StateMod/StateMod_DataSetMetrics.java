@@ -0,0 +1,175 @@
+// StateMod_DataSetMetrics - read/write metrics for the components in a data set
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import RTi.Util.Message.Message;
+
+/**
+This class manages the read and write metrics (StateMod_ComponentMetrics) for the components in a
+StateMod_DataSet or StateCU_DataSet.  The metrics can be retrieved with getComponentMetricsList() or
+registered as JMX MBeans with registerMBeans(), for example to monitor data set loads in a server.
+*/
+public class StateMod_DataSetMetrics
+{
+
+/**
+Type used in the JMX object names (e.g., "StateMod_DataSet").
+*/
+private String __dataSetType;
+
+/**
+Metrics for each component, sorted by component type.
+*/
+private TreeMap<Integer,StateMod_ComponentMetrics> __componentMetrics =
+	new TreeMap<Integer,StateMod_ComponentMetrics>();
+
+/**
+Name used in the JMX object names, or null if the MBeans are not registered.
+*/
+private String __mbeanName = null;
+
+/**
+JMX object names that have been registered.
+*/
+private List<ObjectName> __mbeanObjectNames = new ArrayList<ObjectName>();
+
+/**
+Constructor.
+@param dataSetType data set type used in the JMX object names (e.g., "StateMod_DataSet").
+*/
+public StateMod_DataSetMetrics ( String dataSetType )
+{	__dataSetType = dataSetType;
+}
+
+/**
+Return the metrics for a component, creating the metrics if they do not exist.  If MBeans have been
+registered, new metrics are also registered.
+@param componentType component type.
+@param componentName component name, used if the metrics are created.
+@return the metrics for the component.
+*/
+public synchronized StateMod_ComponentMetrics getComponentMetrics ( int componentType, String componentName )
+{	StateMod_ComponentMetrics metrics = __componentMetrics.get ( componentType );
+	if ( metrics == null ) {
+		metrics = new StateMod_ComponentMetrics ( componentType, componentName );
+		__componentMetrics.put ( componentType, metrics );
+		if ( __mbeanName != null ) {
+			try {
+				registerMBean ( metrics );
+			}
+			catch ( JMException e ) {
+				Message.printWarning ( 3, "StateMod_DataSetMetrics.getComponentMetrics",
+					"Unable to register metrics MBean for \"" + componentName + "\" (" + e + ")." );
+			}
+		}
+	}
+	return metrics;
+}
+
+/**
+Return the metrics for all components that have been read or written, sorted by component type.
+@return the list of component metrics.
+*/
+public synchronized List<StateMod_ComponentMetrics> getComponentMetricsList ()
+{	return Collections.unmodifiableList ( new ArrayList<StateMod_ComponentMetrics>(__componentMetrics.values()) );
+}
+
+/**
+Register one component's metrics with the platform MBean server.  An MBean that is already registered with
+the same object name (e.g., by another data set that uses the same name) is not replaced.
+@param metrics component metrics to register.
+@exception JMException if the MBean cannot be registered, including InstanceAlreadyExistsException if
+an MBean is already registered with the same object name.
+*/
+private void registerMBean ( StateMod_ComponentMetrics metrics )
+throws JMException
+{	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	ObjectName objectName = new ObjectName ( "DWR.StateMod:type=" + __dataSetType + ",name=" +
+		ObjectName.quote(__mbeanName) + ",component=" + ObjectName.quote(metrics.getComponentName()) );
+	server.registerMBean ( metrics, objectName );
+	__mbeanObjectNames.add ( objectName );
+}
+
+/**
+Register the component metrics as MBeans with the platform MBean server, using object names
+"DWR.StateMod:type=DataSetType,name=\"Name\",component=\"ComponentName\"".  Metrics for components that
+are read later are also registered.  Any MBeans that were previously registered by this instance are
+unregistered first.  MBeans registered by other data sets are not replaced, so the name must be unique
+among the data sets in the application.
+@param name name that identifies the data set in the object names (e.g., the response file name).
+@exception JMException if the MBeans cannot be registered, including InstanceAlreadyExistsException if
+the name is already used by another data set, in which case none of the MBeans are registered.
+*/
+public synchronized void registerMBeans ( String name )
+throws JMException
+{	unregisterMBeans();
+	__mbeanName = name;
+	try {
+		for ( StateMod_ComponentMetrics metrics : __componentMetrics.values() ) {
+			registerMBean ( metrics );
+		}
+	}
+	catch ( JMException e ) {
+		// Do not leave part of the MBeans registered...
+		unregisterMBeans();
+		throw e;
+	}
+}
+
+/**
+Reset the metrics for all components.
+*/
+public synchronized void reset ()
+{	for ( StateMod_ComponentMetrics metrics : __componentMetrics.values() ) {
+		metrics.reset();
+	}
+}
+
+/**
+Unregister the MBeans that were registered with registerMBeans().
+@exception JMException if the MBeans cannot be unregistered.
+*/
+public synchronized void unregisterMBeans ()
+throws JMException
+{	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	for ( ObjectName objectName : __mbeanObjectNames ) {
+		if ( server.isRegistered(objectName) ) {
+			server.unregisterMBean ( objectName );
+		}
+	}
+	__mbeanObjectNames.clear();
+	__mbeanName = null;
+}
+
+}
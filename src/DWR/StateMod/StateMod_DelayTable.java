@@ -93,7 +93,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.StringTokenizer;
 import java.util.List;
@@ -457,6 +456,10 @@ public void restoreOriginal() {
 Set the number of return values.
 */
 public void setNdly(int i) {
+	if ( isBulkEdit() ) {
+		_ndly = i;
+		return;
+	}
 	if (i != _ndly) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_DELAY_TABLES_MONTHLY,
@@ -513,11 +516,18 @@ public void setRet_val(int index, Double d) {
 Set the id.
 */
 public void setTableID(String str) {
+	if ( isBulkEdit() ) {
+		_id = str;
+		idChanged();
+		_name = str;
+		return;
+	}
 	if (!str.equals(_id)) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_DELAY_TABLES_MONTHLY, true);
 		}
 		_id = str;
+		idChanged();
 		// Set the name to the same as the ID...
 		_name = str;
 	}
@@ -591,7 +601,7 @@ throws Exception {
 		Message.printDebug(10, routine, "in readStateModFile reading file: " + filename);
 	}
 	try {	
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine()) != null) {
 			// check for comments
 			iline = iline.trim();
@@ -699,7 +709,7 @@ throws Exception {
 
 	try {	
 		// Process the header from the old file...
-		out = IOUtil.processFileHeaders(inputFile, outputFile,
+		out = StateMod_Util.processFileHeaders(inputFile, outputFile,
 			newcomments, commentIndicators, ignoredCommentIndicators, 0);
 	
 		// Now write the new data...
@@ -817,6 +827,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( outputFile );
 }
 
 /**
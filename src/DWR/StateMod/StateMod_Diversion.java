@@ -185,8 +185,8 @@ package DWR.StateMod;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.PrintWriter;
+import java.util.HashMap;
 import java.util.StringTokenizer;
 import java.util.List;
 import java.util.Vector;
@@ -462,6 +462,9 @@ public void addReturnFlow(StateMod_ReturnFlow rivret)
 		return;
 	}
 	_rivret.add(rivret);
+	if ( isBulkEdit() ) {
+		return;
+	}
 	setDirty(true);
 	if ( !_isClone && _dataset != null ) {
 		_dataset.setDirty(StateMod_DataSet.COMP_DIVERSION_STATIONS, true);
@@ -664,6 +667,8 @@ public static void connectAllRights ( List<StateMod_Diversion> diversions, List<
 		return;
 	}
 	int num_divs = diversions.size();
+	// Group the rights by diversion so that each diversion only checks its own rights...
+	HashMap<String,List<StateMod_DiversionRight>> rightsGroups = StateMod_Util.createCgotoGroups ( rights );
 	
 	StateMod_Diversion div;
 	for (int i = 0; i < num_divs; i++) {
@@ -671,7 +676,7 @@ public static void connectAllRights ( List<StateMod_Diversion> diversions, List<
 		if (div == null) {
 			continue;
 		}
-		div.connectRights(rights);
+		div.connectRights(StateMod_Util.getGroup(rightsGroups,div._id));
 	}
 }
 
@@ -705,6 +710,19 @@ public static void connectAllTS ( List<StateMod_Diversion> diversions,
 	}
 	int i;
 	int num_divs = diversions.size();
+	// Group the time series by location so that each diversion only checks its own time series...
+	HashMap<String,List<MonthTS>> diversion_MonthTS_groups = StateMod_Util.createTSLocationGroups ( diversion_MonthTS );
+	HashMap<String,List<DayTS>> diversion_DayTS_groups = StateMod_Util.createTSLocationGroups ( diversion_DayTS );
+	HashMap<String,List<MonthTS>> demand_MonthTS_groups = StateMod_Util.createTSLocationGroups ( demand_MonthTS );
+	HashMap<String,List<MonthTS>> demand_override_MonthTS_groups =
+		StateMod_Util.createTSLocationGroups ( demand_override_MonthTS );
+	HashMap<String,List<MonthTS>> demand_average_MonthTS_groups =
+		StateMod_Util.createTSLocationGroups ( demand_average_MonthTS );
+	HashMap<String,List<DayTS>> demand_DayTS_groups = StateMod_Util.createTSLocationGroups ( demand_DayTS );
+	HashMap<String,List<StateCU_IrrigationPracticeTS>> ipy_YearTS_groups =
+		StateMod_Util.createIrrigationPracticeTSGroups ( ipy_YearTS );
+	HashMap<String,List<MonthTS>> cwr_MonthTS_groups = StateMod_Util.createTSLocationGroups ( cwr_MonthTS );
+	HashMap<String,List<DayTS>> cwr_DayTS_groups = StateMod_Util.createTSLocationGroups ( cwr_DayTS );
 	
 	StateMod_Diversion div;
 	for (i = 0; i < num_divs; i++) {
@@ -713,32 +731,33 @@ public static void connectAllTS ( List<StateMod_Diversion> diversions,
 			continue;
 		}
 		if ( diversion_MonthTS != null ) {
-			div.connectDiversionMonthTS ( diversion_MonthTS );
+			div.connectDiversionMonthTS ( StateMod_Util.getGroup(diversion_MonthTS_groups,div._id) );
 		}
 		if ( diversion_DayTS != null ) {
-			div.connectDiversionDayTS ( diversion_DayTS );
+			div.connectDiversionDayTS ( StateMod_Util.getGroup(diversion_DayTS_groups,div._id) );
 		}
 		if ( demand_MonthTS != null) {
-			div.connectDemandMonthTS ( demand_MonthTS );
+			div.connectDemandMonthTS ( StateMod_Util.getGroup(demand_MonthTS_groups,div._id) );
 		}
 		if ( demand_override_MonthTS != null) {
 			div.connectDemandOverrideMonthTS (
-				demand_override_MonthTS );
+				StateMod_Util.getGroup(demand_override_MonthTS_groups,div._id) );
 		}
 		if ( demand_average_MonthTS != null) {
-			div.connectDemandAverageMonthTS(demand_average_MonthTS);
+			div.connectDemandAverageMonthTS(StateMod_Util.getGroup(demand_average_MonthTS_groups,div._id));
 		}
 		if ( demand_DayTS != null ) {
-			div.connectDemandDayTS ( demand_DayTS );
+			// Daily time series are connected using "cdividy"
+			div.connectDemandDayTS ( StateMod_Util.getGroup(demand_DayTS_groups,div._cdividy) );
 		}
 		if ( ipy_YearTS != null ) {
-			div.connectIrrigationPracticeYearTS ( ipy_YearTS );
+			div.connectIrrigationPracticeYearTS ( StateMod_Util.getGroup(ipy_YearTS_groups,div._id) );
 		}
 		if ( cwr_MonthTS != null ) {
-			div.connectCWRMonthTS ( cwr_MonthTS );
+			div.connectCWRMonthTS ( StateMod_Util.getGroup(cwr_MonthTS_groups,div._id) );
 		}
 		if ( cwr_DayTS != null ) {
-			div.connectCWRDayTS ( cwr_DayTS );
+			div.connectCWRDayTS ( StateMod_Util.getGroup(cwr_DayTS_groups,div._cdividy) );
 		}
 	}
 }
@@ -1728,8 +1747,10 @@ throws Exception
 	BufferedReader in = null;
 
 	Message.printStatus(1, routine, "Reading diversion file: " + filename);
+	// Set methods do not mark objects dirty during a bulk edit (see StateMod_DataSet.beginBulkEdit())...
+	boolean bulkEdit = StateMod_Data.isThreadBulkEdit();
 	try {	
-		in = new BufferedReader(new FileReader(	IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			// check for comments
@@ -1820,7 +1841,9 @@ throws Exception
 
 			// Set the diversion to not dirty because it was just initialized...
 
-			aDiversion.setDirty ( false );
+			if ( !bulkEdit ) {
+				aDiversion.setDirty ( false );
+			}
 
 			// add the diversion to the vector of diversions
 			theDiversions.add(aDiversion);
@@ -1844,6 +1867,10 @@ Set the irrigated acreage.
 @param area acreage.
 */
 public void setArea(double area) {
+	if ( isBulkEdit() ) {
+		_area = area;
+		return;
+	}
 	if (_area != area) {
 		_area = area;
 		setDirty(true);
@@ -1895,6 +1922,10 @@ Set the available water capacity.
 @param awc available water capacity.
 */
 public void setAWC(double awc) {
+	if ( isBulkEdit() ) {
+		_awc = awc;
+		return;
+	}
 	if (_awc != awc) {
 		_awc = awc;
 		setDirty(true);
@@ -1951,6 +1982,10 @@ public void setCdividy(String cdividy) {
 	if (cdividy == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_cdividy = cdividy;
+		return;
+	}
 	if (!cdividy.equals(_cdividy)) {
 		_cdividy = cdividy;
 		setDirty(true);
@@ -2094,6 +2129,10 @@ Set the demand source.
 @param demsrc acreage source.
 */
 public void setDemsrc(int demsrc) {
+	if ( isBulkEdit() ) {
+		_demsrc = demsrc;
+		return;
+	}
 	if (demsrc != _demsrc) {
 		_demsrc = demsrc;
 		setDirty(true);
@@ -2127,6 +2166,10 @@ Set the diversion capacity.
 @param divcap diversion capacity.
 */
 public void setDivcap(double divcap) {
+	if ( isBulkEdit() ) {
+		_divcap = divcap;
+		return;
+	}
 	if (divcap != _divcap) {
 		_divcap = divcap;
 		setDirty(true);
@@ -2159,6 +2202,10 @@ Set the system efficiency switch.
 @param divefc efficiency.
 */
 public void setDivefc(double divefc) {
+	if ( isBulkEdit() ) {
+		_divefc = divefc;
+		return;
+	}
 	if (divefc != _divefc) {
 		_divefc = divefc;
 		setDirty(true);
@@ -2196,6 +2243,10 @@ calendar year, the first efficiency will be for January.
 @param diveff monthly efficiency
 */
 public void setDiveff(int index, double diveff) {
+	if ( isBulkEdit() ) {
+		_diveff[index] = diveff;
+		return;
+	}
 	if (_diveff[index] != diveff) {
 		_diveff[index] = diveff;
 		setDirty(true);
@@ -2224,6 +2275,10 @@ public void setDiveff(int index, double diveff, YearType yeartype )
 	else if ( yeartype == YearType.NOV_TO_OCT ) {
 		index = TimeUtil.convertCalendarMonthToCustomMonth ((index + 1), 11 ) - 1;
 	}
+	if ( isBulkEdit() ) {
+		_diveff[index] = diveff;
+		return;
+	}
 	if (_diveff[index] != diveff) {
 		_diveff[index] = diveff;
 		setDirty(true);
@@ -2287,6 +2342,10 @@ Set the data type switch.
 @param idvcom data type switch.
 */
 public void setIdvcom(int idvcom) {
+	if ( isBulkEdit() ) {
+		_idvcom = idvcom;
+		return;
+	}
 	if (idvcom != _idvcom) {
 		_idvcom = idvcom;
 		setDirty(true);
@@ -2320,6 +2379,10 @@ Set the replacement code.
 @param ireptype replacement code.
 */
 public void setIreptype(int ireptype) {
+	if ( isBulkEdit() ) {
+		_ireptype = ireptype;
+		return;
+	}
 	if (ireptype != _ireptype) {
 		_ireptype = ireptype;
 		setDirty(true);
@@ -2353,6 +2416,10 @@ Set the use type.
 @param irturn use type.
 */
 public void setIrturn(int irturn) {
+	if ( isBulkEdit() ) {
+		_irturn = irturn;
+		return;
+	}
 	if (irturn != _irturn) {
 		_irturn = irturn;
 		setDirty(true);
@@ -2422,6 +2489,10 @@ public void setUsername(String username) {
 	if (username == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_username = username;
+		return;
+	}
 	if (!username.equals(_username)) {
 		_username = username;
 		setDirty(true);
@@ -2627,7 +2698,7 @@ throws Exception
 	ignoredCommentIndicators.add ( "#>");
 	PrintWriter out = null;
 	try {
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(instrfile),
 			IOUtil.getPathUsingWorkingDir(outstrfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -2773,6 +2844,7 @@ throws Exception
 		}
 		out = null;
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outstrfile) );
 }
 
 /**
@@ -98,7 +98,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -402,9 +401,11 @@ throws Exception {
 	StateMod_DiversionRight aRight = null;
 
 	Message.printStatus(2, routine, "Reading diversion rights file: " + filename);
+	// Set methods do not mark objects dirty during a bulk edit (see StateMod_DataSet.beginBulkEdit())...
+	boolean bulkEdit = StateMod_Data.isThreadBulkEdit();
 
 	try {	
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine())!= null) {
 			// check for comments
 			if (iline.startsWith("#")||iline.trim().length()== 0) {
@@ -424,7 +425,9 @@ throws Exception {
 			aRight.setDcrdiv((Double)v.get(4));
 			aRight.setSwitch((Integer)v.get(5));
 			// Mark as clean because set methods may have marked dirty...
-			aRight.setDirty ( false );
+			if ( !bulkEdit ) {
+				aRight.setDirty ( false );
+			}
 			theDivRights.add(aRight);
 		}
 	} 
@@ -459,6 +462,10 @@ public void restoreOriginal() {
 Set the decreed amount.
 */
 public void setDcrdiv(double dcrdiv) {
+	if ( isBulkEdit() ) {
+		_dcrdiv = dcrdiv;
+		return;
+	}
 	if (dcrdiv != _dcrdiv) {
 		_dcrdiv = dcrdiv;
 		setDirty ( true );
@@ -500,6 +507,10 @@ public void setIrtem(String irtem) {
 	if (irtem == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_irtem = irtem.trim();
+		return;
+	}
 	if (!irtem.equals(_irtem)) {
 		_irtem = irtem.trim();
 		setDirty ( true );
@@ -613,7 +624,7 @@ throws Exception {
 	Message.printStatus(2, routine, "Writing diversion rights to: " + outfile);
 
 	try {	
-		out = IOUtil.processFileHeaders( IOUtil.getPathUsingWorkingDir(infile),
+		out = StateMod_Util.processFileHeaders( IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
 
@@ -680,6 +691,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -190,6 +190,7 @@ public void actionPerformed(ActionEvent e) {
 			new StateMod_ReturnFlow(
 			StateMod_DataSet.COMP_DIVERSION_STATIONS);
 		aReturnFlow._isClone = true;
+		aReturnFlow.setOwningDataSet(__dataset);
 		__worksheet.addRow(aReturnFlow);
 		__worksheet.scrollToLastRow();
 		__worksheet.selectLastRow();
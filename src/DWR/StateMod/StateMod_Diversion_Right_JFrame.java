@@ -187,6 +187,7 @@ public void actionPerformed(ActionEvent e) {
 	if (action.equals(__BUTTON_ADD_RIGHT)) {
 		StateMod_DiversionRight aRight = new StateMod_DiversionRight();
 		aRight._isClone = true;
+		aRight.setOwningDataSet(__dataset);
 		StateMod_DiversionRight last = 
 			(StateMod_DiversionRight)__worksheet.getLastRowData();
 
@@ -24,7 +24,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.util.List;
 import java.util.Vector;
 
@@ -68,7 +67,7 @@ throws Exception
 	DateTime date = new DateTime(DateTime.PRECISION_DAY);
 	DayTS ts = null;
 	try {	
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		boolean headerRead = false;
 		while ((iline = in.readLine()) != null) {
 			++linecount;
@@ -111,8 +111,8 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
 
@@ -280,6 +280,8 @@ public static void connectAllRights ( List<StateMod_InstreamFlow> isfs, List<Sta
 		return;
 	}
 	int num_insf = isfs.size();
+	// Group the rights by instream flow station so that each station only checks its own rights...
+	HashMap<String,List<StateMod_InstreamFlowRight>> rightsGroups = StateMod_Util.createCgotoGroups ( rights );
 
 	StateMod_InstreamFlow insf;
 	for (int i = 0; i < num_insf; i++) {
@@ -287,7 +289,7 @@ public static void connectAllRights ( List<StateMod_InstreamFlow> isfs, List<Sta
 		if (insf == null) {
 			continue;
 		}
-		insf.connectRights(rights);
+		insf.connectRights(StateMod_Util.getGroup(rightsGroups,insf._id));
 	}
 	insf = null;
 }
@@ -302,6 +304,10 @@ public static void connectAllTS ( List<StateMod_InstreamFlow> theIns, List<Month
 	}
 	int numInsf = theIns.size();
 	StateMod_InstreamFlow insflow;
+	// Group the time series by location so that each station only checks its own time series...
+	HashMap<String,List<MonthTS>> demandMonthTSGroups = StateMod_Util.createTSLocationGroups ( demandMonthTS );
+	HashMap<String,List<MonthTS>> demandAverageMonthTSGroups = StateMod_Util.createTSLocationGroups ( demandAverageMonthTS );
+	HashMap<String,List<DayTS>> demandDayTSGroups = StateMod_Util.createTSLocationGroups ( demandDayTS );
 
 	for (int i = 0; i < numInsf; i++) {
 		insflow = theIns.get(i);
@@ -309,13 +315,14 @@ public static void connectAllTS ( List<StateMod_InstreamFlow> theIns, List<Month
 			continue;
 		}
 		if ( demandMonthTS != null ) {
-			insflow.connectDemandMonthTS(demandMonthTS);
+			insflow.connectDemandMonthTS(StateMod_Util.getGroup(demandMonthTSGroups,insflow._id));
 		}
 		if ( demandAverageMonthTS != null ) {
-			insflow.connectDemandAverageMonthTS(demandAverageMonthTS);
+			insflow.connectDemandAverageMonthTS(StateMod_Util.getGroup(demandAverageMonthTSGroups,insflow._id));
 		}
 		if ( demandDayTS != null ) {
-			insflow.connectDemandDayTS(demandDayTS);
+			// Daily time series are connected using "cifridy"
+			insflow.connectDemandDayTS(StateMod_Util.getGroup(demandDayTSGroups,insflow._cifridy));
 		}
 	}
 }
@@ -696,7 +703,7 @@ throws Exception {
 	}
 	BufferedReader in = null;
 	try {
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		StateMod_InstreamFlow anIns;
 		while ((iline = in.readLine()) != null) {
 			// check for comments
@@ -768,6 +775,10 @@ public void restoreOriginal() {
 Sets cifridy
 */
 public void setCifridy(String cifridy) {
+	if ( (cifridy != null) && isBulkEdit() ) {
+		_cifridy = cifridy;
+		return;
+	}
 	if ( (cifridy != null) && !cifridy.equals(_cifridy)) {
 		_cifridy = cifridy;
 		setDirty ( true );
@@ -811,6 +822,10 @@ Set the value for iifcom for the StateMod instream flow station.
 */
 public void setIifcom(int iifcom) {
 	// Only set if value has changed...
+	if ( isBulkEdit() ) {
+		_iifcom = iifcom;
+		return;
+	}
 	if (iifcom != _iifcom) {
 		_iifcom = iifcom;
 		setDirty ( true );
@@ -831,6 +846,10 @@ public void setIifcom(String iifcom) {
 Set the downstream river node where instream is located.
 */
 public void setIfrrdn(String ifrrdn) {
+	if ( isBulkEdit() ) {
+		_ifrrdn = ifrrdn;
+		return;
+	}
 	if (!ifrrdn.equals(_ifrrdn)) {
 		_ifrrdn = ifrrdn;
 		setDirty ( true );
@@ -984,7 +1003,7 @@ throws Exception {
 	// Process the header from the old file...
 
 	try {	
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newcomments, commentIndicators, ignoredCommentIndicators, 0);
@@ -1053,6 +1072,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -90,7 +90,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -372,7 +371,7 @@ throws Exception {
 	Message.printStatus(1, routine, "Reading Instream Flow Rights File: " + filename);
 	BufferedReader in = null;
 	try {	
-		in = new BufferedReader( new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine()) != null) {
 			// check for comments
 			if (iline.startsWith("#") || iline.trim().length()== 0) {
@@ -408,6 +407,10 @@ throws Exception {
 Set the decreed amount.
 */
 public void setDcrifr(double dcrifr) {
+	if ( isBulkEdit() ) {
+		_dcrifr = dcrifr;
+		return;
+	}
 	if (dcrifr != _dcrifr) {
 		_dcrifr = dcrifr;
 		setDirty ( true );
@@ -449,6 +452,10 @@ public void setIrtem(String irtem) {
 	if (irtem == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_irtem = irtem.trim();
+		return;
+	}
 	if (!irtem.equals(_irtem)) {
 		_irtem = irtem.trim();
 		setDirty ( true );
@@ -570,7 +577,7 @@ throws Exception {
 		Message.printDebug(2, routine, "Write instream flow rights to " + outfile);
 
 	try {	
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -638,6 +645,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -191,6 +191,7 @@ public void actionPerformed(ActionEvent e) {
 		StateMod_InstreamFlowRight aRight = 
 			new StateMod_InstreamFlowRight();
 		aRight._isClone = true;
+		aRight.setOwningDataSet(__dataset);
 		StateMod_InstreamFlowRight last = (StateMod_InstreamFlowRight)
 			__worksheet.getLastRowData();
 
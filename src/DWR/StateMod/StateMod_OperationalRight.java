@@ -115,9 +115,7 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.List;
@@ -829,7 +827,7 @@ private static int determineFileVersion ( String filename )
 {	BufferedReader in = null;
 	int version = 1;
 	try {
-	    in = new BufferedReader ( new InputStreamReader(IOUtil.getInputStream ( filename )) );
+	    in = StateMod_Util.getInputReader ( filename );
 	    try {
     		// Read lines and check for string that indicates a version 2 file.
     		String string = null;
@@ -1860,7 +1858,7 @@ throws Exception {
 	try {
 		boolean reading_unknown_right = false;
 		List<String> right_strings_Vector = null;	// Operating rule as a list of strings
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			Message.printStatus ( 2, routine, "Processing operating rule line " + linecount + ": " + iline );
@@ -2140,7 +2138,7 @@ throws Exception {
 	try {
 		boolean readingUnknownRight = false;
 		List<String> rightStringsList = null;	// Operating rule as a list of strings
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			Message.printStatus ( 2, routine, "Processing operating rule line " + linecount + ": " + iline );
@@ -2513,6 +2511,10 @@ public void restoreOriginal() {
 Set the cdivtyp.
 */
 public void setCdivtyp(String cdivtyp) {
+	if ( (cdivtyp != null) && isBulkEdit() ) {
+		__cdivtyp = cdivtyp;
+		return;
+	}
 	if ( (cdivtyp != null) && !cdivtyp.equals(__cdivtyp) ) {
 		__cdivtyp = cdivtyp;
 		setDirty ( true );
@@ -2529,6 +2531,10 @@ public void setCdivtyp(String cdivtyp) {
 Set the user ciopde.
 */
 public void setCiopde(String ciopde) {
+	if ( (ciopde != null) && isBulkEdit() ) {
+		_ciopde = ciopde;
+		return;
+	}
 	if ( (ciopde != null) && !ciopde.equals(_ciopde) ) {
 		_ciopde = ciopde;
 		setDirty ( true );
@@ -2545,6 +2551,10 @@ public void setCiopde(String ciopde) {
 Set the user ciopso.
 */
 public void setCiopso1(String ciopso1) {
+	if ( (ciopso1 != null) && isBulkEdit() ) {
+		_ciopso1 = ciopso1;
+		return;
+	}
 	if ( (ciopso1 != null) && !ciopso1.equals(_ciopso1)) {
 		_ciopso1 = ciopso1;
 		setDirty ( true );
@@ -2561,6 +2571,10 @@ public void setCiopso1(String ciopso1) {
 Set the user ciopso2.
 */
 public void setCiopso2(String ciopso2) {
+	if ( (ciopso2 != null) && isBulkEdit() ) {
+		_ciopso2 = ciopso2;
+		return;
+	}
 	if ( (ciopso2 != null) && !ciopso2.equals(_ciopso2)) {
 		_ciopso2 = ciopso2;
 		setDirty ( true );
@@ -2577,6 +2591,10 @@ public void setCiopso2(String ciopso2) {
 Set the user ciopso3.
 */
 public void setCiopso3(String ciopso3) {
+	if ( (ciopso3 != null) && isBulkEdit() ) {
+		_ciopso3 = ciopso3;
+		return;
+	}
 	if ( (ciopso3 != null) && !ciopso3.equals(_ciopso3)) {
 		_ciopso3 = ciopso3;
 		setDirty ( true );
@@ -2593,6 +2611,10 @@ public void setCiopso3(String ciopso3) {
 Set the user ciopso4.
 */
 public void setCiopso4(String ciopso4) {
+	if ( (ciopso4 != null) && isBulkEdit() ) {
+		_ciopso4 = ciopso4;
+		return;
+	}
 	if ( (ciopso4 != null) && !ciopso4.equals(_ciopso4)) {
 		_ciopso4 = ciopso4;
 		setDirty ( true );
@@ -2609,6 +2631,10 @@ public void setCiopso4(String ciopso4) {
 Set the user ciopso5.
 */
 public void setCiopso5(String ciopso5) {
+	if ( (ciopso5 != null) && isBulkEdit() ) {
+		_ciopso5 = ciopso5;
+		return;
+	}
 	if ( (ciopso5 != null) && !ciopso5.equals(_ciopso5)) {
 		_ciopso5 = ciopso5;
 		setDirty ( true );
@@ -2626,7 +2652,11 @@ Set the comments before the data in the input file.
 @param commentsBeforeData comments before the data in the input file.
 */
 public void setCommentsBeforeData(List<String> commentsBeforeData)
-{	boolean dirty = false;
+{	if ( isBulkEdit() ) {
+		__commentsBeforeData = commentsBeforeData;
+		return;
+	}
+	boolean dirty = false;
 	int size = commentsBeforeData.size();
 	List<String> commentsBeforeData0 = getCommentsBeforeData();
 	if ( size != commentsBeforeData0.size() ) {
@@ -2667,6 +2697,10 @@ public void setCommentsBeforeData(List<String> commentsBeforeData)
 Set the creuse.
 */
 public void setCreuse(String creuse) {
+	if ( (creuse != null) && isBulkEdit() ) {
+		__creuse = creuse;
+		return;
+	}
 	if ( (creuse != null) && !creuse.equals(__creuse) ) {
 		__creuse = creuse;
 		setDirty ( true );
@@ -2683,6 +2717,10 @@ public void setCreuse(String creuse) {
 Set the cx.
 */
 public void setCx(String cx) {
+	if ( (cx != null) && isBulkEdit() ) {
+		__cx = cx;
+		return;
+	}
 	if ( (cx != null) && !cx.equals(__cx) ) {
 		__cx = cx;
 		setDirty ( true );
@@ -2701,6 +2739,10 @@ dumx is calculated internally.
 @param dumx monthly/intervening structures switch
 */
 public void setDumx(int dumx) {
+	if ( isBulkEdit() ) {
+		_dumx = dumx;
+		return;
+	}
 	if (dumx != _dumx) {
 		_dumx = dumx;
 		setDirty ( true );
@@ -2787,6 +2829,10 @@ private void setDumxFromMonthlySwitchAndInterveningStructures ()
 Set ioBeg
 */
 public void setIoBeg(int ioBeg) {
+	if ( isBulkEdit() ) {
+		__ioBeg = ioBeg;
+		return;
+	}
 	if (ioBeg != __ioBeg) {
 		__ioBeg = ioBeg;
 		setDirty ( true );
@@ -2819,6 +2865,10 @@ public void setIoBeg(String ioBeg)
 Set ioEnd
 */
 public void setIoEnd(int ioEnd) {
+	if ( isBulkEdit() ) {
+		__ioEnd = ioEnd;
+		return;
+	}
 	if (ioEnd != __ioEnd) {
 		__ioEnd = ioEnd;
 		setDirty ( true );
@@ -2933,6 +2983,10 @@ public void setInternT(int index, String internT ) {
 	if (internT == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__internT[index] = internT;
+		return;
+	}
 	if (!internT.equals(__internT[index])) {
 		// Only set if not already set - otherwise will trigger dirty flag
 		__internT[index] = internT;
@@ -2950,6 +3004,10 @@ public void setInternT(int index, String internT ) {
 Set the iopdes.
 */
 public void setIopdes(String iopdes) {
+	if ( (iopdes != null) && isBulkEdit() ) {
+		_iopdes = iopdes;
+		return;
+	}
 	if ( (iopdes != null) && !iopdes.equals(_iopdes) ) {
 		_iopdes = iopdes;
 		setDirty ( true );
@@ -2973,6 +3031,10 @@ public void setIoprsw(Integer ioprsw) {
 Set the iopsou1.
 */
 public void setIopsou1(String iopsou1) {
+	if ( (iopsou1 != null) && isBulkEdit() ) {
+		_iopsou1 = iopsou1;
+		return;
+	}
 	if ( (iopsou1 != null) && !iopsou1.equals(_iopsou1) ) {
 		_iopsou1 = iopsou1;
 		setDirty ( true );
@@ -2989,6 +3051,10 @@ public void setIopsou1(String iopsou1) {
 Set the iopsou2.
 */
 public void setIopsou2(String iopsou2) {
+	if ( (iopsou2 != null) && isBulkEdit() ) {
+		_iopsou2 = iopsou2;
+		return;
+	}
 	if ( (iopsou2 != null) && !iopsou2.equals(_iopsou2) ) {
 		_iopsou2 = iopsou2;
 		setDirty ( true );
@@ -3005,6 +3071,10 @@ public void setIopsou2(String iopsou2) {
 Set the iopsou3.
 */
 public void setIopsou3(String iopsou3) {
+	if ( (iopsou3 != null) && isBulkEdit() ) {
+		_iopsou3 = iopsou3;
+		return;
+	}
 	if ( (iopsou3 != null) && !iopsou3.equals(_iopsou3) ) {
 		_iopsou3 = iopsou3;
 		setDirty ( true );
@@ -3021,6 +3091,10 @@ public void setIopsou3(String iopsou3) {
 Set the iopsou4.
 */
 public void setIopsou4(String iopsou4) {
+	if ( (iopsou4 != null) && isBulkEdit() ) {
+		_iopsou4 = iopsou4;
+		return;
+	}
 	if ( (iopsou4 != null) && !iopsou4.equals(_iopsou4) ) {
 		_iopsou4 = iopsou4;
 		setDirty ( true );
@@ -3037,6 +3111,10 @@ public void setIopsou4(String iopsou4) {
 Set the iopsou5.
 */
 public void setIopsou5(String iopsou5) {
+	if ( (iopsou5 != null) && isBulkEdit() ) {
+		_iopsou5 = iopsou5;
+		return;
+	}
 	if ( (iopsou5 != null) && !iopsou5.equals(_iopsou5) ) {
 		_iopsou5 = iopsou5;
 		setDirty ( true );
@@ -3053,6 +3131,10 @@ public void setIopsou5(String iopsou5) {
 Set the ityopr
 */
 public void setItyopr(int ityopr) {
+	if ( isBulkEdit() ) {
+		__ityopr = ityopr;
+		return;
+	}
 	if (ityopr != __ityopr) {
 		setDirty ( true );
 		if ( Message.isDebugOn ) {
@@ -3097,6 +3179,10 @@ public void setOprLimit(String oprLimit) {
 Set oprLimit
 */
 public void setOprLimit(double oprLimit) {
+	if ( isBulkEdit() ) {
+		__oprLimit = oprLimit;
+		return;
+	}
 	if (oprLimit != __oprLimit) {
 		__oprLimit = oprLimit;
 		setDirty ( true );
@@ -3122,6 +3208,10 @@ public void setOprLoss(String oprLoss) {
 Set oprLoss
 */
 public void setOprLoss(double oprLoss) {
+	if ( isBulkEdit() ) {
+		__oprLoss = oprLoss;
+		return;
+	}
 	if (oprLoss != __oprLoss) {
 		__oprLoss = oprLoss;
 		setDirty ( true );
@@ -3148,6 +3238,10 @@ Set an "oprLossC".
 */
 public void setOprLossC(int index, double oprLossC )
 {
+	if ( isBulkEdit() ) {
+		__oprLossC[index] = oprLossC;
+		return;
+	}
 	if ( oprLossC != __oprLossC[index] ) {
 		__oprLossC[index] = oprLossC;
 		setDirty ( true );
@@ -3164,6 +3258,10 @@ public void setOprLossC(int index, double oprLossC )
 Set a monthly operational limit.
 */
 public void setOprEff(int index, double oprEff) {
+	if ( isBulkEdit() ) {
+		__oprEff[index] = oprEff;
+		return;
+	}
 	if (oprEff != __oprEff[index]) {
 		__oprEff[index] = oprEff;
 		setDirty ( true );
@@ -3196,6 +3294,10 @@ public void setOprEff(int index, String oprEff) {
 Set a monthly operational limit.
 */
 public void setOprMax(int index, double oprMax) {
+	if ( isBulkEdit() ) {
+		__oprMax[index] = oprMax;
+		return;
+	}
 	if (oprMax != __oprMax[index]) {
 		__oprMax[index] = oprMax;
 		setDirty ( true );
@@ -3228,6 +3330,10 @@ public void setOprMax(int index, String oprMax) {
 Set qdebt
 */
 public void setQdebt(double qdebt) {
+	if ( isBulkEdit() ) {
+		_qdebt = qdebt;
+		return;
+	}
 	if (qdebt != _qdebt) {
 		_qdebt = qdebt;
 		setDirty ( true );
@@ -3260,6 +3366,10 @@ public void setQdebt(String qdebt) {
 Set qdebtx
 */
 public void setQdebtx(double qdebtx) {
+	if ( isBulkEdit() ) {
+		_qdebtx = qdebtx;
+		return;
+	}
 	if (qdebtx != _qdebtx) {
 		_qdebtx = qdebtx;
 		setDirty ( true );
@@ -3316,6 +3426,10 @@ public void setRightStrings ( List<String> rightStringList )
 			}
 		}
 	}
+	if ( isBulkEdit() ) {
+		__rightStringsList = rightStringList;
+		return;
+	}
 	if ( dirty ) {
 		// Something was different so set the strings and change the dirty flag
 		__rightStringsList = rightStringList;
@@ -3333,6 +3447,10 @@ public void setRightStrings ( List<String> rightStringList )
 Set rtem
 */
 public void setRtem(String rtem) {
+	if ( isBulkEdit() ) {
+		_rtem = rtem;
+		return;
+	}
 	if (!_rtem.equals(rtem)) {
 		_rtem = rtem;
 		setDirty ( true );
@@ -3349,6 +3467,10 @@ public void setRtem(String rtem) {
 Set sjmina
 */
 public void setSjmina(double sjmina) {
+	if ( isBulkEdit() ) {
+		_sjmina = sjmina;
+		return;
+	}
 	if (sjmina != _sjmina) {
 		_sjmina = sjmina;
 		setDirty ( true );
@@ -3381,6 +3503,10 @@ public void setSjmina(String sjmina) {
 Set sjrela
 */
 public void setSjrela(double sjrela) {
+	if ( isBulkEdit() ) {
+		_sjrela = sjrela;
+		return;
+	}
 	if (sjrela != _sjrela) {
 		_sjrela = sjrela;
 		setDirty ( true );
@@ -3461,7 +3587,7 @@ throws Exception {
 	Message.printStatus(1, routine, "Writing new operational rights to file \""
 		+ outfile + "\" using \"" + infile + "\" header...");
 
-	out = IOUtil.processFileHeaders(infile, outfile, newComments, commentIndicators, ignoredCommentIndicators, 0);
+	out = StateMod_Util.processFileHeaders(infile, outfile, newComments, commentIndicators, ignoredCommentIndicators, 0);
 	try {
 		String cmnt = "#>";
 		String iline = null;
@@ -3630,6 +3756,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( outfile );
 }
 
 /**
@@ -3655,7 +3782,7 @@ throws Exception {
 	Message.printStatus(1, routine, "Writing new operational rights to file \""
 		+ outfile + "\" using \"" + infile + "\" header...");
 
-	out = IOUtil.processFileHeaders(infile, outfile, newComments, commentIndicators, ignoredCommentIndicators, 0);
+	out = StateMod_Util.processFileHeaders(infile, outfile, newComments, commentIndicators, ignoredCommentIndicators, 0);
 	try {
 		String cmnt = "#>";
 		String iline = null;
@@ -3966,6 +4093,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( outfile );
 }
 
 // TODO smalers 2019-06-01 evaluate whether needed
@@ -100,8 +100,10 @@ private StateMod_OperationalRight_Metadata_TransitAndConveyanceLossAllowedType _
 	
 /**
 List of static global metadata, meant to be initialized once and shared within the application.
+The list is only assigned after it is complete because it may be requested by threads that read data set
+components at the same time.
 */
-private static List<StateMod_OperationalRight_Metadata> __opRightsMetadataList = null;
+private static volatile List<StateMod_OperationalRight_Metadata> __opRightsMetadataList = null;
 
 /**
 Whether the operational right uses intervening structures with loss.
@@ -926,15 +928,16 @@ public StateMod_OperationalRight_Metadata_TransitAndConveyanceLossAllowedType ge
 
 /**
 Initialize the singleton list of operational right metadata.  Do this rather than having a large amount
-of static data in memory.
+of static data in memory.  The method is synchronized so that the list is only created once when
+data set components are read in parallel.
 */
-private static void initialize ()
+private static synchronized void initialize ()
 {
 	if ( __opRightsMetadataList != null ) {
 		// No need to initialize.
 		return;
 	}
-	__opRightsMetadataList = new Vector<StateMod_OperationalRight_Metadata>();
+	List<StateMod_OperationalRight_Metadata> opRightsMetadataList = new Vector<StateMod_OperationalRight_Metadata>();
 	// Initialize the list of metadata
 	StateMod_OperationalRight_Metadata metaData = null;
 	// Loop through the number of known operational right types.  This should ideally be the
@@ -2572,8 +2575,10 @@ private static void initialize ()
 					"" );
 				break;
 		}
-		__opRightsMetadataList.add ( metaData );
+		opRightsMetadataList.add ( metaData );
 	}
+	// Assign the complete list so that other threads never see a partial list.
+	__opRightsMetadataList = opRightsMetadataList;
 }
 
 /**
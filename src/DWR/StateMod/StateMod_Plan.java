@@ -24,7 +24,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
@@ -627,10 +626,12 @@ throws Exception
 	BufferedReader in = null;
 
 	Message.printStatus(2, routine, "Reading plan file: " + filename);
+	// Set methods do not mark objects dirty during a bulk edit (see StateMod_DataSet.beginBulkEdit())...
+	boolean bulkEdit = StateMod_Data.isThreadBulkEdit();
 	int size = 0;
 	int errorCount = 0;
 	try {	
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		List<String> commentsBeforeData = new Vector<String>();
 		while ((iline = in.readLine()) != null) {
 			++linecount;
@@ -744,7 +745,9 @@ throws Exception
 
 			// Set the plan to not dirty because it was just initialized...
 
-			aPlan.setDirty ( false );
+			if ( !bulkEdit ) {
+				aPlan.setDirty ( false );
+			}
 
 			// Add the plan to the vector of plans
 			thePlans.add(aPlan);
@@ -789,7 +792,11 @@ Set the comments before the data in the input file.
 @param commentsBeforeData comments before the data in the input file.
 */
 public void setCommentsBeforeData(List<String> commentsBeforeData)
-{	boolean dirty = false;
+{	if ( isBulkEdit() ) {
+		__commentsBeforeData = commentsBeforeData;
+		return;
+	}
+	boolean dirty = false;
 	int size = commentsBeforeData.size();
 	List<String> commentsBeforeData0 = getCommentsBeforeData();
 	if ( size != commentsBeforeData0.size() ) {
@@ -820,6 +827,10 @@ Set the plan failure flag.
 @param iPfail Plan failure flag.
 */
 public void setIPfail(int iPfail) {
+	if ( isBulkEdit() ) {
+		_iPfail = iPfail;
+		return;
+	}
 	if (iPfail != _iPfail) {
 		_iPfail = iPfail;
 		setDirty(true);
@@ -853,6 +864,10 @@ Set the plan return flow table.
 @param iPrf Plan return flow table.
 */
 public void setIPrf(int iPrf) {
+	if ( isBulkEdit() ) {
+		_iPrf = iPrf;
+		return;
+	}
 	if (iPrf != _iPrf) {
 		_iPrf = iPrf;
 		setDirty(true);
@@ -897,6 +912,10 @@ public void setIPAcc(String iPAcc) {
 	if (iPAcc == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_iPAcc = iPAcc;
+		return;
+	}
 	if (!iPAcc.equals(_iPAcc)) {
 		_iPAcc = iPAcc;
 		setDirty(true);
@@ -911,6 +930,10 @@ Set the plan type.
 @param iPlnTyp Plan type.
 */
 public void setIPlnTyp(int iPlnTyp) {
+	if ( isBulkEdit() ) {
+		_iPlnTyp = iPlnTyp;
+		return;
+	}
 	if (iPlnTyp != _iPlnTyp) {
 		_iPlnTyp = iPlnTyp;
 		setDirty(true);
@@ -948,6 +971,10 @@ calendar year, the first efficiency will be for January.
 @param peff monthly efficiency
 */
 public void setPeff(int index, double peff) {
+	if ( isBulkEdit() ) {
+		_Peff[index] = peff;
+		return;
+	}
 	if (_Peff[index] != peff) {
 		_Peff[index] = peff;
 		setDirty(true);
@@ -962,6 +989,10 @@ Set the plan efficiency flag.
 @param peff plan efficiency flag.
 */
 public void setPeffFlag(int PeffFlag) {
+	if ( isBulkEdit() ) {
+		_PeffFlag = PeffFlag;
+		return;
+	}
 	if (_PeffFlag != PeffFlag) {
 		_PeffFlag = PeffFlag;
 		setDirty(true);
@@ -1006,6 +1037,10 @@ public void setPsource(String Psource) {
 	if (Psource == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_Psource = Psource;
+		return;
+	}
 	if (!Psource.equals(_Psource)) {
 		_Psource = Psource;
 		setDirty(true);
@@ -1020,6 +1055,10 @@ Set the plan initial storage.
 @param peff plan initial storage.
 */
 public void setPsto1(double Psto1) {
+	if ( isBulkEdit() ) {
+		_Psto1 = Psto1;
+		return;
+	}
 	if (_Psto1 != Psto1) {
 		_Psto1 = Psto1;
 		setDirty(true);
@@ -1067,7 +1106,7 @@ throws Exception
 	ignoredCommentIndicators.add ( "#>");
 	PrintWriter out = null;
 	try {
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(instrfile),
 			IOUtil.getPathUsingWorkingDir(outstrfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -1188,6 +1227,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outstrfile) );
 }
 
 // TODO SAM 2006-08-22
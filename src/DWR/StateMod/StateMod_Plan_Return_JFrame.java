@@ -101,7 +101,7 @@ private JWorksheet __worksheet;
 /**
 Dataset that contains the data.
 */
-//private StateMod_DataSet __dataset;
+private StateMod_DataSet __dataset;
 
 /**
 The current plan for which returns are being shown.
@@ -132,7 +132,7 @@ public StateMod_Plan_Return_JFrame(StateMod_DataSet dataset, StateMod_Plan plan,
 	__currentPlanReturnList = (List<StateMod_ReturnFlow>)StateMod_Util.getDataList (allReturns,plan.getID());
 	Message.printStatus(2,"","Have " + __currentPlanReturnList.size() + " return records for plan \"" +
 		__currentPlan.getID() + "\" (selected from full list of size " + allReturns.size() + ")." );
-	//__dataset = dataset;
+	__dataset = dataset;
 	// TODO SAM 2011-01-02 For now editing is disabled...
 	editable = false;
 	__editable = editable;
@@ -151,6 +151,7 @@ public void actionPerformed(ActionEvent e) {
 	if (action.equals(__BUTTON_ADD_RETURN)) {
 		StateMod_ReturnFlow aReturn = new StateMod_ReturnFlow(StateMod_DataSet.COMP_PLAN_RETURN);
 		aReturn._isClone = true;
+		aReturn.setOwningDataSet(__dataset);
 		StateMod_ReturnFlow last = (StateMod_ReturnFlow)__worksheet.getLastRowData();
 
 		if (last == null) {
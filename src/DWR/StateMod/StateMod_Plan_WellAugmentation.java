@@ -24,7 +24,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -223,10 +222,12 @@ throws Exception
 	BufferedReader in = null;
 
 	Message.printStatus(2, routine, "Reading well augmentation plan file: " + filename);
+	// Set methods do not mark objects dirty during a bulk edit (see StateMod_DataSet.beginBulkEdit())...
+	boolean bulkEdit = StateMod_Data.isThreadBulkEdit();
 	int size = 0;
 	int errorCount = 0;
 	try {	
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			// check for comments
@@ -265,7 +266,9 @@ throws Exception
 
 			// Set the return to not dirty because it was just initialized...
 
-			aWellAug.setDirty ( false );
+			if ( !bulkEdit ) {
+				aWellAug.setDirty ( false );
+			}
 
 			// Add the return to the list of returns
 			theWellAugs.add(aWellAug);
@@ -306,6 +309,10 @@ Set the cistatS.
 */
 public void setCistatS(String cistatS) {
 	if (cistatS != null) {
+		if ( isBulkEdit() ) {
+			__cistatS = cistatS;
+			return;
+		}
 		if (!cistatS.equals(__cistatS)) {
 			setDirty ( true );
 			if ( !_isClone && _dataset != null ) {
@@ -321,6 +328,10 @@ Set the cistatW.
 */
 public void setCistatW(String cistatW) {
 	if (cistatW != null) {
+		if ( isBulkEdit() ) {
+			__cistatW = cistatW;
+			return;
+		}
 		if (!cistatW.equals(__cistatW)) {
 			setDirty ( true );
 			if ( !_isClone && _dataset != null ) {
@@ -467,7 +478,7 @@ throws Exception
 	PrintWriter out = null;
 	String comment;
 	try {
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(instrfile),
 			IOUtil.getPathUsingWorkingDir(outstrfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -531,6 +542,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outstrfile) );
 }
 
 }
@@ -169,8 +169,8 @@ package DWR.StateMod;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.PrintWriter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
 
@@ -479,6 +479,8 @@ public static void connectAllRights(List<StateMod_Reservoir> reservoirs, List<St
 		return;
 	}
 	int i, num_res = reservoirs.size();
+	// Group the rights by reservoir so that each reservoir only checks its own rights...
+	HashMap<String,List<StateMod_ReservoirRight>> rightsGroups = StateMod_Util.createCgotoGroups ( rights );
 
 	StateMod_Reservoir res = null;
 	for (i = 0; i < num_res; i++) {
@@ -486,7 +488,7 @@ public static void connectAllRights(List<StateMod_Reservoir> reservoirs, List<St
 		if (res == null) {
 			continue;
 		}
-		res.connectRights(rights);
+		res.connectRights(StateMod_Util.getGroup(rightsGroups,res._id));
 	}
 	res = null;
 }
@@ -506,6 +508,12 @@ public static void connectAllTS ( List<StateMod_Reservoir> reservoirs,
 		return;
 	}
 	int numRes = reservoirs.size();
+	// Group the time series by location so that each reservoir only checks its own time series.
+	// Targets are min/max pairs of adjacent time series...
+	HashMap<String,List<MonthTS>> content_MonthTS_groups = StateMod_Util.createTSLocationGroups ( content_MonthTS );
+	HashMap<String,List<DayTS>> content_DayTS_groups = StateMod_Util.createTSLocationGroups ( content_DayTS );
+	HashMap<String,List<MonthTS>> target_MonthTS_pairs = StateMod_Util.createTSLocationPairs ( target_MonthTS );
+	HashMap<String,List<DayTS>> target_DayTS_pairs = StateMod_Util.createTSLocationPairs ( target_DayTS );
 
 	StateMod_Reservoir res = null;
 	for (int i = 0; i < numRes; i++) {
@@ -513,10 +521,10 @@ public static void connectAllTS ( List<StateMod_Reservoir> reservoirs,
 		if (res == null) {
 			continue;
 		}
-		res.connectContentMonthTS(content_MonthTS);
-		res.connectContentDayTS(content_DayTS);
-		res.connectTargetMonthTS(target_MonthTS);
-		res.connectTargetDayTS(target_DayTS);
+		res.connectContentMonthTS(StateMod_Util.getGroup(content_MonthTS_groups,res._id));
+		res.connectContentDayTS(StateMod_Util.getGroup(content_DayTS_groups,res._id));
+		res.connectTargetMonthTS(StateMod_Util.getGroup(target_MonthTS_pairs,res._id));
+		res.connectTargetDayTS(StateMod_Util.getGroup(target_DayTS_pairs,res._id));
 	}
 }
 
@@ -1335,8 +1343,7 @@ throws Exception
 	}
 	int line_count = 0;
 	try {
-		in = new BufferedReader(new FileReader(
-		IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine())!= null) {
 			++line_count;
 			// check for comments
@@ -1564,6 +1571,10 @@ public void setContentMonthTS(MonthTS ts) {
 set cresdy
 */
 public void setCresdy(String cresdy) {
+	if ( (cresdy != null) && isBulkEdit() ) {
+		_cresdy = cresdy;
+		return;
+	}
 	if ( (cresdy != null) && !cresdy.equals(_cresdy)) {
 		_cresdy = cresdy;
 		setDirty ( true );
@@ -1577,6 +1588,10 @@ public void setCresdy(String cresdy) {
 Set the dead storage in reservoir.
 */
 public void setDeadst(double deadst) {
+	if ( isBulkEdit() ) {
+		_deadst = deadst;
+		return;
+	}
 	if (deadst != _deadst) {
 		_deadst = deadst;
 		setDirty ( true );
@@ -1606,6 +1621,10 @@ public void setDeadst(String deadst) {
 Set the maximum reservoir release.
 */
 public void setFlomax(double flomax) {
+	if ( isBulkEdit() ) {
+		_flomax = flomax;
+		return;
+	}
 	if (flomax != _flomax) {
 		_flomax = flomax;
 		setDirty ( true );
@@ -1680,6 +1699,10 @@ public void setRdate(double rdate) {
 		rdate = -1;
 	}
 
+	if ( isBulkEdit() ) {
+		_rdate = rdate;
+		return;
+	}
 	if (rdate != _rdate) {
 		_rdate = rdate;
 		setDirty ( true );
@@ -1717,6 +1740,10 @@ public void setRights ( List<StateMod_ReservoirRight> rights )
 Set the maximum reservoir content.
 */
 public void setVolmax(double volmax) {
+	if ( isBulkEdit() ) {
+		_volmax = volmax;
+		return;
+	}
 	if (volmax != _volmax) {
 		_volmax = volmax;
 		setDirty ( true );
@@ -1746,6 +1773,10 @@ public void setVolmax(String volmax) {
 Set the minimum reservoir content.
 */
 public void setVolmin(double volmin) {
+	if ( isBulkEdit() ) {
+		_volmin = volmin;
+		return;
+	}
 	if (volmin != _volmin) {
 		_volmin = volmin;
 		setDirty ( true );
@@ -2084,7 +2115,7 @@ throws Exception {
 	}
 
 	try {	
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -2336,6 +2367,7 @@ throws Exception {
 			out.close();
 		}	
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -362,6 +362,10 @@ public void restoreOriginal() {
 Set the initial storage of owner.
 */
 public void setCurown(double d) {
+	if ( isBulkEdit() ) {
+		_curown = d;
+		return;
+	}
 	if (d != _curown) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
@@ -391,6 +395,10 @@ public void setCurown(String str) {
 Set the ownership tied to n fill right.
 */
 public void setN2own(int i) {
+	if ( isBulkEdit() ) {
+		_n2own = i;
+		return;
+	}
 	if (i != _n2own) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
@@ -420,6 +428,10 @@ public void setN2own(String str) {
 Set the maximum storage of owner.
 */
 public void setOwnmax(double d) {
+	if ( isBulkEdit() ) {
+		_ownmax = d;
+		return;
+	}
 	if (d != _ownmax) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,
@@ -450,6 +462,10 @@ public void setOwnmax(String str) {
 Set the prorate res evap btwn accnt owners.
 */
 public void setPcteva(double d) {
+	if ( isBulkEdit() ) {
+		_pcteva = d;
+		return;
+	}
 	if (d != _pcteva) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,	true);
@@ -271,6 +271,10 @@ Set the content in area capacity table.
 @param d content to set
 */
 public void setConten(double d) {
+	if ( isBulkEdit() ) {
+		_conten = d;
+		return;
+	}
 	if (d != _conten) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
@@ -303,6 +307,10 @@ Set the seepage associated with the content.
 @param d seepage to set
 */
 public void setSeepage(double d) {
+	if ( isBulkEdit() ) {
+		_seepage = d;
+		return;
+	}
 	if (d != _seepage) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
@@ -335,6 +343,10 @@ Set the area associated with the content.
 @param d content to set
 */
 public void setSurarea(double d) {
+	if ( isBulkEdit() ) {
+		_surarea = d;
+		return;
+	}
 	if (d != _surarea) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
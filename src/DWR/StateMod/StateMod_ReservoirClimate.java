@@ -277,6 +277,10 @@ Set the type.  Use either CLIMATE_PTPX or CLIMATE_EVAP.
 @param i the type to set
 */
 public void setType(int i) {
+	if ( isBulkEdit() ) {
+		_type = i;
+		return;
+	}
 	if (i != _type) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
@@ -290,6 +294,10 @@ Set the weight.
 @param d weight to set
 */
 public void setWeight(double d) {
+	if ( isBulkEdit() ) {
+		_weight = d;
+		return;
+	}
 	if (d != _weight) {
 		if ( !_isClone && _dataset != null ) {
 			_dataset.setDirty(StateMod_DataSet.COMP_RESERVOIR_STATIONS,true);
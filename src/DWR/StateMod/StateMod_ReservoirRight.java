@@ -107,7 +107,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -580,7 +579,7 @@ throws Exception {
 	Message.printStatus(2, routine, "Reading reservoir rights file: " + filename);
 	
 	try {
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine())!= null) {
 			if (iline.startsWith("#")|| iline.trim().length()==0) {
 				continue;
@@ -638,6 +637,10 @@ public void restoreOriginal() {
 Set the out-of-priority associated op right.
 */
 public void setCopid(String copid) {
+	if ( (copid != null) && isBulkEdit() ) {
+		_copid = copid;
+		return;
+	}
 	if ( (copid != null) && !copid.equals(_copid) ) {
 		_copid = copid;
 		setDirty ( true );
@@ -651,6 +654,10 @@ public void setCopid(String copid) {
 Set the decreed amount.
 */
 public void setDcrres(double dcrres) {
+	if ( isBulkEdit() ) {
+		_dcrres = dcrres;
+		return;
+	}
 	if (dcrres != _dcrres) {
 		_dcrres = dcrres;
 		setDirty ( true );
@@ -688,6 +695,10 @@ public void setDecree( double decree )
 Set the filling ratio.
 */
 public void setIresco(int iresco) {
+	if ( isBulkEdit() ) {
+		_iresco = iresco;
+		return;
+	}
 	if (iresco != _iresco) {
 		_iresco = iresco;
 		setDirty ( true );
@@ -717,6 +728,10 @@ public void setIresco(String iresco) {
 Set the reservoir type.
 */
 public void setItyrstr(int ityrstr) {
+	if ( isBulkEdit() ) {
+		_ityrstr = ityrstr;
+		return;
+	}
 	if (ityrstr != _ityrstr) {
 		_ityrstr = ityrstr;
 		setDirty ( true );
@@ -746,6 +761,10 @@ public void setItyrstr(String ityrstr) {
 Set the reservoir right type.
 */
 public void setN2fill(int n2fill) {
+	if ( isBulkEdit() ) {
+		_n2fill = n2fill;
+		return;
+	}
 	if (n2fill != _n2fill) {
 		_n2fill = n2fill;
 		setDirty ( true );
@@ -775,6 +794,10 @@ public void setN2fill(String n2fill) {
 Set the administration number.
 */
 public void setRtem(String rtem) {
+	if ( (rtem != null) && isBulkEdit() ) {
+		_rtem = rtem;
+		return;
+	}
 	if ( (rtem != null) && !rtem.equals(_rtem) ) {
 		_rtem = rtem;
 		setDirty ( true );
@@ -917,7 +940,7 @@ throws Exception
 		Message.printDebug(2, routine, "Writing reservoir rights to file: " + outfile);
 	}
 	try {	
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -1011,6 +1034,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -200,6 +200,7 @@ public void actionPerformed(ActionEvent e) {
 		StateMod_ReservoirAreaCap anAreaCapNode = 
 			new StateMod_ReservoirAreaCap();
 		anAreaCapNode._isClone = true;
+		anAreaCapNode.setOwningDataSet(__dataset);
 		__worksheet.addRow(anAreaCapNode);
 		__worksheet.scrollToLastRow();			
 		__worksheet.selectLastRow();
@@ -227,6 +227,7 @@ public void actionPerformed(ActionEvent e) {
 		StateMod_ReservoirClimate aClimateNode =
 			new StateMod_ReservoirClimate();
 		aClimateNode._isClone = true;
+		aClimateNode.setOwningDataSet(__dataset);
 		aClimateNode.setType(StateMod_ReservoirClimate.CLIMATE_PTPX);
 		__worksheetP.addRow(aClimateNode);
 		__worksheetP.scrollToLastRow();					
@@ -237,6 +238,7 @@ public void actionPerformed(ActionEvent e) {
 		StateMod_ReservoirClimate aClimateNode =
 			new StateMod_ReservoirClimate();
 		aClimateNode._isClone = true;
+		aClimateNode.setOwningDataSet(__dataset);
 		aClimateNode.setType(StateMod_ReservoirClimate.CLIMATE_EVAP);
 		__worksheetE.addRow(aClimateNode);
 		__worksheetE.scrollToLastRow();					
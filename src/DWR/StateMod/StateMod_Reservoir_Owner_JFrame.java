@@ -186,6 +186,7 @@ public void actionPerformed(ActionEvent e) {
 		StateMod_ReservoirAccount anAccount =
 			new StateMod_ReservoirAccount();
 		anAccount._isClone = true;
+		anAccount.setOwningDataSet(__dataset);
 		int rowCount = __worksheet.getRowCount();
 		if (rowCount == 0) {
 			anAccount.setID(1);
@@ -100,7 +100,7 @@ private JWorksheet __worksheet;
 /**
 Dataset that contains the data.
 */
-//private StateMod_DataSet __dataset;
+private StateMod_DataSet __dataset;
 
 /**
 The current reservoir for which returns are being shown.
@@ -131,7 +131,7 @@ public StateMod_Reservoir_Return_JFrame(StateMod_DataSet dataset, StateMod_Reser
 	__currentResReturnList = (List<StateMod_ReturnFlow>)StateMod_Util.getDataList (allReturns,res.getID());
 	Message.printStatus(2,"","Have " + __currentResReturnList.size() + " return records for reservoir \"" +
 		__currentRes.getID() + "\" (selected from full list of size " + allReturns.size() + ")." );
-	//__dataset = dataset;
+	__dataset = dataset;
 	// TODO SAM 2011-01-02 For now editing is disabled...
 	editable = false;
 	__editable = editable;
@@ -150,6 +150,7 @@ public void actionPerformed(ActionEvent e) {
 	if (action.equals(__BUTTON_ADD_RETURN)) {
 		StateMod_ReturnFlow aReturn = new StateMod_ReturnFlow(StateMod_DataSet.COMP_RESERVOIR_RETURN);
 		aReturn._isClone = true;
+		aReturn.setOwningDataSet(__dataset);
 		StateMod_ReturnFlow last = (StateMod_ReturnFlow)__worksheet.getLastRowData();
 
 		if (last == null) {
@@ -191,6 +191,7 @@ public void actionPerformed(ActionEvent e) {
 	if (action.equals(__BUTTON_ADD_RIGHT)) {
 		StateMod_ReservoirRight aRight = new StateMod_ReservoirRight();
 		aRight._isClone = true;
+		aRight.setOwningDataSet(__dataset);
 		StateMod_ReservoirRight last = 
 			(StateMod_ReservoirRight)__worksheet.getLastRowData();
 
@@ -65,7 +65,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -313,10 +312,12 @@ throws Exception
 	BufferedReader in = null;
 
 	Message.printStatus(2, routine, "Reading return file: " + filename);
+	// Set methods do not mark objects dirty during a bulk edit (see StateMod_DataSet.beginBulkEdit())...
+	boolean bulkEdit = StateMod_Data.isThreadBulkEdit();
 	int size = 0;
 	int errorCount = 0;
 	try {	
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			// check for comments
@@ -357,7 +358,9 @@ throws Exception
 
 			// Set the return to not dirty because it was just initialized...
 
-			aReturn.setDirty ( false );
+			if ( !bulkEdit ) {
+				aReturn.setDirty ( false );
+			}
 
 			// Add the return to the list of returns
 			theReturns.add(aReturn);
@@ -399,6 +402,10 @@ Set the crtnid.
 */
 public void setCrtnid(String s) {
 	if (s != null) {
+		if ( isBulkEdit() ) {
+			__crtnid = s;
+			return;
+		}
 		if (!s.equals(__crtnid)) {
 			setDirty ( true );
 			if ( !_isClone && _dataset != null ) {
@@ -413,6 +420,10 @@ public void setCrtnid(String s) {
 Set the delay table for return.
 */
 public void setIrtndl(int i) {
+	if ( isBulkEdit() ) {
+		__irtndl = i;
+		return;
+	}
 	if (i != __irtndl) {
 		setDirty ( true );
 		if ( !_isClone && _dataset != null ) {
@@ -436,6 +447,10 @@ public void setIrtndl(String str) {
 Set the % of return flow to this river node.
 */
 public void setPcttot(double d) {
+	if ( isBulkEdit() ) {
+		__pcttot = d;
+		return;
+	}
 	if (d != __pcttot) {
 		setDirty ( true );
 		if ( !_isClone && _dataset != null ) {
@@ -609,7 +624,7 @@ throws Exception
 	PrintWriter out = null;
 	String comment;
 	try {
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(instrfile),
 			IOUtil.getPathUsingWorkingDir(outstrfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -675,6 +690,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outstrfile) );
 }
 
 }
@@ -144,7 +144,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -412,7 +411,7 @@ throws Exception
 	}
 	BufferedReader in = null;
 	try {
-		in = new BufferedReader ( new FileReader ( filename ));
+		in = StateMod_Util.getInputReader ( filename );
 		while ( (iline = in.readLine()) != null ) {
 			++linecount;
 			// check for comments
@@ -479,7 +478,11 @@ Set the comment for use with the network file.
 @param comment Comment for node.
 */
 public void setComment ( String comment )
-{	if ( (comment != null) && !_comment.equals(comment) ) {
+{	if ( (comment != null) && isBulkEdit() ) {
+		_comment = comment;
+		return;
+	}
+	if ( (comment != null) && !_comment.equals(comment) ) {
 		_comment = comment;
 		setDirty ( true );
 		if ( !_isClone && _dataset != null ) {
@@ -493,6 +496,10 @@ Set the downstream river node identifier.
 @param cstadn Downstream river node identifier.
 */
 public void setCstadn ( String cstadn ) {
+	if ( (cstadn != null) && isBulkEdit() ) {
+		_cstadn = cstadn;
+		return;
+	}
 	if ( (cstadn != null) && !cstadn.equals(_cstadn )) {
 		_cstadn = cstadn;
 		setDirty ( true );
@@ -635,7 +642,7 @@ throws Exception
 
 	try {
 		// Process the header from the old file...
-		out = IOUtil.processFileHeaders ( IOUtil.getPathUsingWorkingDir(infile),
+		out = StateMod_Util.processFileHeaders ( IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newcomments, commentIndicators, ignoredCommentIndicators, 0 );
 	
@@ -699,6 +706,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
@@ -70,7 +70,6 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
-import RTi.TS.TS;
 import RTi.Util.GUI.JGUIUtil;
 import RTi.Util.GUI.JScrollWorksheet;
 import RTi.Util.GUI.JWorksheet;
@@ -79,7 +78,6 @@ import RTi.Util.IO.DataSetComponent;
 import RTi.Util.IO.IOUtil;
 import RTi.Util.IO.PropList;
 import RTi.Util.Message.Message;
-import RTi.Util.Time.YearType;
 
 /**
 This dialog displays a list of all the data set components that have been changed
@@ -489,188 +487,8 @@ public void windowOpening(WindowEvent e) {}
 
 private void saveComponent(DataSetComponent comp, String oldFilename,String newFilename, List<String> comments) 
 throws Exception {
-	boolean daily = false;
-	int type = comp.getComponentType();
-	Object data = comp.getData();
-	String name = null;
-
-	switch (type) {
-	////////////////////////////////////////////////////////
-	// StateMod_* classes
-		case StateMod_DataSet.COMP_CONTROL:
-			StateMod_DataSet.writeStateModControlFile(__dataset, oldFilename, newFilename, comments);
-			name = "Control";
-			break;
-		case StateMod_DataSet.COMP_DELAY_TABLES_DAILY:
-			@SuppressWarnings("unchecked")
-			List<StateMod_DelayTable> delayTablesDaily = (List<StateMod_DelayTable>)data;
-			StateMod_DelayTable.writeStateModFile(oldFilename,
-				newFilename, delayTablesDaily, comments, __dataset.getInterv(), -1);
-			name = "Delay Tables Daily";
-			break;
-		case StateMod_DataSet.COMP_DELAY_TABLES_MONTHLY:
-			@SuppressWarnings("unchecked")
-			List<StateMod_DelayTable> delayTablesMonthly = (List<StateMod_DelayTable>)data;
-			StateMod_DelayTable.writeStateModFile(oldFilename,
-				newFilename, delayTablesMonthly, comments, __dataset.getInterv(), -1);
-			name = "Delay Tables Monthly";
-			break;
-		case StateMod_DataSet.COMP_DIVERSION_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_Diversion> diversionStations = (List<StateMod_Diversion>)data;
-			StateMod_Diversion.writeStateModFile(oldFilename, newFilename, diversionStations, comments, daily );
-			name = "Diversion";
-			break;
-		case StateMod_DataSet.COMP_DIVERSION_RIGHTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_DiversionRight> diversionRights = (List<StateMod_DiversionRight>)data;
-			StateMod_DiversionRight.writeStateModFile(oldFilename, newFilename, diversionRights, comments, daily);
-			name = "Diversion Rights";
-			break;
-		case StateMod_DataSet.COMP_INSTREAM_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_InstreamFlow> instreamFlow = (List<StateMod_InstreamFlow>)data;
-			StateMod_InstreamFlow.writeStateModFile(oldFilename, newFilename, instreamFlow, comments, daily);
-			name = "Instream";
-			break;
-		case StateMod_DataSet.COMP_INSTREAM_RIGHTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_InstreamFlowRight> instreamFlowRights = (List<StateMod_InstreamFlowRight>)data;
-			StateMod_InstreamFlowRight.writeStateModFile( oldFilename, newFilename, instreamFlowRights, comments );
-			name = "Instream Rights";
-			break;
-		case StateMod_DataSet.COMP_OPERATION_RIGHTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_OperationalRight> operationalRights = (List<StateMod_OperationalRight>)data;
-			// 2 is the file version (introduced for StateMod version 12 change)
-			StateMod_OperationalRight.writeStateModFile( oldFilename, newFilename, 2, operationalRights, comments,
-				__dataset );
-			name = "Operational Rights";
-			break;
-		case StateMod_DataSet.COMP_PLANS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_Plan> planStations = (List<StateMod_Plan>)data;
-			StateMod_Plan.writeStateModFile(oldFilename, newFilename, planStations, comments);
-			name = "Plan";
-			break;
-		case StateMod_DataSet.COMP_RESERVOIR_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_Reservoir> reservoirStations = (List<StateMod_Reservoir>)data;
-			StateMod_Reservoir.writeStateModFile(oldFilename, newFilename, reservoirStations, comments, daily);
-			name = "Reservoir";
-			break;
-		case StateMod_DataSet.COMP_RESERVOIR_RIGHTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_ReservoirRight> reservoirRights = (List<StateMod_ReservoirRight>)data;
-			StateMod_ReservoirRight.writeStateModFile(oldFilename, newFilename, reservoirRights, comments);
-			name = "Reservoir Rights";
-			break;
-		case StateMod_DataSet.COMP_RESPONSE:
-			StateMod_DataSet.writeStateModFile(__dataset, oldFilename, newFilename, comments );
-			name = "Response";
-			break;
-		case StateMod_DataSet.COMP_RIVER_NETWORK:
-			@SuppressWarnings("unchecked")
-			List<StateMod_RiverNetworkNode> riverNodes = (List<StateMod_RiverNetworkNode>)data;
-			StateMod_RiverNetworkNode.writeStateModFile(oldFilename, newFilename, riverNodes, comments, true);
-			name = "River Network";
-			break;
-		case StateMod_DataSet.COMP_STREAMESTIMATE_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_StreamEstimate> streamEstimateStations = (List<StateMod_StreamEstimate>)data;
-			StateMod_StreamEstimate.writeStateModFile(oldFilename, newFilename, streamEstimateStations, comments, daily);
-			name = "Stream Estimate";
-			break;
-		case StateMod_DataSet.COMP_STREAMESTIMATE_COEFFICIENTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_StreamEstimate_Coefficients> streamEstimateCoefficients = (List<StateMod_StreamEstimate_Coefficients>)data;
-			StateMod_StreamEstimate_Coefficients.writeStateModFile( oldFilename, newFilename, streamEstimateCoefficients, comments );
-			name = "Stream Estimate Coefficients";
-			break;
-		case StateMod_DataSet.COMP_STREAMGAGE_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_StreamGage> streamGageStations = (List<StateMod_StreamGage>)data;
-			StateMod_StreamGage.writeStateModFile(oldFilename, newFilename, streamGageStations, comments, daily);
-			name = "Streamgage Stations";
-			break;
-		case StateMod_DataSet.COMP_WELL_STATIONS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_Well> wellStations = (List<StateMod_Well>)data;
-			StateMod_Well.writeStateModFile(oldFilename, newFilename, wellStations, comments);
-			name = "Well";
-			break;
-		case StateMod_DataSet.COMP_WELL_RIGHTS:
-			@SuppressWarnings("unchecked")
-			List<StateMod_WellRight> wellRights = (List<StateMod_WellRight>)data;
-			StateMod_WellRight.writeStateModFile(oldFilename, newFilename, wellRights, comments, (PropList)null);
-			name = "Well Rights";
-			break;
-
-	//////////////////////////////////////////////////////
-	// StateMod Time Series
-		case StateMod_DataSet.COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_DAILY:
-		case StateMod_DataSet.COMP_CONSUMPTIVE_WATER_REQUIREMENT_TS_MONTHLY:
-		case StateMod_DataSet.COMP_DEMAND_TS_DAILY:
-		case StateMod_DataSet.COMP_DEMAND_TS_AVERAGE_MONTHLY:
-		case StateMod_DataSet.COMP_DEMAND_TS_MONTHLY:
-		case StateMod_DataSet.COMP_DEMAND_TS_OVERRIDE_MONTHLY:
-		case StateMod_DataSet.COMP_DIVERSION_TS_DAILY:
-		case StateMod_DataSet.COMP_DIVERSION_TS_MONTHLY:
-		case StateMod_DataSet.COMP_EVAPORATION_TS_MONTHLY:
-		case StateMod_DataSet.COMP_INSTREAM_DEMAND_TS_AVERAGE_MONTHLY:
-		case StateMod_DataSet.COMP_INSTREAM_DEMAND_TS_DAILY:
-		case StateMod_DataSet.COMP_INSTREAM_DEMAND_TS_MONTHLY:
-		case StateMod_DataSet.COMP_PRECIPITATION_TS_MONTHLY:
-		case StateMod_DataSet.COMP_RESERVOIR_CONTENT_TS_DAILY:
-		case StateMod_DataSet.COMP_RESERVOIR_CONTENT_TS_MONTHLY:
-		case StateMod_DataSet.COMP_RESERVOIR_TARGET_TS_DAILY:
-		case StateMod_DataSet.COMP_RESERVOIR_TARGET_TS_MONTHLY:
-		case StateMod_DataSet.COMP_STREAMESTIMATE_NATURAL_FLOW_TS_DAILY:
-		case StateMod_DataSet.COMP_STREAMESTIMATE_NATURAL_FLOW_TS_MONTHLY:
-		case StateMod_DataSet.COMP_STREAMGAGE_NATURAL_FLOW_TS_DAILY:
-		case StateMod_DataSet.COMP_STREAMGAGE_NATURAL_FLOW_TS_MONTHLY:
-		case StateMod_DataSet.COMP_STREAMGAGE_HISTORICAL_TS_DAILY:
-		case StateMod_DataSet.COMP_STREAMGAGE_HISTORICAL_TS_MONTHLY:
-		case StateMod_DataSet.COMP_WELL_DEMAND_TS_DAILY:
-		case StateMod_DataSet.COMP_WELL_DEMAND_TS_MONTHLY:
-		case StateMod_DataSet.COMP_WELL_PUMPING_TS_DAILY:
-		case StateMod_DataSet.COMP_WELL_PUMPING_TS_MONTHLY:
-			double missing = -999.0;
-			YearType yearType = null;
-			if (__dataset.getCyrl() == YearType.CALENDAR) {
-				yearType = YearType.CALENDAR;
-			}
-			else if (__dataset.getCyrl() == YearType.WATER) {
-				yearType = YearType.WATER;
-			}
-			else if (__dataset.getCyrl() == YearType.NOV_TO_OCT) {
-				yearType = YearType.NOV_TO_OCT;
-			}
-			int precision = 2;
-
-			// Do the following to avoid warnings
-			List<TS> tslist = null;
-			if ( data != null ) {
-				@SuppressWarnings("unchecked")
-				List<TS> tslist0 = (List<TS>)data;
-				if ( tslist0.size() > 0) {
-					TS ts = tslist0.get(0);
-					missing = ts.getMissing();
-				}
-				tslist = tslist0;
-			}
-			
-			StateMod_TS.writeTimeSeriesList(oldFilename,
-				newFilename, comments, tslist, null, null, yearType, missing, precision);
-			name = "TS (" + type + ")";
-			break;
-
-		default:
-			name = "(something: " + type + ")";
-			break;
-	}
-	comp.setDirty(false);
-	Message.printStatus(1, "", "Component '" + name + "' written");
+	__dataset.writeComponentFile ( comp, oldFilename, newFilename, comments );
+	Message.printStatus(1, "", "Component '" + comp.getComponentName() + "' written");
 }
 
 // TODO SAM 2006-08-22 Why are these here?
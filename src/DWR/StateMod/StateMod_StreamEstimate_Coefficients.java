@@ -116,7 +116,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.List;
 import java.util.Vector;
@@ -766,6 +765,10 @@ public void setN(String str) {
 Set the initial storage of owner.
 */
 public void setProratnf(double d) {
+	if ( isBulkEdit() ) {
+		_proratnf = d;
+		return;
+	}
 	if (d != _proratnf) {
 		if (!_isClone) {
 			if ( _dataset != null ) {
@@ -884,7 +887,7 @@ throws Exception {
 	}
 
 	try {	
-		in = new BufferedReader(new FileReader(filename));
+		in = StateMod_Util.getInputReader ( filename );
 		while ((iline = in.readLine()) != null) {
 			++linecount;
 			// check for comments
@@ -1045,7 +1048,7 @@ throws Exception {
 			outfile + "\" using \"" + infile + "\" header...");
 
 	try {	
-		out = IOUtil.processFileHeaders( IOUtil.getPathUsingWorkingDir(infile),
+		out = StateMod_Util.processFileHeaders( IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
 	
@@ -1148,6 +1151,7 @@ throws Exception {
 			out = null;
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
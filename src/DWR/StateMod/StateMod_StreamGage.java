@@ -164,8 +164,8 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
 
@@ -339,19 +339,24 @@ public static void connectAllTS ( List<StateMod_StreamGage> rivs, List<MonthTS>
 	}
 	StateMod_StreamGage riv;
 	int size = rivs.size();
+	// Group the time series by location so that each station only checks its own time series...
+	HashMap<String,List<MonthTS>> historical_MonthTS_groups = StateMod_Util.createTSLocationGroups ( historical_MonthTS );
+	HashMap<String,List<DayTS>> historical_DayTS_groups = StateMod_Util.createTSLocationGroups ( historical_DayTS );
+	HashMap<String,List<MonthTS>> baseflow_MonthTS_groups = StateMod_Util.createTSLocationGroups ( baseflow_MonthTS );
+	HashMap<String,List<DayTS>> baseflow_DayTS_groups = StateMod_Util.createTSLocationGroups ( baseflow_DayTS );
 	for ( int i=0; i < size; i++ ) {
 		riv = rivs.get(i);
 		if ( historical_MonthTS != null ) {
-			riv.connectHistoricalMonthTS ( historical_MonthTS );
+			riv.connectHistoricalMonthTS ( StateMod_Util.getGroup(historical_MonthTS_groups,riv._id) );
 		}
 		if ( historical_DayTS != null ) {
-			riv.connectHistoricalDayTS ( historical_DayTS );
+			riv.connectHistoricalDayTS ( StateMod_Util.getGroup(historical_DayTS_groups,riv._id) );
 		}
 		if ( baseflow_MonthTS != null ) {
-			riv.connectBaseflowMonthTS ( baseflow_MonthTS );
+			riv.connectBaseflowMonthTS ( StateMod_Util.getGroup(baseflow_MonthTS_groups,riv._id) );
 		}
 		if ( baseflow_DayTS != null ) {
-			riv.connectBaseflowDayTS ( baseflow_DayTS );
+			riv.connectBaseflowDayTS ( StateMod_Util.getGroup(baseflow_DayTS_groups,riv._id) );
 		}
 	}
 }
@@ -631,7 +636,7 @@ throws Exception
 	}
 	BufferedReader in = null;
 	try {
-		in = new BufferedReader ( new FileReader ( filename ));
+		in = StateMod_Util.getInputReader ( filename );
 		while ( (iline = in.readLine()) != null ) {
 			++linecount;
 			// check for comments
@@ -709,6 +714,10 @@ Set the river node identifier.
 @param cgoto River node identifier.
 */
 public void setCgoto ( String cgoto ) {
+	if ( (cgoto != null) && isBulkEdit() ) {
+		_cgoto = cgoto;
+		return;
+	}
 	if ( (cgoto != null) && !cgoto.equals(_cgoto )) {
 		_cgoto = cgoto;
 		setDirty ( true );
@@ -723,7 +732,11 @@ Set the daily stream station for the node.
 @param crunidy Daily station identifier for node.
 */
 public void setCrunidy ( String crunidy )
-{	if ( (crunidy != null) && !_crunidy.equals(crunidy) ) {
+{	if ( (crunidy != null) && isBulkEdit() ) {
+		_crunidy = crunidy;
+		return;
+	}
+	if ( (crunidy != null) && !_crunidy.equals(crunidy) ) {
 		_crunidy = crunidy;
 		setDirty ( true );
 		if ( !_isClone && _dataset != null ) {
@@ -857,7 +870,7 @@ throws Exception
 
 	try {
 		// Process the header from the old file...
-		out = IOUtil.processFileHeaders ( IOUtil.getPathUsingWorkingDir(infile),
+		out = StateMod_Util.processFileHeaders ( IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newcomments, commentIndicators, ignoredCommentIndicators, 0 );
 
@@ -916,6 +929,7 @@ throws Exception
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
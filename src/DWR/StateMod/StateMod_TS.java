@@ -89,14 +89,16 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.security.InvalidParameterException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import RTi.TS.DayTS;
 import RTi.TS.MonthTS;
@@ -162,6 +164,17 @@ Comment character for non-permanent comments.
 */
 public static String NONPERMANENT_COMMENT = "#>";
 
+/**
+Indicates whether readTimeSeries() should use a StateMod_TS_FileIndex to read only the lines for the
+requested time series.
+*/
+private static boolean __useFileIndex = false;
+
+/**
+Approximate number of data lines in each batch of blocks that readTimeSeriesListParallel() parses as one task.
+*/
+private static final int __PARALLEL_READ_BATCH_LINES = 4096;
+
 /**
 Determine whether a StateMod file is daily or monthly format.  This is done
 by reading through the file until the first line of data.  If that line has
@@ -180,7 +193,7 @@ public static int getFileDataInterval ( String filename )
 	int interval = intervalUnknown;
 	String full_filename = IOUtil.getPathUsingWorkingDir ( filename );
 	try {
-		ifp = new BufferedReader ( new FileReader ( full_filename));
+		ifp = StateMod_Util.getInputReader ( full_filename );
 	}
 	catch ( Exception e ) {
 		message = "Unable to open file \"" + full_filename + "\" to determine data interval.";
@@ -188,7 +201,7 @@ public static int getFileDataInterval ( String filename )
 		return intervalUnknown;
 	}
 	try {
-	    if ( filename.toUpperCase().endsWith("XOP") ) {
+	    if ( StateMod_Util.getUncompressedFilename(filename).toUpperCase().endsWith("XOP") ) {
 	        // The *.xop file will have "Time Step:   Monthly"
 	        while ( true ) {
                 iline = ifp.readLine();
@@ -255,42 +268,30 @@ public static int getFileDataInterval ( String filename )
 }
 
 /**
-Get the total for a line as a Double.  This computes the total based on what will be printed, not what
-is in memory.  In this way the printed total will agree with the printed monthly or daily values.
+Get the total for a line.  If doSumToPrinted is true, this computes the total based on what will be printed,
+not what is in memory.  In this way the printed total will agree with the printed monthly or daily values.
 @param ts time series being written
-@param standardTS if false, it is an annual average so no year
 @param nvals number of values possible in the line of data (12 for monthly or the number of days in the month
 for daily)
-@param lineObjects data values to print as objects of the appropriate type
-@param formatObjects formats that are used to print each value
-@param reqIntervalBase indicates whether monthly or daily time series are being printed
+@param printedValues data values as printed on the line (the values that will be read from the file)
 @param do_total if true then the total is calculated for the end of the line, if false the average is calculated
 @param sum the sum of the values to be considered for the total
 @param count the count of the values to be considered for the average (includes only non-missing values)
+@param doSumToPrinted if true, compute the total from the printed values so that the total sums to the
+values on the line; if false use sum and count, which are computed from the in-memory values
+@return the total or average for the line, or the time series missing value if no values are available
 */
-private static Double getLineTotal ( TS ts, boolean standardTS, int nvals, List<Object> lineObjects,
-	List<String> formatObjects,	int reqIntervalBase, boolean do_total, double sum, int count,
-	boolean doSumToPrinted )
+private static double getLineTotal ( TS ts, int nvals, double [] printedValues, boolean do_total,
+	double sum, int count, boolean doSumToPrinted )
 {
 	if ( doSumToPrinted ) {
 		// The total needs to sum to the printed values on the line
-		// Loop through the original values and format each.  Then add them and format the total
-		int i1 = 2; // Start and end indices for looping through values, year, ID, first value
-		if ( !standardTS ) {
-			--i1; // Average annual so no year
-		}
-		int i2 = i1 + nvals - 1; // always 12 values
-		if ( reqIntervalBase == TimeInterval.DAY ) {
-			i1 = 3; // Year, month, ID, first value
-			i2 = i1 + nvals - 1; // actual number of values (may be less than 31 for daily)
-		}
-		String formattedString;
+		// Add the printed values, which were parsed from the formatted values.
 		sum = 0.0;
 		count = 0;
 		double val;
-		for ( int i = i1; i <= i2; i++ ) {
-			formattedString = StringUtil.formatString ( lineObjects.get(i), formatObjects.get(i) );
-			val = Double.parseDouble(formattedString);
+		for ( int i = 0; i < nvals; i++ ) {
+			val = printedValues[i];
 			if ( !ts.isDataMissing(val) ) {
 				sum += val;
 				++count;
@@ -301,23 +302,18 @@ private static Double getLineTotal ( TS ts, boolean standardTS, int nvals, List<
 	// Legacy code where the total sums to the in-memory values
 	if ( count == 0 ) {
 		// Missing
-		return new Double(ts.getMissing());
+		return ts.getMissing();
 	}
 	else if ( do_total ) {
 		// Sum of whatever is available
-		return new Double(sum);
+		return sum;
 	}
 	else {
 		// Mean of whatever is available
-		return new Double(sum/count);
+		return sum/count;
 	}
 }
 
-/**
-Static data for the following routine to improve performance.
-*/
-private static int _exp_saved = -999;
-private static double _largest_number_saved = 0.0;
 /**
 @return The appropriate precision to output a value.
 @param req_precision The requested precision.  If 0 or positive, then use the
@@ -353,19 +349,10 @@ public static int getPrecision ( int req_precision, int width, double value )
 		// Decimal only...
 		exp = width + req_precision - 1; 
 	}
-	double	largest_number = 0.0;;
-	if ( (exp == _exp_saved) && (exp != -999) ) {
-		// We have called this code with the same information before
-		// so don't regenerate the largest_number...
-		largest_number = _largest_number_saved;
-	}
-	else {
-		// Need to compute the largest number.  Using the example above,
-		// we would get 10^4 = 10000 - 1.0 = 9999.99
-		largest_number = Math.pow ( 10, (double)exp ) - 1.0;
-		_largest_number_saved = largest_number;
-		_exp_saved = exp;
-	}
+	// Compute the largest number.  Using the example above,
+	// we would get 10^4 = 10000 - 1.0 = 9999.99
+	// This is not saved between calls so that the method can be called from multiple threads.
+	double largest_number = Math.pow ( 10, (double)exp ) - 1.0;
 	// Handle negative and positive values...
 	double plus_value;
 	if ( value > 0.0 ) {
@@ -393,8 +380,11 @@ private static int __last_units_precision = PRECISION_DEFAULT;
 requested precision.  If negative, use the requested precision (positive value)
 if the resulting number fits into the width of the column.  Otherwise adjust
 the precision to fit.  If PRECISION_USE_UNITS, use the units to determine the precision.
+The last units precision is shared between calls, so the method is synchronized.
+StateMod_TS_LineFormatter.getPrecision() saves the units precision for each file being written and is
+used when writing files.
 */
-public static int getPrecision ( int req_precision, int width, double value, String units )
+public static synchronized int getPrecision ( int req_precision, int width, double value, String units )
 {	// if no units data, call the simple version...
 
 	if ( units == null ) {
@@ -463,7 +453,7 @@ public static List<StringMonthTS> readPatternTimeSeriesList ( String filename, b
 			Message.printDebug ( dl, rtn, "Reading StateMod format pattern file: \"" + full_filename + "\"");
 		}
 		try {
-		    ifp = new BufferedReader ( new FileReader ( full_filename));
+		    ifp = StateMod_Util.getInputReader ( full_filename );
 		}
 		catch ( Exception e ) {
 			message = "Unable to open file \"" + full_filename + "\"";
@@ -801,7 +791,23 @@ throws Exception
 	int data_interval = TimeInterval.MONTH;
 	try {
 		data_interval = getFileDataInterval ( full_fname );
-		in = new BufferedReader ( new InputStreamReader(IOUtil.getInputStream ( full_fname )) );
+		if ( __useFileIndex && !StateMod_Util.isCompressedFile(full_fname) &&
+			!full_fname.toUpperCase().endsWith("XOP") &&
+			((data_interval == TimeInterval.MONTH) || (data_interval == TimeInterval.DAY)) ) {
+			// Read only the header and the lines for the requested identifier.
+			// If the identifier is not found, read the full file, which may contain a single time series.
+			try {
+				String id = new TSIdent(tsident_string).getLocation();
+				in = StateMod_TS_FileIndex.getIndex ( full_fname, data_interval ).createReader ( id );
+			}
+			catch ( Exception e ) {
+				Message.printWarning( 3, routine, "Unable to use index for \"" + full_fname + "\" (" + e + ")." );
+				in = null;
+			}
+		}
+		if ( in == null ) {
+			in = StateMod_Util.getInputReader ( full_fname );
+		}
 	}
 	catch ( Exception e ) {
 		Message.printWarning( 2, routine, "Unable to open file \"" + full_fname + "\"" );
@@ -857,7 +863,7 @@ throws Exception
     }
     data_interval = getFileDataInterval ( full_fname );
     // Let the following thrown FileNotFoundException, etc.
-	in = new BufferedReader ( new InputStreamReader( IOUtil.getInputStream ( full_fname )) );
+	in = StateMod_Util.getInputReader ( full_fname );
 	tslist = readTimeSeriesList ( null, in, full_fname, data_interval, date1, date2, units, read_data );
 	TS ts;
 	int nts = 0;
@@ -877,6 +883,247 @@ throws Exception
 	return tslist;
 }
 
+/**
+Read all the time series from a StateMod format file, parsing the data lines in parallel.
+The file header and the first block of data lines (one line per time series) are read with the sequential
+reader to create the time series.  The file is then read again and the data lines are grouped into batches
+at block boundaries (year for monthly files, year and month for daily files), which are parsed in parallel as
+they are read, each value being set in the preallocated time series.  Only the batches waiting to be parsed
+are kept in memory.  The result is the same as readTimeSeriesList() with read_data=true.
+Files that cannot be processed by block (average monthly files, XOP files, and files where blocks are not
+in increasing date order) are read with the sequential reader.
+The IOUtil.getPathUsingWorkingDir() method is applied to the filename.
+@return a list of time series, or null if the file has no time series.
+@param fname Name of file to read.
+@param date1 Starting date to initialize period (NULL to read the entire time series).
+@param date2 Ending date to initialize period (NULL to read the entire time series).
+@param units Units to convert to.
+@param pool pool to use for parsing, or null to use the common pool.
+@exception Exception if there is an error reading the file.
+*/
+public static List<TS> readTimeSeriesListParallel ( String fname, DateTime date1, DateTime date2, String units,
+	ForkJoinPool pool )
+throws Exception
+{	String routine = "StateMod_TS.readTimeSeriesListParallel";
+	String full_fname = IOUtil.getPathUsingWorkingDir ( fname );
+	int data_interval = getFileDataInterval ( full_fname );
+	if ( StateMod_Util.getUncompressedFilename(full_fname).toUpperCase().endsWith("XOP") ||
+		((data_interval != TimeInterval.MONTH) && (data_interval != TimeInterval.DAY)) ) {
+		return readTimeSeriesList ( fname, date1, date2, units, true );
+	}
+	if ( pool == null ) {
+		pool = ForkJoinPool.commonPool();
+	}
+	// Read the header and first block sequentially to create the time series (reading stops after the first block).
+	BufferedReader in = StateMod_Util.getInputReader ( full_fname );
+	List<TS> tslist = null;
+	try {
+		tslist = readTimeSeriesList ( null, in, full_fname, data_interval, date1, date2, units, false );
+	}
+	finally {
+		in.close();
+	}
+	if ( (tslist == null) || (tslist.size() == 0) ) {
+		return tslist;
+	}
+	for ( TS ts : tslist ) {
+		if ( ts.allocateDataSpace() != 0 ) {
+			// Values cannot be set in parallel without data space so use the sequential reader.
+			Message.printWarning ( 3, routine, "Unable to allocate data space for \"" + ts.getIdentifierString() +
+				"\" - reading sequentially." );
+			return readTimeSeriesList ( fname, date1, date2, units, true );
+		}
+	}
+	// Read the lines and determine the block dates, passing batches of blocks to the pool as they are read
+	// so that only the batches that are being parsed are kept in memory.
+	int numts = tslist.size();
+	int data_column = (data_interval == TimeInterval.DAY) ? 21 : 17;
+	int blocksPerBatch = Math.max ( 1, __PARALLEL_READ_BATCH_LINES/numts );
+	int maxPendingBatches = pool.getParallelism()*2;
+	List<Future<Void>> pendingBatches = new ArrayList<Future<Void>>();
+	List<String> batchLines = new ArrayList<String>();
+	List<DateTime> batchDates = new ArrayList<DateTime>();
+	boolean readSequentially = false;
+	in = StateMod_Util.getInputReader ( full_fname );
+	try {
+		String iline = in.readLine();
+		while ( (iline != null) && iline.startsWith("#") ) {
+			iline = in.readLine();
+		}
+		if ( iline == null ) {
+			return tslist;
+		}
+		// Header, parsed the same as the sequential reader.
+		StateMod_TS_FileHeader header = StateMod_TS_FileHeader.parse ( iline, full_fname );
+		int m1 = header.getMonth1();
+		YearType yeartype = header.getYearType();
+		if ( header.isAverageMonthly() ) {
+			// Average monthly values - all lines are for the same dates so read sequentially.
+			readSequentially = true;
+		}
+		int year, month = m1, blockYear = 0, blockMonth = 0, lineCount = 0;
+		DateTime blockDate = null;
+		DateTime prevBlockDate = null;
+		while ( !readSequentially && ((iline = in.readLine()) != null) ) {
+			if ( iline.startsWith("#") || (iline.length() == 0) ) {
+				// Comments and blank lines are skipped by the sequential reader without changing the time series.
+				continue;
+			}
+			if ( data_interval == TimeInterval.DAY ) {
+				year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 4 );
+				month = StateMod_TS_FixedWidthParser.parseInt ( iline, 4, 4 );
+			}
+			else {
+				year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 5 );
+				if ( yeartype != YearType.CALENDAR ) {
+					year = year - 1;
+				}
+			}
+			if ( (lineCount % numts) == 0 ) {
+				// First line in a block.
+				blockYear = year;
+				blockMonth = month;
+				if ( data_interval == TimeInterval.DAY ) {
+					blockDate = new DateTime ( DateTime.PRECISION_DAY );
+					blockDate.setYear ( year );
+					blockDate.setMonth ( month );
+					blockDate.setDay ( 1 );
+				}
+				else {
+					blockDate = new DateTime ( DateTime.PRECISION_MONTH );
+					blockDate.setYear ( year );
+					blockDate.setMonth ( m1 );
+				}
+				if ( (date2 != null) && blockDate.greaterThan(date2) ) {
+					// The sequential reader stops here.
+					break;
+				}
+				if ( (prevBlockDate != null) && !blockDate.greaterThan(prevBlockDate) ) {
+					Message.printStatus ( 2, routine, "Blocks are not in date order - reading sequentially." );
+					readSequentially = true;
+					break;
+				}
+				if ( batchDates.size() == blocksPerBatch ) {
+					// Batch is full - parse it and start a new batch.
+					if ( pendingBatches.size() == maxPendingBatches ) {
+						readTimeSeriesListParallel_WaitForBatch ( pendingBatches.remove(0), full_fname );
+					}
+					pendingBatches.add ( pool.submit ( readTimeSeriesListParallel_CreateBatchTask (
+						tslist, batchLines, batchDates, data_interval, data_column ) ) );
+					batchLines = new ArrayList<String>();
+					batchDates = new ArrayList<DateTime>();
+				}
+				batchDates.add ( blockDate );
+				prevBlockDate = blockDate;
+			}
+			else if ( (year != blockYear) || (month != blockMonth) ) {
+				// Lines in a block are not for the same date.
+				Message.printStatus ( 2, routine, "Lines in a block are not for the same date - reading sequentially." );
+				readSequentially = true;
+				break;
+			}
+			batchLines.add ( iline );
+			++lineCount;
+		}
+		if ( !readSequentially && (batchDates.size() > 0) ) {
+			pendingBatches.add ( pool.submit ( readTimeSeriesListParallel_CreateBatchTask (
+				tslist, batchLines, batchDates, data_interval, data_column ) ) );
+		}
+	}
+	finally {
+		in.close();
+		if ( readSequentially ) {
+			// The time series will be read again so the batches that were submitted are not needed.
+			for ( Future<Void> batch : pendingBatches ) {
+				batch.cancel ( false );
+			}
+		}
+	}
+	try {
+		while ( !readSequentially && (pendingBatches.size() > 0) ) {
+			readTimeSeriesListParallel_WaitForBatch ( pendingBatches.remove(0), full_fname );
+		}
+	}
+	finally {
+		// Don't leave batches running if a batch failed.
+		for ( Future<Void> batch : pendingBatches ) {
+			batch.cancel ( false );
+		}
+	}
+	if ( readSequentially ) {
+		return readTimeSeriesList ( fname, date1, date2, units, true );
+	}
+	for ( TS ts : tslist ) {
+		ts.setInputName ( full_fname );
+		ts.getIdentifier().setInputName ( fname );
+	}
+	return tslist;
+}
+
+/**
+Create a task to parse a batch of blocks for readTimeSeriesListParallel().
+@param tslist time series in the file, in the order of the lines in each block, with data space allocated.
+@param lines data lines for the batch (one line per time series in each block, the last block may be partial).
+@param blockDates starting date for each block in the batch.
+@param interval file interval (TimeInterval.DAY or TimeInterval.MONTH).
+@param valueColumn column (0+) of the first value on each data line.
+@return the task, which sets the values in the time series.
+*/
+private static Callable<Void> readTimeSeriesListParallel_CreateBatchTask ( final List<TS> tslist,
+	final List<String> lines, final List<DateTime> blockDates, final int interval, final int valueColumn )
+{	return new Callable<Void>() {
+		public Void call () {
+			int numts = tslist.size();
+			DateTime date = new DateTime ( blockDates.get(0) );
+			int ndata_per_line = 12;
+			for ( int iblock = 0; iblock < blockDates.size(); iblock++ ) {
+				int line1 = iblock*numts;
+				int line2 = Math.min ( line1 + numts, lines.size() );
+				for ( int iline = line1; iline < line2; iline++ ) {
+					String line = lines.get(iline);
+					TS ts = tslist.get(iline - line1);
+					DateTime blockDate = blockDates.get(iblock);
+					date.setYear ( blockDate.getYear() );
+					date.setMonth ( blockDate.getMonth() );
+					if ( interval == TimeInterval.DAY ) {
+						date.setDay ( 1 );
+						ndata_per_line = TimeUtil.numDaysInMonth(date.getMonth(), date.getYear() );
+					}
+					for ( int i = 0; i < ndata_per_line; i++ ) {
+						ts.setDataValue ( date, StateMod_TS_FixedWidthParser.parseDouble ( line, valueColumn + i*8, 8 ) );
+						if ( interval == TimeInterval.DAY ) {
+							date.addDay ( 1 );
+						}
+						else {
+							date.addMonth ( 1 );
+						}
+					}
+				}
+			}
+			return null;
+		}
+	};
+}
+
+/**
+Wait for a batch task submitted by readTimeSeriesListParallel() to complete.
+@param batch the batch task.
+@param full_fname full path to the file, used for messages.
+@exception Exception if the batch could not be parsed.
+*/
+private static void readTimeSeriesListParallel_WaitForBatch ( Future<Void> batch, String full_fname )
+throws Exception
+{	String routine = "StateMod_TS.readTimeSeriesListParallel";
+	try {
+		batch.get();
+	}
+	catch ( ExecutionException e ) {
+		String message = "Error parsing data in file \"" + full_fname + "\" (" + e.getCause() + ")";
+		Message.printWarning ( 3, routine, message );
+		throw new Exception ( message + " - CHECK DATA FILE FORMAT.", e.getCause() );
+	}
+}
+
 /**
 Read one or more time series from a StateMod format file.
 @return a list of time series if successful, null if not.  The calling code
@@ -898,12 +1145,12 @@ private static List<TS> readTimeSeriesList ( TS req_ts, BufferedReader in, Strin
 throws Exception
 {	int	dl = 40, i, line_count = 0, m1, m2, y1, y2,
 		currentTSindex, current_month = 1, current_year = 0,
-		doffset = 2, init_month = 1, init_year, ndata_per_line = 12,
+		init_month = 1, init_year, ndata_per_line = 12,
 		numts = 0;
 	String chval, iline = "", routine="StateMod_TS.readTimeSeriesList";
-	List<Object> v = new ArrayList<Object>(15);
+	double value;
 	DateTime date = null;
-	if ( fullFilename.toUpperCase().endsWith("XOP") ) {
+	if ( StateMod_Util.getUncompressedFilename(fullFilename).toUpperCase().endsWith("XOP") ) {
 	    // XOP file is similar to the normal time series format but has some differences
 	    // in that the header is different, station identifier is provided in the header, and
 	    // time series are listed vertically one after another, not interwoven by interval like *.stm
@@ -912,7 +1159,6 @@ throws Exception
 	String fileIntervalString = "";
 	if ( fileInterval == TimeInterval.DAY ) {
 		date = new DateTime ( DateTime.PRECISION_DAY );
-		doffset = 3; // Used when setting data to skip the leading fields on the data line
 		fileIntervalString = "Day";
 	}
 	else if ( fileInterval == TimeInterval.MONTH ){
@@ -963,98 +1209,34 @@ throws Exception
 	
 		// Process the main header line...
 	
-		// SAM:  It looks like some of the replace() files for demandts have the
-		// header line malformatted.  Rather than change all the files, check
-		// for a '/' in the [3] position and adjust the format.  Print a warning at level 1.
-		String format_fileContents = null;
-		if ( iline.charAt(3) == '/' ) {
-			Message.printWarning ( 3, routine,
-			"Non-standard header for file \"" + fullFilename + "\" allowing with work-around." );
-			format_fileContents = "i3x1i4x5i5x1i4s5s5";
-		}
-		else {
-			// Probably formatted correctly...
-			format_fileContents = "i5x1i4x5i5x1i4s5s5";
-		}
+		// Some older files have a non-standard header, which is handled by the header parser.
 		if ( Message.isDebugOn ) {
 			Message.printDebug ( dl, routine, "Parsing line for calperiod: \"" + iline + "\""  );
 		}
-		v = StringUtil.fixedRead ( iline, format_fileContents );
-		m1 = ((Integer)v.get(0)).intValue();
-		y1 = ((Integer)v.get(1)).intValue();
-		m2 = ((Integer)v.get(2)).intValue();
-		y2 = ((Integer)v.get(3)).intValue();
-		if ( fileInterval == TimeInterval.DAY ) {
-			date1_header = new DateTime ( DateTime.PRECISION_DAY );
-			date1_header.setYear ( y1 );
-			date1_header.setMonth ( m1 );
-			date1_header.setDay ( 1 );
-		}
-		else {
-			date1_header = new DateTime ( DateTime.PRECISION_MONTH );
-			date1_header.setYear ( y1 );
-			date1_header.setMonth ( m1 );
-		}
-		if ( fileInterval == TimeInterval.DAY ) {
-			date2_header = new DateTime ( DateTime.PRECISION_DAY );
-			date2_header.setYear ( y2 );
-			date2_header.setMonth ( m2 );
-			date2_header.setDay ( TimeUtil.numDaysInMonth(m2,y2) );
-		}
-		else {
-			date2_header = new DateTime ( DateTime.PRECISION_MONTH );
-			date2_header.setYear ( y2 );
-			date2_header.setMonth ( m2 );
-		}
-		units = ((String)v.get(4)).trim();
-		String yeartypes = ((String)v.get(5)).trim();
-		// Year type is used in one place to initialize the year when
-		// transferring data.  However, it is assumed that m1 is always correct for the year type.
-		if ( yeartypes.equalsIgnoreCase("WYR") ) {
-			yeartype = YearType.WATER;
-		}
-		else if ( yeartypes.equalsIgnoreCase("IYR") ) {
-			yeartype = YearType.NOV_TO_OCT;
-		}
+		StateMod_TS_FileHeader header = StateMod_TS_FileHeader.parse ( iline, fullFilename );
+		m1 = header.getMonth1();
+		y1 = header.getYear1();
+		m2 = header.getMonth2();
+		y2 = header.getYear2();
+		date1_header = header.getDate1 ( fileInterval );
+		date2_header = header.getDate2 ( fileInterval );
+		units = header.getUnits();
+		yeartype = header.getYearType();
 		// year that are specified are used to set the period.
 		if ( Message.isDebugOn ) {
 			Message.printDebug ( dl, routine, "Parsed m1=" + m1 + " y1=" +
-			y1 + " m2=" + m2 + " y2=" + y2 + " units=\"" + units + "\" yeartype=\"" + yeartypes + "\"" );
+			y1 + " m2=" + m2 + " y2=" + y2 + " units=\"" + units + "\" yeartype=\"" + header.getYearTypeString() + "\"" );
 		}
 	
-		int format[] = null;
-		int format_w[] = null;
+		// Data lines are parsed by column:
+		// - monthly "i5s12f8f8..." (year, ID, 12 values)
+		// - daily "i4i4x1s12f8f8..." (year, month, ID, values for the days in the month)
+		// - average monthly files have a blank year, which is not used
+		int idColumn = 5;
+		int valueColumn = 17;
 		if ( fileInterval == TimeInterval.DAY ) {
-			format = new int[35];
-			format_w = new int[35];
-			format[0] = StringUtil.TYPE_INTEGER;
-			format[1] = StringUtil.TYPE_INTEGER;
-			format[2] = StringUtil.TYPE_SPACE;
-			format[3] = StringUtil.TYPE_STRING;
-			for ( int iFormat = 4; iFormat <= 34; ++iFormat ) {
-			    format[iFormat] = StringUtil.TYPE_DOUBLE;
-			}
-			format_w[0] = 4;
-			format_w[1] = 4;
-			format_w[2] = 1;
-			format_w[3] = 12;
-			for ( int iFormat = 4; iFormat <= 34; ++iFormat ) {
-			    format_w[iFormat] = 8;
-			}
-		}
-		else {
-			format = new int[14];
-			format[0] = StringUtil.TYPE_INTEGER;
-			format[1] = StringUtil.TYPE_STRING;
-			for ( int iFormat = 2; iFormat <= 13; ++iFormat ) {
-			    format[iFormat] = StringUtil.TYPE_DOUBLE;
-			}
-			format_w = new int[14];
-			format_w[0] = 5;
-			format_w[1] = 12;
-			for ( int iFormat = 2; iFormat <= 13; ++iFormat ) {
-			    format_w[iFormat] = 8;
-			}
+			idColumn = 9;
+			valueColumn = 21;
 		}
 		if ( y1 == 0 ) {
 			// average monthly series
@@ -1062,8 +1244,7 @@ throws Exception
 			if ( Message.isDebugOn ) {
 				Message.printDebug ( dl, routine, "Found average monthly series" );	
 			}
-	
-			format[0] = StringUtil.TYPE_STRING;	// Year not used.
+
 			current_year = 0; // Start year will be calendar year 0
 			init_year = 0;
 			if ( m2 < m1 ) {
@@ -1202,19 +1383,19 @@ throws Exception
 				}
 			}
 	
-			// Parse the data line...
-			StringUtil.fixedRead ( iline, format, format_w, v );
+			// Parse the data line, values are parsed below...
 			if ( standard_ts ) {
 				// This is monthly and includes year
-				current_year = ( (Integer)v.get(0)).intValue();
 				if ( fileInterval == TimeInterval.DAY ) {
-					current_month = ( (Integer)v.get(1)).intValue();
+					current_year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 4 );
+					current_month = StateMod_TS_FixedWidthParser.parseInt ( iline, 4, 4 );
 					if ( Message.isDebugOn ) {
 						Message.printDebug ( dl, routine,
 						"Found id!  Current date is " + current_year + "-" + current_month );
 					}
 				}
 				else {
+					current_year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 5 );
 					if ( Message.isDebugOn ) {
 						Message.printDebug ( dl, routine, "Found id!  Current year is " + current_year );
 					}
@@ -1228,14 +1409,8 @@ throws Exception
 	
 			// If we are reading the entire file, set id to current id
 			if ( req_id == null ) {
-				if ( fileInterval == TimeInterval.DAY ) {
-					// Have year, month, and then ID...
-					id = ((String)v.get(2)).trim();
-				}
-				else {
-					// Have year, and then ID...
-					id = ((String)v.get(1)).trim();
-				}
+				// Have year, (month for daily), and then ID...
+				id = StateMod_TS_FixedWidthParser.parseString ( iline, idColumn, 12 );
 			}
 	
 			// We are still establishing the list of stations in file
@@ -1399,11 +1574,12 @@ throws Exception
 					ndata_per_line = TimeUtil.numDaysInMonth(date.getMonth(), date.getYear() );
 				}
 				for ( i=0; i < ndata_per_line; i++ ) {
+					value = StateMod_TS_FixedWidthParser.parseDouble ( iline, valueColumn + i*8, 8 );
 					if ( Message.isDebugOn ) {
 						Message.printDebug ( dl, routine, "Setting data value for " +
-						date.toString() + " to " + ((Double)v.get(i + doffset)));
+						date.toString() + " to " + value );
 					}
-					currentTS.setDataValue ( date, ((Double)v.get(i+doffset)).doubleValue());
+					currentTS.setDataValue ( date, value );
 					if ( fileInterval == TimeInterval.DAY ) {
 						date.addDay ( 1 );
 					}
@@ -1424,7 +1600,7 @@ throws Exception
 	}
 	// Post-process the list of time series to handle special cases
 	// - *.tar file has two time series that are otherwise not unique
-	if ( fullFilename.toUpperCase().endsWith(".TAR") ) {
+	if ( StateMod_Util.getUncompressedFilename(fullFilename).toUpperCase().endsWith(".TAR") ) {
 		// Two time series will be found per location:
 		// - set time series property "target=Min" for first time series or "target=Max" for second time series
 		String locIdPrev = null;
@@ -1447,6 +1623,145 @@ throws Exception
 	return tslist;
 }
 
+/**
+Read the data values from a StateMod format file, passing each data line to a visitor rather than
+creating time series.  Only one line of data is in memory at a time, so files that are larger than
+memory can be processed.  Monthly, daily, average monthly, and XOP files can be read.
+The IOUtil.getPathUsingWorkingDir() method is applied to the filename.
+@param fname Name of file to read.
+@param visitor visitor that is called for each data line, which can stop the read by returning false.
+@exception Exception if there is an error reading the file.
+*/
+public static void readTimeSeriesValues ( String fname, StateMod_TS_Visitor visitor )
+throws Exception
+{	String routine = "StateMod_TS.readTimeSeriesValues";
+	String full_fname = IOUtil.getPathUsingWorkingDir ( fname );
+	if ( !IOUtil.fileReadable(full_fname) ) {
+		Message.printWarning( 2, routine, "File is not readable: \"" + full_fname + "\"" );
+		throw new IOException ( "File is not readable: \"" + full_fname + "\"" );
+	}
+	int data_interval = getFileDataInterval ( full_fname );
+	BufferedReader in = StateMod_Util.getInputReader ( full_fname );
+	try {
+		if ( StateMod_Util.getUncompressedFilename(full_fname).toUpperCase().endsWith("XOP") ) {
+			readXTimeSeriesValues ( in, full_fname, data_interval, visitor );
+		}
+		else {
+			readTimeSeriesValues ( in, full_fname, data_interval, visitor );
+		}
+	}
+	finally {
+		in.close();
+	}
+}
+
+/**
+Read the data values from a StateMod format file, passing each data line to a visitor.
+The header and data lines are parsed the same as readTimeSeriesList().
+@param in Reference to open input stream.
+@param fullFilename Full path to filename, used for messages.
+@param fileInterval Indicates the file type (TimeInterval.DAY or TimeInterval.MONTH).
+@param visitor visitor that is called for each data line, which can stop the read by returning false.
+@exception Exception if there is an error reading the file.
+*/
+private static void readTimeSeriesValues ( BufferedReader in, String fullFilename, int fileInterval,
+	StateMod_TS_Visitor visitor )
+throws Exception
+{	String routine = "StateMod_TS.readTimeSeriesValues";
+	DateTime date = null;
+	if ( fileInterval == TimeInterval.DAY ) {
+		date = new DateTime ( DateTime.PRECISION_DAY );
+	}
+	else if ( fileInterval == TimeInterval.MONTH ){
+	    date = new DateTime ( DateTime.PRECISION_MONTH );
+	}
+	else {
+		throw new InvalidParameterException( "Requested file interval is invalid." );
+	}
+	String iline = "";
+	int line_count = 0;
+	try {
+		// Read lines until no more comments are found.  The last line read is the main header line...
+		++line_count;
+		iline = in.readLine();
+		while ( (iline != null) && iline.startsWith("#") ) {
+			++line_count;
+			iline = in.readLine();
+		}
+		if ( (iline == null) || (iline.trim().length() < 1) ) {
+			Message.printWarning ( 2, routine, "Zero length file." );
+			return;
+		}
+
+		// Process the main header line, parsed the same as readTimeSeriesList()...
+		StateMod_TS_FileHeader header = StateMod_TS_FileHeader.parse ( iline, fullFilename );
+		int m1 = header.getMonth1();
+		String units = header.getUnits();
+		boolean calendar_year = (header.getYearType() == YearType.CALENDAR);
+		boolean standard_ts = !header.isAverageMonthly(); // Non-standard indicates 12 monthly averages in file.
+
+		// Data lines are parsed by column:
+		// - monthly "i5s12f8f8..." (year, ID, 12 values)
+		// - daily "i4i4x1s12f8f8..." (year, month, ID, values for the days in the month)
+		// - average monthly files have a blank year, which is not used
+		int idColumn = 5;
+		int valueColumn = 17;
+		if ( fileInterval == TimeInterval.DAY ) {
+			idColumn = 9;
+			valueColumn = 21;
+		}
+		double [] values = new double[31];
+		int current_year = 0, current_month = m1, ndata_per_line = 12;
+		String id;
+		while ( (iline = in.readLine()) != null ) {
+			++line_count;
+			if ( iline.startsWith("#") || (iline.length() == 0) ) {
+				// Comment or blank line...
+				continue;
+			}
+			if ( standard_ts ) {
+				if ( fileInterval == TimeInterval.DAY ) {
+					current_year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 4 );
+					current_month = StateMod_TS_FixedWidthParser.parseInt ( iline, 4, 4 );
+				}
+				else {
+					current_year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 5 );
+				}
+			}
+			id = StateMod_TS_FixedWidthParser.parseString ( iline, idColumn, 12 );
+			if ( fileInterval == TimeInterval.DAY ) {
+				date.setYear ( current_year );
+				date.setMonth ( current_month );
+				date.setDay ( 1 );
+				ndata_per_line = TimeUtil.numDaysInMonth ( current_month, current_year );
+			}
+			else {
+				// The year is for the calendar type so the first month may be in the previous calendar year.
+				// Don't do the shift for average monthly values.
+				if ( standard_ts && !calendar_year ) {
+					date.setYear ( current_year - 1 );
+				}
+				else {
+					date.setYear ( current_year );
+				}
+				date.setMonth ( m1 );
+			}
+			for ( int i = 0; i < ndata_per_line; i++ ) {
+				values[i] = StateMod_TS_FixedWidthParser.parseDouble ( iline, valueColumn + i*8, 8 );
+			}
+			if ( !visitor.visitValues ( id, units, date, values, ndata_per_line ) ) {
+				break;
+			}
+		}
+	}
+	catch ( Exception e ) {
+	    String message = "Error reading file \"" + fullFilename + "\" near line " + line_count + ": " + iline;
+		Message.printWarning ( 3, routine, message );
+		Message.printWarning ( 3, routine, e );
+		throw new Exception ( message + " (" + e + ") - CHECK DATA FILE FORMAT.", e );
+	}
+}
+
 /**
 Read a StateMod time series in an output format, for example the *xop.  This format has one
 time series listed after each other, with a main file header, time series header, and time series data.
@@ -1472,36 +1787,13 @@ throws Exception
         String units = "";
         String id = "", name = "", oprType = "", adminNum = "", source1 = "", dest = "", yearOn = "", yearOff = "", firstMonth = "";
         int pos;
-        List<Object> v = new ArrayList<Object>(14);
-        int format[] = null;
-        int format_w[] = null;
         int dataRowCount = 0; // Initialize for first iteration, value is 0+
         int maxYears = 1500; // Maximum years of data in a time series handled
         int [] yearArray = new int[maxYears];
         double [][] dataArray = new double[maxYears][13]; // handles months and year total
         int year;
-        if ( fileInterval == TimeInterval.MONTH ) {
-            if ( readData ) {
-                format = new int[14];
-                format_w = new int[14];
-            }
-            else {
-                // Only year
-                format = new int[1];
-                format_w = new int[1];
-            }
-            format[0] = StringUtil.TYPE_INTEGER;
-            format_w[0] = 4;
-            if ( readData ) {
-                for ( int iFormat = 1; iFormat <= 13; ++iFormat ) {
-                    format[iFormat] = StringUtil.TYPE_DOUBLE;
-                }
-                for ( int iFormat = 1; iFormat <= 13; ++iFormat ) {
-                    format_w[iFormat] = 8;
-                }
-            }
-        }
-        else {
+        // Data lines are "i4f8f8..." (year, 12 months, and year total)
+        if ( fileInterval != TimeInterval.MONTH ) {
             throw new Exception ( "Do not know how to read daily XOP file." );
         }
         while ( (iline = in.readLine()) != null ) {
@@ -1677,12 +1969,12 @@ throws Exception
                         		") cannot handle data file.  Need to update software code." );
                         }
                         if ( dataRowCount < maxYears ) {
-                            StringUtil.fixedRead ( iline, format, format_w, v );
-                            year = (Integer)v.get(0);
+                            year = StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 4 );
                             yearArray[dataRowCount - 1] = year;
                             if ( readData ) {
                                 for ( int iv = 1; iv < 14; iv++ ) {
-                                    dataArray[dataRowCount - 1][iv - 1] = (Double)v.get(iv);
+                                    dataArray[dataRowCount - 1][iv - 1] =
+                                        StateMod_TS_FixedWidthParser.parseDouble ( iline, 4 + (iv - 1)*8, 8 );
                                 }
                             }
                         }
@@ -1698,6 +1990,133 @@ throws Exception
     return tslist;
 }
 
+/**
+Read the data values from a StateMod time series output file (e.g., *xop), passing each data line to a
+visitor.  The headers and data lines are parsed the same as readXTimeSeriesList().  The annual total at the
+end of each data line is not passed to the visitor.
+@param in Reference to open input stream.
+@param fullFilename Full path to filename, used for messages.
+@param fileInterval Indicates the file type (only TimeInterval.MONTH is supported).
+@param visitor visitor that is called for each data line, which can stop the read by returning false.
+@exception Exception if there is an error reading the file.
+*/
+private static void readXTimeSeriesValues ( BufferedReader in, String fullFilename, int fileInterval,
+    StateMod_TS_Visitor visitor )
+throws Exception
+{   String routine = "StateMod_TS.readXTimeSeriesValues";
+    String iline = "";
+    int lineCount = 0;
+    try {// General error handler
+        boolean inTsHeader = false;
+        boolean inTsData = false;
+        String units = "";
+        String id = "", firstMonth = "";
+        YearType yearType = null; // Determined from the first month for each time series
+        int pos;
+        DateTime date = new DateTime(DateTime.PRECISION_MONTH);
+        double [] values = new double[12];
+        // Data lines are "i4f8f8..." (year, 12 months, and year total)
+        if ( fileInterval != TimeInterval.MONTH ) {
+            throw new Exception ( "Do not know how to read daily XOP file." );
+        }
+        while ( (iline = in.readLine()) != null ) {
+            ++lineCount;
+            // The first checks are expected at the top of the file but blank lines and comments could be anywhere
+            if ( iline.length() == 0 ) {
+                continue;
+            }
+            else if ( iline.charAt(0) == '#' ) {
+                continue;
+            }
+            else if ( !inTsHeader && iline.startsWith(" Operational Right Summary") ) {
+                // Units are after this string - check below
+                inTsHeader = true;
+            }
+            else if ( !inTsHeader && iline.startsWith(" ID =") ) {
+                // Second check to detect when in time series header, in case main header is not as expected
+                inTsHeader = true;
+                // No continue because want to process the line
+            }
+            if ( inTsHeader ) {
+                // Reading the time series header
+                if ( iline.startsWith("_") ) {
+                    // Last line in time series header section
+                    inTsHeader = false;
+                    inTsData = true;
+                }
+                else if ( iline.startsWith(" Operational Right Summary") ) {
+                    // Units are after this string
+                    units = iline.substring(26).trim();
+                }
+                else if ( iline.startsWith(" ID =") ) {
+                    pos = iline.indexOf("ID =");
+                    id = iline.substring((pos+4),(pos+4+20)).trim();
+                    // Identifier cannot contain periods so replace with underscore
+                    id = id.replace('.', '_');
+                }
+                else if ( iline.startsWith("YEAR") ) {
+                    // Mainly interested in first month to know whether calendar
+                    firstMonth = iline.substring(6,14).trim();
+                }
+            }
+            else if ( inTsData ) {
+                // Reading the time series data
+                if ( iline.startsWith("AVG") ) {
+                    // Last line in time series data section - initialize for the next time series
+                    inTsHeader = true;
+                    inTsData = false;
+                    units = "";
+                    id = "";
+                    firstMonth = "";
+                    yearType = null;
+                }
+                else if ( !StringUtil.isInteger(iline.substring(0,4))) {
+                    // Don't know what to do with line
+                    Message.printWarning(3,routine,"Don't know how to parse data line " + lineCount + ": " + iline.trim() );
+                }
+                else {
+                    if ( yearType == null ) {
+                        if ( firstMonth.equalsIgnoreCase("JAN") ) {
+                            yearType = YearType.CALENDAR;
+                        }
+                        else if ( firstMonth.equalsIgnoreCase("OCT") ) {
+                            yearType = YearType.WATER;
+                        }
+                        else if ( firstMonth.equalsIgnoreCase("NOV") ) {
+                            yearType = YearType.NOV_TO_OCT;
+                        }
+                        else {
+                            throw new Exception ( "Do not know how to handle year starting with month " + firstMonth );
+                        }
+                    }
+                    date.setYear ( StateMod_TS_FixedWidthParser.parseInt ( iline, 0, 4 ) + yearType.getStartYearOffset() );
+                    date.setMonth ( yearType.getStartMonth() );
+                    for ( int iMonth = 0; iMonth < 12; iMonth++ ) {
+                        values[iMonth] = StateMod_TS_FixedWidthParser.parseDouble ( iline, 4 + iMonth*8, 8 );
+                    }
+                    if ( !visitor.visitValues ( id, units, date, values, 12 ) ) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+    catch ( Exception e ) {
+        Message.printWarning (3,routine,e);
+        throw new Exception ( "Error reading file near line " + lineCount + ":" + iline + " (" + e + ")", e );
+    }
+}
+
+/**
+Set whether readTimeSeries() uses an index of data line positions (see StateMod_TS_FileIndex), which is saved
+in a sidecar file next to the time series file.  This is useful when many single time series are read from the
+same large file.
+@param useFileIndex if true, use the index (default is false).
+*/
+public static void setUseFileIndex ( boolean useFileIndex )
+{	__useFileIndex = useFileIndex;
+}
+
 /**
 This method writes a monthly pattern file in StateMod format.
 The dates can each be specified as null, in which case, the
@@ -2489,19 +2908,12 @@ throws Exception
 	req_date2.setMonth ( month2 );
 	req_date2.setYear ( year2 );
 
-	// Define string variables for output;
-	// initial_format contains the initial part of each output line
+	// The initial part of each output line is formatted with StateMod_TS_LineFormatter:
 	//	For monthly, either
 	//	"year ID3456789012" (monthly) or
 	//	"     ID3456789012" (average monthly).
 	//	For daily,
 	//	"year  mo ID3456789012"
-	// iline_format_buffer is created on the fly (it depends on precision and initial_format)
-	// These are set in the following section
-	String initial_format;
-	String year_format = "%4d"; // Only used when formatting total to printed
-	String month_format = "%4d"; // Only used when formatting total to printed
-	String id_format = " %-12.12s"; // Only used when formatting total to printed
 
 	// If period of record of interest was not requested, find
 	// period of record that covers all time series...
@@ -2559,14 +2971,6 @@ throws Exception
 			yeartype = "CYR";
 		}
 		format = "   %2d/%4d  -     %2d/%4d%5.5s" + StringUtil.formatString ( yeartype,"%5.5s");
-		// Format for start of line...
-		if ( req_interval_base == TimeInterval.MONTH ) {
-			initial_format = "%4d %-12.12s";
-		}
-		else {
-			// daily...
-			initial_format = "%4d%4d %-12.12s";
-		}
 	}
 	else {
 		// Average monthly...
@@ -2593,7 +2997,6 @@ throws Exception
 			yeartype = "CYR";
 		}
 		format = "   %2d/   0  -     %2d/   0%5.5s" + StringUtil.formatString(yeartype,"%5.5s");
-		initial_format = "     %-12.12s";
 	}
 
 	// Write the header line with the period of record...
@@ -2622,25 +3025,16 @@ throws Exception
 	date.setMonth ( req_date1.getMonth());
 	date.setYear ( req_date1.getYear());
 	int precision = PRECISION_DEFAULT;
-	List<Object> iline_v = null; // Vector for output lines (objects to be formatted).
-	List<String> iline_format_v = null; // Vector for formats for objects.
 	int	ndays; // Number of days in a month.
 	int	mon, day, j; // counters
-	Double DoubleMissingDV = new Double ( MissingDV );
-
-	if ( req_interval_base == TimeInterval.MONTH ) {
-		iline_v = new Vector<Object>(15,1);
-		iline_format_v = new Vector<String>(15,1);
-	}
-	else {
-		// Daily...
-		iline_v = new Vector<Object>(36,1);
-		iline_format_v = new Vector<String>(36,1);
-	}
+	String location; // Location for the time series
+	double printed; // Value as printed, used to compute the total
+	double [] printed_values = new double[31]; // Values as printed on the line
 
-	// Buffer that is used to format each line...
+	// Formatter for each line, which also determines the precision.  A new instance is used for each
+	// call so that no formatting state is shared between threads writing different files.
 
-	StringBuffer iline_format_buffer = new StringBuffer();
+	StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
 	
 	boolean doSumToPrinted = true; // Current default is for total to sum to printed values, not in-memory
 
@@ -2655,39 +3049,21 @@ throws Exception
 		// However, implementation of the .ifm file for the RGDSS has
 		// some huge negative numbers where we don't want the period.
 		// Check here for the requested format and set accordingly...
-		String data_format8 = "%#8.";
-		String data_format10 = "%#10.";
+		boolean force_decimal = true;
 		if ( (req_precision > PRECISION_SPECIAL_OFFSET) || (req_precision*-1 > PRECISION_SPECIAL_OFFSET) ) {
 			int remainder = req_precision%PRECISION_SPECIAL_OFFSET;
 			if ( remainder < 0 ) {
 				remainder *= -1;
 			}
 			if ((remainder & PRECISION_NO_DECIMAL_FOR_LARGE) != 0 ){
-				data_format8 = "%8.";
-				data_format10 = "%10.";
+				force_decimal = false;
 			}
 		}
-		// Put together the formats that could be used.  This is faster
-		// than reformatting for each number to be written.  Although
-		// some will never use, set up the array so that a precision of
-		// "i" will be found in array position "i" - this will
-		// optimize performance.  These formats are slightly different
-		// than the monthly formats - trailing "." is enforced - not sure why?
-		String [] format10_for_precision = new String[11];
-		String [] format8_for_precision = new String[9];
-		for ( int i = 0; i < 11; i++ ) {
-			format10_for_precision[i] = data_format10 + i + "f";
-		}
-		for ( int i = 0; i < 9; i++ ) {
-			format8_for_precision[i] = data_format8 + i + "f";
-		}
 		for ( ; date.lessThanOrEqualTo(req_date2); date.addMonth(12)) {
 			year++;
 			for ( j = 0; j < nseries; j++ ) {
 				cdate.setMonth ( date.getMonth());
 				cdate.setYear ( date.getYear());
-				// First, clear this string out, then append to
-				// it until ready to println to the output file...
 				if ( !include_ts[j] ) {
 					continue;
 				}
@@ -2702,32 +3078,31 @@ throws Exception
 				}
 				annual_sum = 0;
 				annual_count = 0;
-				iline_v.clear();
-				iline_format_v.clear();
-				iline_format_buffer.setLength(0);
-				iline_format_buffer.append ( initial_format );
+				// Format the start of the line:  "%4d %-12.12s" or "     %-12.12s"
+				formatter.clear();
+				location = tsptr.getIdentifier().getLocation();
 				if ( standard_ts ) {
-					iline_v.add( new Integer (year));
-					iline_format_v.add (year_format);
+					formatter.appendInt ( year, 4 );
+					formatter.append ( " " );
+				}
+				else {
+					formatter.append ( "     " );
 				}
-				iline_v.add(tsptr.getIdentifier().getLocation());
-				iline_format_v.add(id_format);
+				formatter.appendString ( location, 12 );
 				
 				for (mon=0; mon <12; mon++) {
 					value = tsptr.getDataValue (cdate);
 					if ( req_precision == PRECISION_USE_UNITS ) {
-						precision = getPrecision ( req_precision, 8, value, units);
+						precision = formatter.getPrecision ( req_precision, 8, value, units);
 					}
 					else {
-						precision = getPrecision ( req_precision, 8,value);
+						precision = formatter.getPrecision ( req_precision, 8,value);
 					}
-					iline_format_buffer.append ( format8_for_precision[precision] );
-					iline_format_v.add(format8_for_precision[precision]);
 	
 					if (tsptr.isDataMissing (value)) {
 						// Missing data so don't add to the annual value.  Print
 						// using the same format as for other data...
-						iline_v.add ( DoubleMissingDV );
+						printed = formatter.appendDouble ( MissingDV, 8, precision, force_decimal );
 						if ( Message.isDebugOn ) {
 							// Wrap to increase performance...
 							Message.printWarning ( 20, rtn, "Missing Data Found in TS at "+
@@ -2737,24 +3112,23 @@ throws Exception
 					else {
 						annual_sum += value;
 						++annual_count;
-						iline_v.add (new Double(value));
+						printed = formatter.appendDouble ( value, 8, precision, force_decimal );
 					}
+					printed_values[mon] = printed;
 					cdate.addMonth(1);
 				}
 	
-				// Add total to output, format and print output line
+				// Add total to output and print output line
 				if ( req_precision == PRECISION_USE_UNITS ) {
-					precision = getPrecision ( req_precision, 10, annual_sum, units );
+					precision = formatter.getPrecision ( req_precision, 10, annual_sum, units );
 				}
 				else {
-					precision = getPrecision ( req_precision, 10, annual_sum );
+					precision = formatter.getPrecision ( req_precision, 10, annual_sum );
 				}
-				iline_format_buffer.append ( format10_for_precision[precision] );
 				// Total value at the end of the line...
-				iline_v.add ( getLineTotal(tsptr,standard_ts,12,iline_v,iline_format_v,req_interval_base,do_total,
-					annual_sum,annual_count,doSumToPrinted));
-				iline = StringUtil.formatString (iline_v, iline_format_buffer.toString());
-				out.println ( iline );
+				formatter.appendDouble ( getLineTotal(tsptr,12,printed_values,do_total,
+					annual_sum,annual_count,doSumToPrinted), 10, precision, force_decimal );
+				formatter.println ( out );
 			}
 		}
 	}
@@ -2765,27 +3139,12 @@ throws Exception
 		// The outer loop iterates on months...
 		int monthly_count = 0;
 		double monthly_sum = 0.0;
-		// Put together the formats that could be used.  This is faster
-		// than reformatting for each number to be written.  Although
-		// some will never use, set up the array so that a precision of
-		// "i" will be found in array position "i" - this will
-		// optimize performance.  These formats are slightly different
-		// than the monthly formats - trailing "." is enforced - not sure why?
-		String [] format10_for_precision = new String[11];
-		String [] format8_for_precision = new String[9];
-		for ( int i = 0; i < 11; i++ ) {
-			format10_for_precision[i] = "%#10." + i + "f";
-		}
-		for ( int i = 0; i < 9; i++ ) {
-			format8_for_precision[i] = "%#8." + i + "f";
-		}
+		// Daily values always include the decimal point ("%#8.Nf" and "%#10.Nf").
 		for ( ; date.lessThanOrEqualTo(req_date2); date.addMonth(1)) {
 			for ( j = 0; j < nseries; j++ ) {
 				// Set the calendar date for daily data...
 				cdate.setMonth ( date.getMonth());
 				cdate.setYear ( date.getYear());
-				// First, clear this string out, then append to
-				// it until ready to println to the output file...
 				if ( !include_ts[j] ) {
 					continue;
 				}
@@ -2796,16 +3155,12 @@ throws Exception
 				}
 				monthly_sum = 0;
 				monthly_count = 0;
-				iline_v.clear();
-				iline_format_v.clear();
-				iline_format_buffer.setLength(0);
-				iline_format_buffer.append ( initial_format );
-				iline_v.add ( new Integer (cdate.getYear()));
-				iline_format_v.add(year_format);
-				iline_v.add( new Integer(cdate.getMonth()));
-				iline_format_v.add(month_format);
-				iline_v.add(tsptr.getIdentifier().getLocation());
-				iline_format_v.add(id_format);
+				// Format the start of the line:  "%4d%4d %-12.12s"
+				formatter.clear();
+				formatter.appendInt ( cdate.getYear(), 4 );
+				formatter.appendInt ( cdate.getMonth(), 4 );
+				formatter.append ( " " );
+				formatter.appendString ( tsptr.getIdentifier().getLocation(), 12 );
 	
 				// StateMod daily time series contain 31 values for every month (months containing
 				// fewer than 31 days use 0s as fillers).
@@ -2820,13 +3175,11 @@ throws Exception
 					    // TODO SAM 2010-02-25 Should this be set to missing?  How does StateMod use it?
 						value = 0.0;
 					}
-					precision = getPrecision ( req_precision,8,value );
-					iline_format_buffer.append(format8_for_precision[precision]);
-					iline_format_v.add(format8_for_precision[precision]);
+					precision = formatter.getPrecision ( req_precision,8,value );
 					if (tsptr.isDataMissing (value)) {
 						// Missing data so don't add to the annual value.  Print
 						// using the same format as for other data...
-						iline_v.add (DoubleMissingDV );
+						printed = formatter.appendDouble ( MissingDV, 8, precision, true );
 						if ( Message.isDebugOn ) {
 							// Wrap to increase performance...
 							Message.printWarning ( 20, rtn, "Missing Data Found in TS at "+
@@ -2839,18 +3192,17 @@ throws Exception
 						    // Don't add to the count for days outside actual days.
 						    ++monthly_count;
 						}
-						iline_v.add (new Double(value));
+						printed = formatter.appendDouble ( value, 8, precision, true );
 					}
+					printed_values[day - 1] = printed;
 				}
 	
-				// Add total onto format line, format, and print
-				precision = getPrecision ( req_precision, 10, monthly_sum );
-				iline_format_buffer.append (format10_for_precision[precision] );
+				// Add total onto the line and print
+				precision = formatter.getPrecision ( req_precision, 10, monthly_sum );
 				// Total value at the end of the line...
-				iline_v.add ( getLineTotal(tsptr,standard_ts,ndays,iline_v,iline_format_v,
-					req_interval_base,do_total,monthly_sum,monthly_count,doSumToPrinted));
-				iline = StringUtil.formatString ( iline_v,iline_format_buffer.toString());
-				out.println ( iline );
+				formatter.appendDouble ( getLineTotal(tsptr,ndays,printed_values,
+					do_total,monthly_sum,monthly_count,doSumToPrinted), 10, precision, true );
+				formatter.println ( out );
 			}
 		}
 	}
@@ -2889,9 +3241,12 @@ throws Exception
 	// Process the header from the old file...
 
 	PrintWriter out = null;
+	// If the output file is compressed, write a temporary file and then compress it.
+	String outfileFull = IOUtil.getPathUsingWorkingDir(outfile);
+	String outfileWrite = StateMod_Util.getTemporaryOutputFilename ( outfileFull );
 	try {
 		out = IOUtil.processFileHeaders (
-			IOUtil.getPathUsingWorkingDir(infile), IOUtil.getPathUsingWorkingDir(outfile),
+			StateMod_Util.getPreviousFilenameForHeaders(IOUtil.getPathUsingWorkingDir(infile)), outfileWrite,
 				newcomments, commentIndicators, ignoredCommentIndicators, 0 );
 		if ( out == null ) {
 			Message.printWarning ( 3, rtn, "Error writing time series to \"" + outfile + "\"" );
@@ -2912,6 +3267,9 @@ throws Exception
 			out.close();
 		}
 	}
+	if ( !outfileWrite.equals(outfileFull) ) {
+		StateMod_Util.compressFile ( outfileWrite, outfileFull );
+	}
 }
 
 /**
@@ -3128,14 +3486,17 @@ throws Exception
 		"\" using \"" + infile + "\" header..." );
 
 	PrintWriter out = null;
+	// If the output file is compressed, write a temporary file and then compress it.
+	String outfileFull = IOUtil.getPathUsingWorkingDir(outfile);
+	String outfileWrite = StateMod_Util.getTemporaryOutputFilename ( outfileFull );
 	try {
 		List<String> commentIndicators = new Vector<String>(1);
 		commentIndicators.add ( "#" );
 		List<String> ignoredCommentIndicators = new Vector<String>(1);
 		ignoredCommentIndicators.add ( "#>");
 		out = IOUtil.processFileHeaders (
-			IOUtil.getPathUsingWorkingDir(infile),
-			IOUtil.getPathUsingWorkingDir(outfile),
+			StateMod_Util.getPreviousFilenameForHeaders(IOUtil.getPathUsingWorkingDir(infile)),
+			outfileWrite,
 			newComments, commentIndicators, ignoredCommentIndicators, 0 );
 		if ( out == null ) {
 			Message.printWarning ( 3, routine, "Error writing time series to \"" + 
@@ -3157,6 +3518,9 @@ throws Exception
 			out.close();
 		}
 	}
+	if ( !outfileWrite.equals(outfileFull) ) {
+		StateMod_Util.compressFile ( outfileWrite, outfileFull );
+	}
 }
 
 }
@@ -0,0 +1,220 @@
+// StateMod_TS_FileHeader - main header line of a StateMod time series file
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+import RTi.Util.Time.TimeUtil;
+import RTi.Util.Time.YearType;
+
+/**
+This class holds the main header line of a StateMod time series file (the first non-comment line), which
+indicates the period, units, and year type for the file, for example:
+<pre>
+    1/1950  -     12/2005 ACFT  CYR
+</pre>
+The header format is "i5x1i4x5i5x1i4s5s5".  Some older files have the header shifted two columns to the left,
+which is detected by a '/' in the [3] position and handled with a work-around ("i3x1i4x5i5x1i4s5s5").
+A year of zero indicates that the file contains 12 average monthly values for each time series.
+*/
+public class StateMod_TS_FileHeader
+{
+
+/**
+Starting month, ending month.
+*/
+private int __month1, __month2;
+
+/**
+Starting year, ending year.
+*/
+private int __year1, __year2;
+
+/**
+Data units.
+*/
+private String __units;
+
+/**
+Year type string from the file ("CYR", "WYR", or "IYR").
+*/
+private String __yearTypeString;
+
+/**
+Year type corresponding to the year type string.
+*/
+private YearType __yearType;
+
+/**
+Construct the header by parsing the header line.
+Use parse() to create an instance.
+*/
+private StateMod_TS_FileHeader ( String line, String fullFilename )
+{	String routine = "StateMod_TS_FileHeader";
+	// SAM:  It looks like some of the replace() files for demandts have the
+	// header line malformatted.  Rather than change all the files, check
+	// for a '/' in the [3] position and adjust the format.
+	int m1Width = 5;
+	if ( (line.length() > 3) && (line.charAt(3) == '/') ) {
+		Message.printWarning ( 3, routine,
+		"Non-standard header for file \"" + fullFilename + "\" allowing with work-around." );
+		m1Width = 3;
+	}
+	__month1 = StateMod_TS_FixedWidthParser.parseInt ( line, 0, m1Width );
+	__year1 = StateMod_TS_FixedWidthParser.parseInt ( line, m1Width + 1, 4 );
+	__month2 = StateMod_TS_FixedWidthParser.parseInt ( line, m1Width + 10, 5 );
+	__year2 = StateMod_TS_FixedWidthParser.parseInt ( line, m1Width + 16, 4 );
+	__units = StateMod_TS_FixedWidthParser.parseString ( line, m1Width + 20, 5 );
+	__yearTypeString = StateMod_TS_FixedWidthParser.parseString ( line, m1Width + 25, 5 );
+	// Year type is used in one place to initialize the year when
+	// transferring data.  However, it is assumed that m1 is always correct for the year type.
+	if ( __yearTypeString.equalsIgnoreCase("WYR") ) {
+		__yearType = YearType.WATER;
+	}
+	else if ( __yearTypeString.equalsIgnoreCase("IYR") ) {
+		__yearType = YearType.NOV_TO_OCT;
+	}
+	else {
+		__yearType = YearType.CALENDAR;
+	}
+}
+
+/**
+Return the first date of the period in the header.
+@param interval file interval (TimeInterval.DAY or TimeInterval.MONTH).
+@return a new date with precision matching the interval (day 1 for daily files).
+*/
+public DateTime getDate1 ( int interval )
+{	DateTime date = null;
+	if ( interval == TimeInterval.DAY ) {
+		date = new DateTime ( DateTime.PRECISION_DAY );
+		date.setYear ( __year1 );
+		date.setMonth ( __month1 );
+		date.setDay ( 1 );
+	}
+	else {
+		date = new DateTime ( DateTime.PRECISION_MONTH );
+		date.setYear ( __year1 );
+		date.setMonth ( __month1 );
+	}
+	return date;
+}
+
+/**
+Return the last date of the period in the header.
+@param interval file interval (TimeInterval.DAY or TimeInterval.MONTH).
+@return a new date with precision matching the interval (last day of the month for daily files).
+*/
+public DateTime getDate2 ( int interval )
+{	DateTime date = null;
+	if ( interval == TimeInterval.DAY ) {
+		date = new DateTime ( DateTime.PRECISION_DAY );
+		date.setYear ( __year2 );
+		date.setMonth ( __month2 );
+		date.setDay ( TimeUtil.numDaysInMonth(__month2,__year2) );
+	}
+	else {
+		date = new DateTime ( DateTime.PRECISION_MONTH );
+		date.setYear ( __year2 );
+		date.setMonth ( __month2 );
+	}
+	return date;
+}
+
+/**
+Return the starting month.
+@return the starting month.
+*/
+public int getMonth1 ()
+{	return __month1;
+}
+
+/**
+Return the ending month.
+@return the ending month.
+*/
+public int getMonth2 ()
+{	return __month2;
+}
+
+/**
+Return the data units.
+@return the data units.
+*/
+public String getUnits ()
+{	return __units;
+}
+
+/**
+Return the starting year, 0 for average monthly files.
+@return the starting year.
+*/
+public int getYear1 ()
+{	return __year1;
+}
+
+/**
+Return the ending year, 0 for average monthly files.
+@return the ending year.
+*/
+public int getYear2 ()
+{	return __year2;
+}
+
+/**
+Return the year type.
+@return the year type, YearType.CALENDAR if the header does not indicate WYR or IYR.
+*/
+public YearType getYearType ()
+{	return __yearType;
+}
+
+/**
+Return the year type string from the header.
+@return the year type string from the header ("CYR", "WYR", or "IYR", or possibly blank).
+*/
+public String getYearTypeString ()
+{	return __yearTypeString;
+}
+
+/**
+Indicate whether the file contains 12 average monthly values for each time series.
+@return true if the file contains average monthly values (the starting year is zero).
+*/
+public boolean isAverageMonthly ()
+{	return __year1 == 0;
+}
+
+/**
+Parse the main header line of a StateMod time series file.
+@param line header line (the first non-comment line in the file).
+@param fullFilename full path to the file, used for messages.
+@return the parsed header.
+*/
+public static StateMod_TS_FileHeader parse ( String line, String fullFilename )
+{	return new StateMod_TS_FileHeader ( line, fullFilename );
+}
+
+}
@@ -0,0 +1,423 @@
+// StateMod_TS_FileIndex - index of data line positions in a StateMod time series file
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import RTi.Util.Message.Message;
+import RTi.Util.Time.TimeInterval;
+
+/**
+This class is an index of the byte offsets of the data lines for each identifier in a StateMod time series
+text file (e.g., *.stm, *.ddh, *.ddd), which allows a single time series to be read by reading only the
+file header and the lines for the time series, rather than reading and skipping every line in the file.
+The identifier is in columns 6-17 (1+) for monthly files and 10-21 for daily files.
+The index is saved in a sidecar file (the time series file name plus ".tsidx") with the file size and
+modification time, and is rebuilt if the time series file changes.  Indexes are also kept in memory so that
+repeated reads from the same file do not reread the sidecar file.
+*/
+public class StateMod_TS_FileIndex
+{
+
+/**
+Extension added to the time series file name for the index file.
+*/
+public static final String INDEX_FILE_EXTENSION = ".tsidx";
+
+/**
+Identifies the index file format.
+*/
+private static final int INDEX_FILE_MAGIC = 0x534d5449; // "SMTI"
+
+/**
+Index file format version.
+*/
+private static final int INDEX_FILE_VERSION = 1;
+
+/**
+Maximum number of indexes kept in memory.  A data set has fewer time series files than this, so the indexes
+for the data set stay in memory, but an application that reads many files does not keep all of the indexes.
+*/
+static final int MAX_CACHED_INDEXES = 64;
+
+/**
+Indexes that have been read or built, by full time series file path, in least recently used order.
+The least recently used index is removed when more than MAX_CACHED_INDEXES are cached, and is read from
+the index file if needed again.  Access must be synchronized on the map.
+*/
+private static final Map<String,StateMod_TS_FileIndex> __indexCache =
+	new LinkedHashMap<String,StateMod_TS_FileIndex>( 16, 0.75f, true ) {
+		private static final long serialVersionUID = 1L;
+		protected boolean removeEldestEntry ( Map.Entry<String,StateMod_TS_FileIndex> eldest ) {
+			return size() > MAX_CACHED_INDEXES;
+		}
+	};
+
+/**
+Full path to the time series file.
+*/
+private String __filename = null;
+
+/**
+Size of the time series file when indexed.
+*/
+private long __fileSize = 0;
+
+/**
+Modification time of the time series file when indexed.
+*/
+private long __fileModified = 0;
+
+/**
+Number of bytes before the first data line (comments and the header line).
+*/
+private long __headerLength = 0;
+
+/**
+Byte offsets of data lines, by upper case identifier.
+*/
+private HashMap<String,long[]> __offsets = null;
+
+/**
+Constructor.
+@param filename full path to the time series file.
+@param fileSize size of the time series file when indexed.
+@param fileModified modification time of the time series file when indexed.
+@param headerLength number of bytes before the first data line.
+@param offsets byte offsets of data lines, by upper case identifier.
+*/
+private StateMod_TS_FileIndex ( String filename, long fileSize, long fileModified, long headerLength,
+	HashMap<String,long[]> offsets )
+{	__filename = filename;
+	__fileSize = fileSize;
+	__fileModified = fileModified;
+	__headerLength = headerLength;
+	__offsets = offsets;
+}
+
+/**
+Build the index by reading the time series file.
+@param filename full path to the time series file.
+@param interval TimeInterval.MONTH or TimeInterval.DAY, to determine the identifier columns.
+@return the index.
+@exception IOException if the file cannot be read.
+*/
+private static StateMod_TS_FileIndex build ( String filename, int interval )
+throws IOException
+{	String routine = "StateMod_TS_FileIndex.build";
+	File file = new File ( filename );
+	long fileSize = file.length();
+	long fileModified = file.lastModified();
+	int idColumn = 5;
+	if ( interval == TimeInterval.DAY ) {
+		idColumn = 9;
+	}
+	HashMap<String,long[]> offsets = new HashMap<>();
+	HashMap<String,Integer> counts = new HashMap<>();
+	long headerLength = -1;
+	boolean haveHeaderLine = false;
+	InputStream in = new BufferedInputStream ( new FileInputStream(file), 65536 );
+	try {
+		// Read lines as bytes so that offsets are byte positions.
+		byte [] line = new byte[1024];
+		int lineLength;
+		long lineStart = 0;
+		long pos = 0;
+		int b;
+		while ( true ) {
+			lineLength = 0;
+			lineStart = pos;
+			while ( ((b = in.read()) >= 0) ) {
+				++pos;
+				if ( b == '\n' ) {
+					break;
+				}
+				if ( lineLength == line.length ) {
+					byte [] line2 = new byte[line.length*2];
+					System.arraycopy ( line, 0, line2, 0, lineLength );
+					line = line2;
+				}
+				line[lineLength++] = (byte)b;
+			}
+			if ( (b < 0) && (lineLength == 0) ) {
+				break;
+			}
+			if ( (lineLength > 0) && (line[lineLength - 1] == '\r') ) {
+				--lineLength;
+			}
+			if ( (lineLength > 0) && (line[0] == '#') ) {
+				// Comment.
+				continue;
+			}
+			if ( !haveHeaderLine ) {
+				// The first non-comment line is the header.
+				haveHeaderLine = true;
+				continue;
+			}
+			if ( lineLength <= idColumn ) {
+				// Blank or short line.
+				continue;
+			}
+			if ( headerLength < 0 ) {
+				headerLength = lineStart;
+			}
+			String id = new String ( line, idColumn, Math.min(12, lineLength - idColumn) ).trim().toUpperCase();
+			long [] idOffsets = offsets.get(id);
+			int count = 0;
+			if ( idOffsets == null ) {
+				idOffsets = new long[16];
+				offsets.put ( id, idOffsets );
+			}
+			else {
+				count = counts.get(id).intValue();
+				if ( count == idOffsets.length ) {
+					long [] idOffsets2 = new long[count*2];
+					System.arraycopy ( idOffsets, 0, idOffsets2, 0, count );
+					idOffsets = idOffsets2;
+					offsets.put ( id, idOffsets );
+				}
+			}
+			idOffsets[count] = lineStart;
+			counts.put ( id, Integer.valueOf(count + 1) );
+		}
+	}
+	finally {
+		in.close();
+	}
+	// Trim the offset arrays to the counts.
+	for ( Map.Entry<String,long[]> entry : offsets.entrySet() ) {
+		int count = counts.get(entry.getKey()).intValue();
+		long [] idOffsets = new long[count];
+		System.arraycopy ( entry.getValue(), 0, idOffsets, 0, count );
+		entry.setValue ( idOffsets );
+	}
+	if ( headerLength < 0 ) {
+		headerLength = fileSize;
+	}
+	Message.printStatus ( 2, routine, "Indexed " + offsets.size() + " identifiers in \"" + filename + "\"." );
+	return new StateMod_TS_FileIndex ( filename, fileSize, fileModified, headerLength, offsets );
+}
+
+/**
+Create a reader that provides the file header lines followed by the data lines for one identifier,
+in file order, which can be parsed the same as the full file.
+@param id identifier to read (case is ignored).
+@return a reader, or null if the identifier is not in the index.
+@exception IOException if the file cannot be read.
+*/
+public BufferedReader createReader ( String id )
+throws IOException
+{	long [] idOffsets = __offsets.get(id.toUpperCase());
+	if ( idOffsets == null ) {
+		return null;
+	}
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	FileChannel channel = FileChannel.open ( Paths.get(__filename), StandardOpenOption.READ );
+	try {
+		// Header.
+		ByteBuffer buffer = ByteBuffer.allocate ( (int)__headerLength );
+		readFully ( channel, buffer, 0 );
+		bytes.write ( buffer.array(), 0, buffer.limit() );
+		// Data lines, read in blocks until the end of line is found.
+		buffer = ByteBuffer.allocate ( 512 );
+		for ( int i = 0; i < idOffsets.length; i++ ) {
+			long pos = idOffsets[i];
+			boolean endOfLine = false;
+			while ( !endOfLine ) {
+				buffer.clear();
+				int n = channel.read ( buffer, pos );
+				if ( n <= 0 ) {
+					// End of file without newline.
+					bytes.write ( '\n' );
+					break;
+				}
+				byte [] array = buffer.array();
+				int len = n;
+				for ( int j = 0; j < n; j++ ) {
+					if ( array[j] == '\n' ) {
+						len = j + 1;
+						endOfLine = true;
+						break;
+					}
+				}
+				bytes.write ( array, 0, len );
+				pos += len;
+			}
+		}
+	}
+	finally {
+		channel.close();
+	}
+	return new BufferedReader ( new InputStreamReader(new ByteArrayInputStream(bytes.toByteArray())) );
+}
+
+/**
+Return the index for a time series file, using the in-memory index or the index file if current,
+or building the index (and writing the index file) if not.  Up to MAX_CACHED_INDEXES recently used
+indexes are kept in memory.
+@param filename full path to the time series file.
+@param interval TimeInterval.MONTH or TimeInterval.DAY, to determine the identifier columns.
+@return the index for the file.
+@exception IOException if the time series file cannot be read.
+*/
+public static StateMod_TS_FileIndex getIndex ( String filename, int interval )
+throws IOException
+{	String routine = "StateMod_TS_FileIndex.getIndex";
+	File file = new File ( filename );
+	long fileSize = file.length();
+	long fileModified = file.lastModified();
+	synchronized ( __indexCache ) {
+		StateMod_TS_FileIndex index = __indexCache.get(filename);
+		if ( (index != null) && (index.__fileSize == fileSize) && (index.__fileModified == fileModified) ) {
+			return index;
+		}
+		String indexFilename = filename + INDEX_FILE_EXTENSION;
+		index = null;
+		if ( new File(indexFilename).exists() ) {
+			try {
+				index = read ( filename, indexFilename );
+			}
+			catch ( Exception e ) {
+				Message.printWarning ( 3, routine, "Unable to read index file \"" + indexFilename + "\" (" + e + ")." );
+			}
+			if ( (index != null) && ((index.__fileSize != fileSize) || (index.__fileModified != fileModified)) ) {
+				// Out of date.
+				index = null;
+			}
+		}
+		if ( index == null ) {
+			index = build ( filename, interval );
+			try {
+				index.write ( indexFilename );
+			}
+			catch ( Exception e ) {
+				Message.printWarning ( 3, routine, "Unable to write index file \"" + indexFilename + "\" (" + e + ")." );
+			}
+		}
+		__indexCache.put ( filename, index );
+		return index;
+	}
+}
+
+/**
+Read an index file.
+@param filename full path to the time series file.
+@param indexFilename full path to the index file.
+@return the index.
+@exception IOException if the index file cannot be read or is not an index file.
+*/
+private static StateMod_TS_FileIndex read ( String filename, String indexFilename )
+throws IOException
+{	DataInputStream in = new DataInputStream ( new BufferedInputStream(new FileInputStream(indexFilename)) );
+	try {
+		if ( (in.readInt() != INDEX_FILE_MAGIC) || (in.readInt() != INDEX_FILE_VERSION) ) {
+			throw new IOException ( "Not a StateMod time series index file or unknown version." );
+		}
+		long fileSize = in.readLong();
+		long fileModified = in.readLong();
+		long headerLength = in.readLong();
+		int nids = in.readInt();
+		HashMap<String,long[]> offsets = new HashMap<>();
+		for ( int i = 0; i < nids; i++ ) {
+			String id = in.readUTF();
+			long [] idOffsets = new long[in.readInt()];
+			for ( int j = 0; j < idOffsets.length; j++ ) {
+				idOffsets[j] = in.readLong();
+			}
+			offsets.put ( id, idOffsets );
+		}
+		return new StateMod_TS_FileIndex ( filename, fileSize, fileModified, headerLength, offsets );
+	}
+	finally {
+		in.close();
+	}
+}
+
+/**
+Read bytes from a channel using a positional read until the buffer is full.
+@param channel channel to read.
+@param buffer buffer to fill.
+@param pos file position of the first byte.
+@exception IOException if the end of file is reached or a read error occurs.
+*/
+private static void readFully ( FileChannel channel, ByteBuffer buffer, long pos )
+throws IOException
+{	while ( buffer.hasRemaining() ) {
+		int n = channel.read ( buffer, pos + buffer.position() );
+		if ( n < 0 ) {
+			throw new IOException ( "Unexpected end of file." );
+		}
+	}
+	buffer.flip();
+}
+
+/**
+Write the index file.
+@param indexFilename full path to the index file.
+@exception IOException if the index file cannot be written.
+*/
+private void write ( String indexFilename )
+throws IOException
+{	DataOutputStream out = new DataOutputStream ( new BufferedOutputStream(new FileOutputStream(indexFilename)) );
+	try {
+		out.writeInt ( INDEX_FILE_MAGIC );
+		out.writeInt ( INDEX_FILE_VERSION );
+		out.writeLong ( __fileSize );
+		out.writeLong ( __fileModified );
+		out.writeLong ( __headerLength );
+		out.writeInt ( __offsets.size() );
+		for ( Map.Entry<String,long[]> entry : __offsets.entrySet() ) {
+			out.writeUTF ( entry.getKey() );
+			long [] idOffsets = entry.getValue();
+			out.writeInt ( idOffsets.length );
+			for ( int j = 0; j < idOffsets.length; j++ ) {
+				out.writeLong ( idOffsets[j] );
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+}
+
+}
@@ -0,0 +1,179 @@
+// StateMod_TS_FixedWidthParser - parse fixed-width fields from StateMod time series files
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+/**
+This class parses fixed-width fields from StateMod time series file lines directly into primitive values,
+without creating intermediate objects.  It is used instead of StringUtil.fixedRead(), which returns a list of
+Integer, Double, and String objects for every line, when reading large time series files.
+Fields are specified by starting column (0+) and width.  As with StringUtil.fixedRead(), the part of a field
+past the end of the line is treated as blank, and blank numeric fields are returned as zero.
+Numbers with up to 18 significant digits and no exponent are converted without creating objects;
+other numbers are converted with Double.parseDouble(), so results are always the same as
+Double.parseDouble() on the trimmed field.
+*/
+public class StateMod_TS_FixedWidthParser
+{
+
+/**
+Powers of ten that can be represented exactly as double.
+*/
+private static final double [] POWERS_OF_TEN = {
+	1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10,
+	1.0e11, 1.0e12, 1.0e13, 1.0e14, 1.0e15, 1.0e16, 1.0e17, 1.0e18, 1.0e19, 1.0e20, 1.0e21, 1.0e22
+};
+
+/**
+Largest mantissa that can be represented exactly as double (2^53).
+*/
+private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+/**
+Parse a double from a fixed-width field.
+@param line line to parse.
+@param start starting column of the field (0+).
+@param width width of the field.
+@return the value, or zero if the field is blank.
+@exception NumberFormatException if the field is not a number.
+*/
+public static double parseDouble ( String line, int start, int width )
+{	int end = Math.min ( start + width, line.length() );
+	// Skip leading and trailing blanks.
+	while ( (start < end) && (line.charAt(start) <= ' ') ) {
+		++start;
+	}
+	while ( (end > start) && (line.charAt(end - 1) <= ' ') ) {
+		--end;
+	}
+	if ( start == end ) {
+		return 0.0;
+	}
+	int i = start;
+	boolean negative = false;
+	char c = line.charAt(i);
+	if ( (c == '-') || (c == '+') ) {
+		negative = (c == '-');
+		++i;
+	}
+	long mantissa = 0;
+	boolean haveDigit = false;
+	int ndigits = 0;
+	int nfractionDigits = 0;
+	boolean haveDecimal = false;
+	for ( ; i < end; i++ ) {
+		c = line.charAt(i);
+		if ( (c >= '0') && (c <= '9') ) {
+			haveDigit = true;
+			if ( (mantissa != 0) || (c != '0') ) {
+				++ndigits;
+			}
+			mantissa = mantissa*10 + (c - '0');
+			if ( haveDecimal ) {
+				++nfractionDigits;
+			}
+			if ( ndigits > 18 ) {
+				break;
+			}
+		}
+		else if ( (c == '.') && !haveDecimal ) {
+			haveDecimal = true;
+		}
+		else {
+			// Exponent or invalid character.
+			break;
+		}
+	}
+	if ( (i < end) || !haveDigit || (mantissa > MAX_EXACT_MANTISSA) ||
+		(nfractionDigits >= POWERS_OF_TEN.length) ) {
+		// Not handled above - let Java parse (and throw NumberFormatException for bad input).
+		return Double.parseDouble ( line.substring(start, end) );
+	}
+	// Both values are exact so the division is correctly rounded, as with Double.parseDouble().
+	double value = (double)mantissa/POWERS_OF_TEN[nfractionDigits];
+	if ( negative ) {
+		return -value;
+	}
+	return value;
+}
+
+/**
+Parse an integer from a fixed-width field.
+@param line line to parse.
+@param start starting column of the field (0+).
+@param width width of the field.
+@return the value, or zero if the field is blank.
+@exception NumberFormatException if the field is not an integer.
+*/
+public static int parseInt ( String line, int start, int width )
+{	int end = Math.min ( start + width, line.length() );
+	while ( (start < end) && (line.charAt(start) <= ' ') ) {
+		++start;
+	}
+	while ( (end > start) && (line.charAt(end - 1) <= ' ') ) {
+		--end;
+	}
+	if ( start == end ) {
+		return 0;
+	}
+	int i = start;
+	boolean negative = false;
+	char c = line.charAt(i);
+	if ( (c == '-') || (c == '+') ) {
+		negative = (c == '-');
+		++i;
+	}
+	if ( (i == end) || ((end - i) > 9) ) {
+		// Sign only or possibly too large - let Java parse (and throw NumberFormatException for bad input).
+		return Integer.parseInt ( line.substring(start, end) );
+	}
+	int value = 0;
+	for ( ; i < end; i++ ) {
+		c = line.charAt(i);
+		if ( (c < '0') || (c > '9') ) {
+			return Integer.parseInt ( line.substring(start, end) );
+		}
+		value = value*10 + (c - '0');
+	}
+	if ( negative ) {
+		return -value;
+	}
+	return value;
+}
+
+/**
+Parse a string from a fixed-width field.
+@param line line to parse.
+@param start starting column of the field (0+).
+@param width width of the field.
+@return the trimmed field, or an empty string if the field is past the end of the line.
+*/
+public static String parseString ( String line, int start, int width )
+{	int end = Math.min ( start + width, line.length() );
+	if ( start >= end ) {
+		return "";
+	}
+	return line.substring(start, end).trim();
+}
+
+}
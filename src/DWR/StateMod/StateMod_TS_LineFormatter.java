@@ -0,0 +1,282 @@
+// StateMod_TS_LineFormatter - format lines of StateMod time series files into a reusable buffer
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.PrintWriter;
+
+import RTi.Util.IO.DataFormat;
+import RTi.Util.IO.DataUnits;
+import RTi.Util.String.StringUtil;
+
+/**
+This class formats the fields of StateMod time series file data lines into a reusable character buffer,
+without creating format strings, object lists, or line strings for each line.
+One instance is used for each file being written and must not be shared between threads.
+The output is the same as formatting the line with StringUtil.formatString() and the formats used in
+StateMod files ("%4d", "%-12.12s", "%#8.2f", etc.).
+Floating point values are converted directly when the rounded result is unambiguous,
+which is the case for nearly all values.  Values that are within rounding tolerance of a tie
+(e.g., 0.125 with precision 2), negative values that round to zero, values that do not fit in the field width,
+and special values (NaN, infinity) are formatted with StringUtil.formatString() so that the
+output is always the same as StringUtil.formatString().
+The precision for values is determined with the same rules as StateMod_TS.getPrecision(), but the
+information that is saved between calls (the units precision) is kept in the instance.
+*/
+public class StateMod_TS_LineFormatter
+{
+
+/**
+Powers of ten that can be represented exactly as double, indexed by precision.
+*/
+private static final double [] POWERS_OF_TEN = {
+	1.0e0, 1.0e1, 1.0e2, 1.0e3, 1.0e4, 1.0e5, 1.0e6, 1.0e7, 1.0e8, 1.0e9, 1.0e10
+};
+
+/**
+Largest scaled value (value*10^precision) that is converted directly.  Below this value the
+error in the scaled value is much less than the tolerance used to detect ties.
+*/
+private static final double MAX_SCALED_VALUE = 1.0e9;
+
+/**
+Tolerance used to detect values that are close to a rounding tie.
+*/
+private static final double TIE_TOLERANCE = 1.0e-6;
+
+/**
+Buffer containing the line being formatted.
+*/
+private char [] __line = new char[512];
+
+/**
+Number of characters in the line buffer.
+*/
+private int __length = 0;
+
+/**
+Buffer used to convert numbers, filled from the end.
+*/
+private char [] __digits = new char[32];
+
+/**
+Units used in the last units precision lookup.
+*/
+private String __lastUnits = "";
+
+/**
+Precision for the last units lookup.
+*/
+private int __lastUnitsPrecision = StateMod_TS.PRECISION_DEFAULT;
+
+/**
+Constructor.
+*/
+public StateMod_TS_LineFormatter ()
+{
+}
+
+/**
+Append characters to the line.
+@param s string to append.
+*/
+public void append ( String s )
+{	int len = s.length();
+	ensureCapacity ( len );
+	s.getChars ( 0, len, __line, __length );
+	__length += len;
+}
+
+/**
+Append a floating point value to the line, equivalent to formatting with "%#W.Pf" or "%W.Pf".
+@param value value to format.
+@param width width of the field.
+@param precision number of digits after the decimal point.
+@param forceDecimal if true, always include the decimal point (the "#" flag), even if the precision is zero.
+@return the value as printed (the value that would be read back from the file).
+*/
+public double appendDouble ( double value, int width, int precision, boolean forceDecimal )
+{	if ( (precision >= 0) && (precision < POWERS_OF_TEN.length) && !Double.isNaN(value) && !Double.isInfinite(value) ) {
+		boolean negative = (Double.doubleToRawLongBits(value) < 0);
+		double scaled = Math.abs(value)*POWERS_OF_TEN[precision];
+		if ( scaled < MAX_SCALED_VALUE ) {
+			double floor = Math.floor ( scaled );
+			double fraction = scaled - floor;
+			long rounded = (long)floor;
+			if ( fraction > 0.5 ) {
+				++rounded;
+			}
+			if ( (Math.abs(fraction - 0.5) > TIE_TOLERANCE) && (!negative || (rounded != 0)) ) {
+				// Fill the digits from the end: fraction digits, decimal point, integer digits, sign.
+				int pos = __digits.length;
+				long remaining = rounded;
+				for ( int i = 0; i < precision; i++ ) {
+					__digits[--pos] = (char)('0' + (remaining%10));
+					remaining /= 10;
+				}
+				if ( (precision > 0) || forceDecimal ) {
+					__digits[--pos] = '.';
+				}
+				do {
+					__digits[--pos] = (char)('0' + (remaining%10));
+					remaining /= 10;
+				} while ( remaining > 0 );
+				if ( negative ) {
+					__digits[--pos] = '-';
+				}
+				int len = __digits.length - pos;
+				if ( len <= width ) {
+					ensureCapacity ( width );
+					for ( int i = len; i < width; i++ ) {
+						__line[__length++] = ' ';
+					}
+					System.arraycopy ( __digits, pos, __line, __length, len );
+					__length += len;
+					// Division of exact integers gives the same result as parsing the printed string.
+					double printed = (precision == 0) ? (double)rounded : rounded/POWERS_OF_TEN[precision];
+					return negative ? -printed : printed;
+				}
+			}
+		}
+	}
+	// Use the general formatter for cases that are not handled above.
+	String formatted = StringUtil.formatString ( value, (forceDecimal ? "%#" : "%") + width + "." + precision + "f" );
+	append ( formatted );
+	return Double.parseDouble ( formatted );
+}
+
+/**
+Append an integer to the line, right-justified in the field, equivalent to formatting with "%Wd".
+@param value value to format.
+@param width width of the field.
+*/
+public void appendInt ( int value, int width )
+{	int pos = __digits.length;
+	long remaining = Math.abs((long)value);
+	do {
+		__digits[--pos] = (char)('0' + (remaining%10));
+		remaining /= 10;
+	} while ( remaining > 0 );
+	if ( value < 0 ) {
+		__digits[--pos] = '-';
+	}
+	int len = __digits.length - pos;
+	ensureCapacity ( Math.max(len, width) );
+	for ( int i = len; i < width; i++ ) {
+		__line[__length++] = ' ';
+	}
+	System.arraycopy ( __digits, pos, __line, __length, len );
+	__length += len;
+}
+
+/**
+Append a string to the line, left-justified and truncated to the field width,
+equivalent to formatting with "%-W.Ws".
+@param s string to format.
+@param width width of the field.
+*/
+public void appendString ( String s, int width )
+{	int len = Math.min ( s.length(), width );
+	ensureCapacity ( width );
+	s.getChars ( 0, len, __line, __length );
+	__length += len;
+	for ( int i = len; i < width; i++ ) {
+		__line[__length++] = ' ';
+	}
+}
+
+/**
+Clear the line so that a new line can be formatted.
+*/
+public void clear ()
+{	__length = 0;
+}
+
+/**
+Make sure that the line buffer can hold the requested number of additional characters.
+@param count number of characters to be added.
+*/
+private void ensureCapacity ( int count )
+{	if ( (__length + count) > __line.length ) {
+		char [] line = new char[Math.max(__line.length*2, __length + count)];
+		System.arraycopy ( __line, 0, line, 0, __length );
+		__line = line;
+	}
+}
+
+/**
+Return the precision to use to output a value, using the same rules as StateMod_TS.getPrecision().
+@param req_precision the requested precision.  If 0 or positive, then use the
+requested precision.  If negative, use the requested precision (positive value)
+if the resulting number fits into the width of the column.  Otherwise adjust the precision to fit.
+@param width width of the field.
+@param value value to be formatted.
+@return the precision to use to output the value.
+*/
+public int getPrecision ( int req_precision, int width, double value )
+{	return StateMod_TS.getPrecision ( req_precision, width, value );
+}
+
+/**
+Return the precision to use to output a value, using the same rules as StateMod_TS.getPrecision().
+The precision for the units is saved in this instance so that it is only looked up once for each file.
+@param req_precision the requested precision.  If 0 or positive, then use the
+requested precision.  If negative, use the requested precision (positive value)
+if the resulting number fits into the width of the column.  Otherwise adjust
+the precision to fit.  If PRECISION_USE_UNITS, use the units to determine the precision.
+@param width width of the field.
+@param value value to be formatted.
+@param units data units for the value.
+@return the precision to use to output the value.
+*/
+public int getPrecision ( int req_precision, int width, double value, String units )
+{	if ( (units == null) || units.equals("") ) {
+		return StateMod_TS.getPrecision ( req_precision, width, value );
+	}
+	if ( units.equalsIgnoreCase(__lastUnits) ) {
+		return __lastUnitsPrecision;
+	}
+	try {
+		DataFormat units_format = DataUnits.getOutputFormat( units, width);
+		__lastUnits = units;
+		__lastUnitsPrecision = units_format.getPrecision();
+	}
+	catch ( Exception e ) {
+		// Could not get units so return the requested precision without checking units...
+		return StateMod_TS.getPrecision ( req_precision, width, value );
+	}
+	// Same as StateMod_TS.getPrecision() - the first lookup uses the default precision.
+	return StateMod_TS.getPrecision ( StateMod_TS.PRECISION_DEFAULT, width, value );
+}
+
+/**
+Write the line to the output, followed by a line separator, and clear the line.
+@param out output to write to.
+*/
+public void println ( PrintWriter out )
+{	out.write ( __line, 0, __length );
+	out.println ();
+	__length = 0;
+}
+
+}
@@ -0,0 +1,47 @@
+// StateMod_TS_Visitor - interface to receive data values as a StateMod time series file is read
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import RTi.Util.Time.DateTime;
+
+/**
+This interface is implemented by classes that process StateMod time series files one data line at a time,
+using StateMod_TS.readTimeSeriesValues().  Time series are not created, so files larger than memory can be
+processed, for example to compute totals, find missing data, or convert to another format.
+*/
+public interface StateMod_TS_Visitor {
+    /**
+     * Called for each data line in the file, in file order.  The date and values array are reused for each
+     * call and must be copied if they are needed after the call returns.
+     * @param id location identifier for the time series (periods are replaced with underscores for XOP files).
+     * @param units data units for the time series.
+     * @param date date of the first value on the line, with month precision for monthly files
+     * (the first month of the year type, with year 0 for average monthly files) and day precision for daily files.
+     * @param values data values for consecutive intervals starting at the date, as read from the file.
+     * @param numValues number of values in the array that are used (12 for monthly files, or the number of
+     * days in the month for daily files).
+     * @return true to continue reading the file, or false to stop reading.
+     */
+    boolean visitValues ( String id, String units, DateTime date, double [] values, int numValues );
+}
@@ -0,0 +1,445 @@
+// StateMod_TimeSeriesSnapshot - binary snapshot (cache) of only the time series read for a StateMod data set
+
+/* NoticeStart
+
+CDSS Models Java Library
+CDSS Models Java Library is a part of Colorado's Decision Support Systems (CDSS)
+Copyright (C) 1994-2019 Colorado Department of Natural Resources
+
+CDSS Models Java Library is free software:  you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    CDSS Models Java Library is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with CDSS Models Java Library.  If not, see <https://www.gnu.org/licenses/>.
+
+NoticeEnd */
+
+package DWR.StateMod;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Vector;
+
+import RTi.TS.TS;
+import RTi.TS.TSUtil;
+import RTi.Util.Message.Message;
+import RTi.Util.Time.DateTime;
+
+/**
+This class reads and writes a binary snapshot of the time series that are read for a StateMod data set.
+The snapshot is a time series only cache.
+Parsing the fixed-width time series files is the main cost of reading a data set, so StateMod_DataSet
+can save the time series to a snapshot file (see StateMod_DataSet.setUseTimeSeriesSnapshot()) and use the
+snapshot the next time the data set is read.
+Each time series file in the snapshot is keyed by the absolute path, size, and modification time of the file.
+If any of these have changed, the snapshot is not used for the file and the file is parsed as usual.
+Time series values are stored as primitive doubles.  Time series properties (e.g., the "target" property
+set for reservoir target time series) are stored if their values are strings, integers, doubles, or booleans.
+Time series lists that have properties with other value types are not added to the snapshot.
+Stations, rights, delay tables, and the network are not in the snapshot - they are always parsed from the
+data set files and are connected to the time series in the usual way after reading.
+*/
+public class StateMod_TimeSeriesSnapshot
+{
+
+/**
+File extension added to the response file name for the snapshot file.
+*/
+public static final String SNAPSHOT_FILE_EXTENSION = ".tssnapshot";
+
+/**
+String at the start of the snapshot file, to check the format.
+*/
+private static final String SNAPSHOT_MAGIC = "StateMod_TimeSeriesSnapshot";
+
+/**
+Snapshot format version, incremented when the format changes so that older snapshots are ignored.
+*/
+private static final int SNAPSHOT_VERSION = 2;
+
+/**
+Size of time series files (bytes), with the absolute path as the key.
+*/
+private HashMap<String,Long> __fileSizes = new HashMap<String,Long>();
+
+/**
+Modification time of time series files (milliseconds), with the absolute path as the key.
+*/
+private HashMap<String,Long> __fileModifiedTimes = new HashMap<String,Long>();
+
+/**
+Time series lists, with the absolute path as the key.
+*/
+private HashMap<String,List<TS>> __tslists = new HashMap<String,List<TS>>();
+
+/**
+Indicates whether time series were added that were not in a previous snapshot, meaning that the snapshot
+should be written.
+*/
+private boolean __changed = false;
+
+/**
+Construct an empty snapshot.
+*/
+public StateMod_TimeSeriesSnapshot ()
+{
+}
+
+/**
+Add a time series list to the snapshot.  The size and modification time of the file are saved with the list.
+The list is not added if any time series has a property that cannot be saved (see isPropertySupported()).
+@param filename time series file that was read.
+@param tslist time series read from the file.
+@param fromSnapshot true if the time series were read from a previous snapshot, false if the file was parsed
+(in which case the snapshot is marked as changed).
+*/
+public synchronized void addTimeSeriesList ( String filename, List<TS> tslist, boolean fromSnapshot )
+{	File f = new File ( filename ).getAbsoluteFile();
+	String path = f.getPath();
+	for ( TS ts : tslist ) {
+		HashMap<String,Object> properties = ts.getProperties();
+		if ( properties == null ) {
+			continue;
+		}
+		for ( Map.Entry<String,Object> property : properties.entrySet() ) {
+			if ( !isPropertySupported(property.getValue()) ) {
+				Message.printStatus ( 2, "StateMod_TimeSeriesSnapshot.addTimeSeriesList",
+					"Time series property \"" + property.getKey() + "\" cannot be saved in snapshot - not using snapshot for \"" +
+					path + "\"" );
+				return;
+			}
+		}
+	}
+	__fileSizes.put ( path, new Long(f.length()) );
+	__fileModifiedTimes.put ( path, new Long(f.lastModified()) );
+	__tslists.put ( path, tslist );
+	if ( !fromSnapshot ) {
+		__changed = true;
+	}
+}
+
+/**
+Return the time series list for a file, if the file has not changed since the snapshot was saved.
+The list is removed from the snapshot so that the time series are only used once.
+@param filename time series file.
+@return the time series list, or null if the file is not in the snapshot or has changed.
+*/
+public synchronized List<TS> getTimeSeriesList ( String filename )
+{	File f = new File ( filename ).getAbsoluteFile();
+	String path = f.getPath();
+	List<TS> tslist = __tslists.remove ( path );
+	if ( tslist == null ) {
+		return null;
+	}
+	Long size = __fileSizes.get ( path );
+	Long modifiedTime = __fileModifiedTimes.get ( path );
+	if ( !f.exists() || (size == null) || (size.longValue() != f.length()) ||
+		(modifiedTime == null) || (modifiedTime.longValue() != f.lastModified()) ) {
+		Message.printStatus ( 2, "StateMod_TimeSeriesSnapshot.getTimeSeriesList",
+			"File has changed since snapshot was saved - not using snapshot for \"" + path + "\"" );
+		return null;
+	}
+	return tslist;
+}
+
+/**
+Indicate whether time series were added that were not in a previous snapshot.
+@return true if the snapshot should be written.
+*/
+public synchronized boolean isChanged ()
+{	return __changed;
+}
+
+/**
+Indicate whether a time series property value can be saved in the snapshot.
+@param value property value.
+@return true if the value is a String, Integer, Double, or Boolean.
+*/
+private static boolean isPropertySupported ( Object value )
+{	return (value instanceof String) || (value instanceof Integer) || (value instanceof Double) ||
+		(value instanceof Boolean);
+}
+
+/**
+Read a string written by writeString().
+@param in input stream.
+@return the string, which may be null.
+@exception IOException if there is an error reading.
+*/
+private static String readString ( DataInputStream in )
+throws IOException
+{	if ( !in.readBoolean() ) {
+		return null;
+	}
+	return in.readUTF();
+}
+
+/**
+Read a snapshot file.
+@param snapshotFilename name of the snapshot file.
+@return the snapshot, or null if the file does not exist or is not a current snapshot.
+@exception Exception if there is an error reading the snapshot.
+*/
+public static StateMod_TimeSeriesSnapshot readSnapshot ( String snapshotFilename )
+throws Exception
+{	String routine = "StateMod_TimeSeriesSnapshot.readSnapshot";
+	File f = new File ( snapshotFilename );
+	if ( !f.exists() ) {
+		return null;
+	}
+	StateMod_TimeSeriesSnapshot snapshot = new StateMod_TimeSeriesSnapshot ();
+	DataInputStream in = null;
+	try {
+		in = new DataInputStream ( new BufferedInputStream(new FileInputStream(f)) );
+		if ( !SNAPSHOT_MAGIC.equals(in.readUTF()) || (in.readInt() != SNAPSHOT_VERSION) ) {
+			Message.printStatus ( 2, routine, "File is not a current snapshot - ignoring \"" + snapshotFilename + "\"" );
+			return null;
+		}
+		int nfiles = in.readInt();
+		for ( int ifile = 0; ifile < nfiles; ifile++ ) {
+			String path = in.readUTF();
+			long size = in.readLong();
+			long modifiedTime = in.readLong();
+			int nbytes = in.readInt();
+			File tsfile = new File ( path );
+			if ( !tsfile.exists() || (tsfile.length() != size) || (tsfile.lastModified() != modifiedTime) ) {
+				// Time series file has changed so skip its time series...
+				int nskipped = 0;
+				while ( nskipped < nbytes ) {
+					int n = in.skipBytes ( nbytes - nskipped );
+					if ( n <= 0 ) {
+						throw new EOFException ( "Unexpected end of snapshot file \"" + snapshotFilename + "\"" );
+					}
+					nskipped += n;
+				}
+				continue;
+			}
+			int nts = in.readInt();
+			List<TS> tslist = new Vector<TS>(nts);
+			for ( int its = 0; its < nts; its++ ) {
+				tslist.add ( readTimeSeries(in) );
+			}
+			snapshot.__fileSizes.put ( path, new Long(size) );
+			snapshot.__fileModifiedTimes.put ( path, new Long(modifiedTime) );
+			snapshot.__tslists.put ( path, tslist );
+		}
+	}
+	finally {
+		if ( in != null ) {
+			in.close();
+		}
+	}
+	return snapshot;
+}
+
+/**
+Read a time series written by writeTimeSeries().
+@param in input stream.
+@return the time series.
+@exception Exception if there is an error reading.
+*/
+private static TS readTimeSeries ( DataInputStream in )
+throws Exception
+{	String tsid = in.readUTF();
+	TS ts = TSUtil.newTimeSeries ( tsid, true );
+	ts.setIdentifier ( tsid );
+	ts.setDescription ( readString(in) );
+	ts.setDataUnits ( readString(in) );
+	ts.setDataUnitsOriginal ( readString(in) );
+	ts.setInputName ( readString(in) );
+	ts.setMissing ( in.readDouble() );
+	String date1 = readString(in);
+	String date2 = readString(in);
+	String date1Original = readString(in);
+	String date2Original = readString(in);
+	if ( date1Original != null ) {
+		ts.setDate1Original ( DateTime.parse(date1Original) );
+	}
+	if ( date2Original != null ) {
+		ts.setDate2Original ( DateTime.parse(date2Original) );
+	}
+	int nproperties = in.readInt();
+	for ( int i = 0; i < nproperties; i++ ) {
+		String name = in.readUTF();
+		char type = in.readChar();
+		if ( type == 'S' ) {
+			ts.setProperty ( name, in.readUTF() );
+		}
+		else if ( type == 'I' ) {
+			ts.setProperty ( name, new Integer(in.readInt()) );
+		}
+		else if ( type == 'D' ) {
+			ts.setProperty ( name, new Double(in.readDouble()) );
+		}
+		else if ( type == 'B' ) {
+			ts.setProperty ( name, Boolean.valueOf(in.readBoolean()) );
+		}
+		else {
+			throw new IOException ( "Unknown property type '" + type + "' for time series property \"" + name + "\"" );
+		}
+	}
+	int nvalues = in.readInt();
+	if ( (date1 != null) && (date2 != null) ) {
+		ts.setDate1 ( DateTime.parse(date1) );
+		ts.setDate2 ( DateTime.parse(date2) );
+		ts.allocateDataSpace();
+		int intervalBase = ts.getDataIntervalBase();
+		int intervalMult = ts.getDataIntervalMult();
+		DateTime date = new DateTime ( ts.getDate1() );
+		for ( int i = 0; i < nvalues; i++, date.addInterval(intervalBase, intervalMult) ) {
+			ts.setDataValue ( date, in.readDouble() );
+		}
+	}
+	ts.addToGenesis ( "Read time series from snapshot of \"" + ts.getInputName() + "\"" );
+	return ts;
+}
+
+/**
+Write the snapshot file.  The file is written to a temporary file first and then renamed so that a partial
+snapshot is never used.
+@param snapshotFilename name of the snapshot file.
+@exception IOException if there is an error writing the snapshot.
+*/
+public synchronized void writeSnapshot ( String snapshotFilename )
+throws IOException
+{	File f = new File ( snapshotFilename );
+	File tmp = new File ( snapshotFilename + ".tmp" );
+	DataOutputStream out = null;
+	try {
+		out = new DataOutputStream ( new BufferedOutputStream(new FileOutputStream(tmp)) );
+		out.writeUTF ( SNAPSHOT_MAGIC );
+		out.writeInt ( SNAPSHOT_VERSION );
+		out.writeInt ( __tslists.size() );
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		for ( String path : __tslists.keySet() ) {
+			// Write the time series for the file to a buffer so that the length can be written first,
+			// which allows skipping the time series for changed files when reading.
+			bytes.reset();
+			DataOutputStream tsout = new DataOutputStream ( bytes );
+			List<TS> tslist = __tslists.get ( path );
+			tsout.writeInt ( tslist.size() );
+			for ( TS ts : tslist ) {
+				writeTimeSeries ( tsout, ts );
+			}
+			tsout.flush();
+			out.writeUTF ( path );
+			out.writeLong ( __fileSizes.get(path).longValue() );
+			out.writeLong ( __fileModifiedTimes.get(path).longValue() );
+			out.writeInt ( bytes.size() );
+			bytes.writeTo ( out );
+		}
+	}
+	finally {
+		if ( out != null ) {
+			out.close();
+		}
+	}
+	if ( f.exists() && !f.delete() ) {
+		throw new IOException ( "Unable to replace snapshot file \"" + snapshotFilename + "\"" );
+	}
+	if ( !tmp.renameTo(f) ) {
+		throw new IOException ( "Unable to rename \"" + tmp.getPath() + "\" to \"" + snapshotFilename + "\"" );
+	}
+	__changed = false;
+}
+
+/**
+Write a string that may be null.
+@param out output stream.
+@param s string to write.
+@exception IOException if there is an error writing.
+*/
+private static void writeString ( DataOutputStream out, String s )
+throws IOException
+{	out.writeBoolean ( s != null );
+	if ( s != null ) {
+		out.writeUTF ( s );
+	}
+}
+
+/**
+Write a time series, including its properties and data values.
+@param out output stream.
+@param ts time series to write.
+@exception IOException if there is an error writing.
+*/
+private static void writeTimeSeries ( DataOutputStream out, TS ts )
+throws IOException
+{	out.writeUTF ( ts.getIdentifier().toString(true) );
+	writeString ( out, ts.getDescription() );
+	writeString ( out, ts.getDataUnits() );
+	writeString ( out, ts.getDataUnitsOriginal() );
+	writeString ( out, ts.getInputName() );
+	out.writeDouble ( ts.getMissing() );
+	DateTime date1 = ts.getDate1();
+	DateTime date2 = ts.getDate2();
+	writeString ( out, (date1 == null) ? null : date1.toString() );
+	writeString ( out, (date2 == null) ? null : date2.toString() );
+	writeString ( out, (ts.getDate1Original() == null) ? null : ts.getDate1Original().toString() );
+	writeString ( out, (ts.getDate2Original() == null) ? null : ts.getDate2Original().toString() );
+	// Properties, which were checked with isPropertySupported() when the list was added...
+	HashMap<String,Object> properties = ts.getProperties();
+	if ( properties == null ) {
+		properties = new HashMap<String,Object>();
+	}
+	out.writeInt ( properties.size() );
+	for ( Map.Entry<String,Object> property : properties.entrySet() ) {
+		Object value = property.getValue();
+		out.writeUTF ( property.getKey() );
+		if ( value instanceof String ) {
+			out.writeChar ( 'S' );
+			out.writeUTF ( (String)value );
+		}
+		else if ( value instanceof Integer ) {
+			out.writeChar ( 'I' );
+			out.writeInt ( ((Integer)value).intValue() );
+		}
+		else if ( value instanceof Double ) {
+			out.writeChar ( 'D' );
+			out.writeDouble ( ((Double)value).doubleValue() );
+		}
+		else if ( value instanceof Boolean ) {
+			out.writeChar ( 'B' );
+			out.writeBoolean ( ((Boolean)value).booleanValue() );
+		}
+		else {
+			throw new IOException ( "Time series property \"" + property.getKey() + "\" type is not supported in snapshot." );
+		}
+	}
+	if ( (date1 == null) || (date2 == null) ) {
+		out.writeInt ( 0 );
+		return;
+	}
+	int intervalBase = ts.getDataIntervalBase();
+	int intervalMult = ts.getDataIntervalMult();
+	int nvalues = 0;
+	DateTime date = new DateTime ( date1 );
+	for ( ; date.lessThanOrEqualTo(date2); date.addInterval(intervalBase, intervalMult) ) {
+		++nvalues;
+	}
+	out.writeInt ( nvalues );
+	date = new DateTime ( date1 );
+	for ( int i = 0; i < nvalues; i++, date.addInterval(intervalBase, intervalMult) ) {
+		out.writeDouble ( ts.getDataValue(date) );
+	}
+}
+
+}
@@ -146,13 +146,27 @@ NoticeEnd */
 
 package DWR.StateMod;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.swing.JFrame;
 
+import DWR.StateCU.StateCU_IrrigationPracticeTS;
+
 import RTi.TS.DayTS;
 import RTi.TS.MonthTS;
 import RTi.TS.TS;
@@ -229,6 +243,27 @@ public static final String STATION_TYPE_STREAMESTIMATE = "Stream Estimate Statio
 public static final String STATION_TYPE_STREAMGAGE = "Stream Gage Station";
 public static final String STATION_TYPE_WELL = "Well";
 
+/**
+File extension for gzip-compressed files.
+*/
+public static final String GZIP_FILE_EXTENSION = ".gz";
+
+/**
+File extension for Zstandard-compressed files, which are recognized but not supported.
+*/
+public static final String ZSTD_FILE_EXTENSION = ".zst";
+
+/**
+Buffer size used when reading and writing compressed files.
+*/
+private static final int COMPRESSION_BUFFER_SIZE = 65536;
+
+/**
+Minimum list size for which indexOf() uses a data set component identifier index.  Smaller lists are
+searched directly because finding the component costs about as much as the search.
+*/
+private static final int ID_INDEX_MIN_SIZE = 50;
+
 /**
 Used for looking up properties for data types which do not have separate components.
 */
@@ -612,6 +647,22 @@ See the system/StateModGUI.cfg file for configuration properties.
 */
 private static String __smdeltaExecutable = "SmDelta";
 
+/**
+Add an object to a group, using the upper-case key.
+@param groups groups of objects.
+@param key key for the group (case-insensitive).
+@param object object to add to the group.
+*/
+private static <T> void addToGroup ( HashMap<String,List<T>> groups, String key, T object )
+{	key = key.toUpperCase();
+	List<T> group = groups.get ( key );
+	if ( group == null ) {
+		group = new Vector<T>(1);
+		groups.put ( key, group );
+	}
+	group.add ( object );
+}
+
 /**
 Turns an array of Strings into a list of Strings.
 */
@@ -755,6 +806,20 @@ public static String[] checkForMissingValues( String[] data )
 	return data;
 }
 
+/**
+Check whether the compression type for a file is supported.
+Only gzip compression is supported because it is provided by Java without additional libraries.
+@param filename Name of file.
+@exception IOException if the file uses a compression type that is not supported.
+*/
+private static void checkCompressionSupported ( String filename )
+throws IOException
+{	if ( filename.toLowerCase().endsWith(ZSTD_FILE_EXTENSION) ) {
+		throw new IOException ( "Zstandard compression is not supported for \"" + filename +
+			"\" - use gzip compression (" + GZIP_FILE_EXTENSION + ")." );
+	}
+}
+
 // TODO SAM 2005-03-03 This simple test needs to be evaluated to determine
 // if it should be supported in all the file types.  For example, this code
 // could be moved to each StateMod class.
@@ -946,6 +1011,52 @@ throws Exception
 	return v;
 }
 
+/**
+Compress a file using gzip, for example to create a compressed file after writing with IOUtil.processFileHeaders(),
+and then remove the uncompressed file.
+@param filename Name of the uncompressed file.
+@param compressedFilename Name of the compressed file to create (see isCompressedFile()).
+@exception IOException if the file cannot be compressed or the compression type is not supported.
+*/
+public static void compressFile ( String filename, String compressedFilename )
+throws IOException
+{	checkCompressionSupported ( compressedFilename );
+	InputStream in = new FileInputStream ( filename );
+	try {
+		OutputStream out = new GZIPOutputStream ( new FileOutputStream ( compressedFilename ), COMPRESSION_BUFFER_SIZE );
+		try {
+			byte [] buffer = new byte[COMPRESSION_BUFFER_SIZE];
+			int n;
+			while ( (n = in.read(buffer)) > 0 ) {
+				out.write ( buffer, 0, n );
+			}
+		}
+		finally {
+			out.close();
+		}
+	}
+	finally {
+		in.close();
+	}
+	if ( !new File(filename).delete() ) {
+		Message.printWarning ( 3, "StateMod_Util.compressFile", "Unable to delete \"" + filename + "\"." );
+	}
+}
+
+/**
+Create the compressed output file after writing a file that was opened with processFileHeaders().
+If the output file is not compressed, nothing is done.
+@param filename Name of the output file, as passed to processFileHeaders() (see isCompressedFile()).
+@exception IOException if the file cannot be compressed.
+*/
+public static void compressOutputFile ( String filename )
+throws IOException
+{	String writeFilename = getTemporaryOutputFilename ( filename );
+	if ( !writeFilename.equals(filename) ) {
+		compressFile ( writeFilename, filename );
+	}
+}
+
 /**
 Create a label for a single data objects, for use in choices, etc.
 @return a String containing formatted identifiers and names.
@@ -973,6 +1084,25 @@ public static String createDataLabel ( StateMod_Data smdata, boolean include_nam
 	}
 }
 
+/**
+Create groups of data objects, using the upper-case "cgoto" as the key.  This is used to connect rights
+to stations in one pass (see createTSLocationGroups()).
+@param dataList list of data objects (e.g., rights).
+@return groups of data objects, in the original order, or null if the list is null.
+*/
+public static <T extends StateMod_Data> HashMap<String,List<T>> createCgotoGroups ( List<T> dataList )
+{	if ( dataList == null ) {
+		return null;
+	}
+	HashMap<String,List<T>> groups = new HashMap<String,List<T>>();
+	for ( T data : dataList ) {
+		if ( (data != null) && (data.getCgoto() != null) ) {
+			addToGroup ( groups, data.getCgoto(), data );
+		}
+	}
+	return groups;
+}
+
 /**
 Create a list of data objects, for use in choices, etc -- this method differs
 from createDataList in that it contains the Cgoto instead of the ID.
@@ -1341,6 +1471,77 @@ public static List<String> createIdentifierListFromTS ( List<TS> tslist, boolean
 	return v;
 }
 
+/**
+Create groups of irrigation practice time series, using the upper-case identifier as the key.
+This is used to connect time series to stations in one pass (see createTSLocationGroups()).
+@param tslist list of irrigation practice time series.
+@return groups of time series, in the original order, or null if the list is null.
+*/
+public static HashMap<String,List<StateCU_IrrigationPracticeTS>> createIrrigationPracticeTSGroups (
+	List<StateCU_IrrigationPracticeTS> tslist )
+{	if ( tslist == null ) {
+		return null;
+	}
+	HashMap<String,List<StateCU_IrrigationPracticeTS>> groups = new HashMap<String,List<StateCU_IrrigationPracticeTS>>();
+	for ( StateCU_IrrigationPracticeTS ts : tslist ) {
+		if ( (ts != null) && (ts.getID() != null) ) {
+			addToGroup ( groups, ts.getID(), ts );
+		}
+	}
+	return groups;
+}
+
+/**
+Create groups of time series, using the upper-case time series location as the key.
+Station connect methods (e.g., StateMod_Diversion.connectDemandMonthTS()) search a list for matching
+time series.  Passing only the group for a station's identifier gives the same result as passing
+the full list, so all stations can be connected in one pass through the time series.
+@param tslist list of time series.
+@return groups of time series, in the original order, or null if the list is null.
+*/
+public static <T extends TS> HashMap<String,List<T>> createTSLocationGroups ( List<T> tslist )
+{	if ( tslist == null ) {
+		return null;
+	}
+	HashMap<String,List<T>> groups = new HashMap<String,List<T>>();
+	for ( T ts : tslist ) {
+		if ( (ts != null) && (ts.getLocation() != null) ) {
+			addToGroup ( groups, ts.getLocation(), ts );
+		}
+	}
+	return groups;
+}
+
+/**
+Create pairs of time series, using the time series location as the key.  Each pair is the
+first time series for the location and the time series that follows it in the list (if any), which is
+how minimum/maximum reservoir target time series are connected (see StateMod_Reservoir.connectTargetMonthTS()).
+The location is used with its original case because the reservoir connect methods match the location
+exactly, so locations that only differ in case must not share a pair.
+@param tslist list of time series.
+@return time series pairs, or null if the list is null.
+*/
+public static <T extends TS> HashMap<String,List<T>> createTSLocationPairs ( List<T> tslist )
+{	if ( tslist == null ) {
+		return null;
+	}
+	HashMap<String,List<T>> pairs = new HashMap<String,List<T>>();
+	int size = tslist.size();
+	T ts;
+	String key;
+	for ( int i = 0; i < size; i++ ) {
+		ts = tslist.get(i);
+		if ( (ts == null) || (ts.getLocation() == null) ) {
+			continue;
+		}
+		key = ts.getLocation();
+		if ( !pairs.containsKey(key) ) {
+			pairs.put ( key, tslist.subList(i, Math.min(i + 2, size)) );
+		}
+	}
+	return pairs;
+}
+
 // TODO smalers 2019-06-01 generics could be done better but don't want to break TSUtil
 /**
 Create a sum of the time series in a list, representing the total water for
@@ -3058,6 +3259,33 @@ public static List<? extends StateMod_Data> getDataList (
 	return dataList;
 }
 
+/**
+Return the group of objects for a key, from groups created by createTSLocationGroups() or similar methods.
+The key is first matched exactly (e.g., for createTSLocationPairs(), which uses the original case) and then
+in upper case (e.g., for createTSLocationGroups(), which groups locations that only differ in case, so that
+the station connect methods can apply their own case comparison to the group).
+@param groups groups of objects, or null.
+@param key key for the group.
+@return the group of objects, an empty list if no objects match the key, or null if the groups are null
+(consistent with passing a null list to station connect methods).
+*/
+public static <T> List<T> getGroup ( HashMap<String,List<T>> groups, String key )
+{	if ( groups == null ) {
+		return null;
+	}
+	List<T> group = null;
+	if ( key != null ) {
+		group = groups.get ( key );
+		if ( group == null ) {
+			group = groups.get ( key.toUpperCase() );
+		}
+	}
+	if ( group == null ) {
+		return Collections.emptyList();
+	}
+	return group;
+}
+
 /**
 Return a list of identifiers given a list of StateMod data.
 @param smdataList list of StateMod data objects
@@ -3088,6 +3316,45 @@ public static Validator[] getIDValidators()
 	return new Validator[] { Validators.notBlankValidator(), Validators.regexValidator( "^[0-9a-zA-Z\\._]+$" ) };
 }
 
+/**
+Return a reader for a StateMod or StateCU input file, decompressing the file as it is read if the file
+is gzip-compressed (see getInputStream()).
+@param filename Name of file to read.
+@return a reader for the file contents.
+@exception IOException if the file cannot be opened.
+*/
+public static BufferedReader getInputReader ( String filename )
+throws IOException
+{	return new BufferedReader ( new InputStreamReader ( getInputStream ( filename ) ) );
+}
+
+/**
+Return an input stream for a StateMod or StateCU input file.  If the filename ends in ".gz" or the file
+starts with the gzip signature, the file is decompressed as it is read, so that compressed files can be
+used without first being decompressed to temporary files.  If the file does not exist but a file with the
+same name plus ".gz" does, the compressed file is read.
+@param filename Name of file to read.
+@return an input stream for the (uncompressed) file contents.
+@exception IOException if the file cannot be opened or the compression type is not supported.
+*/
+public static InputStream getInputStream ( String filename )
+throws IOException
+{	checkCompressionSupported ( filename );
+	if ( !new File(filename).exists() && new File(filename + GZIP_FILE_EXTENSION).exists() ) {
+		filename = filename + GZIP_FILE_EXTENSION;
+	}
+	InputStream in = new BufferedInputStream ( IOUtil.getInputStream ( filename ), COMPRESSION_BUFFER_SIZE );
+	// Check the gzip signature (0x1f, 0x8b) so that compressed files without the extension are handled.
+	in.mark ( 2 );
+	int b1 = in.read();
+	int b2 = in.read();
+	in.reset();
+	if ( ((b1 == 0x1f) && (b2 == 0x8b)) || filename.toLowerCase().endsWith(GZIP_FILE_EXTENSION) ) {
+		return new GZIPInputStream ( in, COMPRESSION_BUFFER_SIZE );
+	}
+	return in;
+}
+
 /**
 Helper method to return general validators for numbers.
 @return List of Validators.
@@ -3110,6 +3377,22 @@ public static Validator[] getOnOffSwitchValidator()
 	return new Validator[] { Validators.notBlankValidator(), Validators.or( orValidator ) };
 }
 
+/**
+Return the name of the previous version of a file to use when processing file headers with
+IOUtil.processFileHeaders().  Compressed files cannot be read by IOUtil.processFileHeaders() so null is
+returned for compressed files, in which case the comments from the previous file are not carried forward.
+@param filename Name of the previous version of the file, can be null.
+@return the name of the previous file to use, or null if none can be used.
+*/
+public static String getPreviousFilenameForHeaders ( String filename )
+{	if ( isCompressedFile(filename) ) {
+		Message.printStatus ( 2, "StateMod_Util.getPreviousFilenameForHeaders",
+			"Previous file \"" + filename + "\" is compressed - not carrying forward its header comments." );
+		return null;
+	}
+	return filename;
+}
+
 /**
 Return the list of water rights for a station.  The "cgoto" value in the water
 rights is compared with the supplied station identifier.
@@ -3798,6 +4081,24 @@ public static List<String> getTimeSeriesDataTypes ( String binary_filename,
 	return data_types;
 }
 
+/**
+Return the name of the file to write before compressing, when writing a compressed file with a method,
+such as IOUtil.processFileHeaders(), that writes an uncompressed file.
+If the output file is compressed, a temporary file in the same folder is returned
+and compressFile() should be called to create the compressed file after the temporary file is written.
+@param filename Name of the output file.
+@return the name of the file to write (the original filename if it is not compressed).
+@exception IOException if the compression type is not supported.
+*/
+public static String getTemporaryOutputFilename ( String filename )
+throws IOException
+{	checkCompressionSupported ( filename );
+	if ( !isCompressedFile(filename) ) {
+		return filename;
+	}
+	return getUncompressedFilename(filename) + ".tmp";
+}
+
 /**
 Determine the output precision for a list of time series (e.g., for use with the
 time series write methods or to display data in a table).  The default is to get
@@ -3840,6 +4141,19 @@ public static int getTimeSeriesOutputPrecision ( List<TS> tslist )
 	return precision;
 }
 
+/**
+Return the filename without the compression extension (e.g., "file.stm" for "file.stm.gz"),
+for example to check the file extension for the file contents.
+@param filename Name of file.
+@return the filename without the compression extension, or the original filename if not compressed.
+*/
+public static String getUncompressedFilename ( String filename )
+{	if ( isCompressedFile(filename) ) {
+		return filename.substring ( 0, filename.lastIndexOf('.') );
+	}
+	return filename;
+}
+
 // TODO - might move this to a different class once the network builder falls into place.
 /**
 Determine the nodes that are immediately upstream of a given downstream node.
@@ -4166,6 +4480,19 @@ public static int [] getWaterRightParcelYearList ( List<? extends StateMod_WellR
 	return parcel_years;
 }
 
+/**
+Indicate whether a file is compressed, based on the file extension (".gz" for gzip or ".zst" for Zstandard).
+@param filename Name of file.
+@return true if the file is compressed.
+*/
+public static boolean isCompressedFile ( String filename )
+{	if ( filename == null ) {
+		return false;
+	}
+	String filenameLower = filename.toLowerCase();
+	return filenameLower.endsWith(GZIP_FILE_EXTENSION) || filenameLower.endsWith(ZSTD_FILE_EXTENSION);
+}
+
 /**
 Works in coordination with getDailyTimeSeries - make sure to keep in sync
 @return whether daily time series is available or not, based on rules for getting daily TS
@@ -4257,6 +4584,8 @@ public static boolean isVersionAtLeast ( String version, String knownVersion )
 /**
 Find the position of a StateMod_Data object in the data list, using the
 identifier.  The position for the first match is returned.
+If the list is the data for a data set component, the component's identifier index is used
+(see StateMod_DataSetComponent.indexOf()), which avoids searching the list.
 @return the position, or -1 if not found.
 @param id StateMod_Data identifier.
 */
@@ -4268,6 +4597,12 @@ public static int indexOf ( List<? extends StateMod_Data> data, String id )
 	if ( data != null ) {
 		size = data.size();
 	}
+	if ( size >= ID_INDEX_MIN_SIZE ) {
+		StateMod_DataSetComponent comp = lookupDataSetComponentForData ( data );
+		if ( comp != null ) {
+			return comp.indexOf ( data, id );
+		}
+	}
 	StateMod_Data d = null;
 	for (int i = 0; i < size; i++) {
 		d = data.get(i);
@@ -4438,17 +4773,34 @@ Locates the index of a data object derived from StateMod_Data in a Vector.
 @return index or -999 when not found
 */
 public static <T extends StateMod_Data> int locateIndexFromID(String ID, List<T> theData) {
-	int num = 0;
-	if (theData != null) {
-		num = theData.size();
+	int index = indexOf ( theData, ID );
+	if ( index < 0 ) {
+		return StateMod_Data.MISSING_INT;
 	}
-	
-	for (int i = 0; i < num; i++) {
-		if (ID.equalsIgnoreCase( theData.get(i).getID())) {
-			return i;
-		}
+	return index;
+}
+
+/**
+Return the data set component that has the specified list as its data, so that the component's
+identifier index can be used.  The component is determined from the data type and owning data set
+of the first object.
+@param data list of StateMod_Data objects.
+@return the data set component that uses the list, or null if the list is not component data.
+*/
+private static StateMod_DataSetComponent lookupDataSetComponentForData ( List<? extends StateMod_Data> data )
+{	if ( (data == null) || (data.size() == 0) ) {
+		return null;
 	}
-	return StateMod_Data.MISSING_INT;
+	StateMod_Data d = data.get(0);
+	if ( (d == null) || (d.getOwningDataSet() == null) ) {
+		return null;
+	}
+	StateMod_DataSet dataset = d.getOwningDataSet();
+	DataSetComponent comp = dataset.getComponentForComponentType ( d.getStateMod_DataType() );
+	if ( (comp instanceof StateMod_DataSetComponent) && ((StateMod_DataSetComponent)comp).isComponentData(data) ) {
+		return (StateMod_DataSetComponent)comp;
+	}
+	return null;
 }
 
 /**
@@ -7109,6 +7461,28 @@ private static String lookupWellRightPropValue(String propType, String field) {
 	return null;
 }
 
+/**
+Open an output file and process its header using IOUtil.processFileHeaders(), allowing for compressed
+input and output files.  Header comments are not carried forward from a compressed previous file (see
+getPreviousFilenameForHeaders()).  If the output file is compressed, a temporary uncompressed file is
+opened (see getTemporaryOutputFilename()) and compressOutputFile() must be called after the returned
+PrintWriter is closed to create the compressed file.
+@param oldFile Name of the previous version of the file, used to carry forward header comments, can be null.
+@param newFile Name of the output file.
+@param newComments New comments to add to the header.
+@param commentIndicators Strings that indicate comment lines.
+@param ignoredCommentIndicators Strings that indicate comment lines that are not carried forward.
+@param flags Flags passed to IOUtil.processFileHeaders().
+@return the PrintWriter for the output file.
+@exception IOException if the file cannot be opened or the compression type is not supported.
+*/
+public static PrintWriter processFileHeaders ( String oldFile, String newFile, List<String> newComments,
+	List<String> commentIndicators, List<String> ignoredCommentIndicators, int flags )
+throws IOException
+{	return IOUtil.processFileHeaders ( getPreviousFilenameForHeaders(oldFile), getTemporaryOutputFilename(newFile),
+		newComments, commentIndicators, ignoredCommentIndicators, flags );
+}
+
 /**
 Removes all the objects that match the specified object (with a compareTo() call) from the list.
 @param v the list from which to remove the element.
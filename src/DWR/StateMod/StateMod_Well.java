@@ -143,9 +143,9 @@ package DWR.StateMod;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Vector;
 
@@ -362,6 +362,9 @@ public void addDepletion(StateMod_ReturnFlow depl)
 		return;
 	}
 	_depl.add(depl);
+	if ( isBulkEdit() ) {
+		return;
+	}
 	setDirty ( true );
 	if ( !_isClone && _dataset != null ) {
 		_dataset.setDirty(StateMod_DataSet.COMP_WELL_STATIONS, true);
@@ -378,6 +381,9 @@ public void addReturnFlow(StateMod_ReturnFlow rivret)
 		return;
 	}
 	_rivret.add(rivret);
+	if ( isBulkEdit() ) {
+		return;
+	}
 	setDirty ( true );
 	if ( !_isClone && _dataset != null ) {
 		_dataset.setDirty(StateMod_DataSet.COMP_WELL_STATIONS, true);
@@ -656,6 +662,8 @@ public static void connectAllRights ( List<StateMod_Well> wells, List<StateMod_W
 		return;
 	}
 	int num_wells = wells.size();
+	// Group the rights by well so that each well only checks its own rights...
+	HashMap<String,List<StateMod_WellRight>> rightsGroups = StateMod_Util.createCgotoGroups ( rights );
 	
 	StateMod_Well well = null;
 	for (int i = 0; i < num_wells; i++) {
@@ -663,7 +671,7 @@ public static void connectAllRights ( List<StateMod_Well> wells, List<StateMod_W
 		if (well == null) {
 			continue;
 		}
-		well.connectRights(rights);
+		well.connectRights(StateMod_Util.getGroup(rightsGroups,well._id));
 	}
 }
 
@@ -681,6 +689,15 @@ public static void connectAllTS ( List<StateMod_Well> wells, List<MonthTS> pumpi
 	}
 
 	int num_wells = wells.size();
+	// Group the time series by location so that each well only checks its own time series...
+	HashMap<String,List<MonthTS>> pumping_MonthTS_groups = StateMod_Util.createTSLocationGroups ( pumping_MonthTS );
+	HashMap<String,List<DayTS>> pumping_DayTS_groups = StateMod_Util.createTSLocationGroups ( pumping_DayTS );
+	HashMap<String,List<MonthTS>> demand_MonthTS_groups = StateMod_Util.createTSLocationGroups ( demand_MonthTS );
+	HashMap<String,List<DayTS>> demand_DayTS_groups = StateMod_Util.createTSLocationGroups ( demand_DayTS );
+	HashMap<String,List<StateCU_IrrigationPracticeTS>> ipy_YearTS_groups =
+		StateMod_Util.createIrrigationPracticeTSGroups ( ipy_YearTS );
+	HashMap<String,List<MonthTS>> cwr_MonthTS_groups = StateMod_Util.createTSLocationGroups ( cwr_MonthTS );
+	HashMap<String,List<DayTS>> cwr_DayTS_groups = StateMod_Util.createTSLocationGroups ( cwr_DayTS );
 	
 	StateMod_Well well = null;
 	for (int i = 0; i < num_wells; i++) {
@@ -688,26 +705,27 @@ public static void connectAllTS ( List<StateMod_Well> wells, List<MonthTS> pumpi
 		if (well == null) {
 			continue;
 		}
+		// Daily time series are connected using "cdividyw"
 		if ( pumping_MonthTS != null ) {
-			well.connectPumpingMonthTS(pumping_MonthTS);
+			well.connectPumpingMonthTS(StateMod_Util.getGroup(pumping_MonthTS_groups,well._id));
 		}
 		if ( pumping_DayTS != null ) {
-			well.connectPumpingDayTS(pumping_DayTS);
+			well.connectPumpingDayTS(StateMod_Util.getGroup(pumping_DayTS_groups,well._cdividyw));
 		}
 		if ( demand_MonthTS != null ) {
-			well.connectDemandMonthTS(demand_MonthTS);
+			well.connectDemandMonthTS(StateMod_Util.getGroup(demand_MonthTS_groups,well._id));
 		}
 		if ( demand_DayTS != null ) {
-			well.connectDemandDayTS(demand_DayTS);
+			well.connectDemandDayTS(StateMod_Util.getGroup(demand_DayTS_groups,well._cdividyw));
 		}
 		if ( ipy_YearTS != null ) {
-			well.connectIrrigationPracticeYearTS ( ipy_YearTS );
+			well.connectIrrigationPracticeYearTS ( StateMod_Util.getGroup(ipy_YearTS_groups,well._id) );
 		}
 		if ( cwr_MonthTS != null ) {
-			well.connectCWRMonthTS ( cwr_MonthTS );
+			well.connectCWRMonthTS ( StateMod_Util.getGroup(cwr_MonthTS_groups,well._id) );
 		}
 		if ( cwr_DayTS != null ) {
-			well.connectCWRDayTS ( cwr_DayTS );
+			well.connectCWRDayTS ( StateMod_Util.getGroup(cwr_DayTS_groups,well._cdividyw) );
 		}
 	}
 }
@@ -1680,7 +1698,7 @@ throws Exception {
 	Message.printStatus(1, routine, "Reading well file: " + filename);
 	
 	try {
-		in = new BufferedReader(new FileReader(	IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		while ((iline = in.readLine()) != null) {
 			if (iline.startsWith("#") || iline.trim().length()==0) {
 				continue;
@@ -1851,6 +1869,10 @@ Set the area.
 @param area area
 */
 public void setAreaw(double area) {
+	if ( isBulkEdit() ) {
+		_areaw = area;
+		return;
+	}
 	if (area != _areaw) {
 		_areaw = area;
 		setDirty ( true );
@@ -1930,6 +1952,10 @@ public void setCdividyw(String cdividyw) {
 	if (cdividyw == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_cdividyw = cdividyw.trim();
+		return;
+	}
 	if (!cdividyw.equals(_cdividyw)) {
 		_cdividyw = cdividyw.trim();
 		setDirty ( true );
@@ -2065,6 +2091,10 @@ Set the irrigated acreage source(see StateMod documentation for list of availabl
 @param demsrcw source for irrigated acreage
 */
 public void setDemsrcw(int demsrcw) {
+	if ( isBulkEdit() ) {
+		_demsrcw = demsrcw;
+		return;
+	}
 	if (demsrcw != _demsrcw) {
 		_demsrcw = demsrcw;
 		setDirty ( true );
@@ -2106,6 +2136,10 @@ Set the well capacity
 @param divcapw well capacity(cfs)
 */
 public void setDivcapw(double divcapw) {
+	if ( isBulkEdit() ) {
+		_divcapw = divcapw;
+		return;
+	}
 	if (divcapw != _divcapw) {
 		_divcapw = divcapw;
 		setDirty ( true );
@@ -2142,6 +2176,10 @@ Set the system efficiency
 @param divefcw efficiency of the system.  If negative, 12 efficiency values will be used.
 */
 public void setDivefcw(double divefcw) {
+	if ( isBulkEdit() ) {
+		_divefcw = divefcw;
+		return;
+	}
 	if (divefcw != _divefcw) {
 		_divefcw = divefcw;
 		setDirty ( true );
@@ -2206,6 +2244,10 @@ public void setDiveff(int index, double diveff, YearType yeartype )
 	else if ( yeartype == YearType.NOV_TO_OCT ) {
 		index = TimeUtil.convertCalendarMonthToCustomMonth ( (index + 1), 11 ) - 1;
 	}
+	if ( isBulkEdit() ) {
+		_diveff[index] = diveff;
+		return;
+	}
 	if (_diveff[index] != diveff) {
 		_diveff[index] = diveff;
 		setDirty(true);
@@ -2225,6 +2267,10 @@ public void setDiveff(int index, double diveff) {
 		Message.printWarning(2, "setDiveff", "Unable to set efficiency for month index " + index);
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_diveff[index] = diveff;
+		return;
+	}
 	if (diveff != _diveff[index]) {
 		_diveff[index] = diveff;
 		setDirty ( true );
@@ -2259,6 +2305,10 @@ Set the demand code
 @param idvcomw demand code to use
 */
 public void setIdvcomw(int idvcomw) {
+	if ( isBulkEdit() ) {
+		_idvcomw = idvcomw;
+		return;
+	}
 	if (idvcomw != _idvcomw) {
 		_idvcomw = idvcomw;
 		setDirty ( true );
@@ -2298,6 +2348,10 @@ public void setIdvcow2(String idvcow2) {
 	if (idvcow2 == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_idvcow2 = idvcow2;
+		return;
+	}
 	if (!idvcow2.equals(_idvcow2)) {
 		_idvcow2 = idvcow2;
 		setDirty ( true );
@@ -2312,6 +2366,10 @@ Set the use type
 @param irturnw use type
 */
 public void setIrturnw(int irturnw) {
+	if ( isBulkEdit() ) {
+		_irturnw = irturnw;
+		return;
+	}
 	if (irturnw != _irturnw) {
 		_irturnw = irturnw;
 		setDirty ( true );
@@ -2366,6 +2424,10 @@ Set the Priority switch
 @param primary 0 = off; +n = on, adjust well rights by -n
 */
 public void setPrimary(double primary) {
+	if ( isBulkEdit() ) {
+		_primary = primary;
+		return;
+	}
 	if (primary != _primary) {
 		_primary = primary;
 		setDirty ( true );
@@ -2916,7 +2978,7 @@ throws Exception {
 	ignoredCommentIndicators.add ( "#>");
 	PrintWriter out = null;
 	try {
-		out = IOUtil.processFileHeaders(
+		out = StateMod_Util.processFileHeaders(
 			IOUtil.getPathUsingWorkingDir(instrfile),
 			IOUtil.getPathUsingWorkingDir(outstrfile),
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
@@ -3080,6 +3142,7 @@ throws Exception {
 			out.close();
 		}
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outstrfile) );
 }
 
 /**
@@ -92,7 +92,6 @@ NoticeEnd */
 package DWR.StateMod;
 
 import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Date;
@@ -1048,7 +1047,7 @@ throws Exception {
 
 	int lineErrorCount = 0;
 	try {
-		in = new BufferedReader(new FileReader(IOUtil.getPathUsingWorkingDir(filename)));
+		in = StateMod_Util.getInputReader ( IOUtil.getPathUsingWorkingDir(filename) );
 		boolean formatSet = false;
 		boolean fileHasExtendedComments = false; // Does file have the extended comments (parcel/well/permit/right)?
 		int lineCount = 0;
@@ -1215,6 +1214,10 @@ public void setCollectionPartId(String collectionPartId) {
 	if (collectionPartId == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__collectionPartId = collectionPartId.trim();
+		return;
+	}
 	if (!collectionPartId.equals(__collectionPartId)) {
 		__collectionPartId = collectionPartId.trim();
 		setDirty ( true );
@@ -1232,6 +1235,10 @@ public void setCollectionPartIdType(StateMod_Well_CollectionPartIdType collectio
 	if (collectionPartIdType == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__collectionPartIdType = collectionPartIdType;
+		return;
+	}
 	if ( collectionPartIdType != __collectionPartIdType ) {
 		__collectionPartIdType = collectionPartIdType;
 		setDirty ( true );
@@ -1249,6 +1256,10 @@ public void setCollectionPartType(StateMod_Well_CollectionPartType collectionPar
 	if (collectionPartType == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__collectionPartType = collectionPartType;
+		return;
+	}
 	if ( collectionPartType != __collectionPartType ) {
 		__collectionPartType = collectionPartType;
 		setDirty ( true );
@@ -1266,6 +1277,10 @@ public void setCollectionType(StateMod_Well_CollectionType collectionType) {
 	if (collectionType == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__collectionType = collectionType;
+		return;
+	}
 	if ( collectionType != __collectionType ) {
 		__collectionType = collectionType;
 		setDirty ( true );
@@ -1280,6 +1295,10 @@ Set the decreed amount(cfs)
 @param dcrdivw decreed amount for this right
 */
 public void setDcrdivw(double dcrdivw) {
+	if ( isBulkEdit() ) {
+		_dcrdivw = dcrdivw;
+		return;
+	}
 	if (dcrdivw != _dcrdivw) {
 		_dcrdivw = dcrdivw;
 		setDirty ( true );
@@ -1329,6 +1348,10 @@ public void setIrtem(String irtem) {
 	if (irtem == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		_irtem = irtem.trim();
+		return;
+	}
 	if (!irtem.equals(_irtem)) {
 		_irtem = irtem.trim();
 		setDirty ( true );
@@ -1346,6 +1369,10 @@ public void setParcelID(String parcel_id) {
 	if (parcel_id == null) {
 		return;
 	}
+	if ( isBulkEdit() ) {
+		__parcelId = parcel_id.trim();
+		return;
+	}
 	if (!parcel_id.equals(__parcelId)) {
 		__parcelId = parcel_id.trim();
 		setDirty ( true );
@@ -1371,6 +1398,10 @@ Set the parcel match class, used to match wells to parcels.
 @param parcel_match_class Parcel match class.
 */
 public void setParcelMatchClass(int parcel_match_class) {
+	if ( isBulkEdit() ) {
+		__parcelMatchClass = parcel_match_class;
+		return;
+	}
 	if (parcel_match_class != __parcelMatchClass) {
 		__parcelMatchClass = parcel_match_class;
 		setDirty ( true );
@@ -1396,6 +1427,10 @@ Set the parcel year, used to match wells to parcels.
 @param parcel_year Parcel year.
 */
 public void setParcelYear(int parcel_year) {
+	if ( isBulkEdit() ) {
+		__parcelYear = parcel_year;
+		return;
+	}
 	if (parcel_year != __parcelYear) {
 		__parcelYear = parcel_year;
 		setDirty ( true );
@@ -1740,7 +1775,7 @@ throws Exception {
 	List<String> ignoredCommentIndicators = new ArrayList<>(1);
 	ignoredCommentIndicators.add ( "#>");
 	try {	
-		out = IOUtil.processFileHeaders(IOUtil.getPathUsingWorkingDir(infile),
+		out = StateMod_Util.processFileHeaders(IOUtil.getPathUsingWorkingDir(infile),
 			IOUtil.getPathUsingWorkingDir(outfile), 
 			newComments, commentIndicators, ignoredCommentIndicators, 0);
 	
@@ -2038,6 +2073,7 @@ throws Exception {
 		}
 		out = null;
 	}
+	StateMod_Util.compressOutputFile ( IOUtil.getPathUsingWorkingDir(outfile) );
 }
 
 /**
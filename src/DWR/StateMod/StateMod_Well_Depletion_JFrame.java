@@ -186,6 +186,7 @@ public void actionPerformed(ActionEvent e) {
 			new StateMod_ReturnFlow(
 			StateMod_DataSet.COMP_WELL_STATIONS);
 		aReturnFlow._isClone = true;
+		aReturnFlow.setOwningDataSet(__dataset);
 		__worksheet.addRow(aReturnFlow);
 		__worksheet.scrollToLastRow();
 		__worksheet.selectLastRow();		
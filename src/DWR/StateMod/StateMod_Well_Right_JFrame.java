@@ -189,6 +189,7 @@ public void actionPerformed(ActionEvent e) {
 	if (action.equals(__BUTTON_ADD_RIGHT)) {
 		StateMod_WellRight aRight = new StateMod_WellRight();
 		aRight._isClone = true;
+		aRight.setOwningDataSet(__dataset);
 		StateMod_WellRight last = 
 			(StateMod_WellRight)__worksheet.getLastRowData();
 
@@ -0,0 +1,232 @@
+package DWR.StateCU;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import junit.framework.TestCase;
+import DWR.StateMod.StateMod_BTS_Statistics;
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+/**
+Check StateCU_BTS.readTimeSeriesStatistics() against readTimeSeriesList(), and check that the structure order
+index file gives the same time series as reading the structure order from the binary file.
+The tests write a small *.bd1 file, with the structure data in a different order than the structure list.
+*/
+public class StateCU_BTSTest extends TestCase
+{
+
+/**
+Structure identifiers, in header order.
+*/
+private final String [] STRUCTURE_IDS = { "CU_1", "CU_2", "CU_3" };
+
+/**
+Position in the header list of the structure for each data block in the file.
+*/
+private final int [] STRUCTURE_ORDER_IN_FILE = { 2, 0, 1 };
+
+/**
+First year in the file.
+*/
+private final int YEAR1 = 1990;
+
+/**
+Check that two lists of time series have the same identifiers, periods, and data values.
+*/
+private void assertSameTimeSeries ( List<TS> expected, List<TS> actual )
+{	assertEquals ( expected.size(), actual.size() );
+	for ( int its = 0; its < expected.size(); its++ ) {
+		TS ts1 = expected.get(its);
+		TS ts2 = actual.get(its);
+		assertEquals ( ts1.getIdentifierString(), ts2.getIdentifierString() );
+		assertTrue ( ts1.getDate1().equals(ts2.getDate1()) );
+		assertTrue ( ts1.getDate2().equals(ts2.getDate2()) );
+		for ( DateTime date = new DateTime(ts1.getDate1()); date.lessThanOrEqualTo(ts1.getDate2()); date.addMonth(1) ) {
+			assertEquals ( ts1.getIdentifierString() + " " + date, ts1.getDataValue(date), ts2.getDataValue(date), 0.0 );
+		}
+	}
+}
+
+/**
+Create a temporary binary file that is deleted, with its index file, when the tests exit.
+*/
+private File createTempFile ()
+throws IOException
+{	File file = File.createTempFile ( "StateCU_BTSTest", ".bd1" );
+	file.deleteOnExit();
+	new File(file.getPath() + ".idx").deleteOnExit();
+	return file;
+}
+
+/**
+Put a string in the buffer, padded with spaces.
+*/
+private void putString ( ByteBuffer buffer, String s, int length )
+{	for ( int i = 0; i < length; i++ ) {
+		buffer.put ( (byte)((i < s.length()) ? s.charAt(i) : ' ') );
+	}
+}
+
+/**
+Put the metadata for a structure or time series variable in the buffer.
+@param last the units (10 characters) for time series variables or report header (60 characters) for structure variables.
+*/
+private void putVariable ( ByteBuffer buffer, String type, int length, String name, String last, int lastLength )
+{	putString ( buffer, type, 1 );
+	buffer.putInt ( length );
+	putString ( buffer, name, 24 );
+	buffer.putInt ( 1 );
+	putString ( buffer, last, lastLength );
+}
+
+/**
+Write a StateCU binary file.
+@param numTimeSteps number of months in the file.
+*/
+private File writeFile ( int numTimeSteps )
+throws IOException
+{	File file = createTempFile();
+	ByteBuffer buffer = ByteBuffer.allocate ( 100000 );
+	buffer.order ( ByteOrder.LITTLE_ENDIAN );
+	// Counts: structures, time steps, structure variables, time series variables, annual time steps.
+	buffer.putInt ( STRUCTURE_IDS.length );
+	buffer.putInt ( numTimeSteps );
+	buffer.putInt ( 3 );
+	buffer.putInt ( 5 );
+	buffer.putInt ( numTimeSteps/12 );
+	// Structure variables.
+	putVariable ( buffer, "I", 4, "Structure Index", "Index", 60 );
+	putVariable ( buffer, "C", 12, "Structure ID", "ID", 60 );
+	putVariable ( buffer, "C", 24, "Structure Name", "Name", 60 );
+	// Time series variables.
+	putVariable ( buffer, "I", 4, "Structure Index", "", 10 );
+	putVariable ( buffer, "I", 4, "Year", "", 10 );
+	putVariable ( buffer, "I", 4, "Month Index", "", 10 );
+	putVariable ( buffer, "R", 4, "Total CU", "ACFT", 10 );
+	putVariable ( buffer, "R", 4, "Shortage", "ACFT", 10 );
+	// Structures.
+	for ( int i = 0; i < STRUCTURE_IDS.length; i++ ) {
+		buffer.putInt ( i + 1 );
+		putString ( buffer, STRUCTURE_IDS[i], 12 );
+		putString ( buffer, "Structure " + (i + 1), 24 );
+	}
+	// Data, all time steps for each structure.
+	for ( int iFile = 0; iFile < STRUCTURE_ORDER_IN_FILE.length; iFile++ ) {
+		int iStructure = STRUCTURE_ORDER_IN_FILE[iFile];
+		for ( int step = 0; step < numTimeSteps; step++ ) {
+			buffer.putInt ( iStructure + 1 );
+			buffer.putInt ( YEAR1 + step/12 );
+			buffer.putInt ( step%12 + 1 );
+			buffer.putFloat ( iStructure*1000.0F + step*2.5F );
+			buffer.putFloat ( ((step + iStructure)%3 == 0) ? 0.0F : (step*0.25F - 1.0F) );
+		}
+	}
+	FileOutputStream out = new FileOutputStream ( file );
+	try {
+		out.write ( buffer.array(), 0, buffer.position() );
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+public void testReadTimeSeriesStatistics ()
+throws Exception
+{	StateCU_BTS bts = new StateCU_BTS ( writeFile(36).getPath() );
+	try {
+		List<TS> expected = bts.readTimeSeriesList ( null, null, null, null, true );
+		assertEquals ( STRUCTURE_IDS.length*2, expected.size() );
+		StateMod_BTS_Statistics statistics = bts.readTimeSeriesStatistics ( null, null, null, null );
+		assertEquals ( expected.size(), statistics.size() );
+		for ( int row = 0; row < expected.size(); row++ ) {
+			TS ts = expected.get(row);
+			assertEquals ( ts.getIdentifierString(), statistics.getTSID(row) );
+			int count = 0, countGreaterThanZero = 0;
+			double total = 0.0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			for ( DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addMonth(1) ) {
+				double value = ts.getDataValue ( date );
+				++count;
+				if ( value > 0.0 ) {
+					++countGreaterThanZero;
+				}
+				total += value;
+				min = Math.min ( min, value );
+				max = Math.max ( max, value );
+			}
+			assertEquals ( 36, count );
+			assertEquals ( count, statistics.getCount(row) );
+			assertEquals ( countGreaterThanZero, statistics.getCountGreaterThanZero(row) );
+			assertEquals ( total, statistics.getTotal(row), 1.0e-6*Math.max(1.0, Math.abs(total)) );
+			assertEquals ( min, statistics.getMin(row), 0.0 );
+			assertEquals ( max, statistics.getMax(row), 0.0 );
+		}
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testReadTimeSeriesStatisticsTruncatedFile ()
+throws Exception
+{	// Remove the end of the last structure's data so that its statistics cannot be computed.
+	File file = writeFile ( 24 );
+	RandomAccessFile raf = new RandomAccessFile ( file, "rw" );
+	try {
+		raf.setLength ( raf.length() - 20 );
+	}
+	finally {
+		raf.close();
+	}
+	StateCU_BTS bts = new StateCU_BTS ( file.getPath() );
+	try {
+		bts.readTimeSeriesStatistics ( null, null, null, null );
+		fail ( "Expected IOException for a truncated file" );
+	}
+	catch ( IOException e ) {
+		// Expected
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testIndexFile ()
+throws Exception
+{	File file = writeFile ( 24 );
+	StateCU_BTS bts = new StateCU_BTS ( file.getPath() );
+	List<TS> expected = null;
+	try {
+		expected = bts.readTimeSeriesList ( null, null, null, null, true );
+	}
+	finally {
+		bts.close();
+	}
+	File indexFile = new File ( file.getPath() + ".idx" );
+	assertFalse ( indexFile.exists() );
+	try {
+		StateCU_BTS.setUseIndexFile ( true );
+		// The first open writes the index file and the second uses it.
+		for ( int i = 0; i < 2; i++ ) {
+			bts = new StateCU_BTS ( file.getPath() );
+			try {
+				assertTrue ( indexFile.exists() );
+				assertSameTimeSeries ( expected, bts.readTimeSeriesList ( null, null, null, null, true ) );
+			}
+			finally {
+				bts.close();
+			}
+		}
+	}
+	finally {
+		StateCU_BTS.setUseIndexFile ( false );
+	}
+}
+
+}
@@ -0,0 +1,439 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import RTi.TS.TS;
+import RTi.Util.Time.DateTime;
+
+/**
+Check the StateMod_BTS readers that read many time series in one pass (readTimeSeriesListSinglePass(),
+readTimeSeriesValuesSinglePass(), readTimeSeriesStatistics(), and compareTimeSeries()) and the lazily
+loaded time series handles against readTimeSeriesList(), which reads each time series separately.
+The tests write a small monthly *.b43 file in the StateMod 12.29+ format with river nodes and two parameters.
+*/
+public class StateMod_BTSTest extends TestCase
+{
+
+/**
+Record length for *.b43 files in the 11+ format.
+*/
+private final int RECORD_LENGTH = 160;
+
+/**
+Station identifiers in the test file.
+*/
+private final String [] STATION_IDS = { "STA1", "STA2", "STA3" };
+
+/**
+Parameters in the test file.
+*/
+private final String [] PARAMETERS = { "Total_Demand", "River_Outflow" };
+
+/**
+First and last (calendar) year in the test file.
+*/
+private final int YEAR1 = 2000, YEAR2 = 2002;
+
+/**
+Check that two lists of time series have the same identifiers, periods, and data values.
+*/
+private void assertSameTimeSeries ( List<TS> expected, List<TS> actual )
+{	assertEquals ( expected.size(), actual.size() );
+	for ( int its = 0; its < expected.size(); its++ ) {
+		TS ts1 = expected.get(its);
+		TS ts2 = actual.get(its);
+		assertEquals ( ts1.getIdentifierString(), ts2.getIdentifierString() );
+		assertTrue ( ts1.getDate1().equals(ts2.getDate1()) );
+		assertTrue ( ts1.getDate2().equals(ts2.getDate2()) );
+		for ( DateTime date = new DateTime(ts1.getDate1()); date.lessThanOrEqualTo(ts1.getDate2()); date.addMonth(1) ) {
+			assertEquals ( ts1.getIdentifierString() + " " + date, ts1.getDataValue(date), ts2.getDataValue(date), 0.0 );
+		}
+	}
+}
+
+/**
+Create a temporary binary file that is deleted when the tests exit.
+*/
+private File createTempFile ()
+throws IOException
+{	File file = File.createTempFile ( "StateMod_BTSTest", ".b43" );
+	file.deleteOnExit();
+	return file;
+}
+
+/**
+Return the value that is written for a station, parameter, and month.
+@param changedMonth month (0+) for which a different value is written for STA2 and the first parameter, or -1.
+*/
+private float getValue ( int ista, int iparam, int imonth, int changedMonth )
+{	float value = ista*100.0F + iparam*10.0F + imonth*0.5F - 20.0F;
+	if ( (imonth == changedMonth) && (ista == 1) && (iparam == 0) ) {
+		value += 5.0F;
+	}
+	return value;
+}
+
+/**
+Return the row for a station and parameter in statistics or differences, which use TSID strings.
+*/
+private int findRow ( List<TS> tslist, String id, String parameter )
+{	for ( int i = 0; i < tslist.size(); i++ ) {
+		TS ts = tslist.get(i);
+		if ( ts.getLocation().equals(id) && ts.getDataType().equals(parameter) ) {
+			return i;
+		}
+	}
+	return -1;
+}
+
+/**
+Put a string in a record, padded with spaces.
+*/
+private void putString ( ByteBuffer record, String s, int length )
+{	for ( int i = 0; i < length; i++ ) {
+		record.put ( (byte)((i < s.length()) ? s.charAt(i) : ' ') );
+	}
+}
+
+/**
+Write a record to the file.
+*/
+private void writeRecord ( FileOutputStream out, ByteBuffer record )
+throws IOException
+{	out.write ( record.array() );
+	record.clear();
+	for ( int i = 0; i < RECORD_LENGTH; i++ ) {
+		record.put ( i, (byte)0 );
+	}
+}
+
+/**
+Write a monthly StateMod binary file with river nodes only.
+@param changedMonth month (0+) for which a different value is written for STA2 and the first parameter, or -1.
+*/
+private File writeFile ( int changedMonth )
+throws IOException
+{	File file = createTempFile();
+	ByteBuffer record = ByteBuffer.allocate ( RECORD_LENGTH );
+	record.order ( ByteOrder.LITTLE_ENDIAN );
+	FileOutputStream out = new FileOutputStream ( file );
+	try {
+		// Program, version, and date.
+		putString ( record, "StateMod", 8 );
+		putString ( record, "15.00.00", 8 );
+		putString ( record, "2020/01/01", 10 );
+		writeRecord ( out, record );
+		// Period.
+		record.putInt ( YEAR1 );
+		record.putInt ( YEAR2 );
+		writeRecord ( out, record );
+		// Counts: numsta, numdiv, numifr, numres, numown, nrsact, numrun, numdivw, numdxw,
+		// maxparm, ndivO, nresO, nwelO.
+		int [] counts = { STATION_IDS.length, 0, 0, 0, 0, 0, 0, 0, 0, PARAMETERS.length, PARAMETERS.length, 0, 0 };
+		for ( int i = 0; i < counts.length; i++ ) {
+			record.putInt ( counts[i] );
+		}
+		writeRecord ( out, record );
+		// Month names.
+		String [] months = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC",
+			"TOT", "AVE" };
+		for ( int i = 0; i < months.length; i++ ) {
+			putString ( record, months[i], 4 );
+		}
+		writeRecord ( out, record );
+		// Days per month.
+		int [] days = { 31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31 };
+		for ( int i = 0; i < days.length; i++ ) {
+			record.putInt ( days[i] );
+		}
+		writeRecord ( out, record );
+		// River nodes.
+		for ( int i = 0; i < STATION_IDS.length; i++ ) {
+			record.putInt ( i + 1 );
+			putString ( record, STATION_IDS[i], 12 );
+			putString ( record, "Station " + (i + 1), 24 );
+			writeRecord ( out, record );
+		}
+		// Reservoir record after the reservoirs, written even if there are no reservoirs.
+		writeRecord ( out, record );
+		// Parameters for diversion, reservoir, and well files.
+		for ( int ip = 0; ip < 3; ip++ ) {
+			for ( int i = 0; i < PARAMETERS.length; i++ ) {
+				record.putInt ( i + 1 );
+				putString ( record, PARAMETERS[i], 24 );
+				writeRecord ( out, record );
+			}
+		}
+		// Units.
+		for ( int i = 0; i < PARAMETERS.length; i++ ) {
+			putString ( record, "CFS", 4 );
+		}
+		writeRecord ( out, record );
+		// Data, one record per river node for each month.
+		int nmonths = (YEAR2 - YEAR1 + 1)*12;
+		for ( int imonth = 0; imonth < nmonths; imonth++ ) {
+			for ( int ista = 0; ista < STATION_IDS.length; ista++ ) {
+				for ( int iparam = 0; iparam < PARAMETERS.length; iparam++ ) {
+					record.putFloat ( getValue(ista,iparam,imonth,changedMonth) );
+				}
+				writeRecord ( out, record );
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+public void testReadTimeSeriesListSinglePass ()
+throws Exception
+{	File file = writeFile ( -1 );
+	boolean [] useMemoryMapping = { false, true };
+	for ( int i = 0; i < useMemoryMapping.length; i++ ) {
+		StateMod_BTS bts = new StateMod_BTS ( file.getPath(), "", useMemoryMapping[i] );
+		try {
+			List<TS> expected = bts.readTimeSeriesList ( null, null, null, null, true );
+			assertEquals ( STATION_IDS.length*PARAMETERS.length, expected.size() );
+			assertSameTimeSeries ( expected, bts.readTimeSeriesListSinglePass ( null, null, null, null, null, null, null ) );
+			// Part of the period and one parameter.
+			DateTime date1 = DateTime.parse ( "2000-06" );
+			DateTime date2 = DateTime.parse ( "2001-03" );
+			expected = bts.readTimeSeriesList ( "*.*.River_Outflow.*", date1, date2, null, true );
+			assertEquals ( STATION_IDS.length, expected.size() );
+			assertSameTimeSeries ( expected,
+				bts.readTimeSeriesListSinglePass ( "*.*.River_Outflow.*", date1, date2, null, null, null, null ) );
+		}
+		finally {
+			bts.close();
+		}
+	}
+}
+
+public void testReadTimeSeriesValuesSinglePass ()
+throws Exception
+{	StateMod_BTS bts = new StateMod_BTS ( writeFile(-1).getPath() );
+	try {
+		List<TS> expected = bts.readTimeSeriesList ( null, null, null, null, true );
+		List<TS> tslist = new ArrayList<TS>();
+		float [][] values = bts.readTimeSeriesValuesSinglePass ( null, null, null, null, null, null, tslist );
+		assertEquals ( expected.size(), values.length );
+		for ( int its = 0; its < expected.size(); its++ ) {
+			TS ts = expected.get(its);
+			assertEquals ( ts.getIdentifierString(), tslist.get(its).getIdentifierString() );
+			int i = 0;
+			for ( DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addMonth(1) ) {
+				double value = ts.getDataValue ( date );
+				assertEquals ( ts.getIdentifierString() + " " + date, value, values[its][i++], Math.abs(value)*1.0e-6 );
+			}
+			assertEquals ( i, values[its].length );
+		}
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testTimeSeriesHandles ()
+throws Exception
+{	StateMod_BTS bts = new StateMod_BTS ( writeFile(-1).getPath() );
+	try {
+		List<TS> expected = bts.readTimeSeriesList ( null, null, null, null, true );
+		List<StateMod_BTS_TimeSeriesHandle> handles = bts.readTimeSeriesHandleList ( null, null, null, null, null, null );
+		assertEquals ( expected.size(), handles.size() );
+		List<TS> actual = new ArrayList<TS>();
+		for ( StateMod_BTS_TimeSeriesHandle handle : handles ) {
+			// Data are not read until requested.
+			assertFalse ( handle.isLoaded() );
+			actual.add ( handle.getTimeSeries() );
+			assertTrue ( handle.isLoaded() );
+		}
+		assertSameTimeSeries ( expected, actual );
+		// Data are read again after being dropped.
+		StateMod_BTS_TimeSeriesHandle handle = handles.get(handles.size() - 1);
+		handle.evict();
+		assertFalse ( handle.isLoaded() );
+		TS ts = expected.get(expected.size() - 1);
+		assertEquals ( ts.getDataValue(ts.getDate2()), handle.getDataValue(ts.getDate2()), 0.0 );
+		assertTrue ( handle.isLoaded() );
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testTruncatedFile ()
+throws Exception
+{	// Remove the records for the last month so that the time series cannot be fully read.
+	File file = writeFile ( -1 );
+	RandomAccessFile raf = new RandomAccessFile ( file, "rw" );
+	try {
+		raf.setLength ( raf.length() - STATION_IDS.length*RECORD_LENGTH );
+	}
+	finally {
+		raf.close();
+	}
+	StateMod_BTS bts = new StateMod_BTS ( file.getPath() );
+	try {
+		List<StateMod_BTS_TimeSeriesHandle> handles = bts.readTimeSeriesHandleList ( null, null, null, null, null, null );
+		assertTrue ( handles.size() > 0 );
+		try {
+			handles.get(0).getTimeSeries();
+			fail ( "Expected IOException for a truncated file" );
+		}
+		catch ( IOException e ) {
+			// Expected
+		}
+		try {
+			bts.readTimeSeriesListSinglePass ( null, null, null, null, null, null, null );
+			fail ( "Expected IOException for a truncated file" );
+		}
+		catch ( IOException e ) {
+			// Expected
+		}
+		try {
+			bts.readTimeSeriesStatistics ( null, null, null, null, null, null );
+			fail ( "Expected IOException for a truncated file" );
+		}
+		catch ( IOException e ) {
+			// Expected
+		}
+		try {
+			bts.readTimeSeriesValuesSinglePass ( null, null, null, null, null, null, new ArrayList<TS>() );
+			fail ( "Expected IOException for a truncated file" );
+		}
+		catch ( IOException e ) {
+			// Expected
+		}
+		// Compare in both directions so that the truncated file is read as this file and as the other file.
+		StateMod_BTS bts2 = new StateMod_BTS ( writeFile(-1).getPath() );
+		try {
+			try {
+				bts.compareTimeSeries ( bts2, null, null, null, null, null, 2 );
+				fail ( "Expected IOException for a truncated file" );
+			}
+			catch ( IOException e ) {
+				// Expected
+			}
+			try {
+				bts2.compareTimeSeries ( bts, null, null, null, null, null, 2 );
+				fail ( "Expected IOException for a truncated file" );
+			}
+			catch ( IOException e ) {
+				// Expected
+			}
+		}
+		finally {
+			bts2.close();
+		}
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testReadTimeSeriesStatistics ()
+throws Exception
+{	StateMod_BTS bts = new StateMod_BTS ( writeFile(-1).getPath() );
+	try {
+		List<TS> expected = bts.readTimeSeriesList ( null, null, null, null, true );
+		StateMod_BTS_Statistics statistics = bts.readTimeSeriesStatistics ( null, null, null, null, null, null );
+		assertEquals ( expected.size(), statistics.size() );
+		assertEquals ( YEAR1, statistics.getYear1() );
+		assertEquals ( YEAR2, statistics.getYear2() );
+		for ( int row = 0; row < expected.size(); row++ ) {
+			TS ts = expected.get(row);
+			assertEquals ( ts.getIdentifierString(), statistics.getTSID(row) );
+			int count = 0, countGreaterThanZero = 0;
+			double total = 0.0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+			double [] annualTotal = new double[YEAR2 - YEAR1 + 1];
+			for ( DateTime date = new DateTime(ts.getDate1()); date.lessThanOrEqualTo(ts.getDate2()); date.addMonth(1) ) {
+				double value = ts.getDataValue ( date );
+				++count;
+				if ( value > 0.0 ) {
+					++countGreaterThanZero;
+				}
+				total += value;
+				min = Math.min ( min, value );
+				max = Math.max ( max, value );
+				annualTotal[date.getYear() - YEAR1] += value;
+			}
+			double delta = 1.0e-6*Math.max(1.0, Math.abs(total));
+			assertEquals ( count, statistics.getCount(row) );
+			assertEquals ( countGreaterThanZero, statistics.getCountGreaterThanZero(row) );
+			assertEquals ( total, statistics.getTotal(row), delta );
+			assertEquals ( min, statistics.getMin(row), 1.0e-6*Math.max(1.0, Math.abs(min)) );
+			assertEquals ( max, statistics.getMax(row), 1.0e-6*Math.max(1.0, Math.abs(max)) );
+			for ( int year = YEAR1; year <= YEAR2; year++ ) {
+				assertEquals ( annualTotal[year - YEAR1], statistics.getAnnualTotal(row, year), delta );
+			}
+		}
+	}
+	finally {
+		bts.close();
+	}
+}
+
+public void testCompareTimeSeriesSameValues ()
+throws Exception
+{	StateMod_BTS bts1 = new StateMod_BTS ( writeFile(-1).getPath() );
+	StateMod_BTS bts2 = new StateMod_BTS ( writeFile(-1).getPath() );
+	try {
+		StateMod_BTS_Difference difference = bts1.compareTimeSeries ( bts2, null, null, null, null, null, 2 );
+		assertEquals ( STATION_IDS.length*PARAMETERS.length, difference.size() );
+		assertFalse ( difference.hasDifferences() );
+		for ( int row = 0; row < difference.size(); row++ ) {
+			assertEquals ( (YEAR2 - YEAR1 + 1)*12, difference.getCount(row) );
+			assertEquals ( 0, difference.getCountDifferent(row) );
+		}
+	}
+	finally {
+		bts1.close();
+		bts2.close();
+	}
+}
+
+public void testCompareTimeSeriesDifferentValues ()
+throws Exception
+{	int changedMonth = 14;
+	StateMod_BTS bts1 = new StateMod_BTS ( writeFile(-1).getPath() );
+	StateMod_BTS bts2 = new StateMod_BTS ( writeFile(changedMonth).getPath() );
+	try {
+		List<TS> tslist = bts1.readTimeSeriesList ( null, null, null, null, false );
+		int changedRow = findRow ( tslist, STATION_IDS[1], PARAMETERS[0] );
+		assertTrue ( changedRow >= 0 );
+		int [] numThreads = { 1, 2, 4 };
+		for ( int i = 0; i < numThreads.length; i++ ) {
+			StateMod_BTS_Difference difference = bts1.compareTimeSeries ( bts2, null, null, null, null, null,
+				numThreads[i] );
+			assertTrue ( difference.hasDifferences() );
+			for ( int row = 0; row < difference.size(); row++ ) {
+				assertEquals ( tslist.get(row).getIdentifierString(), difference.getTSID(row) );
+				if ( row == changedRow ) {
+					assertEquals ( 1, difference.getCountDifferent(row) );
+					DateTime date = DateTime.parse ( "2000-01" );
+					date.addMonth ( changedMonth );
+					assertTrue ( date.equals(difference.getFirstDifferenceDate(row)) );
+					assertTrue ( difference.getMaxAbsDifference(row) > 0.0 );
+				}
+				else {
+					assertEquals ( 0, difference.getCountDifferent(row) );
+				}
+			}
+		}
+	}
+	finally {
+		bts1.close();
+		bts2.close();
+	}
+}
+
+}
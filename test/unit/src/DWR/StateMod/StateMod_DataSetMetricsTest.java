@@ -0,0 +1,78 @@
+package DWR.StateMod;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import junit.framework.TestCase;
+
+/**
+Check that StateMod_DataSetMetrics registers the component metrics as MBeans and does not replace MBeans
+that were registered by another data set with the same name.
+*/
+public class StateMod_DataSetMetricsTest extends TestCase
+{
+
+/**
+Return the object name for a component's metrics MBean.
+*/
+private ObjectName getObjectName ( String name, String componentName )
+throws Exception
+{	return new ObjectName ( "DWR.StateMod:type=StateMod_DataSet,name=" + ObjectName.quote(name) +
+		",component=" + ObjectName.quote(componentName) );
+}
+
+public void testRegisterMBeans ()
+throws Exception
+{	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	StateMod_DataSetMetrics metrics = new StateMod_DataSetMetrics ( "StateMod_DataSet" );
+	metrics.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_RIGHTS, "Diversion Rights" ).addReadError();
+	metrics.registerMBeans ( "testRegisterMBeans" );
+	try {
+		ObjectName objectName = getObjectName ( "testRegisterMBeans", "Diversion Rights" );
+		assertTrue ( server.isRegistered(objectName) );
+		assertEquals ( new Integer(1), server.getAttribute(objectName, "ReadErrorCount") );
+		// Metrics for components that are read later are also registered.
+		metrics.getComponentMetrics ( StateMod_DataSet.COMP_WELL_RIGHTS, "Well Rights" );
+		assertTrue ( server.isRegistered(getObjectName("testRegisterMBeans", "Well Rights")) );
+	}
+	finally {
+		metrics.unregisterMBeans();
+	}
+	assertFalse ( server.isRegistered(getObjectName("testRegisterMBeans", "Diversion Rights")) );
+}
+
+public void testRegisterMBeansDuplicateName ()
+throws Exception
+{	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	StateMod_DataSetMetrics metrics1 = new StateMod_DataSetMetrics ( "StateMod_DataSet" );
+	StateMod_ComponentMetrics componentMetrics1 =
+		metrics1.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_RIGHTS, "Diversion Rights" );
+	StateMod_DataSetMetrics metrics2 = new StateMod_DataSetMetrics ( "StateMod_DataSet" );
+	metrics2.getComponentMetrics ( StateMod_DataSet.COMP_CONTROL, "Control" );
+	metrics2.getComponentMetrics ( StateMod_DataSet.COMP_DIVERSION_RIGHTS, "Diversion Rights" );
+	metrics1.registerMBeans ( "testDuplicateName" );
+	try {
+		try {
+			metrics2.registerMBeans ( "testDuplicateName" );
+			fail ( "Expected InstanceAlreadyExistsException" );
+		}
+		catch ( InstanceAlreadyExistsException e ) {
+			// Expected
+		}
+		// The first data set's MBean is not replaced and the second data set's MBeans are not left registered.
+		componentMetrics1.addReadError();
+		ObjectName objectName = getObjectName ( "testDuplicateName", "Diversion Rights" );
+		assertTrue ( server.isRegistered(objectName) );
+		assertEquals ( new Integer(1), server.getAttribute(objectName, "ReadErrorCount") );
+		assertFalse ( server.isRegistered(getObjectName("testDuplicateName", "Control")) );
+	}
+	finally {
+		metrics1.unregisterMBeans();
+		metrics2.unregisterMBeans();
+	}
+}
+
+}
@@ -0,0 +1,112 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+import RTi.Util.IO.DataSetComponent;
+import RTi.Util.String.StringUtil;
+
+/**
+Check StateMod_DataSet bulk edits:  set methods only assign values while a bulk edit is active, readers
+give the same objects with and without a bulk edit, and the component dirty state is settled when the
+last bulk edit ends.
+*/
+public class StateMod_DataSetTest extends TestCase
+{
+
+/**
+Write a diversion rights file.
+*/
+private File writeDiversionRightsFile ( int numRights )
+throws IOException
+{	File file = File.createTempFile ( "StateMod_DataSetTest", ".ddr" );
+	file.deleteOnExit();
+	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( "# Test diversion rights" );
+		for ( int i = 0; i < numRights; i++ ) {
+			out.println ( StringUtil.formatString("R" + i,"%-12.12s") +
+				StringUtil.formatString("Right " + i,"%-24.24s") +
+				StringUtil.formatString("D" + (i/3),"%-12.12s") +
+				StringUtil.formatString((10000.0 + i) + "","%16.16s") +
+				StringUtil.formatString(i*0.25,"%8.2f") + StringUtil.formatString(i%2,"%8d") );
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+public void testBulkEditSetMethods ()
+{	StateMod_DataSet dataset = new StateMod_DataSet();
+	DataSetComponent comp = dataset.getComponentForComponentType ( StateMod_DataSet.COMP_DIVERSION_RIGHTS );
+	StateMod_DiversionRight right = new StateMod_DiversionRight();
+	right.setOwningDataSet ( dataset );
+	dataset.beginBulkEdit();
+	assertTrue ( dataset.isBulkEditActive() );
+	right.setID ( "R1" );
+	right.setName ( "Right 1" );
+	right.setIrtem ( " 12345.00 " );
+	right.setDcrdiv ( 1.5 );
+	right.setSwitch ( 0 );
+	assertEquals ( "R1", right.getID() );
+	assertEquals ( "Right 1", right.getName() );
+	assertEquals ( "12345.00", right.getIrtem() );
+	assertEquals ( 1.5, right.getDcrdiv(), 0.0 );
+	assertEquals ( 0, right.getSwitch() );
+	assertFalse ( right.isDirty() );
+	assertFalse ( comp.isDirty() );
+	// The component is marked dirty when the last bulk edit ends.
+	dataset.beginBulkEdit();
+	dataset.endBulkEdit ( new int[] { StateMod_DataSet.COMP_DIVERSION_RIGHTS } );
+	assertTrue ( dataset.isBulkEditActive() );
+	assertFalse ( comp.isDirty() );
+	dataset.endBulkEdit ( null );
+	assertFalse ( dataset.isBulkEditActive() );
+	assertTrue ( comp.isDirty() );
+	// Without a bulk edit, set methods mark the object and component dirty.
+	comp.setDirty ( false );
+	right.setDcrdiv ( 2.5 );
+	assertTrue ( right.isDirty() );
+	assertTrue ( comp.isDirty() );
+}
+
+public void testBulkEditRead ()
+throws Exception
+{	File file = writeDiversionRightsFile ( 100 );
+	List<StateMod_DiversionRight> expected = StateMod_DiversionRight.readStateModFile ( file.getPath() );
+	StateMod_DataSet dataset = new StateMod_DataSet();
+	List<StateMod_DiversionRight> rights = null;
+	StateMod_Data.setThreadDataSet ( dataset );
+	dataset.beginBulkEdit();
+	try {
+		rights = StateMod_DiversionRight.readStateModFile ( file.getPath() );
+	}
+	finally {
+		dataset.endBulkEdit ( null );
+		StateMod_Data.setThreadDataSet ( null );
+	}
+	assertEquals ( 100, expected.size() );
+	assertEquals ( expected.size(), rights.size() );
+	for ( int i = 0; i < expected.size(); i++ ) {
+		StateMod_DiversionRight right1 = expected.get(i);
+		StateMod_DiversionRight right2 = rights.get(i);
+		assertEquals ( right1.getID(), right2.getID() );
+		assertEquals ( right1.getName(), right2.getName() );
+		assertEquals ( right1.getCgoto(), right2.getCgoto() );
+		assertEquals ( right1.getIrtem(), right2.getIrtem() );
+		assertEquals ( right1.getDcrdiv(), right2.getDcrdiv(), 0.0 );
+		assertEquals ( right1.getSwitch(), right2.getSwitch() );
+		assertFalse ( right1.isDirty() );
+		assertFalse ( right2.isDirty() );
+		assertSame ( dataset, right2.getOwningDataSet() );
+	}
+	assertFalse ( dataset.getComponentForComponentType(StateMod_DataSet.COMP_DIVERSION_RIGHTS).isDirty() );
+}
+
+}
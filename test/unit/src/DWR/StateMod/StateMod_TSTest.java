@@ -0,0 +1,256 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import junit.framework.TestCase;
+import RTi.TS.TS;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeUtil;
+
+/**
+Check that StateMod_TS.readTimeSeriesListParallel() returns the same time series as the sequential
+StateMod_TS.readTimeSeriesList(), for monthly and daily files, including files that are read sequentially
+by the parallel reader (average monthly values and blocks that are not in date order).
+The files have enough time series that the parallel reader parses several batches of blocks.
+*/
+public class StateMod_TSTest extends TestCase
+{
+
+/**
+Check that two lists of time series have the same identifiers, periods, and data values.
+*/
+private void assertSameTimeSeries ( List<TS> expected, List<TS> actual )
+{	assertNotNull ( actual );
+	assertEquals ( expected.size(), actual.size() );
+	for ( int its = 0; its < expected.size(); its++ ) {
+		TS ts1 = expected.get(its);
+		TS ts2 = actual.get(its);
+		assertEquals ( ts1.getIdentifierString(), ts2.getIdentifierString() );
+		assertEquals ( ts1.getDataUnits(), ts2.getDataUnits() );
+		assertTrue ( ts1.getDate1().equals(ts2.getDate1()) );
+		assertTrue ( ts1.getDate2().equals(ts2.getDate2()) );
+		for ( DateTime date = new DateTime(ts1.getDate1()); date.lessThanOrEqualTo(ts1.getDate2());
+			date.addInterval(ts1.getDataIntervalBase(), ts1.getDataIntervalMult()) ) {
+			assertEquals ( ts1.getIdentifierString() + " " + date, ts1.getDataValue(date), ts2.getDataValue(date), 0.0 );
+		}
+	}
+}
+
+/**
+Check the parallel reader against the sequential reader for a file, with several pool sizes.
+*/
+private void checkParallelRead ( String filename, DateTime date1, DateTime date2 )
+throws Exception
+{	List<TS> expected = StateMod_TS.readTimeSeriesList ( filename, date1, date2, null, true );
+	assertTrue ( expected.size() > 0 );
+	int [] parallelism = { 1, 2, 4 };
+	for ( int i = 0; i < parallelism.length; i++ ) {
+		ForkJoinPool pool = new ForkJoinPool ( parallelism[i] );
+		try {
+			assertSameTimeSeries ( expected,
+				StateMod_TS.readTimeSeriesListParallel ( filename, date1, date2, null, pool ) );
+		}
+		finally {
+			pool.shutdown();
+		}
+	}
+}
+
+/**
+Return the time series identifier for a position in the file.
+*/
+private String getId ( int its )
+{	return "S" + (10000 + its);
+}
+
+/**
+Return a test value, including negative values and values with a fraction.
+*/
+private double getValue ( int its, int year, int month, int day )
+{	return ((its*7 + year*13 + month*3 + day*11)%1000)*1.5 - 200.0;
+}
+
+/**
+Create a temporary time series file that is deleted when the tests exit.
+*/
+private File createTempFile ( String extension )
+throws IOException
+{	File file = File.createTempFile ( "StateMod_TSTest", extension );
+	file.deleteOnExit();
+	return file;
+}
+
+/**
+Format the main header line.
+*/
+private String formatHeader ( int month1, int year1, int month2, int year2, String units, String yearType )
+{	return StringUtil.formatString(month1,"%5d") + "/" + StringUtil.formatString(year1,"%4d") + "  -  " +
+		StringUtil.formatString(month2,"%5d") + "/" + StringUtil.formatString(year2,"%4d") + " " +
+		StringUtil.formatString(units,"%-4.4s") + StringUtil.formatString(yearType,"%5.5s");
+}
+
+/**
+Format a monthly data line.
+*/
+private String formatMonthlyLine ( int its, int year, boolean average )
+{	StringBuffer b = new StringBuffer();
+	if ( average ) {
+		b.append ( "     " );
+	}
+	else {
+		b.append ( StringUtil.formatString(year,"%5d") );
+	}
+	b.append ( StringUtil.formatString(" " + getId(its),"%-12.12s") );
+	for ( int month = 1; month <= 12; month++ ) {
+		b.append ( StringUtil.formatString(getValue(its,year,month,0),"%8.1f") );
+	}
+	return b.toString();
+}
+
+/**
+Write a monthly file.
+@param numts number of time series.
+@param year1 first year in the file (water year for a water year file).
+@param years list of years for the blocks, in file order.
+@param yearType "CYR" or "WYR".
+@param comments whether to add comments and blank lines between blocks.
+*/
+private String writeMonthlyFile ( int numts, int year1, int [] years, String yearType, boolean comments )
+throws IOException
+{	File file = createTempFile ( ".stm" );
+	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( "# Test monthly file" );
+		int year2 = years[years.length - 1];
+		if ( yearType.equals("WYR") ) {
+			out.println ( formatHeader(10,year1 - 1,9,year2,"ACFT",yearType) );
+		}
+		else {
+			out.println ( formatHeader(1,year1,12,year2,"ACFT",yearType) );
+		}
+		for ( int iyear = 0; iyear < years.length; iyear++ ) {
+			if ( comments && (iyear%3 == 2) ) {
+				out.println ( "# Comment between blocks" );
+				out.println ( "" );
+			}
+			for ( int its = 0; its < numts; its++ ) {
+				out.println ( formatMonthlyLine(its,years[iyear],false) );
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file.getPath();
+}
+
+/**
+Write a monthly file with consecutive years.
+*/
+private String writeMonthlyFile ( int numts, int year1, int nyears, String yearType, boolean comments )
+throws IOException
+{	int [] years = new int[nyears];
+	for ( int i = 0; i < nyears; i++ ) {
+		years[i] = year1 + i;
+	}
+	return writeMonthlyFile ( numts, year1, years, yearType, comments );
+}
+
+/**
+Write a daily file with consecutive months.
+*/
+private String writeDailyFile ( int numts, int year1, int nyears )
+throws IOException
+{	File file = createTempFile ( ".stm" );
+	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( formatHeader(1,year1,12,year1 + nyears - 1,"CFS","CYR") );
+		for ( int year = year1; year < (year1 + nyears); year++ ) {
+			for ( int month = 1; month <= 12; month++ ) {
+				for ( int its = 0; its < numts; its++ ) {
+					StringBuffer b = new StringBuffer();
+					b.append ( StringUtil.formatString(year,"%4d") );
+					b.append ( StringUtil.formatString(month,"%4d") );
+					b.append ( StringUtil.formatString(" " + getId(its),"%-13.13s") );
+					int ndays = TimeUtil.numDaysInMonth ( month, year );
+					for ( int day = 1; day <= ndays; day++ ) {
+						b.append ( StringUtil.formatString(getValue(its,year,month,day),"%8.1f") );
+					}
+					out.println ( b.toString() );
+				}
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file.getPath();
+}
+
+public void testParallelMonthlyCalendarYear ()
+throws Exception
+{	checkParallelRead ( writeMonthlyFile(400,1950,30,"CYR",false), null, null );
+}
+
+public void testParallelMonthlyWaterYear ()
+throws Exception
+{	checkParallelRead ( writeMonthlyFile(400,1950,30,"WYR",false), null, null );
+}
+
+public void testParallelMonthlyWithComments ()
+throws Exception
+{	checkParallelRead ( writeMonthlyFile(400,1950,30,"CYR",true), null, null );
+}
+
+public void testParallelMonthlyPeriod ()
+throws Exception
+{	DateTime date1 = DateTime.parse ( "1955-01" );
+	DateTime date2 = DateTime.parse ( "1969-12" );
+	checkParallelRead ( writeMonthlyFile(400,1950,30,"CYR",false), date1, date2 );
+}
+
+public void testParallelMonthlyFewTimeSeries ()
+throws Exception
+{	// One batch, partly filled.
+	checkParallelRead ( writeMonthlyFile(3,1950,20,"CYR",false), null, null );
+}
+
+public void testParallelMonthlyBlocksOutOfOrder ()
+throws Exception
+{	// Read sequentially by the parallel reader after the first batches have been submitted.
+	int [] years = new int[30];
+	for ( int i = 0; i < years.length; i++ ) {
+		years[i] = 1950 + i;
+	}
+	years[25] = 1960;
+	checkParallelRead ( writeMonthlyFile(400,1950,years,"CYR",false), null, null );
+}
+
+public void testParallelAverageMonthly ()
+throws Exception
+{	File file = createTempFile ( ".stm" );
+	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( formatHeader(1,0,12,0,"ACFT","CYR") );
+		for ( int its = 0; its < 5; its++ ) {
+			out.println ( formatMonthlyLine(its,0,true) );
+		}
+	}
+	finally {
+		out.close();
+	}
+	checkParallelRead ( file.getPath(), null, null );
+}
+
+public void testParallelDaily ()
+throws Exception
+{	checkParallelRead ( writeDailyFile(50,1999,10), null, null );
+}
+
+}
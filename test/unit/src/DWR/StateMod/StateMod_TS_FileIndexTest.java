@@ -0,0 +1,175 @@
+package DWR.StateMod;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import RTi.TS.TS;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+import RTi.Util.Time.TimeInterval;
+
+/**
+Check that StateMod_TS_FileIndex (the ".tsidx" line index) provides the same lines as reading the full file,
+that StateMod_TS.readTimeSeries() returns the same time series with and without the index,
+and that the index file is rebuilt when the time series file changes.
+*/
+public class StateMod_TS_FileIndexTest extends TestCase
+{
+
+/**
+Format a monthly data line.
+*/
+private String formatMonthlyLine ( String id, int year )
+{	StringBuffer b = new StringBuffer();
+	b.append ( StringUtil.formatString(year,"%5d") );
+	b.append ( StringUtil.formatString(" " + id,"%-12.12s") );
+	for ( int month = 1; month <= 12; month++ ) {
+		b.append ( StringUtil.formatString(((year*17 + month*5 + id.hashCode())%500)*0.5,"%8.1f") );
+	}
+	return b.toString();
+}
+
+/**
+Read all the lines from a reader.
+*/
+private List<String> readLines ( BufferedReader in )
+throws IOException
+{	List<String> lines = new ArrayList<String>();
+	try {
+		String line;
+		while ( (line = in.readLine()) != null ) {
+			lines.add ( line );
+		}
+	}
+	finally {
+		in.close();
+	}
+	return lines;
+}
+
+/**
+Write a monthly file with comments before the header and between blocks.
+*/
+private File writeMonthlyFile ( File file, String [] ids, int year1, int nyears )
+throws IOException
+{	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( "# Test monthly file" );
+		out.println ( "#" );
+		out.println ( "    1/" + year1 + "  -     12/" + (year1 + nyears - 1) + " ACFT  CYR" );
+		for ( int year = year1; year < (year1 + nyears); year++ ) {
+			if ( year == (year1 + 2) ) {
+				out.println ( "# Comment between blocks" );
+				out.println ( "" );
+			}
+			for ( int i = 0; i < ids.length; i++ ) {
+				out.println ( formatMonthlyLine(ids[i],year) );
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+/**
+Create a temporary time series file that is deleted, with its index file, when the tests exit.
+*/
+private File createTempFile ()
+throws IOException
+{	File file = File.createTempFile ( "StateMod_TS_FileIndexTest", ".stm" );
+	file.deleteOnExit();
+	new File(file.getPath() + StateMod_TS_FileIndex.INDEX_FILE_EXTENSION).deleteOnExit();
+	return file;
+}
+
+public void testCreateReader ()
+throws Exception
+{	String [] ids = { "09152500", "0900555", "ABC_001" };
+	File file = writeMonthlyFile ( createTempFile(), ids, 1950, 5 );
+	StateMod_TS_FileIndex index = StateMod_TS_FileIndex.getIndex ( file.getPath(), TimeInterval.MONTH );
+	List<String> fileLines = readLines ( new BufferedReader(new FileReader(file)) );
+	for ( int i = 0; i < ids.length; i++ ) {
+		// Expected lines are the comments and header followed by the lines for the identifier.
+		List<String> expected = new ArrayList<String>();
+		expected.addAll ( fileLines.subList(0, 3) );
+		for ( String line : fileLines.subList(3, fileLines.size()) ) {
+			if ( (line.length() > 5) && !line.startsWith("#") &&
+				StringUtil.fixedRead(line,"x5s12").get(0).toString().trim().equals(ids[i]) ) {
+				expected.add ( line );
+			}
+		}
+		assertEquals ( 5, expected.size() - 3 );
+		// Case is ignored for the identifier.
+		assertEquals ( expected, readLines(index.createReader(ids[i].toLowerCase())) );
+	}
+	assertNull ( index.createReader("NOTINFILE") );
+}
+
+public void testReadTimeSeriesWithIndex ()
+throws Exception
+{	String [] ids = { "09152500", "0900555", "ABC_001" };
+	File file = writeMonthlyFile ( createTempFile(), ids, 1950, 10 );
+	for ( int i = 0; i < ids.length; i++ ) {
+		String tsid = ids[i] + ".StateMod.Streamflow.Month";
+		StateMod_TS.setUseFileIndex ( false );
+		TS expected = StateMod_TS.readTimeSeries ( tsid, file.getPath(), null, null, null, true );
+		TS actual = null;
+		try {
+			StateMod_TS.setUseFileIndex ( true );
+			actual = StateMod_TS.readTimeSeries ( tsid, file.getPath(), null, null, null, true );
+		}
+		finally {
+			StateMod_TS.setUseFileIndex ( false );
+		}
+		assertTrue ( expected.getDate1().equals(actual.getDate1()) );
+		assertTrue ( expected.getDate2().equals(actual.getDate2()) );
+		for ( DateTime date = new DateTime(expected.getDate1()); date.lessThanOrEqualTo(expected.getDate2());
+			date.addMonth(1) ) {
+			assertEquals ( tsid + " " + date, expected.getDataValue(date), actual.getDataValue(date), 0.0 );
+		}
+	}
+}
+
+public void testIndexFileRebuiltWhenFileChanges ()
+throws Exception
+{	File file = writeMonthlyFile ( createTempFile(), new String[] { "ID1", "ID2" }, 1950, 3 );
+	StateMod_TS_FileIndex index = StateMod_TS_FileIndex.getIndex ( file.getPath(), TimeInterval.MONTH );
+	File indexFile = new File ( file.getPath() + StateMod_TS_FileIndex.INDEX_FILE_EXTENSION );
+	assertTrue ( indexFile.exists() );
+	// The same index is used while the file is unchanged.
+	assertSame ( index, StateMod_TS_FileIndex.getIndex(file.getPath(), TimeInterval.MONTH) );
+	assertNull ( index.createReader("ID3") );
+	// Rewrite the file with another identifier and make sure that the modification time changes.
+	long modified = file.lastModified();
+	writeMonthlyFile ( file, new String[] { "ID1", "ID2", "ID3" }, 1950, 3 );
+	file.setLastModified ( modified + 2000 );
+	index = StateMod_TS_FileIndex.getIndex ( file.getPath(), TimeInterval.MONTH );
+	assertEquals ( 3 + 3, readLines(index.createReader("ID3")).size() );
+}
+
+public void testIndexCacheIsBounded ()
+throws Exception
+{	File file = writeMonthlyFile ( createTempFile(), new String[] { "ID1" }, 1950, 3 );
+	StateMod_TS_FileIndex index = StateMod_TS_FileIndex.getIndex ( file.getPath(), TimeInterval.MONTH );
+	assertSame ( index, StateMod_TS_FileIndex.getIndex(file.getPath(), TimeInterval.MONTH) );
+	// Use more files than are cached so that the first index is removed from memory.
+	for ( int i = 0; i < StateMod_TS_FileIndex.MAX_CACHED_INDEXES; i++ ) {
+		File file2 = writeMonthlyFile ( createTempFile(), new String[] { "ID" + i }, 1950, 1 );
+		StateMod_TS_FileIndex.getIndex ( file2.getPath(), TimeInterval.MONTH );
+	}
+	// The index is read again from the index file and gives the same lines.
+	StateMod_TS_FileIndex index2 = StateMod_TS_FileIndex.getIndex ( file.getPath(), TimeInterval.MONTH );
+	assertNotSame ( index, index2 );
+	assertEquals ( readLines(index.createReader("ID1")), readLines(index2.createReader("ID1")) );
+}
+
+}
@@ -0,0 +1,180 @@
+package DWR.StateMod;
+
+import java.util.List;
+import java.util.Vector;
+
+import junit.framework.TestCase;
+import RTi.Util.String.StringUtil;
+
+/**
+Check that StateMod_TS_FixedWidthParser returns the same values as StringUtil.fixedRead(), which was used
+to parse StateMod time series files before the parser was added.
+*/
+public class StateMod_TS_FixedWidthParserTest extends TestCase
+{
+
+/**
+Monthly data line format (year, identifier, 12 values), as used by StateMod_TS.readTimeSeriesList().
+*/
+private int [] getMonthlyFormat ()
+{	int [] format = new int[14];
+	format[0] = StringUtil.TYPE_INTEGER;
+	format[1] = StringUtil.TYPE_STRING;
+	for ( int i = 2; i <= 13; i++ ) {
+		format[i] = StringUtil.TYPE_DOUBLE;
+	}
+	return format;
+}
+
+private int [] getMonthlyFormatWidths ()
+{	int [] format_w = new int[14];
+	format_w[0] = 5;
+	format_w[1] = 12;
+	for ( int i = 2; i <= 13; i++ ) {
+		format_w[i] = 8;
+	}
+	return format_w;
+}
+
+/**
+Daily data line format (year, month, space, identifier, 31 values), as used by StateMod_TS.readTimeSeriesList().
+*/
+private int [] getDailyFormat ()
+{	int [] format = new int[35];
+	format[0] = StringUtil.TYPE_INTEGER;
+	format[1] = StringUtil.TYPE_INTEGER;
+	format[2] = StringUtil.TYPE_SPACE;
+	format[3] = StringUtil.TYPE_STRING;
+	for ( int i = 4; i <= 34; i++ ) {
+		format[i] = StringUtil.TYPE_DOUBLE;
+	}
+	return format;
+}
+
+private int [] getDailyFormatWidths ()
+{	int [] format_w = new int[35];
+	format_w[0] = 4;
+	format_w[1] = 4;
+	format_w[2] = 1;
+	format_w[3] = 12;
+	for ( int i = 4; i <= 34; i++ ) {
+		format_w[i] = 8;
+	}
+	return format_w;
+}
+
+/**
+Parse a line with StringUtil.fixedRead() and with StateMod_TS_FixedWidthParser and check that the values match.
+*/
+private void checkLine ( String line, int [] format, int [] format_w )
+{	List<Object> v = new Vector<Object>();
+	StringUtil.fixedRead ( line, format, format_w, v );
+	int start = 0;
+	int iv = 0;
+	for ( int i = 0; i < format.length; i++ ) {
+		if ( format[i] == StringUtil.TYPE_INTEGER ) {
+			assertEquals ( "Field " + i + " of \"" + line + "\"", ((Integer)v.get(iv++)).intValue(),
+				StateMod_TS_FixedWidthParser.parseInt(line, start, format_w[i]) );
+		}
+		else if ( format[i] == StringUtil.TYPE_DOUBLE ) {
+			// Compare exactly - the parser must give the same double, not just a close value.
+			assertEquals ( "Field " + i + " of \"" + line + "\"", ((Double)v.get(iv++)).doubleValue(),
+				StateMod_TS_FixedWidthParser.parseDouble(line, start, format_w[i]), 0.0 );
+		}
+		else if ( format[i] == StringUtil.TYPE_STRING ) {
+			assertEquals ( "Field " + i + " of \"" + line + "\"", ((String)v.get(iv++)).trim(),
+				StateMod_TS_FixedWidthParser.parseString(line, start, format_w[i]) );
+		}
+		start += format_w[i];
+	}
+	assertEquals ( iv, v.size() );
+}
+
+/**
+Build a line from field values, right-justifying each value in its field.
+@param fields field values (with the year and identifier first).
+@param format_w field widths.
+*/
+private String buildMonthlyLine ( String [] fields, int [] format_w )
+{	StringBuffer b = new StringBuffer();
+	for ( int i = 0; i < fields.length; i++ ) {
+		if ( i == 1 ) {
+			// Identifier is left-justified after a space.
+			b.append ( StringUtil.formatString(" " + fields[i], "%-" + format_w[i] + "." + format_w[i] + "s") );
+		}
+		else {
+			b.append ( StringUtil.formatString(fields[i], "%" + format_w[i] + "." + format_w[i] + "s") );
+		}
+	}
+	return b.toString();
+}
+
+public void testMonthlyLine ()
+{	String [] fields = { "1950", "09152500", "1234.", "0.", "12.5", "-345.67", "0.001", "100000.",
+		"7654321.", "0.5", "1.25", "3", "4.00", "5." };
+	checkLine ( buildMonthlyLine(fields, getMonthlyFormatWidths()), getMonthlyFormat(), getMonthlyFormatWidths() );
+}
+
+public void testMonthlyLineWithBlankFields ()
+{	String [] fields = { "1950", "09152500", "1.", "", "3.", "", "", "6.", "7.", "", "9.", "10.", "", "12." };
+	checkLine ( buildMonthlyLine(fields, getMonthlyFormatWidths()), getMonthlyFormat(), getMonthlyFormatWidths() );
+}
+
+public void testMonthlyLineNegatives ()
+{	String [] fields = { "-1950", "NEG_ID", "-1.", "-0.0", "-12.34", "-99999.", "-.5", "-1234567", "-0",
+		"-999.", "-1.01", "-2.02", "-3.03", "-4.04" };
+	checkLine ( buildMonthlyLine(fields, getMonthlyFormatWidths()), getMonthlyFormat(), getMonthlyFormatWidths() );
+}
+
+public void testMonthlyShortLine ()
+{	String [] fields = { "1950", "09152500", "1.5", "2.5", "3.5" };
+	String line = buildMonthlyLine(fields, getMonthlyFormatWidths());
+	// Line ends after the third value.
+	checkLine ( line, getMonthlyFormat(), getMonthlyFormatWidths() );
+	// Line ends in the middle of the third value.
+	checkLine ( line.substring(0, line.length() - 2), getMonthlyFormat(), getMonthlyFormatWidths() );
+	// Line ends in the identifier.
+	checkLine ( line.substring(0, 10), getMonthlyFormat(), getMonthlyFormatWidths() );
+	checkLine ( "", getMonthlyFormat(), getMonthlyFormatWidths() );
+}
+
+public void testDailyLine ()
+{	StringBuffer b = new StringBuffer ( "1950   1 09152500    " );
+	for ( int i = 0; i < 31; i++ ) {
+		b.append ( StringUtil.formatString((i - 15)*1.37, "%8.2f") );
+	}
+	checkLine ( b.toString(), getDailyFormat(), getDailyFormatWidths() );
+}
+
+public void testDailyShortLine ()
+{	// February - only 28 values.
+	StringBuffer b = new StringBuffer ( "1951   2 09152500    " );
+	for ( int i = 0; i < 28; i++ ) {
+		b.append ( StringUtil.formatString(i*10.1, "%8.1f") );
+	}
+	checkLine ( b.toString(), getDailyFormat(), getDailyFormatWidths() );
+}
+
+public void testHeaderLine ()
+{	// Header format "i5x1i4x5i5x1i4s5s5" - month/year, month/year, units, year type.
+	String line = "    1/1950  -     12/2005 ACFT  CYR";
+	List<Object> v = StringUtil.fixedRead ( line, "i5x1i4x5i5x1i4s5s5" );
+	assertEquals ( ((Integer)v.get(0)).intValue(), StateMod_TS_FixedWidthParser.parseInt(line, 0, 5) );
+	assertEquals ( ((Integer)v.get(1)).intValue(), StateMod_TS_FixedWidthParser.parseInt(line, 6, 4) );
+	assertEquals ( ((Integer)v.get(2)).intValue(), StateMod_TS_FixedWidthParser.parseInt(line, 15, 5) );
+	assertEquals ( ((Integer)v.get(3)).intValue(), StateMod_TS_FixedWidthParser.parseInt(line, 21, 4) );
+	assertEquals ( ((String)v.get(4)).trim(), StateMod_TS_FixedWidthParser.parseString(line, 25, 5) );
+	assertEquals ( ((String)v.get(5)).trim(), StateMod_TS_FixedWidthParser.parseString(line, 30, 5) );
+}
+
+public void testManyDigitsAndExponent ()
+{	// Values that are converted with Double.parseDouble() rather than the exact mantissa path.
+	String line = "1.2345678901234567891E5 -1.5E-3";
+	assertEquals ( Double.parseDouble("1.2345678901234567891E5"),
+		StateMod_TS_FixedWidthParser.parseDouble(line, 0, 24), 0.0 );
+	assertEquals ( Double.parseDouble("-1.5E-3"), StateMod_TS_FixedWidthParser.parseDouble(line, 24, 8), 0.0 );
+	line = "  0.30000000000000004";
+	assertEquals ( Double.parseDouble("0.30000000000000004"), StateMod_TS_FixedWidthParser.parseDouble(line, 0, 21), 0.0 );
+}
+
+}
@@ -0,0 +1,127 @@
+package DWR.StateMod;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Random;
+
+import junit.framework.TestCase;
+import RTi.Util.String.StringUtil;
+
+/**
+Check that StateMod_TS_LineFormatter gives the same output as StringUtil.formatString() with the formats that
+were used to write StateMod time series files before the formatter was added, and that the precision
+is determined the same as StateMod_TS.getPrecision().
+*/
+public class StateMod_TS_LineFormatterTest extends TestCase
+{
+
+/**
+Return the line that has been formatted and clear the formatter.
+*/
+private String getLine ( StateMod_TS_LineFormatter formatter )
+{	StringWriter s = new StringWriter();
+	PrintWriter out = new PrintWriter ( s );
+	formatter.println ( out );
+	out.flush();
+	String line = s.toString();
+	// Remove the line separator.
+	return line.substring ( 0, line.length() - System.getProperty("line.separator").length() );
+}
+
+/**
+Check that a value is formatted the same as StringUtil.formatString() for a width and precision,
+with and without the decimal point forced, and that the returned value is the printed value.
+*/
+private void checkDouble ( StateMod_TS_LineFormatter formatter, double value, int width, int precision )
+{	boolean [] forceDecimal = { true, false };
+	for ( int i = 0; i < forceDecimal.length; i++ ) {
+		String format = (forceDecimal[i] ? "%#" : "%") + width + "." + precision + "f";
+		String expected = StringUtil.formatString ( value, format );
+		double printed = formatter.appendDouble ( value, width, precision, forceDecimal[i] );
+		assertEquals ( value + " " + format, expected, getLine(formatter) );
+		if ( !Double.isNaN(value) ) {
+			assertEquals ( value + " " + format, Double.parseDouble(expected), printed, 0.0 );
+		}
+	}
+}
+
+public void testAppendDoubleSpecialValues ()
+{	StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
+	double [] values = {
+		0.0, -0.0, 1.0, -1.0, 0.5, 1.5, 2.5, -0.5, 0.125, 0.375, -0.125, 0.005, -0.004, -0.0049, 0.0049,
+		-999.0, 99999.0, 999999.0, 12345678.0, 123456789.0, -12345678.0, 1.0e10, 1.0e-10, -1.0e-10,
+		Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MAX_VALUE, Double.MIN_VALUE };
+	for ( int i = 0; i < values.length; i++ ) {
+		for ( int precision = 0; precision <= 4; precision++ ) {
+			checkDouble ( formatter, values[i], 8, precision );
+			checkDouble ( formatter, values[i], 10, precision );
+		}
+	}
+}
+
+public void testAppendDoubleRandomValues ()
+{	StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
+	Random random = new Random ( 19580427 );
+	for ( int i = 0; i < 20000; i++ ) {
+		// Values over several orders of magnitude, including values with few decimal digits as read from files.
+		double value = (random.nextDouble() - 0.3)*Math.pow(10.0, random.nextInt(8) - 2);
+		if ( (i%2) == 0 ) {
+			value = Math.round(value*100.0)/100.0;
+		}
+		int precision = random.nextInt(5);
+		checkDouble ( formatter, value, 8, precision );
+		checkDouble ( formatter, value, 10, precision );
+	}
+}
+
+public void testAppendLine ()
+{	// Monthly line as written by StateMod_TS.writeTimeSeriesList(), compared with the original formats.
+	StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
+	formatter.appendInt ( 1950, 4 );
+	formatter.append ( " " );
+	formatter.appendString ( "09152500_LONG_ID", 12 );
+	formatter.appendDouble ( 1234.5, 8, 0, true );
+	formatter.appendDouble ( -12.25, 8, 2, true );
+	formatter.appendDouble ( 17.0, 10, 0, true );
+	String expected = StringUtil.formatString(1950,"%4d") + " " +
+		StringUtil.formatString("09152500_LONG_ID","%-12.12s") + StringUtil.formatString(1234.5,"%#8.0f") +
+		StringUtil.formatString(-12.25,"%#8.2f") + StringUtil.formatString(17.0,"%#10.0f");
+	assertEquals ( expected, getLine(formatter) );
+	// Short identifier and negative year.
+	formatter.appendInt ( -5, 4 );
+	formatter.appendString ( "ID", 12 );
+	assertEquals ( StringUtil.formatString(-5,"%4d") + StringUtil.formatString("ID","%-12.12s"), getLine(formatter) );
+}
+
+public void testGetPrecision ()
+{	double [] values = { 0.0, 0.5, 12.345, 999.99, 12345.6, 123456.7, 1234567.8, 99999999.0, -0.5, -12345.6 };
+	StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
+	int [] requested = { StateMod_TS.PRECISION_DEFAULT, 0, 2, -1, -3 };
+	for ( int i = 0; i < requested.length; i++ ) {
+		for ( int j = 0; j < values.length; j++ ) {
+			assertEquals ( StateMod_TS.getPrecision(requested[i], 8, values[j]),
+				formatter.getPrecision(requested[i], 8, values[j]) );
+			assertEquals ( StateMod_TS.getPrecision(requested[i], 10, values[j]),
+				formatter.getPrecision(requested[i], 10, values[j]) );
+		}
+	}
+}
+
+public void testGetPrecisionWithUnits ()
+{	// The first lookup for units uses the default precision and later lookups use the units precision,
+	// the same as StateMod_TS.getPrecision(), so each file must be written with a new formatter.
+	String [] units = { "ACFT", "CFS" };
+	double [] values = { 1234567.8, 0.5, 12.345, 123456.7 };
+	for ( int iunits = 0; iunits < units.length; iunits++ ) {
+		// Look up other units so that StateMod_TS does not use a saved lookup for the units.
+		StateMod_TS.getPrecision ( StateMod_TS.PRECISION_USE_UNITS, 8, 1.0, "TEST_OTHER_UNITS" );
+		StateMod_TS_LineFormatter formatter = new StateMod_TS_LineFormatter();
+		for ( int j = 0; j < values.length; j++ ) {
+			assertEquals ( units[iunits] + " " + values[j],
+				StateMod_TS.getPrecision(StateMod_TS.PRECISION_USE_UNITS, 8, values[j], units[iunits]),
+				formatter.getPrecision(StateMod_TS.PRECISION_USE_UNITS, 8, values[j], units[iunits]) );
+		}
+	}
+}
+
+}
@@ -0,0 +1,130 @@
+package DWR.StateMod;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import junit.framework.TestCase;
+import RTi.TS.TS;
+import RTi.Util.String.StringUtil;
+import RTi.Util.Time.DateTime;
+
+/**
+Check that StateMod_TimeSeriesSnapshot gives back the time series that were saved, including supported
+properties, and that the snapshot is not used for a time series file that has changed since it was saved.
+*/
+public class StateMod_TimeSeriesSnapshotTest extends TestCase
+{
+
+/**
+Check that two lists of time series have the same identifiers, periods, and data values.
+*/
+private void assertSameTimeSeries ( List<TS> expected, List<TS> actual )
+{	assertNotNull ( actual );
+	assertEquals ( expected.size(), actual.size() );
+	for ( int its = 0; its < expected.size(); its++ ) {
+		TS ts1 = expected.get(its);
+		TS ts2 = actual.get(its);
+		assertEquals ( ts1.getIdentifierString(), ts2.getIdentifierString() );
+		assertEquals ( ts1.getDataUnits(), ts2.getDataUnits() );
+		assertTrue ( ts1.getDate1().equals(ts2.getDate1()) );
+		assertTrue ( ts1.getDate2().equals(ts2.getDate2()) );
+		for ( DateTime date = new DateTime(ts1.getDate1()); date.lessThanOrEqualTo(ts1.getDate2()); date.addMonth(1) ) {
+			assertEquals ( ts1.getIdentifierString() + " " + date, ts1.getDataValue(date), ts2.getDataValue(date), 0.0 );
+		}
+	}
+}
+
+/**
+Create a temporary file that is deleted when the tests exit.
+*/
+private File createTempFile ( String extension )
+throws IOException
+{	File file = File.createTempFile ( "StateMod_TimeSeriesSnapshotTest", extension );
+	file.deleteOnExit();
+	return file;
+}
+
+/**
+Write a calendar year monthly time series file.
+*/
+private File writeMonthlyFile ( int numts, int year1, int nyears )
+throws IOException
+{	File file = createTempFile ( ".stm" );
+	PrintWriter out = new PrintWriter ( new FileWriter(file) );
+	try {
+		out.println ( "# Test monthly file" );
+		out.println ( StringUtil.formatString(1,"%5d") + "/" + StringUtil.formatString(year1,"%4d") + "  -  " +
+			StringUtil.formatString(12,"%5d") + "/" + StringUtil.formatString(year1 + nyears - 1,"%4d") + " " +
+			StringUtil.formatString("ACFT","%-4.4s") + StringUtil.formatString("CYR","%5.5s") );
+		for ( int year = year1; year < (year1 + nyears); year++ ) {
+			for ( int its = 0; its < numts; its++ ) {
+				StringBuffer b = new StringBuffer();
+				b.append ( StringUtil.formatString(year,"%5d") );
+				b.append ( StringUtil.formatString(" S" + (100 + its),"%-12.12s") );
+				for ( int month = 1; month <= 12; month++ ) {
+					b.append ( StringUtil.formatString(((its*7 + year*13 + month*3)%1000)*1.5 - 200.0,"%8.1f") );
+				}
+				out.println ( b.toString() );
+			}
+		}
+	}
+	finally {
+		out.close();
+	}
+	return file;
+}
+
+public void testWriteAndRead ()
+throws Exception
+{	File tsfile = writeMonthlyFile ( 5, 1990, 3 );
+	List<TS> tslist = StateMod_TS.readTimeSeriesList ( tsfile.getPath(), null, null, null, true );
+	tslist.get(0).setProperty ( "target", "Min" );
+	tslist.get(1).setProperty ( "Count", new Integer(3) );
+	StateMod_TimeSeriesSnapshot snapshot = new StateMod_TimeSeriesSnapshot();
+	assertFalse ( snapshot.isChanged() );
+	snapshot.addTimeSeriesList ( tsfile.getPath(), tslist, false );
+	assertTrue ( snapshot.isChanged() );
+	File snapshotFile = createTempFile ( StateMod_TimeSeriesSnapshot.SNAPSHOT_FILE_EXTENSION );
+	snapshot.writeSnapshot ( snapshotFile.getPath() );
+	StateMod_TimeSeriesSnapshot snapshot2 = StateMod_TimeSeriesSnapshot.readSnapshot ( snapshotFile.getPath() );
+	assertNotNull ( snapshot2 );
+	assertFalse ( snapshot2.isChanged() );
+	List<TS> tslist2 = snapshot2.getTimeSeriesList ( tsfile.getPath() );
+	assertSameTimeSeries ( tslist, tslist2 );
+	assertEquals ( "Min", tslist2.get(0).getProperty("target") );
+	assertEquals ( new Integer(3), tslist2.get(1).getProperty("Count") );
+	// The list is only given out once.
+	assertNull ( snapshot2.getTimeSeriesList(tsfile.getPath()) );
+}
+
+public void testChangedFile ()
+throws Exception
+{	File tsfile = writeMonthlyFile ( 3, 2000, 2 );
+	List<TS> tslist = StateMod_TS.readTimeSeriesList ( tsfile.getPath(), null, null, null, true );
+	StateMod_TimeSeriesSnapshot snapshot = new StateMod_TimeSeriesSnapshot();
+	snapshot.addTimeSeriesList ( tsfile.getPath(), tslist, false );
+	File snapshotFile = createTempFile ( StateMod_TimeSeriesSnapshot.SNAPSHOT_FILE_EXTENSION );
+	snapshot.writeSnapshot ( snapshotFile.getPath() );
+	// Change the modification time, as when the file is edited, so that the file is parsed again.
+	assertTrue ( tsfile.setLastModified(tsfile.lastModified() - 60000L) );
+	StateMod_TimeSeriesSnapshot snapshot2 = StateMod_TimeSeriesSnapshot.readSnapshot ( snapshotFile.getPath() );
+	assertNotNull ( snapshot2 );
+	assertNull ( snapshot2.getTimeSeriesList(tsfile.getPath()) );
+}
+
+public void testUnsupportedProperty ()
+throws Exception
+{	File tsfile = writeMonthlyFile ( 2, 2000, 1 );
+	List<TS> tslist = StateMod_TS.readTimeSeriesList ( tsfile.getPath(), null, null, null, true );
+	tslist.get(1).setProperty ( "Date", new DateTime(DateTime.DATE_CURRENT) );
+	StateMod_TimeSeriesSnapshot snapshot = new StateMod_TimeSeriesSnapshot();
+	snapshot.addTimeSeriesList ( tsfile.getPath(), tslist, false );
+	// The list is left out of the snapshot so the file is parsed the next time.
+	assertFalse ( snapshot.isChanged() );
+	assertNull ( snapshot.getTimeSeriesList(tsfile.getPath()) );
+}
+
+}